@@ -0,0 +1,23 @@
+package com.example;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 基准测试入口：支持 JMH 的全部命令行参数，未指定 -rf/-rff 时结果以 JSON 写入 jmh-result.json，
+ * 便于不同构建之间对比
+ */
+public class BenchmarkMain {
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cmd = new CommandLineOptions(args);
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.parent(cmd);
+        if (!cmd.getResultFormat().hasValue()) builder.resultFormat(ResultFormatType.JSON);
+        if (!cmd.getResult().hasValue()) builder.result("jmh-result.json");
+        Options options = builder.build();
+        new Runner(options).run();
+    }
+}
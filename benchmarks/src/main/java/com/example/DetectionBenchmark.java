@@ -0,0 +1,82 @@
+package com.example;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 文件类型识别：按扩展名过滤（拖放大量文件时逐个调用）和按文件头识别容器格式
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DetectionBenchmark {
+    private static final File[] NAMES = {
+            new File("/media/movies/Some.Movie.2019.1080p.mkv"),
+            new File("/media/shows/S01E02.MP4"),
+            new File("/media/music/track01.flac"),
+            new File("/media/photos/IMG_0001.JPG"),
+            new File("/media/misc/readme"),
+            new File("/media/clips/clip.webm"),
+            new File("/media/clips/capture.FLV"),
+            new File("/media/docs/notes.txt"),
+    };
+
+    @Param({ "mp4", "mkv", "flv" })
+    public String format;
+
+    private ByteBuffer head;
+    private Path file;
+    private int cursor;
+
+    @Setup
+    public void setup() throws IOException {
+        switch (format) {
+            case "mkv":
+                file = SampleMedia.mkv("detect.mkv", 1 << 20);
+                break;
+            case "flv":
+                file = SampleMedia.flv("detect.flv");
+                break;
+            default:
+                file = SampleMedia.mp4("detect.mp4", 16, 1 << 20);
+                break;
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        int length = Math.min(bytes.length, ContainerSniffer.SNIFF_BYTES);
+        head = ByteBuffer.allocate(length).put(bytes, 0, length);
+        head.flip();
+    }
+
+    @Benchmark
+    public boolean isVideoFile() {
+        return FileUtils.isVideoFile(NAMES[cursor++ & (NAMES.length - 1)]);
+    }
+
+    @Benchmark
+    public ContainerFormat sniffBuffer() {
+        return ContainerSniffer.sniff(head.duplicate());
+    }
+
+    @Benchmark
+    public ContainerFormat sniffFile() throws IOException {
+        return ContainerSniffer.sniff(file);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 每帧都会执行的时间文本格式化与进度计算，String.format 版本作为对照基线
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FormattingBenchmark {
+    private static final int MASK = 1023;
+
+    private final TimeFormatter formatter = new TimeFormatter();
+    private final long[] positions = new long[MASK + 1];
+    private final char[] buffer = new char[32];
+    private long total;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        total = 2 * 3600_000L + 17 * 60_000L + 31_000L;
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = total * i / positions.length;
+        }
+    }
+
+    private long nextPosition() {
+        return positions[cursor++ & MASK];
+    }
+
+    @Benchmark
+    public String formatCurrentAndTotal() {
+        return formatter.format(nextPosition(), total);
+    }
+
+    @Benchmark
+    public String formatTime() {
+        return TimeFormatter.formatTime(nextPosition());
+    }
+
+    @Benchmark
+    public int appendIntoBuffer() {
+        return TimeFormatter.append(buffer, 0, nextPosition());
+    }
+
+    @Benchmark
+    public String formatBaseline() {
+        long seconds = nextPosition() / 1000;
+        return String.format("%02d:%02d:%02d", seconds / 3600, seconds / 60 % 60, seconds % 60);
+    }
+
+    @Benchmark
+    public double progressOf() {
+        return PlaybackClock.progressOf(nextPosition(), total);
+    }
+}
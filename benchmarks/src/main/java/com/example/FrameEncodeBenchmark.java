@@ -0,0 +1,80 @@
+package com.example;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 画面导出的后台编码耗时：GIF 片段单帧（480x270）的量化加 LZW 压缩，以及 1080p 截图的 PNG 编码
+ * 片段录制时每个编码线程需要在 1/帧率 内完成一帧，否则缓冲池会被取空而丢帧
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FrameEncodeBenchmark {
+    private static final int CLIP_WIDTH = 480;
+    private static final int CLIP_HEIGHT = 270;
+    private static final int SHOT_WIDTH = 1920;
+    private static final int SHOT_HEIGHT = 1080;
+
+    private int[] clipFrame;
+    private int[] screenshot;
+    private final OutputStream sink = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    @Setup
+    public void setup() {
+        clipFrame = syntheticFrame(CLIP_WIDTH, CLIP_HEIGHT);
+        screenshot = syntheticFrame(SHOT_WIDTH, SHOT_HEIGHT);
+    }
+
+    /**
+     * 渐变背景加少量噪点，近似真实画面的压缩难度
+     */
+    private static int[] syntheticFrame(int width, int height) {
+        Random random = new Random(42);
+        int[] argb = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int noise = random.nextInt(16);
+                int r = Math.min(255, x * 255 / width + noise);
+                int g = Math.min(255, y * 255 / height + noise);
+                int b = Math.min(255, (x + y) * 128 / (width + height) + 64 + noise);
+                argb[y * width + x] = 0xFF000000 | r << 16 | g << 8 | b;
+            }
+        }
+        return argb;
+    }
+
+    @Benchmark
+    public byte[] gifClipFrame() {
+        return GifEncoder.encodeFrame(clipFrame, CLIP_WIDTH, CLIP_HEIGHT);
+    }
+
+    @Benchmark
+    public OutputStream pngScreenshot() throws IOException {
+        PngEncoder.write(screenshot, SHOT_WIDTH, SHOT_HEIGHT, sink);
+        return sink;
+    }
+}
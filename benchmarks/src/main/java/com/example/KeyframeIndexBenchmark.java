@@ -0,0 +1,63 @@
+package com.example;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 关键帧索引：命中磁盘缓存时的加载耗时，以及拖动进度条时的最近关键帧查找
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class KeyframeIndexBenchmark {
+    private static final int MASK = 1023;
+
+    @Param({ "256", "16384" })
+    public int keyframes;
+
+    private File file;
+    private KeyframeIndex index;
+    private final long[] targets = new long[MASK + 1];
+    private int cursor;
+
+    @Setup
+    public void setup() throws IOException {
+        file = SampleMedia.mp4("keyframes-" + keyframes + ".mp4", keyframes, 1024).toFile();
+        index = KeyframeIndex.load(file); // 第一次加载会写入缓存
+        long duration = keyframes * 2000L;
+        for (int i = 0; i < targets.length; i++) {
+            targets[i] = duration * i / targets.length + 777;
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public KeyframeIndex loadCached() throws IOException {
+        return KeyframeIndex.load(file);
+    }
+
+    @Benchmark
+    public long nearest() {
+        return index.nearest(targets[cursor++ & MASK]);
+    }
+
+    @Benchmark
+    public long next() {
+        return index.next(targets[cursor++ & MASK]);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 容器元数据解析：媒体库扫描时对每个文件调用一次
+ * mdat/Cluster 故意放在元数据之前或之间，用来衡量跳过大块数据的开销
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProbeBenchmark {
+    @Param({ "mp4", "mkv", "flv" })
+    public String format;
+
+    private Path file;
+
+    @Setup
+    public void setup() throws IOException {
+        switch (format) {
+            case "mkv":
+                file = SampleMedia.mkv("probe.mkv", 8 << 20);
+                break;
+            case "flv":
+                file = SampleMedia.flv("probe.flv");
+                break;
+            default:
+                file = SampleMedia.mp4("probe.mp4", 2048, 8 << 20);
+                break;
+        }
+    }
+
+    @Benchmark
+    public MediaInfo probe() throws IOException {
+        return ContainerProbe.probe(file);
+    }
+}
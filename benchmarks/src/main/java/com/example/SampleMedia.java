@@ -0,0 +1,173 @@
+package com.example;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 生成基准测试用的最小媒体文件（只有容器结构，没有真实的音视频数据）
+ * 所有文件和播放器缓存都放在临时目录中，不影响用户的 ~/.dogplayer
+ */
+public final class SampleMedia {
+    private static final Path HOME;
+
+    static {
+        try {
+            HOME = Files.createTempDirectory("dogplayer-bench");
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+        // 必须在 AppPaths 初始化之前设置
+        System.setProperty("dogplayer.home", HOME.resolve("home").toString());
+    }
+
+    private SampleMedia() {
+    }
+
+    /**
+     * @return 临时工作目录
+     */
+    public static Path home() {
+        return HOME;
+    }
+
+    /**
+     * 写入一个 MP4：一条视频轨道（可选关键帧表）和一条音频轨道，mdat 位于 moov 之前
+     * @param name 文件名
+     * @param keyframes 关键帧数量（每 60 个样本一个，30fps）
+     * @param mdatBytes mdat 的大小
+     * @return 文件路径
+     * @throws IOException 写入失败
+     */
+    public static Path mp4(String name, int keyframes, int mdatBytes) throws IOException {
+        int samples = keyframes * 60;
+        ByteBuffer stss = ByteBuffer.allocate(8 + 4 * keyframes);
+        stss.putInt(0).putInt(keyframes);
+        for (int i = 0; i < keyframes; i++) stss.putInt(i * 60 + 1);
+        byte[] stts = ByteBuffer.allocate(16).putInt(0).putInt(1).putInt(samples).putInt(3000).array();
+
+        byte[] videoEntry = box("avc1", concat(new byte[6], new byte[] { 0, 1 }, new byte[16],
+                ByteBuffer.allocate(4).putShort((short) 1920).putShort((short) 1080).array(), new byte[50]));
+        byte[] videoTrak = box("trak", concat(
+                fullBox("tkhd", concat(ByteBuffer.allocate(20).putInt(0).putInt(0).putInt(1).putInt(0).putInt(0).array(),
+                        new byte[52], ByteBuffer.allocate(8).putInt(1920 << 16).putInt(1080 << 16).array())),
+                box("mdia", concat(
+                        fullBox("mdhd", ByteBuffer.allocate(20).putInt(0).putInt(0).putInt(90000).putInt(samples * 3000).array()),
+                        fullBox("hdlr", concat(new byte[4], ascii("vide"), new byte[14])),
+                        box("minf", box("stbl", concat(
+                                fullBox("stsd", concat(ByteBuffer.allocate(4).putInt(1).array(), videoEntry)),
+                                box("stts", stts),
+                                box("stss", stss.array()))))))));
+        byte[] audioEntry = box("mp4a", concat(new byte[6], new byte[] { 0, 1 }, new byte[8],
+                ByteBuffer.allocate(12).putShort((short) 2).putShort((short) 16).putInt(0).putInt(48000 << 16).array()));
+        byte[] audioTrak = box("trak", concat(
+                fullBox("tkhd", concat(ByteBuffer.allocate(20).putInt(0).putInt(0).putInt(2).putInt(0).putInt(0).array(), new byte[60])),
+                box("mdia", concat(
+                        fullBox("mdhd", ByteBuffer.allocate(20).putInt(0).putInt(0).putInt(48000).putInt(samples * 1600).array()),
+                        fullBox("hdlr", concat(new byte[4], ascii("soun"), new byte[14])),
+                        box("minf", box("stbl", fullBox("stsd", concat(ByteBuffer.allocate(4).putInt(1).array(), audioEntry))))))));
+        byte[] mvhd = fullBox("mvhd", concat(ByteBuffer.allocate(16).putInt(0).putInt(0).putInt(1000).putInt(samples * 100 / 3).array(),
+                new byte[80]));
+        byte[] file = concat(box("ftyp", concat(ascii("isom"), new byte[4], ascii("isom"))),
+                box("mdat", new byte[mdatBytes]), box("moov", concat(mvhd, videoTrak, audioTrak)));
+        return write(name, file);
+    }
+
+    /**
+     * 写入一个 Matroska：Info、Tracks 和一个较大的 Cluster
+     * @param name 文件名
+     * @param clusterBytes Cluster 的大小
+     * @return 文件路径
+     * @throws IOException 写入失败
+     */
+    public static Path mkv(String name, int clusterBytes) throws IOException {
+        byte[] ebml = element(0x1A45DFA3, element(0x4282, ascii("matroska")));
+        byte[] info = element(0x1549A966, concat(element(0x2AD7B1, ByteBuffer.allocate(4).putInt(1_000_000).array()),
+                element(0x4489, ByteBuffer.allocate(8).putDouble(5_400_000).array())));
+        byte[] video = element(0xAE, concat(element(0xD7, new byte[] { 1 }), element(0x83, new byte[] { 1 }),
+                element(0x86, ascii("V_MPEG4/ISO/AVC")), element(0xE0, concat(
+                        element(0xB0, ByteBuffer.allocate(2).putShort((short) 1280).array()),
+                        element(0xBA, ByteBuffer.allocate(2).putShort((short) 720).array())))));
+        byte[] audio = element(0xAE, concat(element(0xD7, new byte[] { 2 }), element(0x83, new byte[] { 2 }),
+                element(0x86, ascii("A_AAC")), element(0xE1, concat(
+                        element(0xB5, ByteBuffer.allocate(4).putFloat(48000f).array()),
+                        element(0x9F, new byte[] { 2 })))));
+        byte[] tracks = element(0x1654AE6B, concat(video, audio));
+        byte[] segment = element(0x18538067, concat(info, tracks, element(0x1F43B675, new byte[clusterBytes])));
+        return write(name, concat(ebml, segment));
+    }
+
+    /**
+     * 写入一个只有 onMetaData 脚本标签的 FLV
+     * @param name 文件名
+     * @return 文件路径
+     * @throws IOException 写入失败
+     */
+    public static Path flv(String name) throws IOException {
+        ByteArrayOutputStream meta = new ByteArrayOutputStream();
+        meta.write(2);
+        amfString(meta, "onMetaData");
+        meta.write(8);
+        meta.write(new byte[] { 0, 0, 0, 6 });
+        String[] keys = { "duration", "width", "height", "videocodecid", "audiocodecid", "videodatarate" };
+        double[] values = { 5400, 1920, 1080, 7, 10, 4000 };
+        for (int i = 0; i < keys.length; i++) {
+            amfString(meta, keys[i]);
+            meta.write(0);
+            meta.write(ByteBuffer.allocate(8).putDouble(values[i]).array());
+        }
+        amfString(meta, "");
+        meta.write(9);
+        byte[] data = meta.toByteArray();
+        ByteBuffer tag = ByteBuffer.allocate(11 + data.length + 4);
+        tag.put((byte) 18).put((byte) (data.length >>> 16)).put((byte) (data.length >>> 8)).put((byte) data.length)
+                .put(new byte[7]).put(data).putInt(11 + data.length);
+        byte[] header = { 'F', 'L', 'V', 1, 5, 0, 0, 0, 9, 0, 0, 0, 0 };
+        return write(name, concat(header, tag.array()));
+    }
+
+    private static Path write(String name, byte[] data) throws IOException {
+        Path file = HOME.resolve(name);
+        Files.write(file, data);
+        return file;
+    }
+
+    private static byte[] box(String type, byte[] body) {
+        return ByteBuffer.allocate(8 + body.length).putInt(8 + body.length).put(ascii(type)).put(body).array();
+    }
+
+    private static byte[] fullBox(String type, byte[] body) {
+        return box(type, concat(new byte[4], body));
+    }
+
+    private static byte[] element(int id, byte[] body) {
+        byte[] idBytes = ByteBuffer.allocate(4).putInt(id).array();
+        int skip = 0;
+        while (idBytes[skip] == 0) skip++;
+        ByteBuffer out = ByteBuffer.allocate(4 - skip + 8 + body.length);
+        out.put(idBytes, skip, 4 - skip);
+        out.putLong(0x0100000000000000L | body.length); // 8 字节长度编码
+        out.put(body);
+        return out.array();
+    }
+
+    private static void amfString(ByteArrayOutputStream out, String text) {
+        byte[] bytes = ascii(text);
+        out.write(bytes.length >>> 8);
+        out.write(bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) out.write(part, 0, part.length);
+        return out.toByteArray();
+    }
+}
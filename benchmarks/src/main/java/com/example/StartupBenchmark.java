@@ -0,0 +1,111 @@
+package com.example;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 启动基准测试：反复启动播放器进程，测量从进程创建到主窗口首帧（或命令行文件的首个画面）的耗时
+ * 通过 JDK_JAVA_OPTIONS 打开 dogplayer.startup.report/exit，播放器记录完成后自动退出
+ * 需要图形环境，不属于 JMH 测试集
+ *
+ * 使用方法：
+ *   java -cp benchmarks/target/benchmarks.jar com.example.StartupBenchmark
+ *        [--runs N] [--file 视频] [--out startup-result.json] [-- 启动命令...]
+ * 启动命令默认为 target/dogplayer/bin/dogplayer（mvn -Pfast-start package 生成的镜像）
+ */
+public class StartupBenchmark {
+    private static final String PREFIX = "dogplayer-startup ";  // 播放器输出的耗时行前缀
+    private static final long TIMEOUT_SECONDS = 60;              // 单次启动的最长等待时间
+
+    public static void main(String[] args) throws Exception {
+        int runs = 10;
+        String file = null;
+        Path out = Paths.get("startup-result.json");
+        List<String> command = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--")) {
+                command.addAll(Arrays.asList(args).subList(i + 1, args.length));
+                break;
+            } else if (args[i].equals("--runs")) {
+                runs = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--file")) {
+                file = args[++i];
+            } else if (args[i].equals("--out")) {
+                out = Paths.get(args[++i]);
+            } else {
+                throw new IllegalArgumentException("未知参数: " + args[i]);
+            }
+        }
+        if (command.isEmpty()) command.add(Paths.get("target", "dogplayer", "bin", "dogplayer").toString());
+        if (file != null) command.add(file);
+        String stage = file != null ? "video" : "window";
+
+        long[] external = new long[runs];   // 从进程创建到读到耗时行
+        long[] reported = new long[runs];   // 播放器自己报告的耗时（从进程启动算起）
+        for (int run = 0; run < runs; run++) {
+            long[] result = launchOnce(command, stage);
+            external[run] = result[0];
+            reported[run] = result[1];
+            System.out.println("第 " + (run + 1) + "/" + runs + " 次: " + external[run] + " ms（播放器报告 "
+                    + reported[run] + " ms）");
+        }
+
+        Arrays.sort(external);
+        Arrays.sort(reported);
+        System.out.println(stage + " 中位数 " + percentile(external, 0.5) + " ms，P90 "
+                + percentile(external, 0.9) + " ms，最小 " + external[0] + " ms");
+        String json = "{\"command\": \"" + String.join(" ", command).replace("\\", "\\\\").replace("\"", "\\\"")
+                + "\", \"stage\": \"" + stage + "\", \"runs\": " + runs
+                + ", \"medianMillis\": " + percentile(external, 0.5)
+                + ", \"p90Millis\": " + percentile(external, 0.9)
+                + ", \"minMillis\": " + external[0]
+                + ", \"reportedMedianMillis\": " + percentile(reported, 0.5)
+                + ", \"samplesMillis\": " + Arrays.toString(external) + "}\n";
+        Files.writeString(out, json, StandardCharsets.UTF_8);
+        System.out.println("结果已写入 " + out.toAbsolutePath());
+    }
+
+    /**
+     * 启动一次并等待指定阶段的耗时行
+     * @return {外部测得的毫秒数, 播放器报告的毫秒数}
+     */
+    private static long[] launchOnce(List<String> command, String stage) throws IOException, InterruptedException {
+        ProcessBuilder builder = new ProcessBuilder(command).redirectErrorStream(true);
+        builder.environment().put("JDK_JAVA_OPTIONS",
+                "-Ddogplayer.startup.report=true -Ddogplayer.startup.exit=true"
+                        + " -Ddogplayer.single.instance=false");  // 不把文件转交给正在运行的播放器
+        long start = System.nanoTime();
+        Process process = builder.start();
+        long external = -1;
+        long reported = -1;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(PREFIX + stage + "=")) {
+                    external = (System.nanoTime() - start) / 1_000_000;
+                    reported = Long.parseLong(line.substring(PREFIX.length() + stage.length() + 1).trim());
+                    break;
+                }
+            }
+        } finally {
+            if (!process.waitFor(TIMEOUT_SECONDS, TimeUnit.SECONDS)) process.destroyForcibly();
+        }
+        if (external < 0) throw new IOException("播放器没有输出启动耗时，请确认有图形环境: " + command);
+        return new long[] { external, reported };
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        int index = (int) Math.ceil(sorted.length * fraction) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+}
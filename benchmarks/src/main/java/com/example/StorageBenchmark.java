@@ -0,0 +1,91 @@
+package com.example;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 缓存与存储相关的热路径：播放进度记录、文件指纹、缩略图像素转换和播放列表排序
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StorageBenchmark {
+    private static final int MASK = 1023;
+
+    private ResumeStore store;
+    private Path media;
+    private final long[] fingerprints = new long[MASK + 1];
+    private final int[] pixels = new int[MASK + 1];
+    private final List<String> names = new ArrayList<>();
+    private int cursor;
+    private long position;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        store = new ResumeStore(SampleMedia.home().resolve("resume-bench.log"));
+        media = SampleMedia.mp4("fingerprint.mp4", 16, 4 << 20);
+        for (int i = 0; i < fingerprints.length; i++) {
+            fingerprints[i] = 0x9E3779B97F4A7C15L * (i + 1);
+            store.put(fingerprints[i], 60_000);
+            pixels[i] = 0xFF000000 | (i * 0x10204);
+        }
+        for (int season = 1; season <= 4; season++) {
+            for (int episode = 24; episode >= 1; episode--) {
+                names.add("Show.S" + season + "E" + episode + ".1080p.mkv");
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        store.close();
+    }
+
+    @Benchmark
+    public void resumePut() {
+        position += 5000;
+        store.put(fingerprints[cursor++ & MASK], position);
+    }
+
+    @Benchmark
+    public long resumeGet() {
+        return store.get(fingerprints[cursor++ & MASK]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long fingerprint() throws IOException {
+        return ResumeStore.fingerprint(media);
+    }
+
+    @Benchmark
+    public int rgb565RoundTrip() {
+        return ThumbnailCache.toArgb(ThumbnailCache.toRgb565(pixels[cursor++ & MASK]));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<String> naturalSort() {
+        List<String> copy = new ArrayList<>(names);
+        copy.sort(NaturalOrderComparator.INSTANCE);
+        return copy;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 每次播放位置变化都会执行的字幕查询：区间索引对比逐条线性扫描
+ * 字幕数据模拟两小时的密集 ASS 卡拉 OK 轨道（大量短字幕重叠）
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SubtitleBenchmark {
+    private static final long DURATION = 2 * 3600_000L;
+    private static final int MASK = 1023;
+
+    @Param({"2000", "50000"})
+    private int cueCount;
+
+    private final SubtitleCue[] out = new SubtitleCue[16];
+    private final long[] positions = new long[MASK + 1];
+    private List<SubtitleCue> cues;
+    private SubtitleIndex index;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(7);
+        cues = new ArrayList<>(cueCount);
+        for (int i = 0; i < cueCount; i++) {
+            long start = (long) (random.nextDouble() * DURATION);
+            cues.add(new SubtitleCue(start, start + 200 + random.nextInt(4000), "cue " + i, false));
+        }
+        index = new SubtitleIndex(cues);
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = (long) (random.nextDouble() * DURATION);
+        }
+    }
+
+    private long nextPosition() {
+        return positions[cursor++ & MASK];
+    }
+
+    @Benchmark
+    public int intervalIndex() {
+        return index.query(nextPosition(), out);
+    }
+
+    @Benchmark
+    public int linearScan() {
+        long time = nextPosition();
+        int count = 0;
+        for (SubtitleCue cue : cues) {
+            if (cue.getStartMillis() <= time && cue.getEndMillis() > time && count < out.length) out[count++] = cue;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example;
+
+import com.sun.javafx.tk.Toolkit;
+import javafx.beans.value.ObservableValue;
+import java.lang.reflect.Field;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 统计属性上注册的监听器数量和动画计时器上挂着的接收者数量
+ * JavaFX 没有公开这些数据，这里通过反射读取内部字段，只用于测试（读取失败时返回 -1）
+ * 反复打开文件后数量持续增长，通常意味着旧的监听器或 AnimationTimer 没有移除
+ */
+public class ListenerCensus {
+    private final Map<String, ObservableValue<?>> watched = new LinkedHashMap<>(); // 被统计的属性
+
+    /**
+     * 登记一个需要统计监听器数量的属性（同名时替换）
+     * @param name 报告中使用的名称
+     * @param property 属性
+     */
+    public void watch(String name, ObservableValue<?> property) {
+        watched.put(name, property);
+    }
+
+    /**
+     * 统计所有登记属性的监听器数量，以及正在运行的动画（Timeline/Transition）和 AnimationTimer 数量
+     * 必须在 JavaFX 应用线程调用
+     * @return 名称到数量的映射
+     */
+    public Map<String, Integer> snapshot() {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        Object timer = Toolkit.getToolkit().getPrimaryTimer();
+        counts.put("pulseReceivers", intField(timer, "receiversLength"));
+        counts.put("animationTimers", intField(timer, "animationTimersLength"));
+        for (Map.Entry<String, ObservableValue<?>> entry : watched.entrySet()) {
+            counts.put(entry.getKey(), listenerCount(entry.getValue()));
+        }
+        return counts;
+    }
+
+    /**
+     * @param property 属性
+     * @return 属性上的监听器数量（失效监听器与变更监听器之和）
+     */
+    public static int listenerCount(ObservableValue<?> property) {
+        if (property == null) return 0;
+        Object helper = fieldValue(property, "helper");
+        if (helper == null) return 0;
+        String kind = helper.getClass().getSimpleName();
+        if (kind.startsWith("Single")) return 1;
+        int invalidation = intField(helper, "invalidationSize");
+        int change = intField(helper, "changeSize");
+        return invalidation < 0 || change < 0 ? -1 : invalidation + change;
+    }
+
+    private static int intField(Object target, String name) {
+        Object value = fieldValue(target, name);
+        return value instanceof Integer ? (Integer) value : -1;
+    }
+
+    private static Object fieldValue(Object target, String name) {
+        for (Class<?> type = target.getClass(); type != null; type = type.getSuperclass()) {
+            try {
+                Field field = type.getDeclaredField(name);
+                field.setAccessible(true);
+                return field.get(target);
+            } catch (NoSuchFieldException ex) {
+                // 继续在父类中查找
+            } catch (ReflectiveOperationException | RuntimeException ex) {
+                return null;
+            }
+        }
+        return null;
+    }
+}
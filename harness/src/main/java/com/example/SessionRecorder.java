@@ -0,0 +1,283 @@
+package com.example;
+
+import javafx.scene.Scene;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按阶段记录 UI 性能数据：脉冲耗时分布与频率、JavaFX 应用线程和整个进程的内存分配速率、GC 次数，
+ * 以及每轮结束时的监听器数量，最后输出 JSON 报告
+ * 脉冲监听器本身不分配内存，避免干扰分配速率的测量
+ */
+public class SessionRecorder {
+    private static final int BUCKET_MICROS = 100;   // 直方图桶宽度
+    private static final int BUCKETS = 1000;        // 最后一个桶收纳 100ms 以上的脉冲
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean(); // 线程分配统计
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+    private final long fxThreadId;                                   // JavaFX 应用线程 ID
+    private final Map<String, Phase> phases = new LinkedHashMap<>(); // 按名称汇总的阶段数据
+    private final List<Map<String, Integer>> listenerSnapshots = new ArrayList<>(); // 每轮的监听器数量
+    private volatile Phase current;                                  // 正在记录的阶段
+    private long pulseStartNanos;                                    // 当前脉冲的开始时间
+
+    // 当前阶段开始时的计数
+    private long startNanos;
+    private long startFxBytes;
+    private long startTotalBytes;
+    private long startGcCount;
+    private long startGcMillis;
+
+    /**
+     * 在场景上安装脉冲监听器，必须在 JavaFX 应用线程调用
+     * @param scene 被测场景
+     */
+    public SessionRecorder(Scene scene) {
+        fxThreadId = Thread.currentThread().getId();
+        scene.addPreLayoutPulseListener(() -> pulseStartNanos = System.nanoTime());
+        scene.addPostLayoutPulseListener(() -> {
+            Phase phase = current;
+            if (phase != null) phase.recordPulse((System.nanoTime() - pulseStartNanos) / 1000);
+        });
+    }
+
+    /**
+     * 开始一个阶段，同名阶段的数据会累加
+     * @param name 阶段名称
+     */
+    public void begin(String name) {
+        Phase phase = phases.computeIfAbsent(name, Phase::new);
+        startNanos = System.nanoTime();
+        startFxBytes = threads.getThreadAllocatedBytes(fxThreadId);
+        startTotalBytes = totalAllocatedBytes();
+        startGcCount = gcCount();
+        startGcMillis = gcMillis();
+        current = phase;
+    }
+
+    /**
+     * 结束当前阶段
+     */
+    public void end() {
+        Phase phase = current;
+        if (phase == null) return;
+        current = null;
+        phase.nanos += System.nanoTime() - startNanos;
+        phase.fxBytes += threads.getThreadAllocatedBytes(fxThreadId) - startFxBytes;
+        phase.totalBytes += totalAllocatedBytes() - startTotalBytes;
+        phase.gcCount += gcCount() - startGcCount;
+        phase.gcMillis += gcMillis() - startGcMillis;
+        phase.runs++;
+    }
+
+    /**
+     * 记录一轮结束时的监听器数量
+     * @param counts 名称到数量的映射
+     */
+    public void recordListeners(Map<String, Integer> counts) {
+        listenerSnapshots.add(counts);
+    }
+
+    /**
+     * 比较第二轮与最后一轮的监听器数量（第一轮包含初始化，不作为基准）
+     * @return 名称到增长量的映射，只包含增长的项
+     */
+    public Map<String, Integer> listenerGrowth() {
+        Map<String, Integer> growth = new LinkedHashMap<>();
+        if (listenerSnapshots.size() < 3) return growth;
+        Map<String, Integer> first = listenerSnapshots.get(1);
+        Map<String, Integer> last = listenerSnapshots.get(listenerSnapshots.size() - 1);
+        for (Map.Entry<String, Integer> entry : last.entrySet()) {
+            Integer before = first.get(entry.getKey());
+            if (before != null && before >= 0 && entry.getValue() > before) {
+                growth.put(entry.getKey(), entry.getValue() - before);
+            }
+        }
+        return growth;
+    }
+
+    /**
+     * 在标准输出打印各阶段摘要
+     */
+    public void printSummary() {
+        System.out.printf("%-12s %6s %9s %9s %9s %9s %12s %12s %5s%n",
+                "phase", "runs", "pulses/s", "p50 µs", "p99 µs", "max µs", "fx KB/s", "total KB/s", "gc");
+        for (Phase phase : phases.values()) {
+            System.out.printf("%-12s %6d %9.1f %9d %9d %9d %12.1f %12.1f %5d%n",
+                    phase.name, phase.runs, phase.pulsesPerSecond(), phase.percentile(0.50),
+                    phase.percentile(0.99), phase.maxMicros, phase.fxBytesPerSecond() / 1024,
+                    phase.totalBytesPerSecond() / 1024, phase.gcCount);
+        }
+        Map<String, Integer> growth = listenerGrowth();
+        System.out.println(growth.isEmpty() ? "监听器数量: 无增长" : "监听器数量增长: " + growth);
+    }
+
+    /**
+     * 写入 JSON 报告
+     * @param file 输出文件
+     * @param settings 运行参数（原样写入报告）
+     * @throws IOException 写入失败
+     */
+    public void writeJson(Path file, Map<String, Object> settings) throws IOException {
+        StringBuilder out = new StringBuilder(4096);
+        out.append("{\n  \"settings\": ");
+        appendObject(out, settings);
+        out.append(",\n  \"phases\": [");
+        boolean first = true;
+        for (Phase phase : phases.values()) {
+            out.append(first ? "\n" : ",\n");
+            first = false;
+            Map<String, Object> fields = new LinkedHashMap<>();
+            fields.put("name", phase.name);
+            fields.put("runs", phase.runs);
+            fields.put("seconds", phase.nanos / 1e9);
+            fields.put("pulses", phase.pulses);
+            fields.put("pulsesPerSecond", phase.pulsesPerSecond());
+            fields.put("pulseP50Micros", phase.percentile(0.50));
+            fields.put("pulseP95Micros", phase.percentile(0.95));
+            fields.put("pulseP99Micros", phase.percentile(0.99));
+            fields.put("pulseMaxMicros", phase.maxMicros);
+            fields.put("slowPulses", phase.slowPulses);
+            fields.put("fxAllocatedBytes", phase.fxBytes);
+            fields.put("fxBytesPerSecond", phase.fxBytesPerSecond());
+            fields.put("totalAllocatedBytes", phase.totalBytes);
+            fields.put("totalBytesPerSecond", phase.totalBytesPerSecond());
+            fields.put("gcCount", phase.gcCount);
+            fields.put("gcMillis", phase.gcMillis);
+            out.append("    ");
+            appendObject(out, fields);
+        }
+        out.append("\n  ],\n  \"listeners\": [");
+        for (int i = 0; i < listenerSnapshots.size(); i++) {
+            out.append(i == 0 ? "\n    " : ",\n    ");
+            appendObject(out, new LinkedHashMap<>(listenerSnapshots.get(i)));
+        }
+        out.append("\n  ],\n  \"listenerGrowth\": ");
+        appendObject(out, new LinkedHashMap<>(listenerGrowth()));
+        out.append("\n}\n");
+        Files.writeString(file, out, StandardCharsets.UTF_8);
+    }
+
+    private static void appendObject(StringBuilder out, Map<String, ?> fields) {
+        out.append('{');
+        boolean first = true;
+        for (Map.Entry<String, ?> entry : fields.entrySet()) {
+            if (!first) out.append(", ");
+            first = false;
+            appendString(out, entry.getKey());
+            out.append(": ");
+            Object value = entry.getValue();
+            if (value instanceof Double) {
+                double d = (Double) value;
+                out.append(Double.isFinite(d) ? String.format("%.3f", d) : "null");
+            } else if (value instanceof Number || value instanceof Boolean) {
+                out.append(value);
+            } else {
+                appendString(out, String.valueOf(value));
+            }
+        }
+        out.append('}');
+    }
+
+    private static void appendString(StringBuilder out, String text) {
+        out.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') out.append('\\').append(c);
+            else if (c < 0x20) out.append(String.format("\\u%04x", (int) c));
+            else out.append(c);
+        }
+        out.append('"');
+    }
+
+    /**
+     * @return 所有存活线程累计分配的字节数（已结束线程的分配不计入，作为近似值）
+     */
+    private long totalAllocatedBytes() {
+        long total = 0;
+        for (long bytes : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (bytes > 0) total += bytes;
+        }
+        return total;
+    }
+
+    private long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : collectors) count += Math.max(0, gc.getCollectionCount());
+        return count;
+    }
+
+    private long gcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean gc : collectors) millis += Math.max(0, gc.getCollectionTime());
+        return millis;
+    }
+
+    /**
+     * 同名阶段的累计数据
+     */
+    private static final class Phase {
+        private final String name;
+        private final int[] histogram = new int[BUCKETS]; // 脉冲耗时直方图（只在 JavaFX 应用线程写入）
+        private long pulses;
+        private long slowPulses;
+        private long maxMicros;
+        private long runs;
+        private long nanos;
+        private long fxBytes;
+        private long totalBytes;
+        private long gcCount;
+        private long gcMillis;
+
+        private Phase(String name) {
+            this.name = name;
+        }
+
+        private void recordPulse(long micros) {
+            histogram[(int) Math.min(BUCKETS - 1, micros / BUCKET_MICROS)]++;
+            pulses++;
+            if (micros > 16_667) slowPulses++;
+            if (micros > maxMicros) maxMicros = micros;
+        }
+
+        /**
+         * @param fraction 百分位（0~1）
+         * @return 对应桶的上界（微秒）
+         */
+        private long percentile(double fraction) {
+            if (pulses == 0) return 0;
+            long rank = (long) Math.ceil(pulses * fraction);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += histogram[i];
+                if (seen >= rank) return Math.min((long) (i + 1) * BUCKET_MICROS, maxMicros);
+            }
+            return maxMicros;
+        }
+
+        private double seconds() {
+            return nanos / 1e9;
+        }
+
+        private double pulsesPerSecond() {
+            return nanos > 0 ? pulses / seconds() : 0;
+        }
+
+        private double fxBytesPerSecond() {
+            return nanos > 0 ? fxBytes / seconds() : 0;
+        }
+
+        private double totalBytesPerSecond() {
+            return nanos > 0 ? totalBytes / seconds() : 0;
+        }
+    }
+}
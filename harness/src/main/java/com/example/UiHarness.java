@@ -0,0 +1,399 @@
+package com.example;
+
+// 导入JavaFX和相关库
+import javafx.application.Platform;
+import javafx.geometry.Bounds;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.control.Slider;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.MouseButton;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.media.MediaPlayer;
+import javafx.scene.media.MediaView;
+import javafx.scene.robot.Robot;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * 无界面 UI 性能测试：在 Monocle Headless 平台上运行真实的 VideoPlayerApp，
+ * 每轮依次模拟打开文件、播放、拖动进度条、切换全屏、移动鼠标和空闲，
+ * 由 SessionRecorder 记录各阶段的性能数据，最后输出 JSON 报告
+ *
+ * 参数：
+ *   --cycles N          轮数（默认 20）
+ *   --idle-seconds N    每轮空闲阶段的秒数（默认 5，应大于控制条自动隐藏延迟）
+ *   --out 文件          报告路径（默认 ui-harness.json）
+ *   --fail-on-growth    监听器或动画计时器数量随轮数增长时以退出码 2 结束
+ *   其余参数为视频文件或目录，未指定时生成几段 WAV 音频代替
+ */
+public class UiHarness {
+    private static final long FRAME_MILLIS = 16;              // 模拟输入的步进间隔
+    private static final long OPEN_TIMEOUT_MILLIS = 10_000;   // 等待播放器就绪的最长时间
+
+    private final int cycles;
+    private final int idleSeconds;
+    private final List<File> media;
+    private VideoPlayerApp app;        // 被测应用
+    private Stage stage;               // 主窗口
+    private Scene scene;               // 主场景
+    private MediaView mediaView;       // 视频视图
+    private Node controllerBar;        // 控制条
+    private Robot robot;               // 模拟输入
+    private SessionRecorder recorder;  // 性能记录
+    private final ListenerCensus census = new ListenerCensus(); // 监听器统计
+    private int openFailures;          // 打开失败（超时或出错）的次数
+
+    private UiHarness(int cycles, int idleSeconds, List<File> media) {
+        this.cycles = cycles;
+        this.idleSeconds = idleSeconds;
+        this.media = media;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int cycles = 20;
+        int idleSeconds = 5;
+        Path out = Paths.get("ui-harness.json");
+        boolean failOnGrowth = false;
+        List<File> inputs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--cycles":
+                    cycles = Integer.parseInt(args[++i]);
+                    break;
+                case "--idle-seconds":
+                    idleSeconds = Integer.parseInt(args[++i]);
+                    break;
+                case "--out":
+                    out = Paths.get(args[++i]);
+                    break;
+                case "--fail-on-growth":
+                    failOnGrowth = true;
+                    break;
+                default:
+                    inputs.add(new File(args[i]));
+                    break;
+            }
+        }
+
+        // 必须在任何 JavaFX 类加载之前设置
+        Path home = Files.createTempDirectory("dogplayer-harness");
+        System.setProperty("glass.platform", "Monocle");
+        System.setProperty("monocle.platform", "Headless");
+        System.setProperty("prism.order", "sw");
+        System.setProperty("headless.geometry", "1280x800-32");
+        if (System.getProperty("dogplayer.home") == null) {
+            System.setProperty("dogplayer.home", home.resolve("home").toString());
+        }
+        if (inputs.isEmpty()) inputs = sampleAudio(home, 3);
+
+        UiHarness harness = new UiHarness(cycles, idleSeconds, inputs);
+        Map<String, Integer> growth;
+        try {
+            harness.launch();
+            harness.run();
+            harness.recorder.printSummary();
+            Map<String, Object> settings = new LinkedHashMap<>();
+            settings.put("cycles", cycles);
+            settings.put("idleSeconds", idleSeconds);
+            settings.put("files", inputs.size());
+            settings.put("openFailures", harness.openFailures);
+            settings.put("javaVersion", System.getProperty("java.version"));
+            harness.recorder.writeJson(out, settings);
+            System.out.println("报告已写入 " + out.toAbsolutePath());
+            growth = harness.recorder.listenerGrowth();
+        } finally {
+            harness.shutdown();
+        }
+        System.exit(failOnGrowth && !growth.isEmpty() ? 2 : 0);
+    }
+
+    /**
+     * 启动 JavaFX 平台并在主窗口中构建真实的应用界面
+     */
+    private void launch() throws Exception {
+        CompletableFuture<Void> started = new CompletableFuture<>();
+        Platform.startup(() -> started.complete(null));
+        started.get(10, TimeUnit.SECONDS);
+        Platform.setImplicitExit(false);
+        fx(() -> {
+            app = new VideoPlayerApp();
+            try {
+                app.init();
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+            stage = new Stage();
+            app.start(stage);
+            scene = stage.getScene();
+            mediaView = (MediaView) scene.lookup(".media-view");
+            controllerBar = ((BorderPane) scene.getRoot()).getBottom();
+            robot = new Robot();
+            recorder = new SessionRecorder(scene);
+            census.watch("stage.fullScreen", stage.fullScreenProperty());
+            census.watch("stage.width", stage.widthProperty());
+            census.watch("scene.width", scene.widthProperty());
+            census.watch("mediaView.mediaPlayer", mediaView.mediaPlayerProperty());
+            census.watch("slider.value", progressSlider().valueProperty());
+            census.watch("slider.valueChanging", progressSlider().valueChangingProperty());
+            return null;
+        });
+        settle(1000);
+    }
+
+    /**
+     * 按轮执行脚本，每轮结束时记录监听器数量
+     */
+    private void run() throws Exception {
+        for (int cycle = 0; cycle < cycles; cycle++) {
+            File file = media.get(cycle % media.size());
+
+            recorder.begin("open");
+            boolean opened = open(file);
+            recorder.end();
+            if (!opened) openFailures++;
+
+            recorder.begin("play");
+            key(KeyCode.SPACE);
+            settle(2000);
+            recorder.end();
+
+            recorder.begin("scrub");
+            scrub();
+            recorder.end();
+
+            recorder.begin("fullscreen");
+            toggleFullScreen();
+            settle(1000);
+            toggleFullScreen();
+            settle(1000);
+            recorder.end();
+
+            recorder.begin("mouse");
+            moveMouse(3000);
+            recorder.end();
+
+            recorder.begin("idle");
+            settle(idleSeconds * 1000L);
+            recorder.end();
+
+            Map<String, Integer> counts = fx(() -> {
+                MediaPlayer player = mediaView.getMediaPlayer();
+                if (player != null) {
+                    census.watch("player.currentTime", player.currentTimeProperty());
+                    census.watch("player.status", player.statusProperty());
+                }
+                return census.snapshot();
+            });
+            recorder.recordListeners(counts);
+            System.out.println("第 " + (cycle + 1) + "/" + cycles + " 轮: " + file.getName() + " " + counts);
+        }
+    }
+
+    /**
+     * 通过与拖放相同的入口打开文件，等待新的播放器就绪
+     * @param file 文件
+     * @return 是否在超时前就绪
+     */
+    private boolean open(File file) throws Exception {
+        MediaPlayer previous = fx(mediaView::getMediaPlayer);
+        fx(() -> {
+            app.openFiles(List.of(file));
+            return null;
+        });
+        long deadline = System.currentTimeMillis() + OPEN_TIMEOUT_MILLIS;
+        while (System.currentTimeMillis() < deadline) {
+            if (fx(this::closeDialogs) > 0) return false;  // 出错时应用会弹出提示框
+            MediaPlayer player = fx(mediaView::getMediaPlayer);
+            if (player != null && player != previous) return true;
+            Thread.sleep(50);
+        }
+        return false;
+    }
+
+    /**
+     * 按下进度条左侧，逐帧拖动到右侧后松开
+     */
+    private void scrub() throws Exception {
+        Bounds bounds = fx(() -> {
+            Slider slider = progressSlider();
+            return slider.localToScreen(slider.getBoundsInLocal());
+        });
+        if (bounds == null) return;
+        double y = bounds.getCenterY();
+        double fromX = bounds.getMinX() + bounds.getWidth() * 0.1;
+        double toX = bounds.getMinX() + bounds.getWidth() * 0.9;
+        int steps = 90;
+        fx(() -> {
+            robot.mouseMove(fromX, y);
+            robot.mousePress(MouseButton.PRIMARY);
+            return null;
+        });
+        for (int i = 1; i <= steps; i++) {
+            double x = fromX + (toX - fromX) * i / steps;
+            fx(() -> {
+                robot.mouseMove(x, y);
+                return null;
+            });
+            Thread.sleep(FRAME_MILLIS);
+        }
+        fx(() -> {
+            robot.mouseRelease(MouseButton.PRIMARY);
+            return null;
+        });
+        settle(500);
+    }
+
+    /**
+     * 点击控制条上的全屏按钮
+     */
+    private void toggleFullScreen() throws Exception {
+        Bounds bounds = fx(() -> {
+            Node button = controllerBar.lookup(".button");
+            return button != null ? button.localToScreen(button.getBoundsInLocal()) : null;
+        });
+        if (bounds == null) return;
+        fx(() -> {
+            robot.mouseMove(bounds.getCenterX(), bounds.getCenterY());
+            robot.mouseClick(MouseButton.PRIMARY);
+            return null;
+        });
+    }
+
+    /**
+     * 在视频区域内沿圆周移动鼠标
+     * @param millis 持续时间
+     */
+    private void moveMouse(long millis) throws Exception {
+        Bounds bounds = fx(() -> mediaView.getParent().localToScreen(mediaView.getParent().getBoundsInLocal()));
+        double radius = Math.min(bounds.getWidth(), bounds.getHeight()) / 3;
+        long frames = millis / FRAME_MILLIS;
+        for (long i = 0; i < frames; i++) {
+            double angle = 2 * Math.PI * i / 120;
+            double x = bounds.getCenterX() + radius * Math.cos(angle);
+            double y = bounds.getCenterY() + radius * Math.sin(angle);
+            fx(() -> {
+                robot.mouseMove(x, y);
+                return null;
+            });
+            Thread.sleep(FRAME_MILLIS);
+        }
+    }
+
+    private void key(KeyCode code) throws Exception {
+        fx(() -> {
+            robot.keyPress(code);
+            robot.keyRelease(code);
+            return null;
+        });
+    }
+
+    private Slider progressSlider() {
+        return (Slider) controllerBar.lookup(".slider");
+    }
+
+    /**
+     * 关闭主窗口以外的所有窗口（错误提示框等）
+     * @return 关闭的窗口数
+     */
+    private int closeDialogs() {
+        int closed = 0;
+        for (Window window : new ArrayList<>(Window.getWindows())) {
+            if (window == stage) continue;
+            window.hide();
+            closed++;
+        }
+        return closed;
+    }
+
+    private void shutdown() {
+        try {
+            if (stage != null) {
+                fx(() -> {
+                    stage.setFullScreen(false);
+                    app.stop();
+                    stage.hide();
+                    return null;
+                });
+            }
+        } catch (Exception ex) {
+            System.err.println("关闭失败: " + ex.getMessage());
+        }
+        Platform.exit();
+    }
+
+    /**
+     * 等待一段时间，期间界面照常运行
+     * @param millis 毫秒
+     */
+    private static void settle(long millis) throws InterruptedException {
+        Thread.sleep(millis);
+    }
+
+    /**
+     * 在 JavaFX 应用线程执行并等待结果
+     */
+    private static <T> T fx(Supplier<T> task) throws Exception {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Platform.runLater(() -> {
+            try {
+                result.complete(task.get());
+            } catch (Throwable ex) {
+                result.completeExceptionally(ex);
+            }
+        });
+        try {
+            return result.get(10, TimeUnit.SECONDS);
+        } catch (ExecutionException ex) {
+            throw ex.getCause() instanceof Exception ? (Exception) ex.getCause() : ex;
+        } catch (TimeoutException ex) {
+            throw new IllegalStateException("JavaFX 应用线程无响应", ex);
+        }
+    }
+
+    /**
+     * 生成几段 20 秒的单声道 WAV（不同频率的正弦波），在没有指定视频文件时使用
+     * @param dir 输出目录
+     * @param count 文件数
+     * @return 文件列表
+     */
+    private static List<File> sampleAudio(Path dir, int count) throws IOException {
+        int rate = 44100;
+        int samples = rate * 20;
+        List<File> files = new ArrayList<>();
+        for (int n = 0; n < count; n++) {
+            ByteBuffer data = ByteBuffer.allocate(44 + samples * 2).order(ByteOrder.LITTLE_ENDIAN);
+            data.put("RIFF".getBytes()).putInt(36 + samples * 2).put("WAVE".getBytes());
+            data.put("fmt ".getBytes()).putInt(16).putShort((short) 1).putShort((short) 1)
+                    .putInt(rate).putInt(rate * 2).putShort((short) 2).putShort((short) 16);
+            data.put("data".getBytes()).putInt(samples * 2);
+            double step = 2 * Math.PI * (220 * (n + 1)) / rate;
+            for (int i = 0; i < samples; i++) {
+                data.putShort((short) (Math.sin(step * i) * 8000));
+            }
+            Path file = dir.resolve(String.format("sample-%02d.wav", n + 1));
+            try (OutputStream out = Files.newOutputStream(file)) {
+                out.write(data.array());
+            }
+            files.add(file.toFile());
+        }
+        return files;
+    }
+}
@@ -0,0 +1,105 @@
+package com.example;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 应用数据目录工具类，所有缓存和索引文件都放在用户目录下的 .dogplayer 中
+ */
+public class AppPaths {
+    // 数据根目录，可通过系统属性 dogplayer.home 覆盖
+    private static final Path ROOT = Paths.get(System.getProperty("dogplayer.home",
+            System.getProperty("user.home") + File.separator + ".dogplayer"));
+
+    private AppPaths() {
+    }
+
+    /**
+     * 获取数据子目录，不存在时自动创建
+     * @param name 子目录名
+     * @return 子目录路径
+     * @throws IOException 创建失败
+     */
+    public static Path dir(String name) throws IOException {
+        Path dir = ROOT.resolve(name);
+        Files.createDirectories(dir);
+        return dir;
+    }
+
+    /**
+     * 获取数据根目录下的文件路径（会确保根目录存在）
+     * @param name 文件名
+     * @return 文件路径
+     * @throws IOException 创建根目录失败
+     */
+    public static Path file(String name) throws IOException {
+        Files.createDirectories(ROOT);
+        return ROOT.resolve(name);
+    }
+
+    /**
+     * 清理缓存目录：总大小超过上限时，按修改时间从最久未使用的文件开始删除
+     * 调用方每次使用缓存文件时应更新其修改时间；会访问磁盘，应在后台线程调用
+     * @param dir 缓存目录
+     * @param maxBytes 总大小上限（字节）
+     * @param keep 正在使用、不能删除的文件
+     */
+    public static void trimCache(Path dir, long maxBytes, Collection<Path> keep) {
+        List<Path> files = new ArrayList<>();
+        List<BasicFileAttributes> attributes = new ArrayList<>();
+        long total = 0;
+        try (Stream<Path> listing = Files.list(dir)) {
+            for (Path path : (Iterable<Path>) listing::iterator) {
+                BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+                if (!attrs.isRegularFile()) continue;
+                files.add(path);
+                attributes.add(attrs);
+                total += attrs.size();
+            }
+        } catch (IOException ex) {
+            System.err.println("缓存清理失败: " + dir + " - " + ex.getMessage());
+            return;
+        }
+        if (total <= maxBytes) return;
+
+        Integer[] order = new Integer[files.size()];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, Comparator.comparing(i -> attributes.get(i).lastModifiedTime()));
+        for (int i = 0; i < order.length && total > maxBytes; i++) {
+            Path path = files.get(order[i]);
+            if (keep.contains(path)) continue;
+            try {
+                Files.deleteIfExists(path);
+                total -= attributes.get(order[i]).size();
+            } catch (IOException ex) {
+                System.err.println("缓存清理失败: " + path + " - " + ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 根据文件路径、大小和修改时间生成缓存键，文件被修改后缓存自动失效
+     * @param file 媒体文件
+     * @return 16 位十六进制缓存键
+     */
+    public static String cacheKey(File file) {
+        String identity = file.getAbsolutePath() + '|' + file.length() + '|' + file.lastModified();
+        long hash = 0xcbf29ce484222325L; // FNV-1a 64 位
+        for (int i = 0; i < identity.length(); i++) {
+            hash ^= identity.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        String hex = Long.toHexString(hash);
+        return "0000000000000000".substring(hex.length()) + hex;
+    }
+}
@@ -0,0 +1,294 @@
+package com.example;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 媒体文件的分块磁盘缓存：源文件按固定大小切块，每块单独保存在 ~/.dogplayer/chunks/缓存键/ 下，
+ * 总大小超出上限时按最近使用顺序淘汰整块；同一块的并发请求只读取一次源文件
+ * 检测到顺序读取时在后台预读后面几块，跳转之后过期的预读任务直接丢弃
+ * 缓存跨进程保留，启动后第一次使用时按文件修改时间恢复使用顺序
+ */
+public class ChunkCache {
+    public static final int CHUNK_SIZE = 1 << 20;        // 块大小（1 MiB）
+    private static final int READ_AHEAD_CHUNKS = 8;      // 顺序读取时预读的块数
+    private static final String CHUNK_SUFFIX = ".chunk"; // 完整块的文件后缀
+    private static final String PART_SUFFIX = ".part";   // 写入中的临时文件后缀
+
+    private final Path root;                             // 缓存目录
+    private final long maxBytes;                         // 缓存总大小上限
+    private final LinkedHashMap<Path, Long> lru = new LinkedHashMap<>(256, 0.75f, true); // 块文件 -> 字节数（由 this 保护）
+    private long usedBytes;                              // 已使用字节数（由 this 保护）
+    private boolean scanned;                             // 是否已扫描磁盘上的旧缓存（由 this 保护）
+    private final ConcurrentHashMap<Path, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>(); // 正在读取的块
+    private final ExecutorService fetchExecutor =
+            Executors.newFixedThreadPool(2, new DaemonThreadFactory("chunk-fetch")); // 预读线程
+
+    /**
+     * 构造函数
+     * @param root 缓存目录
+     * @param maxBytes 缓存总大小上限（字节）
+     */
+    public ChunkCache(Path root, long maxBytes) {
+        this.root = root;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * 缓存中的一个源文件
+     */
+    public static final class Source {
+        private final File file;          // 源文件
+        private final String key;         // 缓存键（文件被修改后变化）
+        private final long length;        // 文件大小
+        private volatile int lastChunk = -1; // 最近一次请求的块序号，用于识别顺序读取
+
+        /**
+         * 构造函数（记录文件当前的大小和修改时间，会访问文件系统）
+         * @param file 源文件
+         */
+        public Source(File file) {
+            this.file = file;
+            this.key = AppPaths.cacheKey(file);
+            this.length = file.length();
+        }
+
+        public File getFile() {
+            return file;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public long getLength() {
+            return length;
+        }
+
+        /**
+         * @return 块数
+         */
+        public int chunkCount() {
+            return (int) ((length + CHUNK_SIZE - 1) / CHUNK_SIZE);
+        }
+    }
+
+    /**
+     * 获取某一块的缓存文件，未缓存时从源文件读取（阻塞），顺序读取时顺带触发预读
+     * 返回的文件随时可能被淘汰，调用方应立即打开；在 Unix 上已打开的文件不受删除影响
+     * @param source 源文件
+     * @param index 块序号
+     * @return 块文件
+     * @throws IOException 读取源文件或写入缓存失败
+     */
+    public Path chunk(Source source, int index) throws IOException {
+        boolean sequential = index == source.lastChunk + 1;
+        source.lastChunk = index;
+
+        Path path = chunkPath(source, index);
+        long cached = touch(path);
+        if (cached >= 0) {
+            PlayerMetrics.getInstance().proxyBytesFromCache(cached);
+        } else {
+            try {
+                fetch(source, index, path).join();
+            } catch (CompletionException ex) {
+                Throwable cause = ex.getCause();
+                if (cause instanceof IOException) throw (IOException) cause;
+                throw new IOException(cause != null ? cause.getMessage() : ex.getMessage(), cause);
+            }
+        }
+        // 当前块就绪后再预读，避免预读和当前请求争抢带宽
+        if (sequential) {
+            int end = Math.min(index + READ_AHEAD_CHUNKS, source.chunkCount() - 1);
+            for (int i = index + 1; i <= end; i++) prefetch(source, i);
+        }
+        return path;
+    }
+
+    /**
+     * 后台预读一块；执行时读取位置已经跳走的任务直接放弃
+     */
+    private void prefetch(Source source, int index) {
+        Path path = chunkPath(source, index);
+        if (contains(path) || inFlight.containsKey(path)) return;
+        fetchExecutor.execute(() -> {
+            int current = source.lastChunk;
+            if (index <= current || index > current + READ_AHEAD_CHUNKS || contains(path)) return;
+            fetch(source, index, path).exceptionally(ex -> {
+                System.err.println("预读失败: " + source.getFile() + " #" + index + " - " + ex.getMessage());
+                return null;
+            });
+        });
+    }
+
+    /**
+     * 读取一块（同一块同时只有一个读取任务，在调用线程上执行）
+     */
+    private CompletableFuture<Path> fetch(Source source, int index, Path path) {
+        CompletableFuture<Path> created = new CompletableFuture<>();
+        CompletableFuture<Path> existing = inFlight.putIfAbsent(path, created);
+        if (existing != null) return existing;
+        try {
+            if (touch(path) < 0) {
+                long bytes = copyChunk(source, index, path);
+                PlayerMetrics.getInstance().proxyBytesFetched(bytes);
+                add(path, bytes);
+            }
+            created.complete(path);
+        } catch (IOException | RuntimeException ex) {
+            created.completeExceptionally(ex);
+        } finally {
+            inFlight.remove(path, created);
+        }
+        return created;
+    }
+
+    /**
+     * 把源文件中的一块复制到临时文件，完成后原子改名，中途失败不会留下不完整的块
+     */
+    private static long copyChunk(Source source, int index, Path path) throws IOException {
+        Files.createDirectories(path.getParent());
+        long start = (long) index * CHUNK_SIZE;
+        long count = Math.min(CHUNK_SIZE, source.getLength() - start);
+        Path part = path.resolveSibling(path.getFileName() + PART_SUFFIX);
+        try (FileChannel in = FileChannel.open(source.getFile().toPath(), StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(part, StandardOpenOption.CREATE,
+                     StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long done = 0;
+            while (done < count) {
+                long n = in.transferTo(start + done, count - done, out);
+                if (n <= 0) throw new IOException("源文件在读取过程中变短");
+                done += n;
+            }
+        } catch (IOException ex) {
+            Files.deleteIfExists(part);
+            throw ex;
+        }
+        Files.move(part, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return count;
+    }
+
+    private Path chunkPath(Source source, int index) {
+        return root.resolve(source.getKey()).resolve(index + CHUNK_SUFFIX);
+    }
+
+    private synchronized boolean contains(Path path) {
+        scanIfNeeded();
+        return lru.containsKey(path);
+    }
+
+    /**
+     * 命中时更新使用顺序（同时更新文件修改时间，供下次启动恢复顺序）
+     * @return 块的字节数，未缓存时返回 -1
+     */
+    private long touch(Path path) {
+        Long bytes;
+        synchronized (this) {
+            scanIfNeeded();
+            bytes = lru.get(path);
+        }
+        if (bytes == null) return -1;
+        try {
+            Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (NoSuchFileException ex) {
+            synchronized (this) {
+                if (lru.remove(path) != null) usedBytes -= bytes;  // 被外部删除
+            }
+            return -1;
+        } catch (IOException ex) {
+            // 只影响下次启动时的淘汰顺序
+        }
+        return bytes;
+    }
+
+    /**
+     * 登记新块，超出上限时淘汰最久未使用的块（新块本身不会被淘汰）
+     */
+    private void add(Path path, long bytes) {
+        List<Path> evicted = new ArrayList<>();
+        synchronized (this) {
+            Long previous = lru.put(path, bytes);
+            if (previous != null) usedBytes -= previous;
+            usedBytes += bytes;
+            Iterator<Map.Entry<Path, Long>> it = lru.entrySet().iterator();
+            while (usedBytes > maxBytes && it.hasNext()) {
+                Map.Entry<Path, Long> entry = it.next();
+                if (entry.getKey().equals(path)) continue;
+                usedBytes -= entry.getValue();
+                evicted.add(entry.getKey());
+                it.remove();
+            }
+        }
+        for (Path old : evicted) {
+            try {
+                Files.deleteIfExists(old);
+                Files.delete(old.getParent());  // 整个文件的块都淘汰后删除其目录
+            } catch (DirectoryNotEmptyException | NoSuchFileException ignored) {
+                // 目录中还有其他块
+            } catch (IOException ex) {
+                System.err.println("缓存淘汰失败: " + old + " - " + ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 扫描磁盘上的旧缓存，按修改时间恢复使用顺序，并清理上次异常退出留下的临时文件
+     */
+    private void scanIfNeeded() {
+        if (scanned) return;
+        scanned = true;
+        List<Path> chunks = new ArrayList<>();
+        Map<Path, FileTime> times = new HashMap<>();
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(root, Files::isDirectory)) {
+            for (Path dir : dirs) {
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+                    for (Path file : files) {
+                        String name = file.getFileName().toString();
+                        if (name.endsWith(PART_SUFFIX)) {
+                            Files.deleteIfExists(file);
+                        } else if (name.endsWith(CHUNK_SUFFIX)) {
+                            chunks.add(file);
+                            times.put(file, Files.getLastModifiedTime(file));
+                        }
+                    }
+                }
+            }
+        } catch (NoSuchFileException ignored) {
+            return;  // 还没有缓存
+        } catch (IOException ex) {
+            System.err.println("缓存扫描失败: " + ex.getMessage());
+        }
+        chunks.sort(Comparator.comparing(times::get));
+        for (Path chunk : chunks) {
+            try {
+                long bytes = Files.size(chunk);
+                lru.put(chunk, bytes);
+                usedBytes += bytes;
+            } catch (IOException ignored) {
+                // 扫描期间被删除
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example;
+
+/**
+ * 容器格式，以及当前 JavaFX 媒体栈能否直接播放
+ */
+public enum ContainerFormat {
+    MP4("MP4/MOV", true),
+    MATROSKA("Matroska", false),
+    WEBM("WebM", false),
+    FLV("FLV", true),
+    AVI("AVI", false),
+    MPEG_TS("MPEG-TS", false),
+    MP3("MP3", true),
+    WAV("WAV", true),
+    AIFF("AIFF", true),
+    HLS("HLS", true),
+    UNKNOWN("未知格式", false);
+
+    private final String displayName; // 显示名称
+    private final boolean playable;   // JavaFX 是否能直接播放
+
+    ContainerFormat(String displayName, boolean playable) {
+        this.displayName = displayName;
+        this.playable = playable;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public boolean isPlayable() {
+        return playable;
+    }
+}
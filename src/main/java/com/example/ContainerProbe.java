@@ -0,0 +1,600 @@
+package com.example;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 纯 Java 的容器元数据探测：解析 MP4/MOV 的 moov 原子、Matroska/WebM 的 EBML 头部和 FLV 的 onMetaData
+ * 只读取头部结构，mdat 和 Cluster 等媒体数据直接按长度跳过，一次探测通常只有几次小的定位读取
+ */
+public class ContainerProbe {
+    // MP4 原子类型
+    private static final int BOX_MOOV = fourCC("moov");
+    private static final int BOX_MVHD = fourCC("mvhd");
+    private static final int BOX_TRAK = fourCC("trak");
+    private static final int BOX_TKHD = fourCC("tkhd");
+    private static final int BOX_MDIA = fourCC("mdia");
+    private static final int BOX_MDHD = fourCC("mdhd");
+    private static final int BOX_HDLR = fourCC("hdlr");
+    private static final int BOX_MINF = fourCC("minf");
+    private static final int BOX_STBL = fourCC("stbl");
+    private static final int BOX_STSD = fourCC("stsd");
+    private static final int HANDLER_VIDE = fourCC("vide");
+    private static final int HANDLER_SOUN = fourCC("soun");
+    private static final int HANDLER_SBTL = fourCC("sbtl");
+    private static final int HANDLER_SUBT = fourCC("subt");
+    private static final int HANDLER_TEXT = fourCC("text");
+
+    // Matroska 元素 ID（保留长度标记位）
+    private static final int EBML_HEADER = 0x1A45DFA3;
+    private static final int MKV_SEGMENT = 0x18538067;
+    private static final int MKV_SEEK_HEAD = 0x114D9B74;
+    private static final int MKV_SEEK = 0x4DBB;
+    private static final int MKV_SEEK_ID = 0x53AB;
+    private static final int MKV_SEEK_POSITION = 0x53AC;
+    private static final int MKV_INFO = 0x1549A966;
+    private static final int MKV_TIMECODE_SCALE = 0x2AD7B1;
+    private static final int MKV_DURATION = 0x4489;
+    private static final int MKV_TRACKS = 0x1654AE6B;
+    private static final int MKV_TRACK_ENTRY = 0xAE;
+    private static final int MKV_TRACK_NUMBER = 0xD7;
+    private static final int MKV_TRACK_TYPE = 0x83;
+    private static final int MKV_CODEC_ID = 0x86;
+    private static final int MKV_VIDEO = 0xE0;
+    private static final int MKV_PIXEL_WIDTH = 0xB0;
+    private static final int MKV_PIXEL_HEIGHT = 0xBA;
+    private static final int MKV_AUDIO = 0xE1;
+    private static final int MKV_SAMPLING_FREQUENCY = 0xB5;
+    private static final int MKV_CHANNELS = 0x9F;
+    private static final int MKV_CLUSTER = 0x1F43B675;
+
+    // FLV 标签类型
+    private static final int FLV_TAG_AUDIO = 8;
+    private static final int FLV_TAG_VIDEO = 9;
+    private static final int FLV_TAG_SCRIPT = 18;
+    private static final int FLV_MAX_TAGS = 16;          // 查找 onMetaData 时最多检查的标签数
+    private static final int AMF_MAX_DEPTH = 4;          // onMetaData 中对象和数组的最大嵌套层数
+    private static final int MAX_STRING_BYTES = 256;     // 字符串字段的最大读取长度
+
+    private ContainerProbe() {
+    }
+
+    /**
+     * 探测文件的容器格式和元数据
+     * @param file 文件路径
+     * @return 元数据，无法解析的字段为未知值
+     * @throws IOException 读取失败
+     */
+    public static MediaInfo probe(Path file) throws IOException {
+        try (PositionalReader in = PositionalReader.open(file)) {
+            ContainerFormat format = ContainerSniffer.sniff(in.view(0, ContainerSniffer.SNIFF_BYTES));
+            try {
+                switch (format) {
+                    case MP4:
+                        return probeMp4(in);
+                    case MATROSKA:
+                    case WEBM:
+                        return probeMatroska(in, format);
+                    case FLV:
+                        return probeFlv(in);
+                    default:
+                        return MediaInfo.unknown(format);
+                }
+            } catch (EOFException ex) {
+                // 文件被截断（例如仍在下载），返回格式本身
+                return MediaInfo.unknown(format);
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------- MP4/MOV
+
+    /**
+     * 在顶层原子中查找 moov，mdat 等原子只按长度跳过
+     */
+    private static MediaInfo probeMp4(PositionalReader in) throws IOException {
+        long end = in.size();
+        long pos = 0;
+        while (pos + 8 <= end) {
+            long size = in.u32(pos);
+            int type = in.s32(pos + 4);
+            int header = 8;
+            if (size == 1) {
+                size = in.u64(pos + 8);
+                header = 16;
+            } else if (size == 0) {
+                size = end - pos;
+            }
+            if (size < header) break;
+            if (type == BOX_MOOV) {
+                return parseMoov(in, pos + header, Math.min(pos + size, end));
+            }
+            pos += size;
+        }
+        return MediaInfo.unknown(ContainerFormat.MP4);
+    }
+
+    private static MediaInfo parseMoov(PositionalReader in, long start, long end) throws IOException {
+        long timescale = 0;
+        long duration = 0;
+        List<Mp4Track> tracks = new ArrayList<>();
+        for (long pos = start; pos + 8 <= end; ) {
+            long size = boxSize(in, pos, end);
+            if (size < 8) break;
+            int type = in.s32(pos + 4);
+            long body = pos + boxHeader(in, pos);
+            if (type == BOX_MVHD) {
+                int version = in.u8(body);
+                timescale = in.u32(body + (version == 1 ? 20 : 12));
+                duration = version == 1 ? in.u64(body + 24) : in.u32(body + 16);
+            } else if (type == BOX_TRAK) {
+                Mp4Track track = new Mp4Track();
+                parseContainer(in, body, pos + size, track);
+                tracks.add(track);
+            }
+            pos += size;
+        }
+
+        long durationMillis = timescale > 0 && duration > 0 ? duration * 1000 / timescale : -1;
+        List<TrackInfo> infos = new ArrayList<>();
+        int width = 0;
+        int height = 0;
+        for (Mp4Track track : tracks) {
+            TrackInfo info = track.toTrackInfo();
+            infos.add(info);
+            if (info.getType() == TrackInfo.Type.VIDEO && width == 0) {
+                width = info.getWidth();
+                height = info.getHeight();
+            }
+            if (durationMillis < 0 && track.timescale > 0 && track.duration > 0) {
+                durationMillis = track.duration * 1000 / track.timescale;
+            }
+        }
+        return new MediaInfo(ContainerFormat.MP4, durationMillis, width, height,
+                bitrate(in.size(), durationMillis), infos);
+    }
+
+    /**
+     * 递归解析 trak 下的 tkhd/mdia/minf/stbl/stsd
+     */
+    private static void parseContainer(PositionalReader in, long start, long end, Mp4Track track) throws IOException {
+        for (long pos = start; pos + 8 <= end; ) {
+            long size = boxSize(in, pos, end);
+            if (size < 8) break;
+            int type = in.s32(pos + 4);
+            long body = pos + boxHeader(in, pos);
+            if (type == BOX_MDIA || type == BOX_MINF || type == BOX_STBL) {
+                parseContainer(in, body, pos + size, track);
+            } else if (type == BOX_TKHD) {
+                int version = in.u8(body);
+                track.id = (int) in.u32(body + (version == 1 ? 20 : 12));
+                long dims = body + (version == 1 ? 88 : 76);
+                track.displayWidth = (int) (in.u32(dims) >>> 16);
+                track.displayHeight = (int) (in.u32(dims + 4) >>> 16);
+            } else if (type == BOX_MDHD) {
+                int version = in.u8(body);
+                track.timescale = in.u32(body + (version == 1 ? 20 : 12));
+                track.duration = version == 1 ? in.u64(body + 24) : in.u32(body + 16);
+            } else if (type == BOX_HDLR) {
+                track.handler = in.s32(body + 8);
+            } else if (type == BOX_STSD) {
+                parseSampleEntry(in, body, track);
+            }
+            pos += size;
+        }
+    }
+
+    /**
+     * 读取第一个样本描述：编码 fourCC，以及视频尺寸或音频声道/采样率
+     */
+    private static void parseSampleEntry(PositionalReader in, long body, Mp4Track track) throws IOException {
+        if (in.u32(body + 4) == 0) return;
+        long entry = body + 8;
+        track.codec = in.string(entry + 4, 4).trim();
+        if (track.handler == HANDLER_VIDE) {
+            track.codedWidth = in.u16(entry + 32);
+            track.codedHeight = in.u16(entry + 34);
+        } else if (track.handler == HANDLER_SOUN) {
+            track.channels = in.u16(entry + 24);
+            track.sampleRate = (int) (in.u32(entry + 32) >>> 16);
+        }
+    }
+
+    private static long boxSize(PositionalReader in, long pos, long end) throws IOException {
+        long size = in.u32(pos);
+        if (size == 1) size = in.u64(pos + 8);
+        else if (size == 0) size = end - pos;
+        return size;
+    }
+
+    private static int boxHeader(PositionalReader in, long pos) throws IOException {
+        return in.u32(pos) == 1 ? 16 : 8;
+    }
+
+    /**
+     * MP4 轨道解析的中间状态
+     */
+    private static final class Mp4Track {
+        int id;
+        int handler;
+        String codec = "";
+        int displayWidth;
+        int displayHeight;
+        int codedWidth;
+        int codedHeight;
+        int channels;
+        int sampleRate;
+        long timescale;
+        long duration;
+
+        TrackInfo toTrackInfo() {
+            if (handler == HANDLER_VIDE) {
+                // tkhd 中是显示尺寸（已考虑像素宽高比），没有时退回编码尺寸
+                int w = displayWidth > 0 ? displayWidth : codedWidth;
+                int h = displayHeight > 0 ? displayHeight : codedHeight;
+                return new TrackInfo(id, TrackInfo.Type.VIDEO, codec, w, h, 0, 0);
+            }
+            if (handler == HANDLER_SOUN) {
+                return new TrackInfo(id, TrackInfo.Type.AUDIO, codec, 0, 0, sampleRate, channels);
+            }
+            if (handler == HANDLER_SBTL || handler == HANDLER_SUBT || handler == HANDLER_TEXT) {
+                return new TrackInfo(id, TrackInfo.Type.SUBTITLE, codec, 0, 0, 0, 0);
+            }
+            return new TrackInfo(id, TrackInfo.Type.OTHER, codec, 0, 0, 0, 0);
+        }
+    }
+
+    // ---------------------------------------------------------------- Matroska/WebM
+
+    /**
+     * 顺序读取 Segment 的顶层元素，遇到 Cluster 即停止；
+     * Info 或 Tracks 位于 Cluster 之后时，通过 SeekHead 记录的位置直接跳转
+     */
+    private static MediaInfo probeMatroska(PositionalReader in, ContainerFormat format) throws IOException {
+        Element el = new Element();
+        if (!readElement(in, 0, el) || el.id != EBML_HEADER) return MediaInfo.unknown(format);
+        long pos = el.end();
+        while (readElement(in, pos, el) && el.id != MKV_SEGMENT) {
+            if (el.size < 0) return MediaInfo.unknown(format);
+            pos = el.end();
+        }
+        if (el.id != MKV_SEGMENT) return MediaInfo.unknown(format);
+
+        long segmentStart = el.dataStart;
+        long segmentEnd = el.size < 0 ? in.size() : Math.min(el.end(), in.size());
+        MkvState state = new MkvState();
+        pos = segmentStart;
+        while (pos < segmentEnd && readElement(in, pos, el)) {
+            long end = el.size < 0 ? segmentEnd : Math.min(el.end(), segmentEnd);
+            if (el.id == MKV_INFO) {
+                parseInfo(in, el.dataStart, end, state);
+            } else if (el.id == MKV_TRACKS) {
+                parseTracks(in, el.dataStart, end, state);
+            } else if (el.id == MKV_SEEK_HEAD) {
+                parseSeekHead(in, el.dataStart, end, segmentStart, state);
+            } else if (el.id == MKV_CLUSTER) {
+                break;
+            }
+            if ((state.infoParsed && state.tracksParsed) || el.size < 0) break;
+            pos = el.end();
+        }
+        if (!state.infoParsed && state.infoPosition > 0 && readElement(in, state.infoPosition, el) && el.id == MKV_INFO) {
+            parseInfo(in, el.dataStart, Math.min(el.end(), segmentEnd), state);
+        }
+        if (!state.tracksParsed && state.tracksPosition > 0 && readElement(in, state.tracksPosition, el)
+                && el.id == MKV_TRACKS) {
+            parseTracks(in, el.dataStart, Math.min(el.end(), segmentEnd), state);
+        }
+
+        long durationMillis = state.duration > 0 ? (long) (state.duration * state.timecodeScale / 1_000_000.0) : -1;
+        int width = 0;
+        int height = 0;
+        for (TrackInfo track : state.tracks) {
+            if (track.getType() == TrackInfo.Type.VIDEO) {
+                width = track.getWidth();
+                height = track.getHeight();
+                break;
+            }
+        }
+        return new MediaInfo(format, durationMillis, width, height, bitrate(in.size(), durationMillis), state.tracks);
+    }
+
+    private static void parseSeekHead(PositionalReader in, long start, long end, long segmentStart,
+                                      MkvState state) throws IOException {
+        Element el = new Element();
+        for (long pos = start; pos < end && readElement(in, pos, el) && el.size >= 0; pos = el.end()) {
+            if (el.id != MKV_SEEK) continue;
+            long seekId = 0;
+            long seekPosition = -1;
+            Element child = new Element();
+            for (long p = el.dataStart; p < el.end() && readElement(in, p, child) && child.size >= 0; p = child.end()) {
+                if (child.id == MKV_SEEK_ID && child.size <= 4) seekId = in.uint(child.dataStart, (int) child.size);
+                else if (child.id == MKV_SEEK_POSITION && child.size <= 8) seekPosition = in.uint(child.dataStart, (int) child.size);
+            }
+            if (seekPosition < 0) continue;
+            if (seekId == MKV_INFO) state.infoPosition = segmentStart + seekPosition;
+            else if (seekId == MKV_TRACKS) state.tracksPosition = segmentStart + seekPosition;
+        }
+    }
+
+    private static void parseInfo(PositionalReader in, long start, long end, MkvState state) throws IOException {
+        Element el = new Element();
+        for (long pos = start; pos < end && readElement(in, pos, el) && el.size >= 0; pos = el.end()) {
+            if (el.id == MKV_TIMECODE_SCALE && el.size <= 8) {
+                state.timecodeScale = in.uint(el.dataStart, (int) el.size);
+            } else if (el.id == MKV_DURATION) {
+                state.duration = readFloat(in, el);
+            }
+        }
+        state.infoParsed = true;
+    }
+
+    private static void parseTracks(PositionalReader in, long start, long end, MkvState state) throws IOException {
+        Element el = new Element();
+        for (long pos = start; pos < end && readElement(in, pos, el) && el.size >= 0; pos = el.end()) {
+            if (el.id == MKV_TRACK_ENTRY) state.tracks.add(parseTrackEntry(in, el.dataStart, el.end()));
+        }
+        state.tracksParsed = true;
+    }
+
+    private static TrackInfo parseTrackEntry(PositionalReader in, long start, long end) throws IOException {
+        int number = 0;
+        int type = 0;
+        String codec = "";
+        int width = 0;
+        int height = 0;
+        int sampleRate = 0;
+        int channels = 0;
+        Element el = new Element();
+        for (long pos = start; pos < end && readElement(in, pos, el) && el.size >= 0; pos = el.end()) {
+            if (el.id == MKV_TRACK_NUMBER && el.size <= 8) {
+                number = (int) in.uint(el.dataStart, (int) el.size);
+            } else if (el.id == MKV_TRACK_TYPE && el.size <= 8) {
+                type = (int) in.uint(el.dataStart, (int) el.size);
+            } else if (el.id == MKV_CODEC_ID) {
+                codec = in.string(el.dataStart, (int) Math.min(el.size, MAX_STRING_BYTES));
+            } else if (el.id == MKV_VIDEO || el.id == MKV_AUDIO) {
+                Element child = new Element();
+                for (long p = el.dataStart; p < el.end() && readElement(in, p, child) && child.size >= 0; p = child.end()) {
+                    if (child.id == MKV_PIXEL_WIDTH && child.size <= 8) width = (int) in.uint(child.dataStart, (int) child.size);
+                    else if (child.id == MKV_PIXEL_HEIGHT && child.size <= 8) height = (int) in.uint(child.dataStart, (int) child.size);
+                    else if (child.id == MKV_SAMPLING_FREQUENCY) sampleRate = (int) readFloat(in, child);
+                    else if (child.id == MKV_CHANNELS && child.size <= 8) channels = (int) in.uint(child.dataStart, (int) child.size);
+                }
+            }
+        }
+        TrackInfo.Type trackType;
+        switch (type) {
+            case 1: trackType = TrackInfo.Type.VIDEO; break;
+            case 2: trackType = TrackInfo.Type.AUDIO; break;
+            case 0x11: trackType = TrackInfo.Type.SUBTITLE; break;
+            default: trackType = TrackInfo.Type.OTHER; break;
+        }
+        return new TrackInfo(number, trackType, codec, width, height, sampleRate, channels);
+    }
+
+    /**
+     * 读取 EBML 元素头（ID 与长度），ID 保留长度标记位，未知长度记为 -1（MatroskaDemuxer 共用）
+     * @return 读取成功返回 true
+     */
+    static boolean readElement(PositionalReader in, long pos, Element el) throws IOException {
+        if (pos + 2 > in.size()) return false;
+        int first = in.u8(pos);
+        int idLength = Integer.numberOfLeadingZeros(first) - 23;
+        if (idLength < 1 || idLength > 4) return false;
+        el.id = (int) in.uint(pos, idLength);
+
+        long sizePos = pos + idLength;
+        int sizeFirst = in.u8(sizePos);
+        int sizeLength = Integer.numberOfLeadingZeros(sizeFirst) - 23;
+        if (sizeLength < 1 || sizeLength > 8) return false;
+        long raw = in.uint(sizePos, sizeLength);
+        long mask = (1L << (7 * sizeLength)) - 1;
+        long size = raw & mask;
+        el.size = size == mask ? -1 : size;
+        el.dataStart = sizePos + sizeLength;
+        return true;
+    }
+
+    static double readFloat(PositionalReader in, Element el) throws IOException {
+        if (el.size == 4) return Float.intBitsToFloat(in.s32(el.dataStart));
+        if (el.size == 8) return Double.longBitsToDouble(in.u64(el.dataStart));
+        return 0;
+    }
+
+    /**
+     * EBML 元素头，解析时复用
+     */
+    static final class Element {
+        int id;
+        long size;       // 数据长度，未知时为 -1
+        long dataStart;  // 数据起始位置
+
+        long end() {
+            return dataStart + size;
+        }
+    }
+
+    /**
+     * Matroska 解析的中间状态
+     */
+    private static final class MkvState {
+        long timecodeScale = 1_000_000;   // 默认 1 毫秒
+        double duration;
+        long infoPosition = -1;
+        long tracksPosition = -1;
+        boolean infoParsed;
+        boolean tracksParsed;
+        final List<TrackInfo> tracks = new ArrayList<>();
+    }
+
+    // ---------------------------------------------------------------- FLV
+
+    /**
+     * 读取文件头和前几个标签：script 标签中的 onMetaData 提供时长、尺寸和码率，
+     * 音视频标签的第一个字节补充编码信息
+     */
+    private static MediaInfo probeFlv(PositionalReader in) throws IOException {
+        int flags = in.u8(4);
+        long pos = in.u32(5) + 4; // 跳过文件头和 PreviousTagSize0
+        Map<String, Object> meta = new HashMap<>();
+        int videoCodecId = -1;
+        int audioCodecId = -1;
+        for (int i = 0; i < FLV_MAX_TAGS && pos + 11 <= in.size(); i++) {
+            int type = in.u8(pos) & 0x1F;
+            int dataSize = in.u24(pos + 1);
+            long data = pos + 11;
+            if (type == FLV_TAG_SCRIPT && meta.isEmpty()) {
+                parseScriptData(in.view(data, dataSize), meta);
+            } else if (type == FLV_TAG_VIDEO && videoCodecId < 0 && dataSize > 0) {
+                videoCodecId = in.u8(data) & 0x0F;
+            } else if (type == FLV_TAG_AUDIO && audioCodecId < 0 && dataSize > 0) {
+                audioCodecId = in.u8(data) >>> 4;
+            }
+            boolean hasVideo = (flags & 0x01) == 0 || videoCodecId >= 0;
+            boolean hasAudio = (flags & 0x04) == 0 || audioCodecId >= 0;
+            if (!meta.isEmpty() && hasVideo && hasAudio) break;
+            pos = data + dataSize + 4;
+        }
+
+        long durationMillis = (long) (number(meta, "duration") * 1000);
+        if (durationMillis <= 0) durationMillis = -1;
+        int width = (int) number(meta, "width");
+        int height = (int) number(meta, "height");
+        long bitrate = (long) ((number(meta, "videodatarate") + number(meta, "audiodatarate")) * 1000);
+        if (bitrate <= 0) bitrate = bitrate(in.size(), durationMillis);
+
+        List<TrackInfo> tracks = new ArrayList<>();
+        if ((flags & 0x01) != 0 || width > 0) {
+            String codec = codecName(meta.get("videocodecid"), videoCodecId, true);
+            tracks.add(new TrackInfo(1, TrackInfo.Type.VIDEO, codec, width, height, 0, 0));
+        }
+        if ((flags & 0x04) != 0) {
+            String codec = codecName(meta.get("audiocodecid"), audioCodecId, false);
+            int channels = Boolean.TRUE.equals(meta.get("stereo")) ? 2 : meta.containsKey("stereo") ? 1 : 0;
+            tracks.add(new TrackInfo(2, TrackInfo.Type.AUDIO, codec, 0, 0,
+                    (int) number(meta, "audiosamplerate"), channels));
+        }
+        return new MediaInfo(ContainerFormat.FLV, durationMillis, width, height, bitrate, tracks);
+    }
+
+    /**
+     * 解析 AMF0 编码的 onMetaData，只保留顶层键值
+     * @throws IOException 嵌套层数超过 AMF_MAX_DEPTH（异常构造的文件，继续递归会耗尽线程栈）
+     */
+    private static void parseScriptData(ByteBuffer data, Map<String, Object> meta) throws IOException {
+        try {
+            if (data.get() != 2 || !"onMetaData".equals(readAmfString(data))) return;
+            int type = data.get() & 0xFF;
+            if (type == 8) data.getInt(); // ECMA 数组的元素数量（不可靠，以结束标记为准）
+            else if (type != 3) return;
+            readAmfObject(data, meta, 0);
+        } catch (BufferUnderflowException | IllegalArgumentException ex) {
+            // 元数据被截断或包含无法识别的类型，保留已解析的部分
+        }
+    }
+
+    private static void readAmfObject(ByteBuffer data, Map<String, Object> out, int depth) throws IOException {
+        while (data.remaining() >= 3) {
+            String key = readAmfString(data);
+            int type = data.get() & 0xFF;
+            if (key.isEmpty() && type == 9) return; // 对象结束标记
+            Object value = readAmfValue(data, type, depth);
+            if (out != null) out.put(key, value);
+        }
+    }
+
+    private static Object readAmfValue(ByteBuffer data, int type, int depth) throws IOException {
+        // 对象、ECMA 数组和严格数组都会递归，统一限制层数
+        if ((type == 3 || type == 8 || type == 10) && depth >= AMF_MAX_DEPTH) {
+            throw new IOException("AMF 嵌套过深");
+        }
+        switch (type) {
+            case 0: return data.getDouble();
+            case 1: return data.get() != 0;
+            case 2: return readAmfString(data);
+            case 3: readAmfNested(data, depth); return null;
+            case 5:
+            case 6: return null;
+            case 8: data.getInt(); readAmfNested(data, depth); return null;
+            case 10: {
+                int count = data.getInt();
+                for (int i = 0; i < count; i++) readAmfValue(data, data.get() & 0xFF, depth + 1);
+                return null;
+            }
+            case 11: data.position(data.position() + 10); return null;
+            case 12: {
+                int length = data.getInt();
+                if (length < 0 || length > data.remaining()) throw new IllegalArgumentException("AMF 长字符串长度无效");
+                byte[] bytes = new byte[length];
+                data.get(bytes);
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+            default: throw new IllegalArgumentException("未知 AMF 类型: " + type);
+        }
+    }
+
+    private static void readAmfNested(ByteBuffer data, int depth) throws IOException {
+        readAmfObject(data, null, depth + 1);
+    }
+
+    private static String readAmfString(ByteBuffer data) {
+        int length = data.getShort() & 0xFFFF;
+        byte[] bytes = new byte[length];
+        data.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static double number(Map<String, Object> meta, String key) {
+        Object value = meta.get(key);
+        return value instanceof Double ? (Double) value : 0;
+    }
+
+    /**
+     * 生成 FLV 编码名称：优先使用元数据中的编码 ID（数字或 fourCC 字符串），其次使用标签头
+     */
+    private static String codecName(Object metaValue, int tagCodecId, boolean video) {
+        if (metaValue instanceof String) return (String) metaValue;
+        int id = metaValue instanceof Double ? ((Double) metaValue).intValue() : tagCodecId;
+        if (video) {
+            switch (id) {
+                case 2: return "H.263";
+                case 3: return "Screen";
+                case 4: return "VP6";
+                case 5: return "VP6A";
+                case 6: return "Screen2";
+                case 7: return "AVC";
+                case 12: return "HEVC";
+                default: return id >= 0 ? "video/" + id : "";
+            }
+        }
+        switch (id) {
+            case 0:
+            case 3: return "PCM";
+            case 1: return "ADPCM";
+            case 2:
+            case 14: return "MP3";
+            case 10: return "AAC";
+            case 11: return "Speex";
+            default: return id >= 0 ? "audio/" + id : "";
+        }
+    }
+
+    // ---------------------------------------------------------------- 公共工具
+
+    private static long bitrate(long fileSize, long durationMillis) {
+        return durationMillis > 0 ? fileSize * 8 * 1000 / durationMillis : 0;
+    }
+
+    private static int fourCC(String code) {
+        return (code.charAt(0) << 24) | (code.charAt(1) << 16) | (code.charAt(2) << 8) | code.charAt(3);
+    }
+}
@@ -0,0 +1,135 @@
+package com.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 容器格式嗅探器：只读取文件开头几 KB，根据魔数识别容器格式，不依赖文件扩展名
+ * 每个线程复用一个直接缓冲区，单次判断只有一次打开和一次读取
+ */
+public class ContainerSniffer {
+    public static final int SNIFF_BYTES = 4096;  // 读取的字节数
+    private static final int TS_PACKET = 188;    // MPEG-TS 包长度
+
+    // 常用的四字符码
+    private static final int TYPE_FTYP = fourCC("ftyp");
+    private static final int TYPE_MOOV = fourCC("moov");
+    private static final int TYPE_MDAT = fourCC("mdat");
+    private static final int TYPE_FREE = fourCC("free");
+    private static final int TYPE_WIDE = fourCC("wide");
+    private static final int TYPE_SKIP = fourCC("skip");
+    private static final int TYPE_RIFF = fourCC("RIFF");
+    private static final int TYPE_AVI = fourCC("AVI ");
+    private static final int TYPE_WAVE = fourCC("WAVE");
+    private static final int TYPE_FORM = fourCC("FORM");
+    private static final int TYPE_AIFF = fourCC("AIFF");
+    private static final int TYPE_AIFC = fourCC("AIFC");
+    private static final int TAG_EXT = fourCC("#EXT");
+
+    // 每个线程复用的读取缓冲区
+    private static final ThreadLocal<ByteBuffer> BUFFER =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(SNIFF_BYTES));
+
+    private ContainerSniffer() {
+    }
+
+    /**
+     * 识别文件的容器格式
+     * @param file 文件路径
+     * @return 容器格式，无法识别时为 UNKNOWN
+     * @throws IOException 读取失败
+     */
+    public static ContainerFormat sniff(Path file) throws IOException {
+        ByteBuffer buffer = BUFFER.get();
+        buffer.clear();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            channel.read(buffer, 0);
+        }
+        buffer.flip();
+        return sniff(buffer);
+    }
+
+    /**
+     * 根据文件头识别容器格式（不改变缓冲区位置）
+     * @param head 文件开头的数据，position 为 0
+     * @return 容器格式，无法识别时为 UNKNOWN
+     */
+    public static ContainerFormat sniff(ByteBuffer head) {
+        int n = head.limit();
+        if (n < 4) return ContainerFormat.UNKNOWN;
+
+        // ISO-BMFF：第 4~8 字节为 ftyp，老式 QuickTime 也可能以 moov/mdat/free/wide 开头
+        if (n >= 8) {
+            int type = head.getInt(4);
+            if (type == TYPE_FTYP || type == TYPE_MOOV || type == TYPE_MDAT
+                    || type == TYPE_FREE || type == TYPE_WIDE || type == TYPE_SKIP) {
+                return ContainerFormat.MP4;
+            }
+        }
+
+        int magic = head.getInt(0);
+        // EBML：Matroska 与 WebM 通过 DocType 区分
+        if (magic == 0x1A45DFA3) {
+            return containsAscii(head, "webm") ? ContainerFormat.WEBM : ContainerFormat.MATROSKA;
+        }
+        // FLV："FLV" + 版本 1
+        if ((magic & 0xFFFFFF00) == 0x464C5600 && (magic & 0xFF) == 1) {
+            return ContainerFormat.FLV;
+        }
+        // RIFF：AVI 或 WAV
+        if (magic == TYPE_RIFF && n >= 12) {
+            int form = head.getInt(8);
+            if (form == TYPE_AVI) return ContainerFormat.AVI;
+            if (form == TYPE_WAVE) return ContainerFormat.WAV;
+            return ContainerFormat.UNKNOWN;
+        }
+        // AIFF
+        if (magic == TYPE_FORM && n >= 12) {
+            int form = head.getInt(8);
+            if (form == TYPE_AIFF || form == TYPE_AIFC) return ContainerFormat.AIFF;
+        }
+        // HLS 播放列表
+        if (magic == TAG_EXT && n >= 7 && head.get(4) == 'M' && head.get(5) == '3' && head.get(6) == 'U') {
+            return ContainerFormat.HLS;
+        }
+        // MPEG-TS：连续三个包的同步字节（也兼容带 4 字节时间戳的 M2TS）
+        if (isTransportStream(head, 0, TS_PACKET) || isTransportStream(head, 4, TS_PACKET + 4)) {
+            return ContainerFormat.MPEG_TS;
+        }
+        // MP3：ID3 标签或 MPEG 音频帧同步字
+        if ((magic & 0xFFFFFF00) == 0x49443300) {
+            return ContainerFormat.MP3;
+        }
+        if ((magic & 0xFFE00000) == 0xFFE00000 && ((magic >> 17) & 0x3) == 1) { // Layer III
+            return ContainerFormat.MP3;
+        }
+        return ContainerFormat.UNKNOWN;
+    }
+
+    private static boolean isTransportStream(ByteBuffer head, int offset, int stride) {
+        if (head.limit() < offset + stride * 2 + 1) return false;
+        return head.get(offset) == 0x47 && head.get(offset + stride) == 0x47 && head.get(offset + stride * 2) == 0x47;
+    }
+
+    /**
+     * 在 EBML 头中查找 ASCII 字符串（用于 DocType 判断）
+     */
+    private static boolean containsAscii(ByteBuffer head, String text) {
+        int limit = Math.min(head.limit(), 64) - text.length();
+        outer:
+        for (int i = 4; i <= limit; i++) {
+            for (int j = 0; j < text.length(); j++) {
+                if (head.get(i + j) != text.charAt(j)) continue outer;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static int fourCC(String code) {
+        return (code.charAt(0) << 24) | (code.charAt(1) << 16) | (code.charAt(2) << 8) | code.charAt(3);
+    }
+}
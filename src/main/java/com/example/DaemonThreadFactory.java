@@ -0,0 +1,27 @@
+package com.example;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 后台线程工厂，创建带名称前缀的守护线程，避免后台任务阻止应用退出
+ */
+public class DaemonThreadFactory implements ThreadFactory {
+    private final String prefix;                              // 线程名前缀
+    private final AtomicInteger counter = new AtomicInteger(); // 线程编号
+
+    /**
+     * 构造函数
+     * @param prefix 线程名前缀
+     */
+    public DaemonThreadFactory(String prefix) {
+        this.prefix = prefix;
+    }
+
+    @Override
+    public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, prefix + "-" + counter.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    }
+}
@@ -0,0 +1,153 @@
+package com.example;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * 转封装用的解复用器基类：打开时只解析头部、编码参数和关键帧位置，
+ * 之后可以从任意关键帧位置开始按文件顺序读出 H.264/AAC 帧；解析结果不可变，读取时由调用方提供读取器，
+ * 因此同一个解复用器可以在多个线程中同时读取不同位置
+ */
+public abstract class Demuxer {
+    /**
+     * 帧回调，data 只在回调期间有效
+     */
+    public interface SampleSink {
+        /**
+         * @param video 是否为视频帧（否则为 AAC 音频帧）
+         * @param dtsMillis 解码时间（毫秒），容器没有解码时间时等于显示时间
+         * @param ptsMillis 显示时间（毫秒）
+         * @param keyframe 是否为关键帧
+         * @param data 帧数据（视频为 AVCC 长度前缀格式，音频为不带 ADTS 头的原始 AAC）
+         * @return 返回 false 时停止读取
+         */
+        boolean sample(boolean video, long dtsMillis, long ptsMillis, boolean keyframe, ByteBuffer data)
+                throws IOException;
+    }
+
+    protected byte[] avcConfig;              // AVCDecoderConfigurationRecord，不是 H.264 时为 null
+    protected byte[] aacConfig;              // AudioSpecificConfig，没有 AAC 音轨时为 null
+    protected boolean hasOtherAudio;         // 是否有无法转封装的音轨（AAC 以外的编码）
+    protected long durationMillis = -1;      // 时长，未知时为 -1
+    protected boolean decodeTimestamps;      // 容器是否提供解码时间（Matroska 只有显示时间）
+    private long[] keyTimes = new long[64];  // 可作为分段起点的位置：时间（毫秒，升序）
+    private long[] keyPositions = new long[64]; // 可作为分段起点的位置：文件偏移
+    private int keyCount;
+
+    /**
+     * 按文件内容选择解复用器并解析头部
+     * @param file 媒体文件
+     * @return 解复用器，不是 FLV/Matroska 时返回 null
+     * @throws IOException 读取失败
+     */
+    public static Demuxer open(Path file) throws IOException {
+        try (PositionalReader in = PositionalReader.open(file)) {
+            ContainerFormat format = ContainerSniffer.sniff(in.view(0, ContainerSniffer.SNIFF_BYTES));
+            Demuxer demuxer;
+            if (format == ContainerFormat.FLV) {
+                demuxer = new FlvDemuxer();
+            } else if (format == ContainerFormat.MATROSKA) {
+                demuxer = new MatroskaDemuxer();
+            } else {
+                return null;
+            }
+            demuxer.parseHeader(in);
+            return demuxer;
+        }
+    }
+
+    /**
+     * 解析头部、编码参数和关键帧位置（子类通过 addKeyframe 登记）
+     */
+    protected abstract void parseHeader(PositionalReader in) throws IOException;
+
+    /**
+     * 从某个文件位置（必须是 getKeyframePosition 返回的位置）开始按文件顺序读取帧，直到文件结束或回调要求停止
+     * @param in 读取器（由调用方打开和关闭）
+     * @param position 起始位置
+     * @param sink 帧回调
+     * @throws IOException 读取失败
+     */
+    public abstract void read(PositionalReader in, long position, SampleSink sink) throws IOException;
+
+    /**
+     * 读取一帧数据：不超过读取窗口的小帧直接返回窗口视图，大帧读入 scratch
+     * @param scratch 复用的缓冲区，容量必须不小于 length（见 ensureCapacity）
+     * @return 帧数据，只在下一次读取之前有效
+     */
+    protected static ByteBuffer readFrame(PositionalReader in, long pos, int length, ByteBuffer scratch)
+            throws IOException {
+        if (length <= PositionalReader.WINDOW_SIZE) {
+            ByteBuffer view = in.view(pos, length);
+            if (view.remaining() < length) throw new EOFException("帧数据不完整: " + pos);
+            return view;
+        }
+        scratch.clear().limit(length);
+        in.readFully(pos, scratch);
+        scratch.flip();
+        return scratch;
+    }
+
+    /**
+     * @return 容量不小于 length 的缓冲区（容量足够时返回原缓冲区）
+     */
+    protected static ByteBuffer ensureCapacity(ByteBuffer scratch, int length) {
+        if (scratch.capacity() >= length) return scratch;
+        return ByteBuffer.allocate(Math.max(length, scratch.capacity() * 2));
+    }
+
+    /**
+     * 登记一个关键帧位置，时间早于上一个位置的记录被忽略
+     */
+    protected void addKeyframe(long timeMillis, long position) {
+        if (keyCount > 0 && timeMillis <= keyTimes[keyCount - 1]) return;
+        if (keyCount == keyTimes.length) {
+            keyTimes = Arrays.copyOf(keyTimes, keyCount * 2);
+            keyPositions = Arrays.copyOf(keyPositions, keyCount * 2);
+        }
+        keyTimes[keyCount] = timeMillis;
+        keyPositions[keyCount] = position;
+        keyCount++;
+    }
+
+    /**
+     * @return 是否可以无损转封装为 H.264/AAC 的 MPEG-TS
+     */
+    public boolean isRemuxable() {
+        return avcConfig != null && !hasOtherAudio && keyCount > 0;
+    }
+
+    public byte[] getAvcConfig() {
+        return avcConfig;
+    }
+
+    public byte[] getAacConfig() {
+        return aacConfig;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    /**
+     * @return 帧时间中的 dtsMillis 是否为真实的解码时间
+     */
+    public boolean hasDecodeTimestamps() {
+        return decodeTimestamps;
+    }
+
+    public int getKeyframeCount() {
+        return keyCount;
+    }
+
+    public long getKeyframeTime(int index) {
+        return keyTimes[index];
+    }
+
+    public long getKeyframePosition(int index) {
+        return keyPositions[index];
+    }
+}
@@ -0,0 +1,132 @@
+package com.example;
+
+// 导入JavaFX和相关库
+import javafx.application.Platform;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * 批量文件探测：在后台展开拖入的文件和目录，并行嗅探容器格式，
+ * 按自然排序的顺序把确认可打开的文件（包括需要转封装的 FLV/Matroska）逐个交回 UI 线程（不必等整批探测完成）
+ */
+public class FileBatchProber {
+    private static final int PROBE_THREADS =
+            Math.min(8, Math.max(2, Runtime.getRuntime().availableProcessors() * 2)); // 探测线程数（I/O 密集）
+
+    private final ExecutorService walker =
+            Executors.newSingleThreadExecutor(new DaemonThreadFactory("batch-walk")); // 目录展开线程
+    private final ExecutorService probers =
+            Executors.newFixedThreadPool(PROBE_THREADS, new DaemonThreadFactory("batch-probe")); // 探测线程池
+    private final AtomicLong generation = new AtomicLong(); // 批次代数，新批次会取消旧批次
+
+    /**
+     * 处理一批文件，必须在 JavaFX 应用线程调用
+     * @param dropped 拖入的文件和目录
+     * @param onConfirmed 每确认一个可播放文件回调一次（按排序顺序，JavaFX 应用线程）
+     * @param onFinished 整批处理完成时回调，参数为确认的文件数（JavaFX 应用线程）
+     */
+    public void process(List<File> dropped, Consumer<File> onConfirmed, Consumer<Integer> onFinished) {
+        long gen = generation.incrementAndGet();
+        List<File> roots = new ArrayList<>(dropped);
+        walker.execute(() -> {
+            List<File> candidates = expand(roots, gen);
+            if (generation.get() != gen) return;
+            candidates.sort((a, b) -> NaturalOrderComparator.INSTANCE.compare(a.getPath(), b.getPath()));
+            probeInOrder(candidates, gen, onConfirmed, onFinished);
+        });
+    }
+
+    /**
+     * 取消正在进行的批次
+     */
+    public void cancel() {
+        generation.incrementAndGet();
+    }
+
+    /**
+     * 展开目录，收集所有普通文件（跳过隐藏文件）
+     */
+    private List<File> expand(List<File> roots, long gen) {
+        List<File> files = new ArrayList<>();
+        for (File root : roots) {
+            if (generation.get() != gen) break;
+            if (root.isFile()) {
+                files.add(root);
+            } else if (root.isDirectory()) {
+                try (Stream<Path> stream = Files.walk(root.toPath())) {
+                    stream.filter(Files::isRegularFile)
+                            .filter(p -> !p.getFileName().toString().startsWith("."))
+                            .forEach(p -> files.add(p.toFile()));
+                } catch (IOException | RuntimeException ex) {
+                    System.err.println("目录展开失败: " + root + " - " + ex.getMessage());
+                }
+            }
+        }
+        return files;
+    }
+
+    /**
+     * 嗅探容器格式，判断文件能否交给加载管线（与单独打开时的判断相同）
+     * @param file 文件
+     * @return 是否可能打开，读取失败时返回 false
+     */
+    static boolean canOpen(File file) {
+        try {
+            return MediaLoader.canOpen(ContainerSniffer.sniff(file.toPath()));
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * 并行探测，并按原顺序输出已确认的连续前缀
+     */
+    private void probeInOrder(List<File> candidates, long gen,
+                              Consumer<File> onConfirmed, Consumer<Integer> onFinished) {
+        int total = candidates.size();
+        if (total == 0) {
+            Platform.runLater(() -> {
+                if (generation.get() == gen) onFinished.accept(0);
+            });
+            return;
+        }
+        // 0 = 未完成, 1 = 可播放, 2 = 不可播放；只在 UI 线程读取和推进 emitted
+        byte[] results = new byte[total];
+        int[] emitted = { 0, 0 }; // [下一个待输出的位置, 已确认数量]
+        AtomicInteger next = new AtomicInteger();
+        Runnable worker = () -> {
+            int i;
+            while ((i = next.getAndIncrement()) < total && generation.get() == gen) {
+                boolean playable = canOpen(candidates.get(i));
+                int index = i;
+                byte result = playable ? (byte) 1 : (byte) 2;
+                Platform.runLater(() -> {
+                    if (generation.get() != gen) return;
+                    results[index] = result;
+                    // 输出从 emitted 开始已经完成的连续结果
+                    while (emitted[0] < total && results[emitted[0]] != 0) {
+                        if (results[emitted[0]] == 1) {
+                            emitted[1]++;
+                            onConfirmed.accept(candidates.get(emitted[0]));
+                        }
+                        emitted[0]++;
+                    }
+                    if (emitted[0] == total) onFinished.accept(emitted[1]);
+                });
+            }
+        };
+        for (int t = 0; t < Math.min(PROBE_THREADS, total); t++) {
+            probers.execute(worker);
+        }
+    }
+}
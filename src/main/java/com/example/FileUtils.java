@@ -4,11 +4,15 @@ package com.example;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import java.io.File;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * 文件工具类，提供与文件操作相关的实用方法
  */
 public class FileUtils {
+    // 支持的视频文件扩展名
+    private static final String[] SUPPORTED_EXTENSIONS = { ".mp4", ".flv", ".mkv", ".avi" };
 
     /**
      * 打开文件选择器，让用户选择视频文件
@@ -23,10 +27,66 @@ public class FileUtils {
 
         // 添加文件扩展名过滤器，限制用户只能选择支持的视频文件格式
         fileChooser.getExtensionFilters().addAll(
-                new FileChooser.ExtensionFilter("视频文件", "*.mp4", "*.flv", "*.mkv", "*.avi")
+                new FileChooser.ExtensionFilter("视频文件", "*.mp4", "*.flv", "*.mkv", "*.avi"),
+                new FileChooser.ExtensionFilter("所有文件", "*.*") // 实际格式由文件内容判断
         );
 
         // 显示文件选择器对话框并返回用户选择的文件
         return fileChooser.showOpenDialog(stage);
     }
-}
\ No newline at end of file
+
+    /**
+     * 打开文件选择器，让用户一次选择多个视频文件（多画面播放）
+     *
+     * @param stage 当前舞台（用于显示文件选择器对话框）
+     * @return 用户选择的视频文件列表，如果用户取消选择则返回空列表
+     */
+    public static List<File> chooseVideoFiles(Stage stage) {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("选择要同时播放的视频文件");
+        fileChooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("视频文件", "*.mp4", "*.flv", "*.mkv", "*.avi"),
+                new FileChooser.ExtensionFilter("所有文件", "*.*")
+        );
+        List<File> files = fileChooser.showOpenMultipleDialog(stage);
+        return files != null ? files : List.of();
+    }
+
+    /**
+     * 按扩展名快速判断是否为视频文件（用于目录扫描等批量场景的预筛选，
+     * 实际能否播放由 ContainerSniffer 根据文件内容判断）
+     * @param file 待检查文件
+     * @return 扩展名是否为视频格式
+     */
+    public static boolean isVideoFile(File file) {
+        String fileName = file.getName().toLowerCase();
+        for (String ext : SUPPORTED_EXTENSIONS) {
+            if (fileName.endsWith(ext)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 按自然排序在同一目录中查找下一集
+     * 会列出目录内容，调用方应在后台线程调用
+     *
+     * @param current 当前文件
+     * @return 下一集文件，没有时返回 null
+     */
+    public static File findNextEpisode(File current) {
+        File dir = current.getAbsoluteFile().getParentFile();
+        if (dir == null) return null;
+        File[] siblings = dir.listFiles(f -> f.isFile() && isVideoFile(f));
+        if (siblings == null || siblings.length == 0) return null;
+        Arrays.sort(siblings, (a, b) -> NaturalOrderComparator.INSTANCE.compare(a.getName(), b.getName()));
+        String currentName = current.getName();
+        for (File sibling : siblings) {
+            if (NaturalOrderComparator.INSTANCE.compare(sibling.getName(), currentName) > 0) {
+                return sibling;
+            }
+        }
+        return null;
+    }
+}
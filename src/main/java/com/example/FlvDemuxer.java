@@ -0,0 +1,210 @@
+package com.example;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * FLV 解复用：onMetaData 中的 keyframes（filepositions/times）直接作为关键帧索引，
+ * 没有时按标签头扫描一遍文件（只读标签头，数据按长度跳过）
+ * 只输出 H.264（编码 ID 7）视频和 AAC（格式 10）音频，序列头作为编码参数保存
+ */
+class FlvDemuxer extends Demuxer {
+    private static final int TAG_AUDIO = 8;
+    private static final int TAG_VIDEO = 9;
+    private static final int TAG_SCRIPT = 18;
+    private static final int TAG_HEADER_BYTES = 11;
+    private static final int CODEC_AVC = 7;
+    private static final int SOUND_AAC = 10;
+    private static final int HEADER_TAGS = 64;      // 查找序列头时最多检查的标签数
+
+    FlvDemuxer() {
+        decodeTimestamps = true;
+    }
+
+    @Override
+    protected void parseHeader(PositionalReader in) throws IOException {
+        int flags = in.u8(4);
+        long firstTag = in.u32(5) + 4;  // 跳过文件头和 PreviousTagSize0
+        boolean expectAudio = (flags & 0x04) != 0;
+        Map<String, Object> meta = new HashMap<>();
+        long pos = firstTag;
+        for (int i = 0; i < HEADER_TAGS && pos + TAG_HEADER_BYTES <= in.size(); i++) {
+            int type = in.u8(pos) & 0x1F;
+            int dataSize = in.u24(pos + 1);
+            long data = pos + TAG_HEADER_BYTES;
+            if (type == TAG_SCRIPT && meta.isEmpty()) {
+                ByteBuffer script = ByteBuffer.allocate(dataSize);
+                in.readFully(data, script);
+                script.flip();
+                parseScriptData(script, meta);
+            } else if (type == TAG_VIDEO && dataSize > 5 && avcConfig == null) {
+                if ((in.u8(data) & 0x0F) == CODEC_AVC && in.u8(data + 1) == 0) {
+                    avcConfig = in.bytes(data + 5, dataSize - 5);
+                }
+            } else if (type == TAG_AUDIO && dataSize > 2 && aacConfig == null && !hasOtherAudio) {
+                if ((in.u8(data) >>> 4) != SOUND_AAC) {
+                    hasOtherAudio = true;
+                } else if (in.u8(data + 1) == 0) {
+                    aacConfig = in.bytes(data + 2, dataSize - 2);
+                }
+            }
+            if (avcConfig != null && (aacConfig != null || hasOtherAudio || !expectAudio)) break;
+            pos = data + dataSize + 4;
+        }
+        durationMillis = (long) (number(meta.get("duration")) * 1000);
+        if (durationMillis <= 0) durationMillis = -1;
+        if (avcConfig == null || hasOtherAudio) return;
+
+        // 元数据中的关键帧索引（由 yamdi、FFmpeg -flvflags add_keyframe_index 等写入）
+        Object keyframes = meta.get("keyframes");
+        if (keyframes instanceof Map) {
+            Object times = ((Map<?, ?>) keyframes).get("times");
+            Object positions = ((Map<?, ?>) keyframes).get("filepositions");
+            if (times instanceof List && positions instanceof List
+                    && ((List<?>) times).size() == ((List<?>) positions).size()) {
+                List<?> timeList = (List<?>) times;
+                List<?> positionList = (List<?>) positions;
+                for (int i = 0; i < timeList.size(); i++) {
+                    long position = (long) number(positionList.get(i));
+                    if (position >= firstTag && position + TAG_HEADER_BYTES <= in.size()) {
+                        addKeyframe((long) (number(timeList.get(i)) * 1000), position);
+                    }
+                }
+                if (getKeyframeCount() > 0 && (in.u8(getKeyframePosition(0)) & 0x1F) == TAG_VIDEO) return;
+            }
+        }
+        scanKeyframes(in, firstTag);
+    }
+
+    /**
+     * 没有可用的关键帧索引时扫描全部标签头
+     */
+    private void scanKeyframes(PositionalReader in, long pos) throws IOException {
+        long lastTimestamp = 0;
+        while (pos + TAG_HEADER_BYTES <= in.size()) {
+            int type = in.u8(pos) & 0x1F;
+            int dataSize = in.u24(pos + 1);
+            long timestamp = timestamp(in, pos);
+            long data = pos + TAG_HEADER_BYTES;
+            if (type == TAG_VIDEO && dataSize > 5 && data + 2 <= in.size()) {
+                int first = in.u8(data);
+                if ((first >>> 4) == 1 && (first & 0x0F) == CODEC_AVC && in.u8(data + 1) == 1) {
+                    addKeyframe(timestamp, pos);
+                }
+            }
+            if (type == TAG_VIDEO || type == TAG_AUDIO) lastTimestamp = Math.max(lastTimestamp, timestamp);
+            pos = data + dataSize + 4;
+        }
+        if (durationMillis < 0 && lastTimestamp > 0) durationMillis = lastTimestamp;
+    }
+
+    @Override
+    public void read(PositionalReader in, long pos, SampleSink sink) throws IOException {
+        ByteBuffer scratch = ByteBuffer.allocate(256 * 1024);
+        while (pos + TAG_HEADER_BYTES <= in.size()) {
+            int type = in.u8(pos);
+            int dataSize = in.u24(pos + 1);
+            long timestamp = timestamp(in, pos);
+            long data = pos + TAG_HEADER_BYTES;
+            if (data + dataSize > in.size()) return;  // 文件被截断
+            pos = data + dataSize + 4;
+            if ((type & 0x20) != 0) continue;          // 加密标签
+            type &= 0x1F;
+            if (type == TAG_VIDEO && dataSize > 5) {
+                int first = in.u8(data);
+                if ((first & 0x0F) != CODEC_AVC || in.u8(data + 1) != 1) continue;
+                int compositionTime = (in.u24(data + 2) << 8) >> 8;  // 有符号 24 位
+                scratch = ensureCapacity(scratch, dataSize - 5);
+                ByteBuffer frame = readFrame(in, data + 5, dataSize - 5, scratch);
+                if (!sink.sample(true, timestamp, timestamp + compositionTime, (first >>> 4) == 1, frame)) return;
+            } else if (type == TAG_AUDIO && dataSize > 2) {
+                if ((in.u8(data) >>> 4) != SOUND_AAC || in.u8(data + 1) != 1) continue;
+                scratch = ensureCapacity(scratch, dataSize - 2);
+                ByteBuffer frame = readFrame(in, data + 2, dataSize - 2, scratch);
+                if (!sink.sample(false, timestamp, timestamp, true, frame)) return;
+            }
+        }
+    }
+
+    /**
+     * 标签时间戳：低 24 位加扩展字节作为高 8 位
+     */
+    private static long timestamp(PositionalReader in, long tag) throws IOException {
+        return in.u24(tag + 4) | ((long) in.u8(tag + 7) << 24);
+    }
+
+    // ---------------------------------------------------------------- AMF0
+
+    /**
+     * 解析 onMetaData，保留嵌套对象和数组（关键帧索引在 keyframes 对象的两个数组中）
+     */
+    private static void parseScriptData(ByteBuffer data, Map<String, Object> meta) {
+        try {
+            if (data.get() != 2 || !"onMetaData".equals(readString(data))) return;
+            Object value = readValue(data, data.get() & 0xFF, 0);
+            if (value instanceof Map) {
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                    meta.put((String) entry.getKey(), entry.getValue());
+                }
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException ex) {
+            // 元数据被截断或包含无法识别的类型，没有索引时改为扫描
+        }
+    }
+
+    private static Object readValue(ByteBuffer data, int type, int depth) {
+        if (depth > 4) throw new IllegalArgumentException("AMF 嵌套过深");
+        switch (type) {
+            case 0: return data.getDouble();
+            case 1: return data.get() != 0;
+            case 2: return readString(data);
+            case 3: return readObject(data, depth);
+            case 5:
+            case 6: return null;
+            case 8: data.getInt(); return readObject(data, depth);  // ECMA 数组的元素数量不可靠，以结束标记为准
+            case 10: {
+                int count = data.getInt();
+                if (count < 0 || count > data.remaining()) throw new IllegalArgumentException("AMF 数组长度无效");
+                List<Object> list = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) list.add(readValue(data, data.get() & 0xFF, depth + 1));
+                return list;
+            }
+            case 11: data.position(data.position() + 10); return null;
+            case 12: {
+                int length = data.getInt();
+                if (length < 0 || length > data.remaining()) throw new IllegalArgumentException("AMF 长字符串长度无效");
+                byte[] bytes = new byte[length];
+                data.get(bytes);
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+            default: throw new IllegalArgumentException("未知 AMF 类型: " + type);
+        }
+    }
+
+    private static Map<String, Object> readObject(ByteBuffer data, int depth) {
+        Map<String, Object> object = new HashMap<>();
+        while (data.remaining() >= 3) {
+            String key = readString(data);
+            int type = data.get() & 0xFF;
+            if (key.isEmpty() && type == 9) break;  // 对象结束标记
+            object.put(key, readValue(data, type, depth + 1));
+        }
+        return object;
+    }
+
+    private static String readString(ByteBuffer data) {
+        byte[] bytes = new byte[data.getShort() & 0xFFFF];
+        data.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static double number(Object value) {
+        return value instanceof Double ? (Double) value : 0;
+    }
+}
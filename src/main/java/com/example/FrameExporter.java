@@ -0,0 +1,316 @@
+package com.example;
+
+// 导入JavaFX和相关库
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.geometry.Bounds;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.media.MediaPlayer;
+import javafx.scene.media.MediaView;
+import javafx.scene.paint.Color;
+import javafx.scene.transform.Transform;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 画面导出：截图保存为 PNG，短片段保存为动画 GIF
+ * UI 线程每帧只做一次 MediaView.snapshot（写入环形缓冲池中复用的 WritableImage），
+ * 读取像素、量化、压缩都在后台线程完成；缓冲池取空时丢弃该帧而不是新建缓冲，内存占用有上限
+ * 公开方法都在 JavaFX 应用线程调用
+ */
+public class FrameExporter {
+    /**
+     * 导出回调，在 JavaFX 应用线程调用
+     */
+    public interface Callback {
+        /** 文件已写完 */
+        void onSaved(File file);
+
+        /** 导出失败 */
+        void onError(File file, String message);
+    }
+
+    private static final int RING_SIZE = 6;            // 片段录制的缓冲帧数（在途帧数上限）
+    private static final int CLIP_MAX_WIDTH = 480;     // 片段最大宽度
+    private static final int CLIP_FPS = 12;            // 片段帧率
+    private static final double CLIP_SECONDS = 5;      // 片段默认时长
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final Callback callback;                   // 导出回调
+    private final ExecutorService encoders = Executors.newFixedThreadPool(
+            Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1)),
+            new DaemonThreadFactory("frame-encode"));  // 量化与压缩线程池
+    private final ExecutorService writer =
+            Executors.newSingleThreadExecutor(new DaemonThreadFactory("frame-write")); // 按顺序写文件
+    private final SnapshotParameters params = new SnapshotParameters(); // 截图参数（复用）
+    private Frame screenshotFrame;                     // 截图缓冲（空闲时保留以便复用）
+    private Clip clip;                                 // 正在录制的片段
+
+    /**
+     * 构造函数
+     * @param callback 导出回调
+     */
+    public FrameExporter(Callback callback) {
+        this.callback = callback;
+        params.setFill(Color.BLACK);
+    }
+
+    /**
+     * @return 默认导出目录（图片目录下的 DogPlayer，不存在时使用用户目录）
+     */
+    public static Path outputDirectory() {
+        Path home = Paths.get(System.getProperty("user.home"));
+        Path pictures = home.resolve("Pictures");
+        return (Files.isDirectory(pictures) ? pictures : home).resolve("DogPlayer");
+    }
+
+    /**
+     * 按视频文件名和当前时间生成导出文件
+     * @param videoFile 正在播放的视频
+     * @param extension 扩展名（不含点）
+     * @return 导出目录中的文件
+     */
+    public static File outputFile(File videoFile, String extension) {
+        String name = "DogPlayer";
+        if (videoFile != null) {
+            name = videoFile.getName();
+            int dot = name.lastIndexOf('.');
+            if (dot > 0) name = name.substring(0, dot);
+        }
+        return outputDirectory().resolve(name + "_" + LocalDateTime.now().format(STAMP) + "." + extension).toFile();
+    }
+
+    /**
+     * 以视频原始分辨率截取当前画面并在后台保存为 PNG
+     * @param view 媒体视图
+     * @param target 目标文件
+     * @return 已开始保存时返回 true，没有画面时返回 false
+     */
+    public boolean saveScreenshot(MediaView view, File target) {
+        double scale = nativeScale(view);
+        Bounds bounds = view.getLayoutBounds();
+        int width = (int) Math.round(bounds.getWidth() * scale);
+        int height = (int) Math.round(bounds.getHeight() * scale);
+        if (width <= 0 || height <= 0) return false;
+
+        Frame frame = screenshotFrame;
+        screenshotFrame = null;
+        if (frame == null || frame.width != width || frame.height != height) frame = new Frame(width, height);
+        capture(view, frame, scale);
+
+        Frame captured = frame;
+        CompletableFuture.runAsync(() -> {
+            captured.readPixels();
+            try {
+                Files.createDirectories(target.toPath().getParent());
+                try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(target.toPath()))) {
+                    PngEncoder.write(captured.argb, width, height, out);
+                }
+            } catch (IOException ex) {
+                throw new RuntimeException(ex.getMessage(), ex);
+            }
+        }, encoders).whenComplete((ignored, error) -> Platform.runLater(() -> {
+            screenshotFrame = captured;
+            report(target, error);
+        }));
+        return true;
+    }
+
+    /**
+     * 开始录制 GIF 片段，到达默认时长或调用 stopClip() 时结束
+     * @param view 媒体视图
+     * @param target 目标文件
+     * @return 已开始录制时返回 true，没有画面或正在录制时返回 false
+     */
+    public boolean startClip(MediaView view, File target) {
+        if (clip != null) return false;
+        Bounds bounds = view.getLayoutBounds();
+        if (bounds.getWidth() < 1 || bounds.getHeight() < 1) return false;
+        double scale = Math.min(CLIP_MAX_WIDTH, bounds.getWidth() * nativeScale(view)) / bounds.getWidth();
+        int width = (int) Math.round(bounds.getWidth() * scale);
+        int height = (int) Math.round(bounds.getHeight() * scale);
+        try {
+            Files.createDirectories(target.toPath().getParent());
+            clip = new Clip(view, target, width, height, scale);
+        } catch (IOException ex) {
+            callback.onError(target, ex.getMessage());
+            return false;
+        }
+        clip.timer.start();
+        return true;
+    }
+
+    /**
+     * 结束录制，已捕获的帧写完后回调 onSaved
+     */
+    public void stopClip() {
+        if (clip != null) clip.finish();
+    }
+
+    /**
+     * @return 是否正在录制片段
+     */
+    public boolean isRecording() {
+        return clip != null;
+    }
+
+    /**
+     * 把视图渲染到缓冲帧（UI 线程唯一的逐帧工作）
+     */
+    private void capture(MediaView view, Frame frame, double scale) {
+        params.setTransform(Transform.scale(scale, scale));
+        view.snapshot(params, frame.image);
+    }
+
+    /**
+     * @return 从显示尺寸放大到视频原始分辨率的比例（无法获取时为 1）
+     */
+    private static double nativeScale(MediaView view) {
+        MediaPlayer player = view.getMediaPlayer();
+        double shown = view.getLayoutBounds().getWidth();
+        if (player == null || shown <= 0 || player.getMedia().getWidth() <= 0) return 1;
+        return player.getMedia().getWidth() / shown;
+    }
+
+    private void report(File target, Throwable error) {
+        if (error == null) {
+            callback.onSaved(target);
+        } else {
+            Throwable cause = error.getCause() != null ? error.getCause() : error;
+            System.err.println("导出失败: " + target + " - " + cause.getMessage());
+            callback.onError(target, cause.getMessage());
+        }
+    }
+
+    /**
+     * 缓冲帧：截图目标图像和读取像素用的数组
+     */
+    private static final class Frame {
+        final int width;
+        final int height;
+        final WritableImage image;
+        final int[] argb;
+
+        Frame(int width, int height) {
+            this.width = width;
+            this.height = height;
+            this.image = new WritableImage(width, height);
+            this.argb = new int[width * height];
+        }
+
+        /** 后台线程：从截图中读出像素（缓冲不在池中时 UI 线程不会写它） */
+        void readPixels() {
+            image.getPixelReader().getPixels(0, 0, width, height,
+                    PixelFormat.getIntArgbInstance(), argb, 0, width);
+        }
+    }
+
+    /**
+     * 一次片段录制：UI 线程按帧率截图，编码线程并行量化压缩，写入线程按顺序落盘
+     */
+    private final class Clip {
+        private final MediaView view;
+        private final File target;
+        private final double scale;
+        private final long intervalNanos = 1_000_000_000L / CLIP_FPS;
+        private final long maxFrames = Math.round(CLIP_SECONDS * CLIP_FPS);
+        private final BlockingQueue<Frame> free = new ArrayBlockingQueue<>(RING_SIZE); // 空闲缓冲
+        private final GifEncoder encoder;                    // 只在写入线程访问
+        private CompletableFuture<Void> tail;                // 写入链的末端
+        private long nextDue;                                // 下一帧的截取时间
+        private long captured;                               // 已截取帧数
+        private long dropped;                                // 缓冲池取空而丢弃的帧数
+        private byte[] pendingFrame;                         // 写入线程：等待确定显示时长的上一帧
+        private long pendingNanos;
+        private final AnimationTimer timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                tick(now);
+            }
+        };
+
+        Clip(MediaView view, File target, int width, int height, double scale) throws IOException {
+            this.view = view;
+            this.target = target;
+            this.scale = scale;
+            for (int i = 0; i < RING_SIZE; i++) free.add(new Frame(width, height));
+            OutputStream out = new BufferedOutputStream(Files.newOutputStream(target.toPath()));
+            this.encoder = new GifEncoder(out, width, height);
+            this.tail = CompletableFuture.completedFuture(null);
+        }
+
+        private void tick(long now) {
+            if (now < nextDue) return;
+            nextDue = Math.max(nextDue + intervalNanos, now);
+            Frame frame = free.poll();
+            if (frame == null) {
+                dropped++;  // 编码跟不上时丢帧，不阻塞 UI 线程
+                return;
+            }
+            capture(view, frame, scale);
+            CompletableFuture<byte[]> encoded = CompletableFuture.supplyAsync(() -> {
+                try {
+                    frame.readPixels();
+                    return GifEncoder.encodeFrame(frame.argb, frame.width, frame.height);
+                } finally {
+                    free.offer(frame);
+                }
+            }, encoders);
+            long nanos = now;
+            tail = tail.thenCombineAsync(encoded, (ignored, bytes) -> {
+                write(bytes, nanos);
+                return null;
+            }, writer);
+            if (++captured >= maxFrames) finish();
+        }
+
+        /** 写入线程：上一帧的显示时长取到这一帧的实际间隔 */
+        private void write(byte[] bytes, long nanos) {
+            try {
+                if (pendingFrame != null) encoder.writeFrame(pendingFrame, (nanos - pendingNanos) / 1_000_000);
+            } catch (IOException ex) {
+                throw new RuntimeException(ex.getMessage(), ex);
+            }
+            pendingFrame = bytes;
+            pendingNanos = nanos;
+        }
+
+        void finish() {
+            timer.stop();
+            clip = null;
+            if (dropped > 0) System.err.println("片段录制丢弃 " + dropped + " 帧（编码跟不上）");
+            tail.whenCompleteAsync((ignored, error) -> {
+                Throwable failure = error;
+                try {
+                    if (error == null && pendingFrame != null) encoder.writeFrame(pendingFrame, 1000 / CLIP_FPS);
+                    encoder.close();
+                } catch (IOException ex) {
+                    if (failure == null) failure = ex;
+                }
+                if (failure != null) {
+                    try {
+                        Files.deleteIfExists(target.toPath());
+                    } catch (IOException ignoredEx) {
+                        // 删除不完整的文件失败时保留它
+                    }
+                }
+                Throwable result = failure;
+                Platform.runLater(() -> report(target, result));
+            }, writer);
+        }
+    }
+}
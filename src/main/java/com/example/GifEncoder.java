@@ -0,0 +1,242 @@
+package com.example;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 动画 GIF 编码器
+ * 每帧使用独立的局部调色板，量化和 LZW 压缩由 encodeFrame() 完成且互不依赖，可在多个线程上并行；
+ * 写入由单个线程按顺序调用 writeFrame()
+ */
+public class GifEncoder implements Closeable {
+    private static final int MAX_CODES = 4096;     // LZW 码表上限（12 位）
+    private static final int HASH_SIZE = 5003;     // 码表哈希大小（质数，约为码表的 1.2 倍）
+    private static final int CLEAR_CODE = 256;     // 清表码（8 位最小码长）
+    private static final int END_CODE = 257;       // 结束码
+
+    // 4x4 有序抖动矩阵（0-15），量化前叠加，减轻 3-3-2 分箱带来的色带
+    private static final int[] BAYER = {0, 8, 2, 10, 12, 4, 14, 6, 3, 11, 1, 9, 15, 7, 13, 5};
+
+    private final OutputStream out;                // 输出流
+
+    /**
+     * 写入文件头和循环播放扩展
+     * @param out 输出流（close() 时关闭）
+     * @param width 画面宽度
+     * @param height 画面高度
+     * @throws IOException 写入失败
+     */
+    public GifEncoder(OutputStream out, int width, int height) throws IOException {
+        this.out = out;
+        out.write("GIF89a".getBytes(StandardCharsets.US_ASCII));
+        writeShort(out, width);
+        writeShort(out, height);
+        out.write(0x70);   // 无全局调色板，颜色深度 8 位
+        out.write(0);      // 背景色索引
+        out.write(0);      // 像素宽高比
+        // NETSCAPE2.0 扩展：无限循环
+        out.write(0x21);
+        out.write(0xFF);
+        out.write(11);
+        out.write("NETSCAPE2.0".getBytes(StandardCharsets.US_ASCII));
+        out.write(3);
+        out.write(1);
+        writeShort(out, 0);
+        out.write(0);
+    }
+
+    /**
+     * 量化并压缩一帧（可在任意线程调用，不访问编码器状态）
+     * 调色板取 3-3-2 分箱中每个箱内像素的平均色，比固定调色板更贴近画面
+     * @param argb 像素数组，按行存放
+     * @param width 宽度
+     * @param height 高度
+     * @return 图像描述符、局部调色板和压缩数据
+     */
+    public static byte[] encodeFrame(int[] argb, int width, int height) {
+        int count = width * height;
+        byte[] indices = new byte[count];
+        long[] sums = new long[256 * 3];
+        int[] counts = new int[256];
+        for (int y = 0; y < height; y++) {
+            int row = y * width;
+            int ditherRow = (y & 3) << 2;
+            for (int x = 0; x < width; x++) {
+                int pixel = argb[row + x];
+                int r = (pixel >> 16) & 0xFF;
+                int g = (pixel >> 8) & 0xFF;
+                int b = pixel & 0xFF;
+                int d = BAYER[ditherRow | (x & 3)];
+                int bin = (Math.min(255, r + (d << 1)) >> 5) << 5
+                        | (Math.min(255, g + (d << 1)) >> 5) << 2
+                        | Math.min(255, b + (d << 2)) >> 6;
+                indices[row + x] = (byte) bin;
+                sums[bin * 3] += r;
+                sums[bin * 3 + 1] += g;
+                sums[bin * 3 + 2] += b;
+                counts[bin]++;
+            }
+        }
+
+        ByteArrayOutputStream frame = new ByteArrayOutputStream(count / 2 + 1024);
+        // 图像描述符
+        frame.write(0x2C);
+        writeShort(frame, 0);
+        writeShort(frame, 0);
+        writeShort(frame, width);
+        writeShort(frame, height);
+        frame.write(0x87);   // 局部调色板，256 色
+        // 局部调色板：空箱使用箱中心色
+        for (int bin = 0; bin < 256; bin++) {
+            int n = counts[bin];
+            if (n > 0) {
+                frame.write((int) (sums[bin * 3] / n));
+                frame.write((int) (sums[bin * 3 + 1] / n));
+                frame.write((int) (sums[bin * 3 + 2] / n));
+            } else {
+                frame.write(((bin >> 5) << 5) | 16);
+                frame.write((((bin >> 2) & 7) << 5) | 16);
+                frame.write(((bin & 3) << 6) | 32);
+            }
+        }
+        frame.write(8);      // LZW 最小码长
+        compress(indices, frame);
+        frame.write(0);      // 数据块结束
+        return frame.toByteArray();
+    }
+
+    /**
+     * 写入一帧（按播放顺序调用）
+     * @param frame encodeFrame() 的结果
+     * @param delayMillis 该帧的显示时长
+     * @throws IOException 写入失败
+     */
+    public void writeFrame(byte[] frame, long delayMillis) throws IOException {
+        // 图形控制扩展：显示时长以 1/100 秒为单位
+        out.write(0x21);
+        out.write(0xF9);
+        out.write(4);
+        out.write(0x04);   // 保留上一帧，不透明
+        writeShort(out, (int) Math.max(2, Math.min(0xFFFF, Math.round(delayMillis / 10.0))));
+        out.write(0);
+        out.write(0);
+        out.write(frame);
+    }
+
+    /**
+     * 写入结束标记并关闭输出流
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            out.write(0x3B);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * LZW 压缩，按 GIF 规范输出为不超过 255 字节的数据子块
+     */
+    private static void compress(byte[] indices, ByteArrayOutputStream out) {
+        int[] hashKeys = new int[HASH_SIZE];
+        int[] hashCodes = new int[HASH_SIZE];
+        Arrays.fill(hashKeys, -1);
+        BitPacker bits = new BitPacker(out);
+        int codeBits = 9;
+        int next = END_CODE + 1;
+        bits.write(CLEAR_CODE, codeBits);
+
+        int prefix = indices.length > 0 ? indices[0] & 0xFF : 0;
+        for (int i = 1; i < indices.length; i++) {
+            int pixel = indices[i] & 0xFF;
+            int key = (prefix << 8) | pixel;
+            int slot = ((pixel << 4) ^ prefix) % HASH_SIZE;
+            int step = slot == 0 ? 1 : HASH_SIZE - slot;
+            while (hashKeys[slot] != -1 && hashKeys[slot] != key) {
+                slot -= step;
+                if (slot < 0) slot += HASH_SIZE;
+            }
+            if (hashKeys[slot] == key) {
+                prefix = hashCodes[slot];
+                continue;
+            }
+            bits.write(prefix, codeBits);
+            if (next >= (1 << codeBits) && codeBits < 12) codeBits++;
+            if (next < MAX_CODES) {
+                hashKeys[slot] = key;
+                hashCodes[slot] = next++;
+            } else {
+                // 码表已满：清表后重新开始
+                bits.write(CLEAR_CODE, codeBits);
+                Arrays.fill(hashKeys, -1);
+                next = END_CODE + 1;
+                codeBits = 9;
+            }
+            prefix = pixel;
+        }
+        bits.write(prefix, codeBits);
+        if (next >= (1 << codeBits) && codeBits < 12) codeBits++;
+        bits.write(END_CODE, codeBits);
+        bits.flush();
+    }
+
+    /**
+     * 按低位在前的顺序打包变长码，并切分为数据子块
+     */
+    private static final class BitPacker {
+        private final ByteArrayOutputStream out;
+        private final byte[] block = new byte[255];
+        private int blockSize;
+        private int buffer;
+        private int bufferBits;
+
+        BitPacker(ByteArrayOutputStream out) {
+            this.out = out;
+        }
+
+        void write(int code, int length) {
+            buffer |= code << bufferBits;
+            bufferBits += length;
+            while (bufferBits >= 8) {
+                addByte(buffer & 0xFF);
+                buffer >>>= 8;
+                bufferBits -= 8;
+            }
+        }
+
+        void flush() {
+            if (bufferBits > 0) addByte(buffer & 0xFF);
+            buffer = 0;
+            bufferBits = 0;
+            if (blockSize > 0) {
+                out.write(blockSize);
+                out.write(block, 0, blockSize);
+                blockSize = 0;
+            }
+        }
+
+        private void addByte(int value) {
+            block[blockSize++] = (byte) value;
+            if (blockSize == block.length) {
+                out.write(blockSize);
+                out.write(block, 0, blockSize);
+                blockSize = 0;
+            }
+        }
+    }
+
+    private static void writeShort(OutputStream out, int value) throws IOException {
+        out.write(value & 0xFF);
+        out.write((value >> 8) & 0xFF);
+    }
+
+    private static void writeShort(ByteArrayOutputStream out, int value) {
+        out.write(value & 0xFF);
+        out.write((value >> 8) & 0xFF);
+    }
+}
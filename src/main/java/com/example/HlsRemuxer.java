@@ -0,0 +1,295 @@
+package com.example;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 把 FLV/Matroska 中的 H.264/AAC 无损转封装为 HLS（VOD 播放列表 + MPEG-TS 分段），由 MediaProxyServer 提供给 Media
+ * 打开时只读取头部和关键帧索引，按关键帧把时间轴切成约 4 秒的分段；分段在被请求时才从源文件读取并复用，
+ * 生成后在后台顺带生成下一段，内存中只保留最近的几段，跳转时直接生成目标位置的分段，不做整文件转换
+ * 分段边界的规则：视频从不早于分段起点的第一个关键帧开始，到不早于下一段起点的第一个关键帧为止；
+ * 音频按时间落在 [起点, 下一段起点) 内的帧输出，因此相邻分段既不重叠也不缺帧
+ */
+public class HlsRemuxer {
+    private static final long SEGMENT_MILLIS = 4000;  // 分段的最短时长
+    private static final long READ_LIMIT_MILLIS = 10_000; // 超过下一段起点这么久仍未找到边界时停止读取
+    private static final long REORDER_MILLIS = 200;   // 合成解码时间时至少前移的距离
+    private static final int CACHED_SEGMENTS = 3;     // 内存中保留的分段数
+    private static final ExecutorService PREFETCH =
+            Executors.newSingleThreadExecutor(new DaemonThreadFactory("hls-remux")); // 预生成线程
+
+    private final File file;                          // 源文件
+    private final Demuxer demuxer;                    // 解复用器（只保存头部信息，可并发读取）
+    private final long[] starts;                      // 各分段起点（毫秒）
+    private final long[] positions;                   // 各分段开始读取的文件位置
+    private final long durationMillis;                // 总时长
+    private final LinkedHashMap<Integer, byte[]> segments = new LinkedHashMap<>(8, 0.75f, true); // 已生成的分段（由 this 保护）
+    private final ConcurrentHashMap<Integer, CompletableFuture<byte[]>> inFlight = new ConcurrentHashMap<>(); // 正在生成的分段
+    private volatile boolean closed;                  // 是否已关闭（播放器已释放）
+    private int users = 1;                            // 使用者数（主播放器、缩略图播放器等，由 this 保护）
+
+    private HlsRemuxer(File file, Demuxer demuxer) {
+        this.file = file;
+        this.demuxer = demuxer;
+        List<Integer> chosen = new ArrayList<>();
+        for (int i = 0; i < demuxer.getKeyframeCount(); i++) {
+            long time = demuxer.getKeyframeTime(i);
+            if (chosen.isEmpty() || time - demuxer.getKeyframeTime(chosen.get(chosen.size() - 1)) >= SEGMENT_MILLIS) {
+                chosen.add(i);
+            }
+        }
+        starts = new long[chosen.size()];
+        positions = new long[chosen.size()];
+        for (int i = 0; i < chosen.size(); i++) {
+            starts[i] = demuxer.getKeyframeTime(chosen.get(i));
+            positions[i] = demuxer.getKeyframePosition(chosen.get(i));
+        }
+        long lastStart = starts[starts.length - 1];
+        durationMillis = demuxer.getDurationMillis() > lastStart ? demuxer.getDurationMillis() : lastStart + SEGMENT_MILLIS;
+    }
+
+    /**
+     * @param format 容器格式
+     * @return 是否可能需要转封装（FLV 中的 VP6 仍由 JavaFX 直接播放）
+     */
+    public static boolean isCandidate(ContainerFormat format) {
+        return format == ContainerFormat.FLV || format == ContainerFormat.MATROSKA;
+    }
+
+    /**
+     * 解析头部和关键帧索引（没有索引时会扫描文件），应在后台线程调用
+     * @param file 媒体文件
+     * @return 转封装会话，编码不是 H.264（+AAC）时返回 null
+     * @throws IOException 读取失败
+     */
+    public static HlsRemuxer open(File file) throws IOException {
+        Demuxer demuxer = Demuxer.open(file.toPath());
+        if (demuxer == null || !demuxer.isRemuxable()) return null;
+        return new HlsRemuxer(file, demuxer);
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * @return VOD 播放列表（分段地址相对于播放列表）
+     */
+    public String playlist() {
+        StringBuilder list = new StringBuilder();
+        long longest = 0;
+        for (int i = 0; i < starts.length; i++) longest = Math.max(longest, segmentDuration(i));
+        list.append("#EXTM3U\n")
+                .append("#EXT-X-VERSION:3\n")
+                .append("#EXT-X-PLAYLIST-TYPE:VOD\n")
+                .append("#EXT-X-TARGETDURATION:").append((longest + 999) / 1000).append('\n')
+                .append("#EXT-X-MEDIA-SEQUENCE:0\n");
+        for (int i = 0; i < starts.length; i++) {
+            list.append(String.format(Locale.ROOT, "#EXTINF:%.3f,%n", segmentDuration(i) / 1000.0))
+                    .append(i).append(".ts\n");
+        }
+        list.append("#EXT-X-ENDLIST\n");
+        return list.toString();
+    }
+
+    /**
+     * @return 分段数
+     */
+    public int segmentCount() {
+        return starts.length;
+    }
+
+    /**
+     * 获取分段（未生成时在调用线程生成），之后在后台预生成下一段
+     * @param index 分段序号
+     * @return MPEG-TS 数据
+     * @throws IOException 读取源文件失败
+     */
+    public byte[] segment(int index) throws IOException {
+        byte[] data = load(index);
+        if (index + 1 < starts.length && !closed) {
+            PREFETCH.execute(() -> {
+                try {
+                    load(index + 1);
+                } catch (IOException ex) {
+                    System.err.println("分段预生成失败: " + file + " #" + (index + 1) + " - " + ex.getMessage());
+                }
+            });
+        }
+        return data;
+    }
+
+    /**
+     * 增加一个使用者（例如与主播放器共用会话的缩略图播放器）
+     * @return 会话尚未关闭时返回 true，调用方之后需要通过 MediaProxyServer.releaseRemux 释放
+     */
+    synchronized boolean retain() {
+        if (closed) return false;
+        users++;
+        return true;
+    }
+
+    /**
+     * 减少一个使用者
+     * @return 是否为最后一个使用者（此时应注销并关闭会话）
+     */
+    synchronized boolean release() {
+        return --users == 0;
+    }
+
+    /**
+     * 关闭会话：丢弃已生成的分段，之后生成的分段不再缓存，也不再预生成
+     */
+    public void close() {
+        closed = true;
+        synchronized (this) {
+            segments.clear();
+        }
+        inFlight.clear();
+    }
+
+    private long segmentDuration(int index) {
+        long end = index + 1 < starts.length ? starts[index + 1] : durationMillis;
+        long start = index == 0 ? Math.min(0, starts[0]) : starts[index];
+        return Math.max(1, end - start);
+    }
+
+    /**
+     * 从缓存取分段，没有时生成；同一分段同时只生成一次
+     */
+    private byte[] load(int index) throws IOException {
+        synchronized (this) {
+            byte[] cached = segments.get(index);
+            if (cached != null) return cached;
+        }
+        CompletableFuture<byte[]> created = new CompletableFuture<>();
+        CompletableFuture<byte[]> existing = inFlight.putIfAbsent(index, created);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException ex) {
+                throw new IOException("分段生成失败: " + ex.getCause().getMessage(), ex.getCause());
+            }
+        }
+        try {
+            byte[] data = generate(index);
+            synchronized (this) {
+                if (!closed) {
+                    segments.put(index, data);
+                    if (segments.size() > CACHED_SEGMENTS) segments.remove(segments.keySet().iterator().next());
+                }
+            }
+            created.complete(data);
+            return data;
+        } catch (IOException | RuntimeException ex) {
+            created.completeExceptionally(ex);
+            if (ex instanceof IOException) throw (IOException) ex;
+            throw new IOException("分段生成失败: " + ex, ex);
+        } finally {
+            inFlight.remove(index, created);
+        }
+    }
+
+    /**
+     * 从分段起点所在的位置读取帧，按边界规则取出属于本段的帧，按解码时间交错写入 TS
+     */
+    private byte[] generate(int index) throws IOException {
+        long start = index == 0 ? Long.MIN_VALUE : starts[index];
+        long end = index + 1 < starts.length ? starts[index + 1] : Long.MAX_VALUE;
+        boolean expectAudio = demuxer.getAacConfig() != null;
+        List<Frame> video = new ArrayList<>();
+        List<Frame> audio = new ArrayList<>();
+        boolean[] state = new boolean[3];  // 视频已开始、视频已结束、音频已结束
+
+        try (PositionalReader in = PositionalReader.open(file.toPath())) {
+            demuxer.read(in, positions[index], (isVideo, dts, pts, keyframe, data) -> {
+                if (isVideo) {
+                    if (keyframe && dts >= end) {
+                        state[1] = true;
+                    } else if (!state[0] && keyframe && dts >= start) {
+                        state[0] = true;
+                    }
+                    if (state[0] && !state[1]) video.add(new Frame(dts, pts, keyframe, data));
+                } else if (dts >= end) {
+                    state[2] = true;
+                } else if (dts >= start) {
+                    audio.add(new Frame(dts, pts, true, data));
+                }
+                if (end != Long.MAX_VALUE && dts > end + READ_LIMIT_MILLIS) return false;
+                return !(state[1] && (state[2] || !expectAudio));
+            });
+        }
+        if (!demuxer.hasDecodeTimestamps()) assignDecodeTimestamps(video);
+
+        TsMuxer muxer = new TsMuxer(index, demuxer.getAvcConfig(), demuxer.getAacConfig());
+        int v = 0;
+        int a = 0;
+        while (v < video.size() || a < audio.size()) {
+            boolean takeVideo = a >= audio.size() || (v < video.size() && video.get(v).dts <= audio.get(a).dts);
+            if (takeVideo) {
+                Frame frame = video.get(v++);
+                muxer.writeVideo(frame.dts, frame.pts, frame.keyframe, ByteBuffer.wrap(frame.data));
+            } else {
+                Frame frame = audio.get(a++);
+                muxer.writeAudio(frame.pts, ByteBuffer.wrap(frame.data));
+            }
+        }
+        return muxer.finish();
+    }
+
+    private static void assignDecodeTimestamps(List<Frame> video) {
+        long[] pts = new long[video.size()];
+        for (int i = 0; i < pts.length; i++) pts[i] = video.get(i).pts;
+        long[] dts = decodeTimestamps(pts);
+        for (int i = 0; i < pts.length; i++) video.get(i).dts = dts[i];
+    }
+
+    /**
+     * Matroska 只记录显示时间：把本段的显示时间排序后依次作为解码时间，再前移本段的最大重排距离（至少 REORDER_MILLIS），
+     * 保证解码时间递增且不晚于显示时间；段首帧的解码时间固定为其显示时间减 REORDER_MILLIS，
+     * 重排更深时段首附近的帧只逐毫秒递增，不随前移量提前。各分段独立生成、前移量各不相同，
+     * 但每段的解码时间都落在 [段首显示时间 - REORDER_MILLIS, 段尾显示时间 - REORDER_MILLIS] 内，
+     * 下一段的显示时间都晚于本段，因此相邻分段衔接处的解码时间也保持递增
+     * @param pts 按解码顺序排列的显示时间
+     * @return 对应的解码时间
+     */
+    static long[] decodeTimestamps(long[] pts) {
+        long[] sorted = pts.clone();
+        Arrays.sort(sorted);
+        if (sorted.length == 0) return sorted;
+        long shift = REORDER_MILLIS;
+        for (int i = 0; i < sorted.length; i++) shift = Math.max(shift, sorted[i] - pts[i]);
+        long first = sorted[0] - REORDER_MILLIS;
+        for (int i = 0; i < sorted.length; i++) sorted[i] = Math.max(sorted[i] - shift, first + i);
+        return sorted;
+    }
+
+    /**
+     * 复制出来的一帧（回调中的数据在下一次读取后失效）
+     */
+    private static final class Frame {
+        long dts;
+        final long pts;
+        final boolean keyframe;
+        final byte[] data;
+
+        Frame(long dts, long pts, boolean keyframe, ByteBuffer source) {
+            this.dts = dts;
+            this.pts = pts;
+            this.keyframe = keyframe;
+            this.data = new byte[source.remaining()];
+            source.duplicate().get(data);
+        }
+    }
+}
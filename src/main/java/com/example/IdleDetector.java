@@ -0,0 +1,100 @@
+package com.example;
+
+// 导入JavaFX和相关库
+import javafx.animation.Animation;
+import javafx.animation.PauseTransition;
+import javafx.util.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * 空闲检测器，基于单个可复用的计时器判断用户是否停止操作
+ * 活动时只记录时间戳，计时器到期后再检查是否需要顺延，进入/退出空闲的回调各只触发一次
+ */
+public class IdleDetector {
+    private final PauseTransition idleTimer = new PauseTransition(); // 唯一的计时器
+    private final LongSupplier delaySupplier; // 空闲延迟（毫秒）提供者
+    private final Runnable onIdle;            // 进入空闲时回调
+    private final Runnable onActive;          // 从空闲恢复时回调
+    private long lastActivityNanos = System.nanoTime(); // 最后一次活动时间
+    private long armedDelayMillis;            // 本轮空闲周期使用的延迟
+    private boolean idle = false;             // 是否处于空闲状态
+    private boolean enabled = false;          // 是否启用检测
+
+    /**
+     * 构造函数
+     * @param delaySupplier 空闲延迟（毫秒）提供者，每轮空闲周期开始时读取一次
+     * @param onIdle 进入空闲时的回调
+     * @param onActive 从空闲恢复时的回调
+     */
+    public IdleDetector(LongSupplier delaySupplier, Runnable onIdle, Runnable onActive) {
+        this.delaySupplier = delaySupplier;
+        this.onIdle = onIdle;
+        this.onActive = onActive;
+        idleTimer.setOnFinished(e -> checkIdle());
+    }
+
+    /**
+     * 启用或停用检测，停用时会恢复到活动状态
+     * @param enabled 是否启用
+     */
+    public void setEnabled(boolean enabled) {
+        if (this.enabled == enabled) return;
+        this.enabled = enabled;
+        if (enabled) {
+            activity();
+        } else {
+            idleTimer.stop();
+            if (idle) {
+                idle = false;
+                onActive.run();
+            }
+        }
+    }
+
+    /**
+     * 记录一次用户活动（如鼠标移动），必要时重新布置计时器
+     */
+    public void activity() {
+        lastActivityNanos = System.nanoTime();
+        if (!enabled) return;
+        if (idle) {
+            idle = false;
+            onActive.run();
+        }
+        // 计时器运行中时只更新时间戳，到期后再顺延
+        if (idleTimer.getStatus() != Animation.Status.RUNNING) {
+            armedDelayMillis = Math.max(1, delaySupplier.getAsLong());
+            arm(armedDelayMillis);
+        }
+    }
+
+    /**
+     * @return 是否处于空闲状态
+     */
+    public boolean isIdle() {
+        return idle;
+    }
+
+    /**
+     * 计时器到期：距最后一次活动不足延迟则顺延剩余时间，否则进入空闲
+     */
+    private void checkIdle() {
+        if (!enabled || idle) return;
+        long elapsedMillis = (System.nanoTime() - lastActivityNanos) / 1_000_000;
+        long remaining = armedDelayMillis - elapsedMillis;
+        if (remaining > 0) {
+            arm(remaining);
+        } else {
+            idle = true;
+            onIdle.run();
+        }
+    }
+
+    /**
+     * 以指定时长启动计时器
+     */
+    private void arm(long millis) {
+        idleTimer.setDuration(Duration.millis(millis));
+        idleTimer.playFromStart();
+    }
+}
@@ -0,0 +1,429 @@
+package com.example;
+
+import javafx.application.Platform;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * MP4/MOV 关键帧索引：从 moov 中第一条视频轨道的 stss/stts/ctts（以及 elst）计算每个同步样本的显示时间，
+ * 以升序的 long 数组保存并用二分查找定位；索引落盘到 ~/.dogplayer/keyframes，每个文件只解析一次，
+ * 缓存目录按最近使用时间限制总大小（系统属性 dogplayer.keyframes.cache.mb，默认 64）
+ */
+public final class KeyframeIndex {
+    private static final int MAGIC = 0x44504B46;   // "DPKF"
+    private static final int VERSION = 1;          // 磁盘格式版本
+    private static final int HEADER_BYTES = 12;    // 文件头：魔数、版本、关键帧数量（-1 表示没有可用索引）
+    private static final int TABLE_CHUNK_BYTES = 64 * 1024; // 样本表顺序读取的块大小
+    private static final long CACHE_MAX_BYTES =
+            Long.getLong("dogplayer.keyframes.cache.mb", 64) * 1024 * 1024; // 缓存目录上限
+
+    private static final int BOX_MOOV = fourCC("moov");
+    private static final int BOX_TRAK = fourCC("trak");
+    private static final int BOX_EDTS = fourCC("edts");
+    private static final int BOX_ELST = fourCC("elst");
+    private static final int BOX_MDIA = fourCC("mdia");
+    private static final int BOX_MDHD = fourCC("mdhd");
+    private static final int BOX_HDLR = fourCC("hdlr");
+    private static final int BOX_MINF = fourCC("minf");
+    private static final int BOX_STBL = fourCC("stbl");
+    private static final int BOX_STSS = fourCC("stss");
+    private static final int BOX_STTS = fourCC("stts");
+    private static final int BOX_CTTS = fourCC("ctts");
+    private static final int HANDLER_VIDE = fourCC("vide");
+
+    // 索引构建线程（解析和读写缓存都在这里进行）
+    private static final ExecutorService EXECUTOR =
+            Executors.newSingleThreadExecutor(new DaemonThreadFactory("keyframe-index"));
+
+    private final long[] timesMillis;              // 关键帧显示时间（毫秒，升序）
+
+    private KeyframeIndex(long[] timesMillis) {
+        this.timesMillis = timesMillis;
+    }
+
+    /**
+     * 在后台加载索引（优先读取磁盘缓存），完成后在 JavaFX 应用线程回调
+     * @param file 媒体文件
+     * @param onLoaded 回调，文件不是 MP4 或所有帧都是关键帧时参数为 null
+     */
+    public static void loadAsync(File file, Consumer<KeyframeIndex> onLoaded) {
+        EXECUTOR.execute(() -> {
+            KeyframeIndex index = null;
+            try {
+                index = load(file);
+            } catch (IOException | RuntimeException ex) {
+                System.err.println("关键帧索引构建失败: " + file + " - " + ex.getMessage());
+            } finally {
+                KeyframeIndex result = index;  // 即使出现 Error 也要回调，调用方不会一直等待
+                Platform.runLater(() -> onLoaded.accept(result));
+            }
+        });
+    }
+
+    /**
+     * 同步加载索引：读取磁盘缓存，没有时解析文件并写入缓存
+     * @param file 媒体文件
+     * @return 索引，文件不是 MP4 或所有帧都是关键帧时返回 null
+     * @throws IOException 读取失败
+     */
+    public static KeyframeIndex load(File file) throws IOException {
+        Path dir = AppPaths.dir("keyframes");
+        Path cache = dir.resolve(AppPaths.cacheKey(file) + ".kfi");
+        long[] cached = readCache(cache);
+        if (cached != null) {
+            touch(cache);  // 修改时间记录最近使用时间
+            return cached.length > 0 ? new KeyframeIndex(cached) : null;
+        }
+
+        long[] times = null;
+        if (ContainerSniffer.sniff(file.toPath()) == ContainerFormat.MP4) {
+            try (PositionalReader in = PositionalReader.open(file.toPath())) {
+                times = build(in);
+            }
+        }
+        writeCache(cache, times);
+        AppPaths.trimCache(dir, CACHE_MAX_BYTES, Set.of(cache));
+        return times != null && times.length > 0 ? new KeyframeIndex(times) : null;
+    }
+
+    /**
+     * @return 关键帧数量
+     */
+    public int size() {
+        return timesMillis.length;
+    }
+
+    /**
+     * @param millis 时间（毫秒）
+     * @return 离指定时间最近的关键帧时间
+     */
+    public long nearest(long millis) {
+        int i = search(millis);
+        if (i >= 0) return timesMillis[i];
+        int insert = -i - 1;
+        if (insert == 0) return timesMillis[0];
+        if (insert == timesMillis.length) return timesMillis[timesMillis.length - 1];
+        long before = timesMillis[insert - 1];
+        long after = timesMillis[insert];
+        return millis - before <= after - millis ? before : after;
+    }
+
+    /**
+     * @param millis 时间（毫秒）
+     * @return 严格晚于指定时间的第一个关键帧，没有时返回 -1
+     */
+    public long next(long millis) {
+        int i = search(millis);
+        int index = i >= 0 ? i + 1 : -i - 1;
+        return index < timesMillis.length ? timesMillis[index] : -1;
+    }
+
+    /**
+     * @param millis 时间（毫秒）
+     * @return 严格早于指定时间的最后一个关键帧，没有时返回 -1
+     */
+    public long previous(long millis) {
+        int i = search(millis);
+        int index = i >= 0 ? i - 1 : -i - 2;
+        return index >= 0 ? timesMillis[index] : -1;
+    }
+
+    private int search(long millis) {
+        return Arrays.binarySearch(timesMillis, millis);
+    }
+
+    // ---------------------------------------------------------------- 解析
+
+    /**
+     * 解析第一条视频轨道的关键帧时间
+     * @return 升序的关键帧时间；没有 stss（所有样本都是关键帧）时返回空数组，找不到视频轨道时返回 null
+     */
+    private static long[] build(PositionalReader in) throws IOException {
+        long end = in.size();
+        for (long pos = 0; pos + 8 <= end; ) {
+            long size = boxSize(in, pos, end);
+            if (size < 8) break;
+            if (in.s32(pos + 4) == BOX_MOOV) {
+                return parseMoov(in, pos + boxHeader(in, pos), Math.min(pos + size, end));
+            }
+            pos += size;
+        }
+        return null;
+    }
+
+    private static long[] parseMoov(PositionalReader in, long start, long end) throws IOException {
+        for (long pos = start; pos + 8 <= end; ) {
+            long size = boxSize(in, pos, end);
+            if (size < 8) break;
+            if (in.s32(pos + 4) == BOX_TRAK) {
+                Track track = new Track();
+                parseTrack(in, pos + boxHeader(in, pos), pos + size, track);
+                if (track.handler == HANDLER_VIDE && track.timescale > 0 && track.stts > 0) {
+                    return track.stss > 0 ? keyframeTimes(in, track) : new long[0];
+                }
+            }
+            pos += size;
+        }
+        return null;
+    }
+
+    /**
+     * 记录视频轨道所需子原子的位置，样本表本身稍后按需顺序读取
+     */
+    private static void parseTrack(PositionalReader in, long start, long end, Track track) throws IOException {
+        for (long pos = start; pos + 8 <= end; ) {
+            long size = boxSize(in, pos, end);
+            if (size < 8) break;
+            int type = in.s32(pos + 4);
+            long body = pos + boxHeader(in, pos);
+            if (type == BOX_EDTS || type == BOX_MDIA || type == BOX_MINF || type == BOX_STBL) {
+                parseTrack(in, body, pos + size, track);
+            } else if (type == BOX_ELST) {
+                parseEditList(in, body, track);
+            } else if (type == BOX_MDHD) {
+                int version = in.u8(body);
+                track.timescale = in.u32(body + (version == 1 ? 20 : 12));
+            } else if (type == BOX_HDLR) {
+                track.handler = in.s32(body + 8);
+            } else if (type == BOX_STSS) {
+                track.stss = body;
+                track.stssEnd = Math.min(pos + size, end);
+            } else if (type == BOX_STTS) {
+                track.stts = body;
+                track.sttsEnd = Math.min(pos + size, end);
+            } else if (type == BOX_CTTS) {
+                track.ctts = body;
+                track.cttsEnd = Math.min(pos + size, end);
+            }
+            pos += size;
+        }
+    }
+
+    /**
+     * 只取第一个非空编辑项的 media_time 作为显示时间的偏移（常见于含 B 帧的视频）
+     */
+    private static void parseEditList(PositionalReader in, long body, Track track) throws IOException {
+        int version = in.u8(body);
+        long count = in.u32(body + 4);
+        long entry = body + 8;
+        int entryBytes = version == 1 ? 20 : 12;
+        for (long i = 0; i < count; i++, entry += entryBytes) {
+            long mediaTime = version == 1 ? in.u64(entry + 8) : in.s32(entry + 4);
+            if (mediaTime >= 0) {
+                track.mediaTimeOffset = mediaTime;
+                return;
+            }
+        }
+    }
+
+    /**
+     * 同时遍历 stss、stts 和 ctts 的游程，计算每个同步样本的显示时间，复杂度为三张表的条目数之和
+     * stss 一次读入数组，stts 和 ctts 各自按块顺序读取，三张表交替推进时不会互相冲掉读取窗口；
+     * 各表的条目数都以原子本身的大小为上限，损坏的计数不会导致巨大的分配
+     */
+    private static long[] keyframeTimes(PositionalReader in, Track track) throws IOException {
+        int[] syncSamples = readSyncSamples(in, track);
+        int syncCount = syncSamples.length;
+        long[] times = new long[syncCount];
+
+        // stts 游程：样本数量、每个样本的时长
+        long sttsEntries = Math.min(in.u32(track.stts + 4), (track.sttsEnd - track.stts - 8) / 8);
+        TableCursor stts = new TableCursor(in, track.stts + 8, track.sttsEnd);
+        long sttsIndex = 0;
+        long runFirstSample = 1;     // 当前游程的第一个样本编号（从 1 开始）
+        long runSamples = 0;
+        long runDelta = 0;
+        long runStartTime = 0;       // 当前游程第一个样本的解码时间
+
+        // ctts 游程：样本数量、显示时间偏移
+        int cttsVersion = track.ctts > 0 ? in.u8(track.ctts) : 0;
+        long cttsEntries = track.ctts > 0 ? Math.min(in.u32(track.ctts + 4), (track.cttsEnd - track.ctts - 8) / 8) : 0;
+        TableCursor ctts = track.ctts > 0 ? new TableCursor(in, track.ctts + 8, track.cttsEnd) : null;
+        long cttsIndex = 0;
+        long cttsFirstSample = 1;
+        long cttsSamples = 0;
+        long cttsOffset = 0;
+
+        int n = 0;
+        long previous = Long.MIN_VALUE;
+        boolean sorted = true;
+        for (int i = 0; i < syncCount; i++) {
+            long sample = syncSamples[i] & 0xFFFFFFFFL;
+            while (sample >= runFirstSample + runSamples && sttsIndex < sttsEntries) {
+                runStartTime += runSamples * runDelta;
+                runFirstSample += runSamples;
+                runSamples = stts.u32();
+                runDelta = stts.u32();
+                sttsIndex++;
+            }
+            if (sample >= runFirstSample + runSamples) break; // stss 引用了不存在的样本
+            long decodeTime = runStartTime + (sample - runFirstSample) * runDelta;
+
+            while (sample >= cttsFirstSample + cttsSamples && cttsIndex < cttsEntries) {
+                cttsFirstSample += cttsSamples;
+                cttsSamples = ctts.u32();
+                long rawOffset = ctts.u32();
+                cttsOffset = cttsVersion == 1 ? (int) rawOffset : rawOffset;
+                cttsIndex++;
+            }
+            long offset = sample < cttsFirstSample + cttsSamples ? cttsOffset : 0;
+            long presentation = Math.max(0, decodeTime + offset - track.mediaTimeOffset);
+            long millis = presentation * 1000 / track.timescale;
+            if (millis < previous) sorted = false;
+            previous = millis;
+            times[n++] = millis;
+        }
+        long[] result = n == times.length ? times : Arrays.copyOf(times, n);
+        if (!sorted) Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * 一次读入 stss 的全部同步样本编号，数量不超过原子实际能容纳的条目数
+     */
+    private static int[] readSyncSamples(PositionalReader in, Track track) throws IOException {
+        long declared = in.u32(track.stss + 4);
+        int count = (int) Math.max(0, Math.min(declared, (track.stssEnd - track.stss - 8) / 4));
+        ByteBuffer data = ByteBuffer.allocate(4 * count);
+        in.readFully(track.stss + 8, data);
+        data.flip();
+        int[] samples = new int[count];
+        data.asIntBuffer().get(samples);
+        return samples;
+    }
+
+    /**
+     * 样本表的顺序读取游标：使用自己的缓冲区按块读取，不占用 PositionalReader 的共享窗口
+     */
+    private static final class TableCursor {
+        private final PositionalReader in;
+        private final ByteBuffer buffer;
+        private final long end;     // 表的结束位置
+        private long next;          // 下一次从文件读取的位置
+
+        TableCursor(PositionalReader in, long start, long end) {
+            this.in = in;
+            this.end = end;
+            this.next = start;
+            this.buffer = ByteBuffer.allocate((int) Math.max(4, Math.min(TABLE_CHUNK_BYTES, end - start)));
+            buffer.limit(0);
+        }
+
+        long u32() throws IOException {
+            if (buffer.remaining() < 4) refill();
+            return buffer.getInt() & 0xFFFFFFFFL;
+        }
+
+        private void refill() throws IOException {
+            buffer.compact();
+            int length = (int) Math.min(buffer.remaining(), end - next);
+            if (buffer.position() + length < 4) throw new EOFException("样本表已结束: " + next);
+            buffer.limit(buffer.position() + length);
+            in.readFully(next, buffer);
+            next += length;
+            buffer.flip();
+        }
+    }
+
+    private static long boxSize(PositionalReader in, long pos, long end) throws IOException {
+        long size = in.u32(pos);
+        if (size == 1) size = in.u64(pos + 8);
+        else if (size == 0) size = end - pos;
+        return size;
+    }
+
+    private static int boxHeader(PositionalReader in, long pos) throws IOException {
+        return in.u32(pos) == 1 ? 16 : 8;
+    }
+
+    private static int fourCC(String code) {
+        return (code.charAt(0) << 24) | (code.charAt(1) << 16) | (code.charAt(2) << 8) | code.charAt(3);
+    }
+
+    /**
+     * 视频轨道解析的中间状态：各样本表原子内容的起始位置（0 表示不存在）
+     */
+    private static final class Track {
+        int handler;
+        long timescale;
+        long mediaTimeOffset;
+        long stss;
+        long stssEnd;
+        long stts;
+        long sttsEnd;
+        long ctts;
+        long cttsEnd;
+    }
+
+    // ---------------------------------------------------------------- 磁盘缓存
+
+    /**
+     * @return 缓存的关键帧时间；缓存记录为“没有索引”时返回空数组，缓存不存在或无效时返回 null
+     */
+    private static long[] readCache(Path cache) {
+        if (!Files.isRegularFile(cache)) return null;
+        try (FileChannel channel = FileChannel.open(cache, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(header, 0);
+            header.flip();
+            if (header.remaining() != HEADER_BYTES || header.getInt() != MAGIC || header.getInt() != VERSION) {
+                return null;
+            }
+            int count = header.getInt();
+            if (count < 0) return new long[0];
+            if (channel.size() != HEADER_BYTES + 8L * count) return null;
+            ByteBuffer data = ByteBuffer.allocate(8 * count).order(ByteOrder.LITTLE_ENDIAN);
+            while (data.hasRemaining()) {
+                if (channel.read(data, HEADER_BYTES + data.position()) < 0) return null;
+            }
+            data.flip();
+            long[] times = new long[count];
+            data.asLongBuffer().get(times);
+            return times;
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    private static void touch(Path cache) {
+        try {
+            Files.setLastModifiedTime(cache, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException ignored) {
+            // 只影响清理顺序
+        }
+    }
+
+    private static void writeCache(Path cache, long[] times) {
+        int count = times != null && times.length > 0 ? times.length : -1;
+        ByteBuffer data = ByteBuffer.allocate(HEADER_BYTES + 8 * Math.max(0, count)).order(ByteOrder.LITTLE_ENDIAN);
+        data.putInt(MAGIC).putInt(VERSION).putInt(count);
+        if (count > 0) {
+            for (long time : times) data.putLong(time);
+        }
+        data.flip();
+        Path temp = cache.resolveSibling(cache.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                while (data.hasRemaining()) channel.write(data);
+            }
+            Files.move(temp, cache, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            System.err.println("关键帧索引缓存写入失败: " + ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example;
+
+import java.io.File;
+import java.util.Locale;
+
+/**
+ * 媒体库条目（不可变），记录文件路径、大小、修改时间和探测得到的元数据
+ */
+public final class LibraryEntry {
+    private final String path;          // 绝对路径
+    private final long size;            // 文件大小（字节）
+    private final long lastModified;    // 修改时间（毫秒）
+    private final long durationMillis;  // 时长，未知时为 -1
+    private final int width;            // 视频宽度，未知时为 0
+    private final int height;           // 视频高度，未知时为 0
+    private final String name;          // 文件名（排序时反复使用，只截取一次）
+    private final String searchKey;     // 小写文件名（搜索过滤用）
+
+    public LibraryEntry(String path, long size, long lastModified, long durationMillis, int width, int height) {
+        this.path = path;
+        int slash = path.lastIndexOf(File.separatorChar);
+        this.name = slash >= 0 ? path.substring(slash + 1) : path;
+        this.searchKey = name.toLowerCase(Locale.ROOT);
+        this.size = size;
+        this.lastModified = lastModified;
+        this.durationMillis = durationMillis;
+        this.width = width;
+        this.height = height;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return 文件名（不含目录）
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return 小写文件名，用于不区分大小写的搜索
+     */
+    public String getSearchKey() {
+        return searchKey;
+    }
+
+    /**
+     * @return 对应的文件对象
+     */
+    public File toFile() {
+        return new File(path);
+    }
+
+    @Override
+    public String toString() {
+        return getName();
+    }
+}
@@ -0,0 +1,202 @@
+package com.example;
+
+// 导入JavaFX和相关库
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.*;
+import javafx.scene.input.KeyCode;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.stage.DirectoryChooser;
+import javafx.stage.Stage;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * 媒体库面板：显示索引到的视频，支持按名称过滤、添加/移除根目录，双击播放
+ * 媒体库变化时在后台线程复制并排序全部条目，界面线程只替换列表内容
+ */
+public class LibraryPanel extends BorderPane {
+    private final MediaLibrary library;                                 // 媒体库
+    private final Consumer<File> onOpen;                                // 打开文件回调
+    private final ObservableList<LibraryEntry> items = FXCollections.observableArrayList(); // 全部条目
+    private final FilteredList<LibraryEntry> filtered = new FilteredList<>(items); // 过滤后的条目
+    private final Label statusLabel = new Label();                      // 状态文本
+    private final ExecutorService sorter =
+            Executors.newSingleThreadExecutor(new DaemonThreadFactory("library-sort")); // 排序线程
+    private final AtomicBoolean sortPending = new AtomicBoolean(false); // 是否已预约排序
+
+    /**
+     * 构造函数
+     * @param library 媒体库
+     * @param onOpen 打开文件回调
+     */
+    public LibraryPanel(MediaLibrary library, Consumer<File> onOpen) {
+        this.library = library;
+        this.onOpen = onOpen;
+        initUI();
+        library.addListener(this::refresh);
+        refresh();
+    }
+
+    /**
+     * 初始化UI组件
+     */
+    private void initUI() {
+        getStyleClass().add("panel");  // 颜色随主题变化，见 themes/*.css
+
+        // 搜索框
+        TextField searchField = new TextField();
+        searchField.setPromptText("搜索文件名");
+        HBox.setHgrow(searchField, Priority.ALWAYS);
+        searchField.textProperty().addListener((obs, oldVal, newVal) -> {
+            String query = newVal == null ? "" : newVal.trim().toLowerCase(Locale.ROOT);
+            filtered.setPredicate(query.isEmpty() ? null
+                    : entry -> entry.getSearchKey().contains(query));
+            updateStatus();
+        });
+
+        // 添加目录按钮
+        Button addButton = new Button("添加目录");
+        addButton.getStyleClass().add("panel-button");
+        addButton.setOnAction(e -> {
+            DirectoryChooser chooser = new DirectoryChooser();
+            chooser.setTitle("选择媒体目录");
+            File dir = chooser.showDialog(getScene().getWindow());
+            if (dir != null) {
+                library.addRoot(dir.toPath());
+                saveRoots();
+            }
+        });
+
+        // 移除目录按钮
+        Button removeButton = new Button("移除目录");
+        removeButton.getStyleClass().add("panel-button");
+        removeButton.setOnAction(e -> {
+            List<Path> roots = library.getRoots();
+            if (roots.isEmpty()) return;
+            ChoiceDialog<Path> dialog = new ChoiceDialog<>(roots.get(0), roots);
+            dialog.initOwner(getScene().getWindow());
+            dialog.setTitle("移除目录");
+            dialog.setHeaderText(null);
+            dialog.setContentText("目录:");
+            dialog.showAndWait().ifPresent(root -> {
+                library.removeRoot(root);
+                saveRoots();
+            });
+        });
+
+        HBox toolbar = new HBox(10, searchField, addButton, removeButton);
+        toolbar.setAlignment(Pos.CENTER_LEFT);
+        toolbar.setPadding(new Insets(10));
+
+        // 文件列表
+        ListView<LibraryEntry> listView = new ListView<>(filtered);
+        listView.setCellFactory(lv -> new ListCell<LibraryEntry>() {
+            @Override
+            protected void updateItem(LibraryEntry item, boolean empty) {
+                super.updateItem(item, empty);
+                if (empty || item == null) {
+                    setText(null);
+                } else {
+                    setText(describe(item));
+                }
+            }
+        });
+        listView.setOnMouseClicked(e -> {
+            if (e.getClickCount() == 2) openSelected(listView);
+        });
+        listView.setOnKeyPressed(e -> {
+            if (e.getCode() == KeyCode.ENTER) openSelected(listView);
+        });
+
+        statusLabel.getStyleClass().add("status-label");
+        statusLabel.setPadding(new Insets(8, 10, 8, 10));
+
+        setTop(toolbar);
+        setCenter(listView);
+        setBottom(statusLabel);
+    }
+
+    /**
+     * 从媒体库重新加载列表（按文件名自然排序）：排序在后台进行，
+     * 排序尚未开始时到达的通知直接合并，排序完成后在界面线程替换列表
+     */
+    private void refresh() {
+        if (!sortPending.compareAndSet(false, true)) return;
+        sorter.execute(() -> {
+            sortPending.set(false);  // 之后的变更会预约下一次排序
+            List<LibraryEntry> snapshot = new ArrayList<>(library.getEntries());
+            snapshot.sort((a, b) -> NaturalOrderComparator.INSTANCE.compare(a.getName(), b.getName()));
+            Platform.runLater(() -> {
+                items.setAll(snapshot);
+                updateStatus();
+            });
+        });
+    }
+
+    private void updateStatus() {
+        statusLabel.setText("共 " + items.size() + " 个文件，显示 " + filtered.size() + " 个");
+    }
+
+    private void openSelected(ListView<LibraryEntry> listView) {
+        LibraryEntry entry = listView.getSelectionModel().getSelectedItem();
+        if (entry != null) {
+            onOpen.accept(entry.toFile());
+            ((Stage) getScene().getWindow()).close();
+        }
+    }
+
+    /**
+     * 保存根目录列表到设置
+     */
+    private void saveRoots() {
+        StringBuilder joined = new StringBuilder();
+        for (Path root : library.getRoots()) {
+            if (joined.length() > 0) joined.append(File.pathSeparatorChar);
+            joined.append(root);
+        }
+        String value = joined.toString();
+        SettingsStore.getInstance().update(s -> s.withLibraryRoots(value));
+    }
+
+    /**
+     * 读取设置中的根目录列表
+     * @return 根目录列表
+     */
+    public static List<Path> loadRoots() {
+        String joined = SettingsStore.getInstance().current().getLibraryRoots();
+        List<Path> roots = new ArrayList<>();
+        for (String part : joined.split(File.pathSeparator)) {
+            if (!part.isEmpty()) roots.add(new File(part).toPath());
+        }
+        return roots;
+    }
+
+    /**
+     * 生成列表项文本：文件名、时长和分辨率（已知时）以及大小
+     */
+    private static String describe(LibraryEntry entry) {
+        StringBuilder text = new StringBuilder(entry.getName());
+        if (entry.getDurationMillis() > 0) {
+            text.append("    ").append(TimeFormatter.formatTime(entry.getDurationMillis()));
+        }
+        if (entry.getWidth() > 0 && entry.getHeight() > 0) {
+            text.append("    ").append(entry.getWidth()).append('x').append(entry.getHeight());
+        }
+        text.append("    ").append(String.format(Locale.ROOT, "%.1f MB", entry.getSize() / 1048576.0));
+        return text.toString();
+    }
+}
@@ -0,0 +1,452 @@
+package com.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Matroska 解复用：Cues 中视频轨道的 Cluster 位置作为关键帧索引，没有 Cues 时逐个读取 Cluster 的时间码
+ * （Cluster 按长度跳过，每个只读取开头几个字节）
+ * 只输出第一条 H.264 视频轨道（V_MPEG4/ISO/AVC）和第一条 AAC 音轨，支持三种 lacing 和头部剥离压缩
+ */
+class MatroskaDemuxer extends Demuxer {
+    private static final int EBML_HEADER = 0x1A45DFA3;
+    private static final int SEGMENT = 0x18538067;
+    private static final int SEEK_HEAD = 0x114D9B74;
+    private static final int SEEK = 0x4DBB;
+    private static final int SEEK_ID = 0x53AB;
+    private static final int SEEK_POSITION = 0x53AC;
+    private static final int INFO = 0x1549A966;
+    private static final int TIMECODE_SCALE = 0x2AD7B1;
+    private static final int DURATION = 0x4489;
+    private static final int TRACKS = 0x1654AE6B;
+    private static final int TRACK_ENTRY = 0xAE;
+    private static final int TRACK_NUMBER = 0xD7;
+    private static final int TRACK_TYPE = 0x83;
+    private static final int CODEC_ID = 0x86;
+    private static final int CODEC_PRIVATE = 0x63A2;
+    private static final int AUDIO = 0xE1;
+    private static final int SAMPLING_FREQUENCY = 0xB5;
+    private static final int CHANNELS = 0x9F;
+    private static final int CONTENT_ENCODINGS = 0x6D80;
+    private static final int CONTENT_ENCODING = 0x6240;
+    private static final int CONTENT_COMPRESSION = 0x5034;
+    private static final int CONTENT_COMP_ALGO = 0x4254;
+    private static final int CONTENT_COMP_SETTINGS = 0x4255;
+    private static final int CONTENT_ENCRYPTION = 0x5035;
+    private static final int CLUSTER = 0x1F43B675;
+    private static final int CLUSTER_TIMECODE = 0xE7;
+    private static final int SIMPLE_BLOCK = 0xA3;
+    private static final int BLOCK_GROUP = 0xA0;
+    private static final int BLOCK = 0xA1;
+    private static final int REFERENCE_BLOCK = 0xFB;
+    private static final int CUES = 0x1C53BB6B;
+    private static final int CUE_POINT = 0xBB;
+    private static final int CUE_TIME = 0xB3;
+    private static final int CUE_TRACK_POSITIONS = 0xB7;
+    private static final int CUE_TRACK = 0xF7;
+    private static final int CUE_CLUSTER_POSITION = 0xF1;
+    private static final int TAGS = 0x1254C367;
+    private static final int ATTACHMENTS = 0x1941A469;
+    private static final int CHAPTERS = 0x1043A770;
+    private static final int MAX_CONFIG_BYTES = 4096;   // 编码参数的最大长度
+    private static final int[] AAC_SAMPLE_RATES = {
+            96000, 88200, 64000, 48000, 44100, 32000, 24000, 22050, 16000, 12000, 11025, 8000, 7350 };
+
+    private long segmentStart;              // Segment 数据起始位置（SeekHead 和 Cues 中的位置以此为基准）
+    private long segmentEnd;                // Segment 结束位置
+    private long timecodeScale = 1_000_000; // 时间码单位（纳秒）
+    private int videoTrack = -1;            // 输出的视频轨道号
+    private int audioTrack = -1;            // 输出的音频轨道号
+    private byte[] videoPrefix;             // 视频轨道被剥离的帧头（头部剥离压缩）
+    private byte[] audioPrefix;             // 音频轨道被剥离的帧头
+    private double audioFrameMillis;        // 一个 AAC 帧的时长（lacing 时推算后续帧的时间）
+
+    @Override
+    protected void parseHeader(PositionalReader in) throws IOException {
+        ContainerProbe.Element el = new ContainerProbe.Element();
+        if (!ContainerProbe.readElement(in, 0, el) || el.id != EBML_HEADER) return;
+        long pos = el.end();
+        while (ContainerProbe.readElement(in, pos, el) && el.id != SEGMENT) {
+            if (el.size < 0) return;
+            pos = el.end();
+        }
+        if (el.id != SEGMENT) return;
+        segmentStart = el.dataStart;
+        segmentEnd = el.size < 0 ? in.size() : Math.min(el.end(), in.size());
+
+        long infoPosition = -1;
+        long tracksPosition = -1;
+        long cuesPosition = -1;
+        long firstCluster = -1;
+        pos = segmentStart;
+        while (pos < segmentEnd && ContainerProbe.readElement(in, pos, el)) {
+            if (el.id == CLUSTER) {
+                firstCluster = pos;
+                break;
+            }
+            if (el.size < 0) return;
+            if (el.id == INFO) infoPosition = pos;
+            else if (el.id == TRACKS) tracksPosition = pos;
+            else if (el.id == CUES) cuesPosition = pos;
+            else if (el.id == SEEK_HEAD) {
+                long[] found = parseSeekHead(in, el.dataStart, el.end());
+                if (infoPosition < 0) infoPosition = found[0];
+                if (tracksPosition < 0) tracksPosition = found[1];
+                if (cuesPosition < 0) cuesPosition = found[2];
+            }
+            pos = el.end();
+        }
+
+        if (infoPosition >= 0 && ContainerProbe.readElement(in, infoPosition, el) && el.id == INFO) {
+            parseInfo(in, el.dataStart, Math.min(el.end(), segmentEnd));
+        }
+        if (tracksPosition >= 0 && ContainerProbe.readElement(in, tracksPosition, el) && el.id == TRACKS) {
+            parseTracks(in, el.dataStart, Math.min(el.end(), segmentEnd));
+        }
+        if (avcConfig == null || hasOtherAudio) return;
+        if (cuesPosition >= 0 && ContainerProbe.readElement(in, cuesPosition, el) && el.id == CUES && el.size >= 0) {
+            parseCues(in, el.dataStart, Math.min(el.end(), segmentEnd));
+        }
+        if (getKeyframeCount() == 0 && firstCluster >= 0) scanClusters(in, firstCluster);
+    }
+
+    /**
+     * @return {Info, Tracks, Cues} 的位置，没有记录时为 -1
+     */
+    private long[] parseSeekHead(PositionalReader in, long start, long end) throws IOException {
+        long[] found = { -1, -1, -1 };
+        ContainerProbe.Element el = new ContainerProbe.Element();
+        ContainerProbe.Element child = new ContainerProbe.Element();
+        for (long pos = start; pos < end && ContainerProbe.readElement(in, pos, el) && el.size >= 0; pos = el.end()) {
+            if (el.id != SEEK) continue;
+            long id = 0;
+            long position = -1;
+            for (long p = el.dataStart; p < el.end() && ContainerProbe.readElement(in, p, child) && child.size >= 0;
+                 p = child.end()) {
+                if (child.id == SEEK_ID && child.size <= 4) id = in.uint(child.dataStart, (int) child.size);
+                else if (child.id == SEEK_POSITION && child.size <= 8) position = in.uint(child.dataStart, (int) child.size);
+            }
+            if (position < 0) continue;
+            if (id == INFO) found[0] = segmentStart + position;
+            else if (id == TRACKS) found[1] = segmentStart + position;
+            else if (id == CUES) found[2] = segmentStart + position;
+        }
+        return found;
+    }
+
+    private void parseInfo(PositionalReader in, long start, long end) throws IOException {
+        double duration = 0;
+        ContainerProbe.Element el = new ContainerProbe.Element();
+        for (long pos = start; pos < end && ContainerProbe.readElement(in, pos, el) && el.size >= 0; pos = el.end()) {
+            if (el.id == TIMECODE_SCALE && el.size <= 8) timecodeScale = in.uint(el.dataStart, (int) el.size);
+            else if (el.id == DURATION) duration = ContainerProbe.readFloat(in, el);
+        }
+        if (duration > 0) durationMillis = (long) (duration * timecodeScale / 1_000_000.0);
+    }
+
+    /**
+     * 选出第一条视频轨道（必须是 H.264）和第一条 AAC 音轨；只有非 AAC 音轨时标记为不可转封装
+     */
+    private void parseTracks(PositionalReader in, long start, long end) throws IOException {
+        boolean sawAudio = false;
+        boolean sawVideo = false;
+        ContainerProbe.Element el = new ContainerProbe.Element();
+        for (long pos = start; pos < end && ContainerProbe.readElement(in, pos, el) && el.size >= 0; pos = el.end()) {
+            if (el.id != TRACK_ENTRY) continue;
+            Track track = parseTrackEntry(in, el.dataStart, el.end());
+            if (track.type == 1 && !sawVideo) {
+                sawVideo = true;
+                if (track.codec.equals("V_MPEG4/ISO/AVC") && track.codecPrivate != null && track.encodingSupported) {
+                    videoTrack = track.number;
+                    videoPrefix = track.prefix;
+                    avcConfig = track.codecPrivate;
+                }
+            } else if (track.type == 2) {
+                sawAudio = true;
+                if (audioTrack < 0 && track.codec.startsWith("A_AAC") && track.encodingSupported) {
+                    byte[] config = track.codecPrivate != null ? track.codecPrivate : legacyAacConfig(track);
+                    if (config != null && config.length >= 2) {
+                        audioTrack = track.number;
+                        audioPrefix = track.prefix;
+                        aacConfig = config;
+                        int sampleRate = track.sampleRate > 0 ? track.sampleRate : AAC_SAMPLE_RATES[
+                                Math.min(((config[0] & 0x07) << 1) | ((config[1] & 0xFF) >>> 7), 12)];
+                        audioFrameMillis = 1024 * 1000.0 / sampleRate;
+                    }
+                }
+            }
+        }
+        hasOtherAudio = sawAudio && audioTrack < 0;
+    }
+
+    private Track parseTrackEntry(PositionalReader in, long start, long end) throws IOException {
+        Track track = new Track();
+        ContainerProbe.Element el = new ContainerProbe.Element();
+        ContainerProbe.Element child = new ContainerProbe.Element();
+        for (long pos = start; pos < end && ContainerProbe.readElement(in, pos, el) && el.size >= 0; pos = el.end()) {
+            if (el.id == TRACK_NUMBER && el.size <= 8) {
+                track.number = (int) in.uint(el.dataStart, (int) el.size);
+            } else if (el.id == TRACK_TYPE && el.size <= 8) {
+                track.type = (int) in.uint(el.dataStart, (int) el.size);
+            } else if (el.id == CODEC_ID) {
+                track.codec = in.string(el.dataStart, (int) Math.min(el.size, 64));
+            } else if (el.id == CODEC_PRIVATE && el.size <= MAX_CONFIG_BYTES) {
+                track.codecPrivate = in.bytes(el.dataStart, (int) el.size);
+            } else if (el.id == AUDIO) {
+                for (long p = el.dataStart; p < el.end() && ContainerProbe.readElement(in, p, child) && child.size >= 0;
+                     p = child.end()) {
+                    if (child.id == SAMPLING_FREQUENCY) track.sampleRate = (int) ContainerProbe.readFloat(in, child);
+                    else if (child.id == CHANNELS && child.size <= 8) track.channels = (int) in.uint(child.dataStart, (int) child.size);
+                }
+            } else if (el.id == CONTENT_ENCODINGS) {
+                parseContentEncodings(in, el.dataStart, el.end(), track);
+            }
+        }
+        return track;
+    }
+
+    /**
+     * 只支持头部剥离压缩（算法 3），其他压缩或加密的轨道不能转封装
+     */
+    private void parseContentEncodings(PositionalReader in, long start, long end, Track track) throws IOException {
+        ContainerProbe.Element el = new ContainerProbe.Element();
+        for (long pos = start; pos < end && ContainerProbe.readElement(in, pos, el) && el.size >= 0; pos = el.end()) {
+            if (el.id != CONTENT_ENCODING) continue;
+            ContainerProbe.Element child = new ContainerProbe.Element();
+            for (long p = el.dataStart; p < el.end() && ContainerProbe.readElement(in, p, child) && child.size >= 0;
+                 p = child.end()) {
+                if (child.id == CONTENT_ENCRYPTION) {
+                    track.encodingSupported = false;
+                } else if (child.id == CONTENT_COMPRESSION) {
+                    long algorithm = 0;
+                    byte[] settings = null;
+                    ContainerProbe.Element item = new ContainerProbe.Element();
+                    for (long q = child.dataStart; q < child.end() && ContainerProbe.readElement(in, q, item)
+                            && item.size >= 0; q = item.end()) {
+                        if (item.id == CONTENT_COMP_ALGO && item.size <= 8) algorithm = in.uint(item.dataStart, (int) item.size);
+                        else if (item.id == CONTENT_COMP_SETTINGS && item.size <= MAX_CONFIG_BYTES) {
+                            settings = in.bytes(item.dataStart, (int) item.size);
+                        }
+                    }
+                    if (algorithm == 3 && settings != null) track.prefix = settings;
+                    else track.encodingSupported = false;
+                }
+            }
+        }
+    }
+
+    /**
+     * 旧式编码 ID（A_AAC/MPEG4/LC 等）没有 CodecPrivate，按采样率和声道数构造 AudioSpecificConfig
+     */
+    private static byte[] legacyAacConfig(Track track) {
+        int objectType = track.codec.endsWith("/MAIN") ? 1 : track.codec.endsWith("/SSR") ? 3 : 2;
+        int rateIndex = -1;
+        for (int i = 0; i < AAC_SAMPLE_RATES.length; i++) {
+            if (AAC_SAMPLE_RATES[i] == track.sampleRate) rateIndex = i;
+        }
+        if (rateIndex < 0 || track.channels <= 0 || track.channels > 7) return null;
+        return new byte[] {
+                (byte) ((objectType << 3) | (rateIndex >> 1)),
+                (byte) (((rateIndex & 1) << 7) | (track.channels << 3)) };
+    }
+
+    private void parseCues(PositionalReader in, long start, long end) throws IOException {
+        ContainerProbe.Element el = new ContainerProbe.Element();
+        ContainerProbe.Element child = new ContainerProbe.Element();
+        ContainerProbe.Element item = new ContainerProbe.Element();
+        for (long pos = start; pos < end && ContainerProbe.readElement(in, pos, el) && el.size >= 0; pos = el.end()) {
+            if (el.id != CUE_POINT) continue;
+            long time = -1;
+            long cluster = -1;
+            for (long p = el.dataStart; p < el.end() && ContainerProbe.readElement(in, p, child) && child.size >= 0;
+                 p = child.end()) {
+                if (child.id == CUE_TIME && child.size <= 8) {
+                    time = in.uint(child.dataStart, (int) child.size);
+                } else if (child.id == CUE_TRACK_POSITIONS && cluster < 0) {
+                    long track = -1;
+                    long position = -1;
+                    for (long q = child.dataStart; q < child.end() && ContainerProbe.readElement(in, q, item)
+                            && item.size >= 0; q = item.end()) {
+                        if (item.id == CUE_TRACK && item.size <= 8) track = in.uint(item.dataStart, (int) item.size);
+                        else if (item.id == CUE_CLUSTER_POSITION && item.size <= 8) position = in.uint(item.dataStart, (int) item.size);
+                    }
+                    if (track == videoTrack) cluster = position;
+                }
+            }
+            if (time >= 0 && cluster >= 0) addKeyframe(toMillis(time), segmentStart + cluster);
+        }
+    }
+
+    /**
+     * 没有 Cues 时以每个 Cluster 的起始时间作为候选分段点（HlsRemuxer 会从其后的第一个关键帧开始输出）
+     */
+    private void scanClusters(PositionalReader in, long pos) throws IOException {
+        ContainerProbe.Element el = new ContainerProbe.Element();
+        ContainerProbe.Element child = new ContainerProbe.Element();
+        while (pos < segmentEnd && ContainerProbe.readElement(in, pos, el)) {
+            if (el.id == CLUSTER && ContainerProbe.readElement(in, el.dataStart, child) && child.id == CLUSTER_TIMECODE
+                    && child.size <= 8) {
+                addKeyframe(toMillis(in.uint(child.dataStart, (int) child.size)), pos);
+            }
+            if (el.size < 0) break;  // 长度未知的 Cluster 无法跳过
+            pos = el.end();
+        }
+    }
+
+    @Override
+    public void read(PositionalReader in, long pos, SampleSink sink) throws IOException {
+        long end = Math.min(segmentEnd, in.size());
+        ByteBuffer scratch = ByteBuffer.allocate(256 * 1024);
+        ContainerProbe.Element el = new ContainerProbe.Element();
+        ContainerProbe.Element child = new ContainerProbe.Element();
+        ContainerProbe.Element item = new ContainerProbe.Element();
+        while (pos < end && ContainerProbe.readElement(in, pos, el)) {
+            if (el.id != CLUSTER) {
+                if (el.size < 0) return;
+                pos = el.end();
+                continue;
+            }
+            long clusterEnd = el.size < 0 ? end : Math.min(el.end(), end);
+            long clusterTime = 0;
+            long p = el.dataStart;
+            while (p < clusterEnd && ContainerProbe.readElement(in, p, child)) {
+                if (isTopLevel(child.id) || child.size < 0) break;  // 长度未知的 Cluster 在下一个顶层元素处结束
+                if (child.end() > end) return;                       // 文件被截断
+                if (child.id == CLUSTER_TIMECODE && child.size <= 8) {
+                    clusterTime = in.uint(child.dataStart, (int) child.size);
+                } else if (child.id == SIMPLE_BLOCK) {
+                    scratch = ensureCapacity(scratch, (int) child.size);
+                    ByteBuffer block = readFrame(in, child.dataStart, (int) child.size, scratch);
+                    if (!block(block, clusterTime, null, sink)) return;
+                } else if (child.id == BLOCK_GROUP) {
+                    long blockPos = -1;
+                    long blockSize = 0;
+                    boolean referenced = false;
+                    for (long q = child.dataStart; q < child.end() && ContainerProbe.readElement(in, q, item)
+                            && item.size >= 0; q = item.end()) {
+                        if (item.id == BLOCK) {
+                            blockPos = item.dataStart;
+                            blockSize = item.size;
+                        } else if (item.id == REFERENCE_BLOCK) {
+                            referenced = true;
+                        }
+                    }
+                    if (blockPos >= 0) {
+                        scratch = ensureCapacity(scratch, (int) blockSize);
+                        ByteBuffer block = readFrame(in, blockPos, (int) blockSize, scratch);
+                        if (!block(block, clusterTime, !referenced, sink)) return;
+                    }
+                }
+                p = child.end();
+            }
+            pos = el.size < 0 ? p : el.end();
+        }
+    }
+
+    /**
+     * 解析一个 Block/SimpleBlock 并输出其中的帧
+     * @param keyframe BlockGroup 中由 ReferenceBlock 决定是否为关键帧，SimpleBlock 传 null（使用标志位）
+     * @return 回调要求停止时返回 false
+     */
+    private boolean block(ByteBuffer block, long clusterTime, Boolean keyframe, SampleSink sink) throws IOException {
+        int start = block.position();
+        int first = block.get(start) & 0xFF;
+        int trackLength = Integer.numberOfLeadingZeros(first) - 23;
+        if (trackLength < 1 || trackLength > 4 || block.remaining() < trackLength + 3) return true;
+        long track = first & (0xFF >> trackLength);
+        for (int i = 1; i < trackLength; i++) track = (track << 8) | (block.get(start + i) & 0xFF);
+        boolean video = track == videoTrack;
+        if (!video && track != audioTrack) return true;
+
+        int header = start + trackLength;
+        long time = toMillis(clusterTime + block.getShort(header));
+        int flags = block.get(header + 2) & 0xFF;
+        boolean key = keyframe != null ? keyframe : (flags & 0x80) != 0;
+        byte[] prefix = video ? videoPrefix : audioPrefix;
+        int lacing = (flags >> 1) & 0x03;
+        int pos = header + 3;
+        int end = block.limit();
+        if (lacing == 0) return emit(sink, video, time, key, block, pos, end - pos, prefix);
+
+        // lacing：先读出各帧长度，最后一帧占用剩余部分
+        int count = (block.get(pos++) & 0xFF) + 1;
+        int[] sizes = new int[count];
+        int total = 0;
+        if (lacing == 1) {                // Xiph
+            for (int i = 0; i < count - 1; i++) {
+                int size = 0;
+                int b;
+                do {
+                    b = block.get(pos++) & 0xFF;
+                    size += b;
+                } while (b == 255);
+                sizes[i] = size;
+                total += size;
+            }
+        } else if (lacing == 3) {         // EBML：第一个为无符号长度，之后为与前一帧的有符号差值
+            long previous = 0;
+            for (int i = 0; i < count - 1; i++) {
+                int length = Integer.numberOfLeadingZeros(block.get(pos) & 0xFF) - 23;
+                if (length < 1 || length > 8) return true;
+                long raw = block.get(pos) & (0xFF >> length);
+                for (int j = 1; j < length; j++) raw = (raw << 8) | (block.get(pos + j) & 0xFF);
+                pos += length;
+                long value = i == 0 ? raw : previous + raw - ((1L << (7 * length - 1)) - 1);
+                sizes[i] = (int) value;
+                previous = value;
+                total += sizes[i];
+            }
+        } else {                          // 固定长度
+            int size = (end - pos) / count;
+            for (int i = 0; i < count - 1; i++) sizes[i] = size;
+            total = size * (count - 1);
+        }
+        sizes[count - 1] = end - pos - total;
+        if (sizes[count - 1] < 0) return true;
+        for (int i = 0; i < count; i++) {
+            long frameTime = video ? time : time + Math.round(i * audioFrameMillis);
+            if (!emit(sink, video, frameTime, key, block, pos, sizes[i], prefix)) return false;
+            pos += sizes[i];
+        }
+        return true;
+    }
+
+    private static boolean emit(SampleSink sink, boolean video, long time, boolean key, ByteBuffer block,
+                                int offset, int length, byte[] prefix) throws IOException {
+        ByteBuffer frame;
+        if (prefix == null) {
+            frame = block.duplicate();
+            frame.limit(offset + length).position(offset);
+        } else {
+            frame = ByteBuffer.allocate(prefix.length + length);
+            frame.put(prefix);
+            ByteBuffer data = block.duplicate();
+            data.limit(offset + length).position(offset);
+            frame.put(data).flip();
+        }
+        return sink.sample(video, time, time, key, frame);
+    }
+
+    private static boolean isTopLevel(int id) {
+        return id == CLUSTER || id == CUES || id == TAGS || id == ATTACHMENTS || id == CHAPTERS
+                || id == SEEK_HEAD || id == INFO || id == TRACKS;
+    }
+
+    private long toMillis(long timecode) {
+        return timecode * timecodeScale / 1_000_000;
+    }
+
+    /**
+     * 解析 TrackEntry 的中间结果
+     */
+    private static final class Track {
+        int number;
+        int type;
+        String codec = "";
+        byte[] codecPrivate;
+        int sampleRate;
+        int channels;
+        byte[] prefix;
+        boolean encodingSupported = true;
+    }
+}
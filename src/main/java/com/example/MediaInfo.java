@@ -0,0 +1,76 @@
+package com.example;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 媒体文件的元数据（不可变）：容器格式、时长、分辨率、码率和轨道列表
+ */
+public final class MediaInfo {
+    private final ContainerFormat format;   // 容器格式
+    private final long durationMillis;      // 时长，未知时为 -1
+    private final int width;                // 主视频轨道宽度，未知时为 0
+    private final int height;               // 主视频轨道高度，未知时为 0
+    private final long bitrate;             // 总码率（bit/s），未知时为 0
+    private final List<TrackInfo> tracks;   // 轨道列表
+
+    public MediaInfo(ContainerFormat format, long durationMillis, int width, int height,
+                     long bitrate, List<TrackInfo> tracks) {
+        this.format = format;
+        this.durationMillis = durationMillis;
+        this.width = width;
+        this.height = height;
+        this.bitrate = bitrate;
+        this.tracks = Collections.unmodifiableList(tracks);
+    }
+
+    /**
+     * 只知道容器格式的元数据
+     * @param format 容器格式
+     * @return 其他字段都为未知的元数据
+     */
+    public static MediaInfo unknown(ContainerFormat format) {
+        return new MediaInfo(format, -1, 0, 0, 0, Collections.<TrackInfo>emptyList());
+    }
+
+    public ContainerFormat getFormat() {
+        return format;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public long getBitrate() {
+        return bitrate;
+    }
+
+    public List<TrackInfo> getTracks() {
+        return tracks;
+    }
+
+    /**
+     * @param type 轨道类型
+     * @return 第一条指定类型的轨道，没有时返回 null
+     */
+    public TrackInfo firstTrack(TrackInfo.Type type) {
+        for (TrackInfo track : tracks) {
+            if (track.getType() == type) return track;
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return format.getDisplayName() + " " + TimeFormatter.formatTime(Math.max(0, durationMillis))
+                + " " + width + "x" + height + " " + bitrate / 1000 + "kbps " + tracks;
+    }
+}
@@ -0,0 +1,545 @@
+package com.example;
+
+// 导入JavaFX和相关库
+import javafx.application.Platform;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 媒体库索引器：并行遍历配置的根目录，把视频文件记录到紧凑的二进制索引（启动时内存映射加载），
+ * 之后通过 WatchService 增量更新。启动时只重新列出修改时间变化过的目录，未变化的目录直接沿用索引
+ */
+public class MediaLibrary {
+    private static final int MAGIC = 0x44504C42;            // "DPLB"
+    private static final int VERSION = 1;                   // 索引格式版本
+    private static final long SAVE_DELAY_SECONDS = 5;       // 变更后延迟保存的秒数
+
+    /**
+     * 目录状态：修改时间以及其下的视频文件名、子目录名
+     */
+    private static final class DirState {
+        volatile long lastModified = -1;
+        final Set<String> files = ConcurrentHashMap.newKeySet();
+        final Set<String> subdirs = ConcurrentHashMap.newKeySet();
+    }
+
+    private final Map<String, LibraryEntry> entries = new ConcurrentHashMap<>(); // 路径 -> 条目
+    private final Map<String, DirState> dirs = new ConcurrentHashMap<>();        // 目录 -> 状态
+    private final Map<WatchKey, Path> watchKeys = new ConcurrentHashMap<>();     // 监听键 -> 目录
+    private final Set<Path> watchedDirs = ConcurrentHashMap.newKeySet();         // 已注册监听的目录
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();       // 变更监听器
+    private final ForkJoinPool scanPool = new ForkJoinPool(
+            Math.max(2, Runtime.getRuntime().availableProcessors()),
+            pool -> {
+                ForkJoinWorkerThread thread =
+                        ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("library-scan-" + thread.getPoolIndex());
+                thread.setDaemon(true);
+                return thread;
+            }, null, false);                                                     // 并行扫描线程池
+    private final ScheduledExecutorService scheduler =
+            Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("library")); // 保存与通知
+    private final AtomicBoolean notifyPending = new AtomicBoolean(false);        // 是否已预约通知
+    private final Path indexPath;                                                 // 索引文件
+    private volatile List<Path> roots = Collections.emptyList();                  // 根目录
+    private WatchService watcher;                                                 // 目录监听服务
+    private ScheduledFuture<?> pendingSave;                                       // 预约的保存任务
+
+    /**
+     * 构造函数
+     * @param indexPath 索引文件路径
+     */
+    public MediaLibrary(Path indexPath) {
+        this.indexPath = indexPath;
+    }
+
+    /**
+     * 在后台启动：加载索引、增量扫描根目录并开始监听变化
+     * @param rootPaths 根目录列表
+     */
+    public void start(List<Path> rootPaths) {
+        List<Path> normalized = new ArrayList<>();
+        for (Path root : rootPaths) normalized.add(root.toAbsolutePath().normalize());
+        roots = normalized;
+        scheduler.execute(() -> {
+            loadIndex();
+            notifyListeners();
+            try {
+                watcher = FileSystems.getDefault().newWatchService();
+            } catch (IOException ex) {
+                System.err.println("目录监听启动失败: " + ex.getMessage());
+            }
+            scanRoots();
+            if (watcher != null) {
+                Thread watchThread = new DaemonThreadFactory("library-watch").newThread(this::watchLoop);
+                watchThread.start();
+            }
+        });
+    }
+
+    /**
+     * 添加根目录并立即扫描
+     * @param root 根目录
+     */
+    public void addRoot(Path root) {
+        Path normalized = root.toAbsolutePath().normalize();
+        List<Path> updated = new ArrayList<>(roots);
+        if (updated.contains(normalized)) return;
+        updated.add(normalized);
+        roots = updated;
+        scheduler.execute(() -> {
+            scanPool.invoke(new ScanTask(normalized));
+            changed();
+        });
+    }
+
+    /**
+     * 移除根目录及其下的所有条目
+     * @param root 根目录
+     */
+    public void removeRoot(Path root) {
+        Path normalized = root.toAbsolutePath().normalize();
+        List<Path> updated = new ArrayList<>(roots);
+        if (!updated.remove(normalized)) return;
+        roots = updated;
+        scheduler.execute(() -> {
+            removeTree(normalized.toString());
+            changed();
+        });
+    }
+
+    /**
+     * @return 当前的根目录列表
+     */
+    public List<Path> getRoots() {
+        return roots;
+    }
+
+    /**
+     * @return 当前所有条目的只读视图
+     */
+    public Collection<LibraryEntry> getEntries() {
+        return Collections.unmodifiableCollection(entries.values());
+    }
+
+    /**
+     * 注册变更监听器，在 JavaFX 应用线程回调（短时间内的多次变更合并为一次）
+     * @param listener 监听器
+     */
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * 停止监听并立即保存索引
+     */
+    public void shutdown() {
+        try {
+            if (watcher != null) watcher.close();
+        } catch (IOException ignored) {
+            // 关闭失败不影响退出
+        }
+        scanPool.shutdownNow();
+        scheduler.shutdownNow();
+        saveIndex();
+    }
+
+    /**
+     * 扫描所有根目录，清理已不在任何根目录下的索引
+     */
+    private void scanRoots() {
+        List<Path> current = roots;
+        dirs.keySet().removeIf(dir -> !isUnderRoots(dir, current));
+        entries.keySet().removeIf(path -> !isUnderRoots(path, current));
+        for (Path root : current) {
+            scanPool.invoke(new ScanTask(root));
+        }
+        changed();
+    }
+
+    private static boolean isUnderRoots(String path, List<Path> rootPaths) {
+        Path p = Paths.get(path);
+        for (Path root : rootPaths) {
+            if (p.startsWith(root)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * 并行扫描任务：目录修改时间未变时不重新列出目录，只检查已知文件的属性并递归已知子目录，
+     * 否则重新列出目录内容（原地改写的文件不会改变目录的修改时间）
+     */
+    private final class ScanTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Path dir;
+
+        ScanTask(Path dir) {
+            this.dir = dir;
+        }
+
+        @Override
+        protected void compute() {
+            String key = dir.toString();
+            BasicFileAttributes attrs;
+            try {
+                attrs = Files.readAttributes(dir, BasicFileAttributes.class);
+            } catch (IOException ex) {
+                removeTree(key); // 目录已不存在或不可访问
+                return;
+            }
+            if (!attrs.isDirectory()) return;
+            register(dir);
+
+            DirState state = dirs.computeIfAbsent(key, k -> new DirState());
+            long mtime = attrs.lastModifiedTime().toMillis();
+            List<ScanTask> subtasks = new ArrayList<>();
+            if (state.lastModified == mtime) {
+                // 目录未变化：检查已知文件是否被原地改写，再递归子目录
+                checkKnownFiles(state);
+                for (String name : state.subdirs) subtasks.add(new ScanTask(dir.resolve(name)));
+            } else {
+                listDirectory(state, subtasks);
+                state.lastModified = mtime;
+            }
+            invokeAll(subtasks);
+        }
+
+        /**
+         * 读取已知文件的属性，大小或修改时间变化的重新探测，已消失的移除
+         */
+        private void checkKnownFiles(DirState state) {
+            for (String name : new ArrayList<>(state.files)) {
+                Path file = dir.resolve(name);
+                try {
+                    updateFile(file, Files.readAttributes(file, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS));
+                } catch (NoSuchFileException ex) {
+                    state.files.remove(name);
+                    entries.remove(file.toString());
+                } catch (IOException ex) {
+                    System.err.println("读取文件属性失败: " + file + " - " + ex.getMessage());
+                }
+            }
+        }
+
+        /**
+         * 列出目录内容，更新文件条目并移除已消失的文件和子目录
+         */
+        private void listDirectory(DirState state, List<ScanTask> subtasks) {
+            Set<String> seenFiles = ConcurrentHashMap.newKeySet();
+            Set<String> seenDirs = ConcurrentHashMap.newKeySet();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+                for (Path child : stream) {
+                    String name = child.getFileName().toString();
+                    if (name.startsWith(".")) continue; // 跳过隐藏文件
+                    BasicFileAttributes attrs;
+                    try {
+                        attrs = Files.readAttributes(child, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    } catch (IOException ex) {
+                        continue;
+                    }
+                    if (attrs.isDirectory()) {
+                        seenDirs.add(name);
+                        state.subdirs.add(name);
+                        subtasks.add(new ScanTask(child));
+                    } else if (attrs.isRegularFile() && FileUtils.isVideoFile(child.toFile())) {
+                        seenFiles.add(name);
+                        state.files.add(name);
+                        updateFile(child, attrs);
+                    }
+                }
+            } catch (IOException ex) {
+                System.err.println("目录扫描失败: " + dir + " - " + ex.getMessage());
+                return;
+            }
+            for (String name : new ArrayList<>(state.files)) {
+                if (!seenFiles.contains(name)) {
+                    state.files.remove(name);
+                    entries.remove(dir.resolve(name).toString());
+                }
+            }
+            for (String name : new ArrayList<>(state.subdirs)) {
+                if (!seenDirs.contains(name)) {
+                    state.subdirs.remove(name);
+                    removeTree(dir.resolve(name).toString());
+                }
+            }
+        }
+    }
+
+    /**
+     * 更新单个文件的条目，大小和修改时间都没变时保留原有元数据
+     */
+    private void updateFile(Path file, BasicFileAttributes attrs) {
+        String key = file.toString();
+        long size = attrs.size();
+        long mtime = attrs.lastModifiedTime().toMillis();
+        LibraryEntry existing = entries.get(key);
+        if (existing != null && existing.getSize() == size && existing.getLastModified() == mtime) return;
+        entries.put(key, probe(file, size, mtime));
+    }
+
+    /**
+     * 探测文件元数据（时长、分辨率），只解析容器头部，失败时（包括解析损坏文件时的运行时异常）元数据标记为未知
+     */
+    private LibraryEntry probe(Path file, long size, long mtime) {
+        try {
+            MediaInfo info = ContainerProbe.probe(file);
+            return new LibraryEntry(file.toString(), size, mtime,
+                    info.getDurationMillis(), info.getWidth(), info.getHeight());
+        } catch (IOException | RuntimeException ex) {
+            // 损坏的文件只影响自己的元数据，不能中断所在的扫描任务
+            System.err.println("元数据探测失败: " + file + " - " + ex);
+            return new LibraryEntry(file.toString(), size, mtime, -1, 0, 0);
+        }
+    }
+
+    /**
+     * 移除目录及其下所有条目和子目录
+     */
+    private void removeTree(String dir) {
+        String prefix = dir.endsWith(File.separator) ? dir : dir + File.separator;
+        dirs.keySet().removeIf(d -> d.equals(dir) || d.startsWith(prefix));
+        entries.keySet().removeIf(p -> p.startsWith(prefix));
+        watchKeys.entrySet().removeIf(e -> {
+            String watched = e.getValue().toString();
+            if (watched.equals(dir) || watched.startsWith(prefix)) {
+                e.getKey().cancel();
+                watchedDirs.remove(e.getValue());
+                return true;
+            }
+            return false;
+        });
+        Path parent = Paths.get(dir).getParent();
+        if (parent != null) {
+            DirState parentState = dirs.get(parent.toString());
+            if (parentState != null) parentState.subdirs.remove(Paths.get(dir).getFileName().toString());
+        }
+    }
+
+    /**
+     * 注册目录监听（已注册的目录跳过）
+     */
+    private void register(Path dir) {
+        if (watcher == null || !watchedDirs.add(dir)) return;
+        try {
+            WatchKey key = dir.register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+            watchKeys.put(key, dir);
+        } catch (IOException | ClosedWatchServiceException ex) {
+            watchedDirs.remove(dir);
+            System.err.println("目录监听注册失败: " + dir + " - " + ex.getMessage());
+        }
+    }
+
+    /**
+     * 监听循环：根据事件增量更新索引
+     */
+    private void watchLoop() {
+        while (true) {
+            WatchKey key;
+            try {
+                key = watcher.take();
+            } catch (InterruptedException | ClosedWatchServiceException ex) {
+                return;
+            }
+            Path dir = watchKeys.get(key);
+            if (dir != null) {
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    handleEvent(dir, event);
+                }
+                changed();
+            }
+            if (!key.reset()) {
+                Path removed = watchKeys.remove(key);
+                if (removed != null) watchedDirs.remove(removed);
+            }
+        }
+    }
+
+    /**
+     * 处理单个目录事件
+     */
+    private void handleEvent(Path dir, WatchEvent<?> event) {
+        DirState state = dirs.get(dir.toString());
+        if (state == null) return;
+        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+            // 事件溢出，重新扫描该目录
+            state.lastModified = -1;
+            scanPool.invoke(new ScanTask(dir));
+            return;
+        }
+        Path child = dir.resolve((Path) event.context());
+        String name = child.getFileName().toString();
+        if (name.startsWith(".")) return;
+        if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+            state.files.remove(name);
+            entries.remove(child.toString());
+            if (state.subdirs.contains(name)) removeTree(child.toString());
+            return;
+        }
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(child, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+            if (attrs.isDirectory()) {
+                state.subdirs.add(name);
+                scanPool.invoke(new ScanTask(child));
+            } else if (attrs.isRegularFile() && FileUtils.isVideoFile(child.toFile())) {
+                state.files.add(name);
+                updateFile(child, attrs);
+            }
+        } catch (NoSuchFileException ex) {
+            // 文件在事件处理前已被删除，等待删除事件
+        } catch (IOException ex) {
+            System.err.println("读取文件属性失败: " + child + " - " + ex.getMessage());
+        }
+    }
+
+    /**
+     * 标记索引已变更：预约延迟保存并通知监听器
+     */
+    private synchronized void changed() {
+        if (pendingSave == null || pendingSave.isDone()) {
+            try {
+                pendingSave = scheduler.schedule(this::saveIndex, SAVE_DELAY_SECONDS, TimeUnit.SECONDS);
+            } catch (RejectedExecutionException ignored) {
+                // 已关闭
+            }
+        }
+        notifyListeners();
+    }
+
+    /**
+     * 在 JavaFX 应用线程通知监听器，未处理的通知会被合并
+     */
+    private void notifyListeners() {
+        if (listeners.isEmpty() || !notifyPending.compareAndSet(false, true)) return;
+        Platform.runLater(() -> {
+            notifyPending.set(false);
+            for (Runnable listener : listeners) listener.run();
+        });
+    }
+
+    /**
+     * 以内存映射方式加载索引文件，格式不符时忽略（将进行完整扫描）
+     */
+    private void loadIndex() {
+        if (!Files.isRegularFile(indexPath)) return;
+        try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) return;
+            int dirCount = buffer.getInt();
+            int entryCount = buffer.getInt();
+            byte[] scratch = new byte[1024];
+            for (int i = 0; i < dirCount; i++) {
+                String path = readString(buffer, scratch);
+                dirs.computeIfAbsent(path, k -> new DirState()).lastModified = buffer.getLong();
+            }
+            // 根据路径重建目录之间、目录与文件之间的关系
+            for (String path : dirs.keySet()) {
+                Path dir = Paths.get(path);
+                DirState parent = dir.getParent() != null ? dirs.get(dir.getParent().toString()) : null;
+                if (parent != null) parent.subdirs.add(dir.getFileName().toString());
+            }
+            for (int i = 0; i < entryCount; i++) {
+                String path = readString(buffer, scratch);
+                LibraryEntry entry = new LibraryEntry(path, buffer.getLong(), buffer.getLong(),
+                        buffer.getLong(), buffer.getInt(), buffer.getInt());
+                Path file = Paths.get(path);
+                DirState parent = file.getParent() != null ? dirs.get(file.getParent().toString()) : null;
+                if (parent != null) {
+                    parent.files.add(file.getFileName().toString());
+                    entries.put(path, entry);
+                }
+            }
+        } catch (IOException | RuntimeException ex) {
+            System.err.println("媒体库索引加载失败，将重新扫描: " + ex.getMessage());
+            entries.clear();
+            dirs.clear();
+        }
+    }
+
+    private static String readString(MappedByteBuffer buffer, byte[] scratch) {
+        int length = buffer.getInt();
+        byte[] bytes = length <= scratch.length ? scratch : new byte[length];
+        buffer.get(bytes, 0, length);
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 保存索引：先写临时文件再原子替换
+     */
+    private synchronized void saveIndex() {
+        try {
+            Files.createDirectories(indexPath.getParent());
+            Path temp = indexPath.resolveSibling(indexPath.getFileName() + ".tmp");
+            List<Map.Entry<String, DirState>> dirSnapshot = new ArrayList<>(dirs.entrySet());
+            List<LibraryEntry> entrySnapshot = new ArrayList<>(entries.values());
+            try (OutputStream file = Files.newOutputStream(temp);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(dirSnapshot.size());
+                out.writeInt(entrySnapshot.size());
+                for (Map.Entry<String, DirState> dir : dirSnapshot) {
+                    writeString(out, dir.getKey());
+                    out.writeLong(dir.getValue().lastModified);
+                }
+                for (LibraryEntry entry : entrySnapshot) {
+                    writeString(out, entry.getPath());
+                    out.writeLong(entry.getSize());
+                    out.writeLong(entry.getLastModified());
+                    out.writeLong(entry.getDurationMillis());
+                    out.writeInt(entry.getWidth());
+                    out.writeInt(entry.getHeight());
+                }
+            }
+            Files.move(temp, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            System.err.println("媒体库索引保存失败: " + ex.getMessage());
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
@@ -0,0 +1,347 @@
+package com.example;
+
+// 导入JavaFX和相关库
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.scene.media.Media;
+import javafx.scene.media.MediaException;
+import javafx.scene.media.MediaPlayer;
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * 异步媒体加载管线：校验与格式嗅探 -> 构建播放器 -> 等待就绪 -> 交回 UI 线程
+ * 所有阻塞操作都在后台线程执行，新的加载请求会取消尚未完成的旧请求
+ */
+public class MediaLoader {
+    /**
+     * 加载回调，所有方法都在 JavaFX 应用线程上调用
+     */
+    public interface Callback {
+        /** 开始加载 */
+        void onLoading(File file);
+
+        /** 播放器已就绪，调用方接管播放器的所有权 */
+        void onReady(File file, MediaPlayer player);
+
+        /** 加载失败 */
+        void onError(File file, String message);
+
+        /** 播放器交给界面后的首帧耗时（从请求开始计算） */
+        default void onFirstFrame(File file, long elapsedMillis) {
+        }
+    }
+
+    private final Callback callback;                          // 加载回调
+    private final ExecutorService executor =
+            Executors.newCachedThreadPool(new DaemonThreadFactory("media-loader")); // 后台执行器
+    private final AtomicLong generation = new AtomicLong();   // 加载代数，用于取消过期请求
+    private final Map<MediaPlayer, HlsRemuxer> remuxSessions = new ConcurrentHashMap<>(); // 播放器 -> 转封装会话
+    private volatile long lastReadyMillis = -1;               // 最近一次请求到就绪的耗时
+    private volatile long lastFirstFrameMillis = -1;          // 最近一次请求到首帧的耗时
+
+    /**
+     * 构造函数
+     * @param callback 加载回调
+     */
+    public MediaLoader(Callback callback) {
+        this.callback = callback;
+    }
+
+    /**
+     * 异步加载文件，必须在 JavaFX 应用线程调用
+     * @param file 媒体文件
+     */
+    public void load(File file) {
+        long gen = generation.incrementAndGet();
+        long startNanos = System.nanoTime();
+        callback.onLoading(file);
+        executor.execute(() -> prepare(file, () -> isSuperseded(gen),
+                player -> handOff(gen, file, player, startNanos),
+                message -> callback.onError(file, message)));
+    }
+
+    /**
+     * 取消正在进行的加载
+     */
+    public void cancel() {
+        generation.incrementAndGet();
+    }
+
+    /**
+     * 判断某种容器格式能否交给加载管线：JavaFX 能直接播放，或可以转封装为 HLS（编码是否支持在加载时才能确定）
+     * 拖放、播放队列和转交的文件都按这个条件筛选，与单独打开文件时的结果一致
+     * @param format 容器格式
+     * @return 是否可能打开
+     */
+    public static boolean canOpen(ContainerFormat format) {
+        return format.isPlayable() || HlsRemuxer.isCandidate(format);
+    }
+
+    /**
+     * 在后台执行任务（共享加载管线的执行器）
+     * @param task 任务
+     */
+    public void execute(Runnable task) {
+        executor.execute(task);
+    }
+
+    /**
+     * 在后台释放播放器（连同它的转封装会话），避免 dispose 阻塞 UI 线程
+     * @param player 媒体播放器，可为 null
+     */
+    public void disposeAsync(MediaPlayer player) {
+        if (player != null) executor.execute(() -> release(player));
+    }
+
+    /**
+     * 释放播放器，并注销和关闭为它创建的转封装会话（会阻塞，在后台线程调用）
+     */
+    private void release(MediaPlayer player) {
+        player.dispose();
+        PlayerMetrics.getInstance().playerDisposed();
+        MediaProxyServer.releaseRemux(remuxSessions.remove(player));
+    }
+
+    /**
+     * @return 最近一次请求到就绪的耗时（毫秒），尚无记录时为 -1
+     */
+    public long getLastReadyMillis() {
+        return lastReadyMillis;
+    }
+
+    /**
+     * @return 最近一次请求到首帧的耗时（毫秒），尚无记录时为 -1
+     */
+    public long getLastFirstFrameMillis() {
+        return lastFirstFrameMillis;
+    }
+
+    /**
+     * 预加载文件：在后台构建播放器并等待就绪，但不交给界面，由调用方决定何时接管
+     * 在 JavaFX 应用线程调用，或在 Application.init() 中于窗口显示之前调用
+     * @param file 媒体文件
+     * @param onSettled 预加载结束（就绪或失败）时的回调，在 JavaFX 应用线程调用
+     * @return 预加载句柄
+     */
+    public Preload preload(File file, Runnable onSettled) {
+        Preload preload = new Preload(file);
+        executor.execute(() -> prepare(file, () -> preload.cancelled,
+                player -> {
+                    preload.player = player;
+                    preload.settled = true;
+                    onSettled.run();
+                },
+                message -> {
+                    preload.settled = true;
+                    preload.error = message;
+                    onSettled.run();
+                }));
+        return preload;
+    }
+
+    /**
+     * 预加载句柄，只在 JavaFX 应用线程访问
+     */
+    public final class Preload {
+        private final File file;               // 预加载的文件
+        private volatile boolean cancelled;    // 是否已取消
+        private MediaPlayer player;            // 已就绪的播放器
+        private boolean settled;               // 是否已结束（就绪或失败）
+        private String error;                  // 失败原因
+
+        private Preload(File file) {
+            this.file = file;
+        }
+
+        /** @return 预加载的文件 */
+        public File getFile() {
+            return file;
+        }
+
+        /** @return 播放器是否已就绪可接管 */
+        public boolean isReady() {
+            return player != null;
+        }
+
+        /** @return 预加载是否已结束（就绪或失败） */
+        public boolean isSettled() {
+            return settled;
+        }
+
+        /** @return 失败原因，未失败时为 null */
+        public String getError() {
+            return error;
+        }
+
+        /**
+         * 接管已就绪的播放器，之后句柄不再持有它
+         * @return 播放器，未就绪时返回 null
+         */
+        public MediaPlayer take() {
+            MediaPlayer taken = player;
+            player = null;
+            cancelled = true;
+            return taken;
+        }
+
+        /**
+         * 取消预加载，已就绪的播放器会在后台释放
+         */
+        public void cancel() {
+            cancelled = true;
+            disposeAsync(player);
+            player = null;
+        }
+    }
+
+    /**
+     * 后台阶段：校验、探测并构建播放器，就绪后在 UI 线程回调
+     * @param file 媒体文件
+     * @param cancelled 是否已取消（可在任意线程调用）
+     * @param onReady 就绪回调，取消的请求不会回调而是直接释放播放器
+     * @param onError 失败回调，取消的请求不会回调
+     */
+    private void prepare(File file, BooleanSupplier cancelled,
+                         Consumer<MediaPlayer> onReady, Consumer<String> onError) {
+        // 阶段一：校验文件
+        String problem = validate(file);
+        if (problem != null) {
+            fail(cancelled, onError, problem);
+            return;
+        }
+        if (cancelled.getAsBoolean()) return;
+
+        // 阶段二：嗅探容器格式，FLV/Matroska 中的 H.264 转封装为 HLS，其余无法播放的文件不创建原生播放器
+        String uri;
+        HlsRemuxer remuxer;
+        try {
+            ContainerFormat format = ContainerSniffer.sniff(file.toPath());
+            if (!canOpen(format)) {
+                fail(cancelled, onError, "不支持的格式: " + format.getDisplayName());
+                return;
+            }
+            remuxer = HlsRemuxer.isCandidate(format) ? HlsRemuxer.open(file) : null;
+            if (remuxer != null) {
+                if (cancelled.getAsBoolean()) return;  // 建立索引期间已取消，不再登记会话
+                uri = MediaProxyServer.remuxUri(remuxer);
+                if (uri == null) {
+                    remuxer.close();
+                    fail(cancelled, onError, "无法启动转封装服务: " + format.getDisplayName());
+                    return;
+                }
+            } else if (!format.isPlayable()) {
+                fail(cancelled, onError, "不支持的编码: " + format.getDisplayName());
+                return;
+            } else {
+                // 网络共享上的文件经本地缓存代理播放
+                uri = MediaProxyServer.mediaUri(file);
+            }
+        } catch (IOException ex) {
+            fail(cancelled, onError, "无法读取文件: " + ex.getMessage());
+            return;
+        }
+        if (cancelled.getAsBoolean()) {
+            MediaProxyServer.releaseRemux(remuxer);
+            return;
+        }
+
+        // 阶段三：构建播放器，转封装会话随播放器一起释放
+        MediaPlayer player;
+        try {
+            Media media = new Media(uri);
+            player = new MediaPlayer(media);
+            PlayerMetrics.getInstance().playerCreated();
+        } catch (MediaException | IllegalArgumentException | UnsupportedOperationException ex) {
+            MediaProxyServer.releaseRemux(remuxer);
+            fail(cancelled, onError, "无法打开媒体: " + ex.getMessage());
+            return;
+        }
+        if (remuxer != null) remuxSessions.put(player, remuxer);
+        if (cancelled.getAsBoolean()) {
+            release(player);
+            return;
+        }
+
+        // 阶段四：等待就绪后交回 UI 线程
+        AtomicBoolean settled = new AtomicBoolean(false);
+        Runnable handOff = () -> {
+            if (!settled.compareAndSet(false, true)) return;
+            if (cancelled.getAsBoolean()) {
+                disposeAsync(player);
+            } else {
+                onReady.accept(player);
+            }
+        };
+        player.setOnReady(handOff);
+        player.setOnError(() -> {
+            if (settled.compareAndSet(false, true)) {
+                MediaException error = player.getError();
+                disposeAsync(player);
+                if (!cancelled.getAsBoolean()) {
+                    onError.accept("无法打开媒体: " + (error != null ? error.getMessage() : "未知错误"));
+                }
+            }
+        });
+        // 若在设置回调之前就已就绪，则补发一次
+        Platform.runLater(() -> {
+            if (player.getStatus() == MediaPlayer.Status.READY) handOff.run();
+        });
+    }
+
+    /**
+     * UI 线程：把就绪的播放器交给调用方，并记录就绪与首帧耗时
+     */
+    private void handOff(long gen, File file, MediaPlayer player, long startNanos) {
+        lastReadyMillis = (System.nanoTime() - startNanos) / 1_000_000;
+        PlayerMetrics.getInstance().mediaOpened(file, lastReadyMillis);
+        callback.onReady(file, player);
+
+        // 交接后的下一个脉冲即为首帧上屏时间
+        new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                stop();
+                if (isSuperseded(gen)) return;
+                lastFirstFrameMillis = (System.nanoTime() - startNanos) / 1_000_000;
+                callback.onFirstFrame(file, lastFirstFrameMillis);
+            }
+        }.start();
+    }
+
+    /**
+     * 校验文件是否存在且可读
+     * @return 问题描述，没有问题时返回 null
+     */
+    private String validate(File file) {
+        if (file == null || !file.exists()) return "文件不存在";
+        if (!file.isFile()) return "不是文件";
+        if (!file.canRead()) return "文件不可读";
+        if (file.length() == 0) return "文件为空";
+        return null;
+    }
+
+    /**
+     * 报告失败（切回 UI 线程，已取消的请求不报告）
+     */
+    private void fail(BooleanSupplier cancelled, Consumer<String> onError, String message) {
+        Platform.runLater(() -> {
+            if (!cancelled.getAsBoolean()) onError.accept(message);
+        });
+    }
+
+    /**
+     * 检查请求是否已被更新的请求取代
+     */
+    private boolean isSuperseded(long gen) {
+        return generation.get() != gen;
+    }
+}
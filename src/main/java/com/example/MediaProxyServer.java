@@ -0,0 +1,498 @@
+package com.example;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.SecureRandom;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 本地媒体代理：在 127.0.0.1 上提供支持 Range 请求的 HTTP 服务，
+ * 网络共享（SMB/NFS 等）上的文件改为通过它播放，原生管线的每次读取（包括跳转时的随机读取）
+ * 都先经过 ChunkCache，已经看过的部分再次跳转时不再访问网络；缓存块用 FileChannel.transferTo 直接发给套接字
+ * 同时提供 HlsRemuxer 转封装出的 HLS 播放列表和分段
+ * 可通过系统属性 dogplayer.proxy 选择 auto（默认，只代理网络文件系统）、always 或 off，
+ * 缓存上限由 dogplayer.proxy.cache.mb 设置（默认 2048）
+ */
+public class MediaProxyServer {
+    private static final int MAX_HEADER_BYTES = 8 * 1024;            // 请求头上限
+    private static final Set<String> NETWORK_FILE_SYSTEMS = Set.of(
+            "cifs", "smb", "smb2", "smb3", "smbfs", "nfs", "nfs4", "afpfs", "webdav", "davfs",
+            "fuse.sshfs", "ncpfs", "9p");                             // 视为慢速网络存储的文件系统类型
+    private static MediaProxyServer instance;                         // 全局实例（首次代理时启动）
+    private static boolean startFailed;                               // 是否启动失败过（不再重试）
+
+    private final ServerSocketChannel server;                         // 监听通道
+    private final ChunkCache cache;                                   // 分块磁盘缓存
+    private final String token;                                       // 随机路径前缀，防止本机其他程序猜出地址
+    private final Map<String, ChunkCache.Source> sources = new ConcurrentHashMap<>(); // 缓存键 -> 源文件
+    private final Map<String, HlsRemuxer> remuxers = new ConcurrentHashMap<>();        // 会话键 -> 转封装会话
+    private final AtomicLong remuxSessions = new AtomicLong();                          // 会话序号
+    private final ExecutorService connections =
+            Executors.newCachedThreadPool(new DaemonThreadFactory("media-proxy")); // 连接处理线程
+
+    private MediaProxyServer(ServerSocketChannel server, ChunkCache cache) {
+        this.server = server;
+        this.cache = cache;
+        byte[] random = new byte[8];
+        new SecureRandom().nextBytes(random);
+        StringBuilder hex = new StringBuilder();
+        for (byte b : random) hex.append(String.format("%02x", b));
+        this.token = hex.toString();
+    }
+
+    /**
+     * 获取全局实例，第一次调用时启动监听
+     * @return 代理服务，启动失败时返回 null（调用方直接播放原文件）
+     */
+    public static synchronized MediaProxyServer getInstance() {
+        if (instance == null && !startFailed) {
+            try {
+                ServerSocketChannel server = ServerSocketChannel.open();
+                server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+                long maxBytes = Long.getLong("dogplayer.proxy.cache.mb", 2048) << 20;
+                instance = new MediaProxyServer(server, new ChunkCache(AppPaths.dir("chunks"), maxBytes));
+                new DaemonThreadFactory("media-proxy-accept").newThread(instance::acceptLoop).start();
+            } catch (IOException ex) {
+                startFailed = true;
+                System.err.println("媒体代理启动失败: " + ex.getMessage());
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 获取交给 Media 的地址：需要代理的文件返回本地代理地址，否则返回文件 URI
+     * 会查询文件所在的文件系统（网络共享失去响应时可能阻塞），应在后台线程调用
+     * @param file 媒体文件
+     * @return 媒体地址
+     */
+    public static String mediaUri(File file) {
+        if (shouldProxy(file)) {
+            MediaProxyServer server = getInstance();
+            if (server != null) return server.register(file);
+        }
+        return file.toURI().toString();
+    }
+
+    /**
+     * @param file 媒体文件
+     * @return 是否应通过代理播放
+     */
+    public static boolean shouldProxy(File file) {
+        String mode = System.getProperty("dogplayer.proxy", "auto").toLowerCase(Locale.ROOT);
+        if (mode.equals("off")) return false;
+        if (mode.equals("always")) return true;
+        return isNetworkPath(file);
+    }
+
+    /**
+     * 判断文件是否在网络共享上（Windows UNC 路径，或挂载类型为 SMB/NFS 等）
+     * @param file 文件
+     * @return 是否为网络文件
+     */
+    public static boolean isNetworkPath(File file) {
+        String path = file.getAbsolutePath();
+        if (path.startsWith("\\\\")) return true;
+        try {
+            String type = Files.getFileStore(file.toPath()).type().toLowerCase(Locale.ROOT);
+            return NETWORK_FILE_SYSTEMS.contains(type);
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * 获取转封装输出的播放列表地址，可在任意线程调用
+     * @param remuxer 转封装会话
+     * @return 播放列表地址，代理无法启动时返回 null
+     */
+    public static String remuxUri(HlsRemuxer remuxer) {
+        MediaProxyServer server = getInstance();
+        return server != null ? server.register(remuxer) : null;
+    }
+
+    /**
+     * 释放对转封装会话的使用，最后一个使用者释放时注销并关闭会话，可在任意线程调用
+     * @param remuxer 转封装会话，可为 null
+     */
+    public static void releaseRemux(HlsRemuxer remuxer) {
+        if (remuxer == null || !remuxer.release()) return;
+        MediaProxyServer server = getInstance();  // 登记过的会话说明服务已启动，不会在这里新建
+        if (server != null) server.unregister(remuxer);
+        remuxer.close();
+    }
+
+    /**
+     * 查找文件已登记的转封装会话并增加一个使用者（缩略图等附属播放器借用主播放器的会话，不重新建立索引）
+     * @param file 媒体文件
+     * @return 会话，没有时返回 null；返回的会话之后需要通过 releaseRemux 释放
+     */
+    public static HlsRemuxer retainRemux(File file) {
+        MediaProxyServer server;
+        synchronized (MediaProxyServer.class) {
+            server = instance;  // 没有启动过代理说明不存在会话，不在这里启动
+        }
+        if (server == null) return null;
+        String prefix = AppPaths.cacheKey(file) + "-";
+        for (Map.Entry<String, HlsRemuxer> entry : server.remuxers.entrySet()) {
+            if (entry.getKey().startsWith(prefix) && entry.getValue().retain()) return entry.getValue();
+        }
+        return null;
+    }
+
+    /**
+     * 登记转封装会话并返回其播放列表地址（以 .m3u8 结尾，原生管线据此按 HLS 打开）
+     * 每次登记使用独立的会话键，同一文件的两个播放器互不影响
+     * @param remuxer 转封装会话
+     * @return http://127.0.0.1:端口/令牌/缓存键-序号/hls/index.m3u8
+     */
+    public String register(HlsRemuxer remuxer) {
+        String key = AppPaths.cacheKey(remuxer.getFile()) + "-" + remuxSessions.incrementAndGet();
+        remuxers.put(key, remuxer);
+        return address("/" + token + "/" + key + "/hls/index.m3u8", remuxer.getFile());
+    }
+
+    /**
+     * 注销转封装会话，之后对其地址的请求返回 404
+     * @param remuxer 转封装会话
+     */
+    public void unregister(HlsRemuxer remuxer) {
+        remuxers.values().removeIf(registered -> registered == remuxer);  // 借用者可能以另一个键登记过
+    }
+
+    /**
+     * 登记文件并返回其代理地址，地址末尾保留原文件名，原生管线据此判断格式
+     * @param file 媒体文件
+     * @return http://127.0.0.1:端口/令牌/缓存键/文件名
+     */
+    public String register(File file) {
+        ChunkCache.Source source = new ChunkCache.Source(file);
+        sources.putIfAbsent(source.getKey(), source);
+        return address("/" + token + "/" + source.getKey() + "/" + file.getName(), file);
+    }
+
+    /**
+     * 生成本地地址，失败时退回文件 URI
+     */
+    private String address(String path, File file) {
+        try {
+            InetSocketAddress address = (InetSocketAddress) server.getLocalAddress();
+            return new URI("http", null, address.getAddress().getHostAddress(), address.getPort(),
+                    path, null, null).toASCIIString();
+        } catch (IOException | URISyntaxException ex) {
+            System.err.println("媒体代理地址生成失败: " + ex.getMessage());
+            return file.toURI().toString();
+        }
+    }
+
+    /**
+     * 监听线程：每个连接交给一个处理线程
+     */
+    private void acceptLoop() {
+        while (server.isOpen()) {
+            try {
+                SocketChannel channel = server.accept();
+                connections.execute(() -> serve(channel));
+            } catch (IOException ex) {
+                if (server.isOpen()) System.err.println("媒体代理连接失败: " + ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 处理一个连接上的请求（支持 keep-alive），播放器关闭连接或出错时结束
+     */
+    private void serve(SocketChannel channel) {
+        ByteBuffer buffer = ByteBuffer.allocate(MAX_HEADER_BYTES);
+        try (channel) {
+            while (true) {
+                String head = readHead(channel, buffer);
+                if (head == null || !respond(channel, head)) return;
+            }
+        } catch (IOException ex) {
+            // 播放器跳转时会直接断开正在进行的传输，属于正常情况
+        }
+    }
+
+    /**
+     * 读取一个请求头（到空行为止），多读的字节留在缓冲区中供下一个请求使用
+     * @return 请求头文本，连接已关闭时返回 null
+     */
+    private static String readHead(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while (true) {
+            int end = indexOfBlankLine(buffer);
+            if (end >= 0) {
+                String head = new String(buffer.array(), 0, end, StandardCharsets.ISO_8859_1);
+                buffer.flip().position(end + 4);
+                buffer.compact();
+                return head;
+            }
+            if (!buffer.hasRemaining()) throw new IOException("请求头过长");
+            if (channel.read(buffer) < 0) return null;
+        }
+    }
+
+    private static int indexOfBlankLine(ByteBuffer buffer) {
+        byte[] bytes = buffer.array();
+        for (int i = 0; i + 3 < buffer.position(); i++) {
+            if (bytes[i] == '\r' && bytes[i + 1] == '\n' && bytes[i + 2] == '\r' && bytes[i + 3] == '\n') return i;
+        }
+        return -1;
+    }
+
+    /**
+     * 应答一个请求
+     * @return 连接是否可以继续使用
+     */
+    private boolean respond(SocketChannel channel, String head) throws IOException {
+        String[] lines = head.split("\r\n");
+        String[] requestLine = lines[0].split(" ");
+        if (requestLine.length != 3) {
+            sendStatus(channel, "400 Bad Request", null);
+            return false;
+        }
+        String method = requestLine[0];
+        boolean keepAlive = requestLine[2].equals("HTTP/1.1");
+        String range = null;
+        for (int i = 1; i < lines.length; i++) {
+            int colon = lines[i].indexOf(':');
+            if (colon < 0) continue;
+            String name = lines[i].substring(0, colon).trim().toLowerCase(Locale.ROOT);
+            String value = lines[i].substring(colon + 1).trim();
+            if (name.equals("range")) range = value;
+            if (name.equals("connection")) keepAlive = !value.equalsIgnoreCase("close");
+        }
+
+        if (!method.equals("GET") && !method.equals("HEAD")) {
+            sendStatus(channel, "405 Method Not Allowed", null);
+            return keepAlive;
+        }
+        Body body;
+        try {
+            body = lookup(requestLine[1]);
+        } catch (IOException ex) {
+            System.err.println("媒体代理生成失败: " + requestLine[1] + " - " + ex.getMessage());
+            sendStatus(channel, "500 Internal Server Error", null);
+            return keepAlive;
+        }
+        if (body == null) {
+            sendStatus(channel, "404 Not Found", null);
+            return keepAlive;
+        }
+
+        long length = body.length();
+        long from = 0;
+        long to = length - 1;
+        if (range != null) {
+            long[] parsed = parseRange(range, length);
+            if (parsed == null) {
+                sendStatus(channel, "416 Range Not Satisfiable", "Content-Range: bytes */" + length + "\r\n");
+                return keepAlive;
+            }
+            from = parsed[0];
+            to = parsed[1];
+        }
+
+        StringBuilder response = new StringBuilder();
+        response.append("HTTP/1.1 ").append(range != null ? "206 Partial Content" : "200 OK").append("\r\n")
+                .append("Content-Type: ").append(body.contentType()).append("\r\n")
+                .append("Content-Length: ").append(to - from + 1).append("\r\n")
+                .append("Accept-Ranges: bytes\r\n");
+        if (range != null) response.append("Content-Range: bytes ").append(from).append('-').append(to)
+                .append('/').append(length).append("\r\n");
+        response.append("Connection: ").append(keepAlive ? "keep-alive" : "close").append("\r\n\r\n");
+        writeFully(channel, ByteBuffer.wrap(response.toString().getBytes(StandardCharsets.ISO_8859_1)));
+        if (method.equals("GET")) body.send(channel, from, to);
+        return keepAlive;
+    }
+
+    /**
+     * 应答内容
+     */
+    private interface Body {
+        long length();
+
+        String contentType();
+
+        /** 发送 [from, to]（含）范围内的数据 */
+        void send(SocketChannel channel, long from, long to) throws IOException;
+    }
+
+    /**
+     * 经分块缓存读取的源文件
+     */
+    private final class CachedFileBody implements Body {
+        private final ChunkCache.Source source;
+
+        CachedFileBody(ChunkCache.Source source) {
+            this.source = source;
+        }
+
+        @Override
+        public long length() {
+            return source.getLength();
+        }
+
+        @Override
+        public String contentType() {
+            return MediaProxyServer.contentType(source.getFile().getName());
+        }
+
+        @Override
+        public void send(SocketChannel channel, long from, long to) throws IOException {
+            sendCached(channel, source, from, to);
+        }
+    }
+
+    /**
+     * 内存中生成的内容（HLS 播放列表和分段）
+     */
+    private static final class BytesBody implements Body {
+        private final byte[] data;
+        private final String contentType;
+
+        BytesBody(byte[] data, String contentType) {
+            this.data = data;
+            this.contentType = contentType;
+        }
+
+        @Override
+        public long length() {
+            return data.length;
+        }
+
+        @Override
+        public String contentType() {
+            return contentType;
+        }
+
+        @Override
+        public void send(SocketChannel channel, long from, long to) throws IOException {
+            writeFully(channel, ByteBuffer.wrap(data, (int) from, (int) (to - from + 1)));
+        }
+    }
+
+    /**
+     * 逐块发送 [from, to]：每块先确保已在磁盘缓存中，再由内核直接复制到套接字
+     */
+    private void sendCached(SocketChannel channel, ChunkCache.Source source, long from, long to) throws IOException {
+        long position = from;
+        while (position <= to) {
+            int index = (int) (position / ChunkCache.CHUNK_SIZE);
+            long offset = position - (long) index * ChunkCache.CHUNK_SIZE;
+            long count = Math.min(ChunkCache.CHUNK_SIZE - offset, to - position + 1);
+            Path chunk;
+            try {
+                chunk = cache.chunk(source, index);
+            } catch (IOException ex) {
+                System.err.println("媒体代理读取失败: " + source.getFile() + " - " + ex.getMessage());
+                throw ex;
+            }
+            try (FileChannel file = FileChannel.open(chunk, StandardOpenOption.READ)) {
+                long sent = 0;
+                while (sent < count) {
+                    long n = file.transferTo(offset + sent, count - sent, channel);
+                    if (n <= 0) throw new IOException("缓存块不完整: " + chunk);
+                    sent += n;
+                }
+            }
+            position += count;
+        }
+    }
+
+    /**
+     * 根据请求路径查找内容：/令牌/缓存键/文件名 为源文件，/令牌/缓存键/hls/index.m3u8 和 /令牌/缓存键/hls/序号.ts 为转封装输出
+     * @return 内容，不存在时返回 null
+     * @throws IOException 生成分段失败
+     */
+    private Body lookup(String target) throws IOException {
+        String[] parts = target.split("/");
+        if (parts.length < 4 || !parts[1].equals(token)) return null;
+        if (parts.length == 5 && parts[3].equals("hls")) {
+            HlsRemuxer remuxer = remuxers.get(parts[2]);
+            if (remuxer == null) return null;
+            if (parts[4].equals("index.m3u8")) {
+                return new BytesBody(remuxer.playlist().getBytes(StandardCharsets.UTF_8), "application/vnd.apple.mpegurl");
+            }
+            if (!parts[4].endsWith(".ts")) return null;
+            try {
+                int index = Integer.parseInt(parts[4].substring(0, parts[4].length() - 3));
+                if (index < 0 || index >= remuxer.segmentCount()) return null;
+                return new BytesBody(remuxer.segment(index), "video/mp2t");
+            } catch (NumberFormatException ex) {
+                return null;
+            }
+        }
+        ChunkCache.Source source = sources.get(parts[2]);
+        return source != null ? new CachedFileBody(source) : null;
+    }
+
+    /**
+     * 解析单个字节范围（bytes=a-b、bytes=a-、bytes=-n）
+     * @return {起始, 结束}（含），无法满足时返回 null
+     */
+    private static long[] parseRange(String header, long length) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) return null;
+        String spec = header.substring(6).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) return null;
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long from;
+            long to;
+            if (first.isEmpty()) {
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) return null;
+                from = Math.max(0, length - suffix);
+                to = length - 1;
+            } else {
+                from = Long.parseLong(first);
+                to = last.isEmpty() ? length - 1 : Math.min(Long.parseLong(last), length - 1);
+            }
+            if (from < 0 || from >= length || to < from) return null;
+            return new long[] { from, to };
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    private static String contentType(String fileName) {
+        String lower = fileName.toLowerCase(Locale.ROOT);
+        if (lower.endsWith(".mp4") || lower.endsWith(".m4v")) return "video/mp4";
+        if (lower.endsWith(".m4a")) return "audio/mp4";
+        if (lower.endsWith(".mp3")) return "audio/mpeg";
+        if (lower.endsWith(".wav")) return "audio/x-wav";
+        if (lower.endsWith(".aif") || lower.endsWith(".aiff")) return "audio/x-aiff";
+        if (lower.endsWith(".flv")) return "video/x-flv";
+        return "application/octet-stream";
+    }
+
+    private static void sendStatus(SocketChannel channel, String status, String extraHeaders) throws IOException {
+        String response = "HTTP/1.1 " + status + "\r\n" + (extraHeaders != null ? extraHeaders : "")
+                + "Content-Length: 0\r\n\r\n";
+        writeFully(channel, ByteBuffer.wrap(response.getBytes(StandardCharsets.ISO_8859_1)));
+    }
+
+    private static void writeFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) channel.write(buffer);
+    }
+}
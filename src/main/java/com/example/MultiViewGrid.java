@@ -0,0 +1,132 @@
+package com.example;
+
+// 导入JavaFX和相关库
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseButton;
+import javafx.scene.layout.Pane;
+import javafx.scene.media.MediaPlayer;
+import javafx.stage.Stage;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 多画面网格：同时播放 2 到 16 个文件（例如对照多个机位），按文件数排成 2x1 到 4x4
+ * 单击选中焦点格（只有焦点格出声），双击单独放大或恢复网格；
+ * 空格全部播放/暂停，左右方向键以焦点格为准同步跳转，上下方向键调整音量，Tab 切换焦点格
+ * 加载、暂停和声音由 MultiViewScheduler 统一调度
+ */
+public class MultiViewGrid extends Pane {
+    public static final int MAX_TILES = 16;           // 最多格数（4x4）
+    private static final double GAP = 2;              // 格间距
+
+    private final List<MultiViewTile> tiles = new ArrayList<>(); // 所有格（按文件顺序）
+    private final MultiViewScheduler scheduler;        // 调度
+    private final int columns;                         // 列数
+    private final int rows;                            // 行数
+
+    /**
+     * 构造函数，创建后立即开始错开加载
+     * @param files 要播放的文件，超过 MAX_TILES 的部分被忽略
+     * @param loader 共享的加载管线
+     * @param stage 主窗口
+     * @param volume 焦点格的初始音量
+     */
+    public MultiViewGrid(List<File> files, MediaLoader loader, Stage stage, double volume) {
+        getStyleClass().add("multi-view-grid");
+        setMinSize(0, 0);
+        int count = Math.min(files.size(), MAX_TILES);
+        columns = (int) Math.ceil(Math.sqrt(count));
+        rows = (count + columns - 1) / columns;
+        scheduler = new MultiViewScheduler(loader, stage, volume);
+
+        for (File file : files.subList(0, count)) {
+            MultiViewTile tile = new MultiViewTile(file);
+            tile.setOnMouseClicked(e -> {
+                if (e.getButton() != MouseButton.PRIMARY) return;
+                if (e.getClickCount() == 2) {
+                    toggleSolo(tile);
+                } else {
+                    scheduler.focus(tile);
+                }
+            });
+            tiles.add(tile);
+        }
+        getChildren().addAll(tiles);
+        scheduler.start(tiles);
+    }
+
+    /**
+     * 处理键盘操作
+     * @param e 按键事件
+     * @return 是否已处理
+     */
+    public boolean handleKey(KeyEvent e) {
+        KeyCode code = e.getCode();
+        if (code == KeyCode.SPACE) {
+            scheduler.togglePlaying();
+        } else if (code == KeyCode.LEFT || code == KeyCode.RIGHT) {
+            scheduler.seekBy(code == KeyCode.RIGHT ? 5000 : -5000);
+        } else if (code == KeyCode.UP || code == KeyCode.DOWN) {
+            scheduler.adjustVolume(code == KeyCode.UP ? 0.05 : -0.05);
+        } else if (code == KeyCode.TAB && scheduler.getSolo() == null && !tiles.isEmpty()) {
+            int index = tiles.indexOf(scheduler.getFocused());
+            int step = e.isShiftDown() ? tiles.size() - 1 : 1;
+            scheduler.focus(tiles.get((index + step) % tiles.size()));
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return 格数
+     */
+    public int getTileCount() {
+        return tiles.size();
+    }
+
+    /**
+     * @return 焦点格的音量（退出多画面后沿用）
+     */
+    public double getVolume() {
+        return scheduler.getVolume();
+    }
+
+    /**
+     * 停止所有格，交出播放器
+     * @return 已就绪的播放器（由调用方在后台释放）
+     */
+    public List<MediaPlayer> close() {
+        return scheduler.stop();
+    }
+
+    private void toggleSolo(MultiViewTile tile) {
+        scheduler.setSolo(scheduler.getSolo() == tile ? null : tile);
+        requestLayout();
+    }
+
+    /**
+     * 按行列均分排布；单独放大时只显示该格并占满整个区域
+     */
+    @Override
+    protected void layoutChildren() {
+        double width = getWidth();
+        double height = getHeight();
+        MultiViewTile solo = scheduler.getSolo();
+        if (solo != null) {
+            for (MultiViewTile tile : tiles) tile.setVisible(tile == solo);
+            solo.resizeRelocate(0, 0, width, height);
+            return;
+        }
+        double cellWidth = Math.max(0, (width - GAP * (columns - 1)) / columns);
+        double cellHeight = Math.max(0, (height - GAP * (rows - 1)) / rows);
+        for (int i = 0; i < tiles.size(); i++) {
+            MultiViewTile tile = tiles.get(i);
+            tile.setVisible(true);
+            tile.resizeRelocate((i % columns) * (cellWidth + GAP), (i / columns) * (cellHeight + GAP),
+                    cellWidth, cellHeight);
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.example;
+
+// 导入JavaFX和相关库
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.PauseTransition;
+import javafx.animation.Timeline;
+import javafx.beans.value.ChangeListener;
+import javafx.scene.media.MediaPlayer;
+import javafx.stage.Stage;
+import javafx.util.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * 多画面调度：决定每一格何时加载、何时播放、是否出声
+ * - 启动错开：同时最多两个播放器在打开，每个就绪后间隔一小段时间再开始下一个，避免一次性创建十几条原生管线
+ * - 可见性：窗口最小化时全部暂停，单独放大一格时其余格暂停；恢复显示的格对齐到焦点格的位置后继续播放
+ * - 声音：只有焦点格输出声音，其余格静音
+ * - 刷新：所有格共用一个低频节拍刷新进度线，不按帧刷新
+ * 所有方法都在 JavaFX 应用线程调用
+ */
+public class MultiViewScheduler {
+    private static final int MAX_CONCURRENT_LOADS = 2;   // 同时打开的播放器数
+    private static final Duration STAGGER = Duration.millis(150); // 两次启动之间的间隔
+    private static final Duration TICK = Duration.millis(250);    // 进度线刷新间隔
+    private static final double RESYNC_MILLIS = 500;      // 恢复播放时与焦点格相差超过这么多才对齐
+
+    private final MediaLoader loader;                     // 共享的加载管线
+    private final Stage stage;                            // 主窗口（监听最小化）
+    private final List<MultiViewTile> tiles = new ArrayList<>(); // 所有格
+    private final Deque<MultiViewTile> pending = new ArrayDeque<>(); // 等待加载的格
+    private final List<MediaLoader.Preload> loading = new ArrayList<>(); // 正在加载的预加载句柄
+    private final PauseTransition stagger = new PauseTransition(STAGGER); // 启动间隔
+    private final Timeline ticker = new Timeline(new KeyFrame(TICK, e -> refreshVisible()));
+    private MultiViewTile focused;                        // 焦点格
+    private MultiViewTile solo;                           // 单独放大的格，没有时为 null
+    private boolean playing = true;                       // 用户期望的播放状态
+    private double volume;                                // 焦点格的音量
+    private boolean staggering = false;                   // 是否处于启动间隔中
+
+    private final ChangeListener<Boolean> iconifiedListener = (obs, oldVal, newVal) -> applyAll();
+
+    /**
+     * 构造函数
+     * @param loader 共享的加载管线
+     * @param stage 主窗口
+     * @param volume 焦点格的初始音量
+     */
+    public MultiViewScheduler(MediaLoader loader, Stage stage, double volume) {
+        this.loader = loader;
+        this.stage = stage;
+        this.volume = volume;
+        ticker.setCycleCount(Animation.INDEFINITE);
+        stagger.setOnFinished(e -> {
+            staggering = false;
+            pump();
+        });
+    }
+
+    /**
+     * 开始调度：按顺序排队加载所有格，第一格为焦点格
+     * @param newTiles 所有格
+     */
+    public void start(List<MultiViewTile> newTiles) {
+        tiles.addAll(newTiles);
+        pending.addAll(newTiles);
+        for (MultiViewTile tile : newTiles) tile.showStatus("等待加载");
+        if (!tiles.isEmpty()) focus(tiles.get(0));
+        stage.iconifiedProperty().addListener(iconifiedListener);
+        ticker.play();
+        pump();
+    }
+
+    /**
+     * 在并发上限和启动间隔允许时开始加载下一格
+     */
+    private void pump() {
+        while (!staggering && loading.size() < MAX_CONCURRENT_LOADS && !pending.isEmpty()) {
+            MultiViewTile tile = pending.poll();
+            tile.showStatus("加载中...");
+            MediaLoader.Preload[] holder = new MediaLoader.Preload[1];
+            holder[0] = loader.preload(tile.getFile(), () -> settled(tile, holder[0]));
+            loading.add(holder[0]);
+        }
+    }
+
+    /**
+     * 一格加载结束：接管播放器并按当前状态决定是否播放，然后等待启动间隔后继续
+     */
+    private void settled(MultiViewTile tile, MediaLoader.Preload preload) {
+        if (!loading.remove(preload)) return;  // 已停止调度
+        if (preload.isReady()) {
+            MediaPlayer player = preload.take();
+            player.setOnEndOfMedia(() -> {
+                player.seek(Duration.ZERO);
+                player.pause();
+            });
+            tile.attach(player);
+            apply(tile);
+        } else {
+            tile.showStatus(preload.getError());
+        }
+        staggering = true;
+        stagger.playFromStart();
+    }
+
+    /**
+     * @return 焦点格
+     */
+    public MultiViewTile getFocused() {
+        return focused;
+    }
+
+    /**
+     * 切换焦点格，声音随之转到新的焦点格
+     * @param tile 新的焦点格
+     */
+    public void focus(MultiViewTile tile) {
+        if (tile == focused) return;
+        MultiViewTile previous = focused;
+        focused = tile;
+        if (previous != null) {
+            previous.setFocusedTile(false);
+            apply(previous);
+        }
+        tile.setFocusedTile(true);
+        apply(tile);
+    }
+
+    /**
+     * 单独放大一格（其余格被隐藏并暂停），传入 null 时恢复网格
+     * @param tile 要放大的格，可为 null
+     */
+    public void setSolo(MultiViewTile tile) {
+        solo = tile;
+        if (tile != null) focus(tile);
+        applyAll();
+    }
+
+    /**
+     * @return 单独放大的格，没有时为 null
+     */
+    public MultiViewTile getSolo() {
+        return solo;
+    }
+
+    /**
+     * 切换所有格的播放/暂停
+     */
+    public void togglePlaying() {
+        playing = !playing;
+        applyAll();
+    }
+
+    /**
+     * 所有可见格前进或后退，以焦点格的位置为准，保持各格同步
+     * @param deltaMillis 跳转量（毫秒）
+     */
+    public void seekBy(long deltaMillis) {
+        MediaPlayer reference = focused != null ? focused.getPlayer() : null;
+        if (reference == null) return;
+        double target = Math.max(0, reference.getCurrentTime().toMillis() + deltaMillis);
+        for (MultiViewTile tile : tiles) {
+            MediaPlayer player = tile.getPlayer();
+            if (player != null && isVisible(tile)) seekClamped(player, target);
+        }
+    }
+
+    /**
+     * 调整焦点格的音量（其余格保持静音）
+     * @param delta 音量增量
+     */
+    public void adjustVolume(double delta) {
+        volume = Math.max(0, Math.min(1, volume + delta));
+        if (focused != null && focused.getPlayer() != null) focused.getPlayer().setVolume(volume);
+    }
+
+    /**
+     * @return 焦点格的音量
+     */
+    public double getVolume() {
+        return volume;
+    }
+
+    /**
+     * 停止调度：取消尚未完成的加载，交出所有播放器
+     * @return 所有已就绪的播放器（由调用方在后台释放）
+     */
+    public List<MediaPlayer> stop() {
+        stage.iconifiedProperty().removeListener(iconifiedListener);
+        ticker.stop();
+        stagger.stop();
+        for (MediaLoader.Preload preload : loading) preload.cancel();
+        loading.clear();
+        pending.clear();
+        List<MediaPlayer> players = new ArrayList<>();
+        for (MultiViewTile tile : tiles) {
+            MediaPlayer player = tile.detach();
+            if (player != null) {
+                player.setOnEndOfMedia(null);
+                player.stop();
+                players.add(player);
+            }
+        }
+        tiles.clear();
+        return players;
+    }
+
+    private void applyAll() {
+        for (MultiViewTile tile : tiles) apply(tile);
+    }
+
+    /**
+     * 按可见性、播放意图和焦点设置一格的播放状态与声音
+     */
+    private void apply(MultiViewTile tile) {
+        MediaPlayer player = tile.getPlayer();
+        if (player == null) return;
+        boolean audible = tile == focused;
+        player.setMute(!audible);
+        if (audible) player.setVolume(volume);
+
+        boolean shouldPlay = playing && isVisible(tile);
+        MediaPlayer.Status status = player.getStatus();
+        if (shouldPlay && status != MediaPlayer.Status.PLAYING) {
+            resync(tile);
+            player.play();
+        } else if (!shouldPlay && status == MediaPlayer.Status.PLAYING) {
+            player.pause();
+        }
+    }
+
+    /**
+     * 暂停过的格恢复播放前对齐到焦点格的位置（多机位素材需要保持同步）
+     */
+    private void resync(MultiViewTile tile) {
+        if (tile == focused || focused == null || focused.getPlayer() == null) return;
+        MediaPlayer reference = focused.getPlayer();
+        if (reference.getStatus() != MediaPlayer.Status.PLAYING) return;
+        double target = reference.getCurrentTime().toMillis();
+        MediaPlayer player = tile.getPlayer();
+        if (Math.abs(player.getCurrentTime().toMillis() - target) > RESYNC_MILLIS) seekClamped(player, target);
+    }
+
+    private static void seekClamped(MediaPlayer player, double targetMillis) {
+        Duration total = player.getTotalDuration();
+        if (total != null && !total.isUnknown() && !total.isIndefinite() && targetMillis >= total.toMillis()) return;
+        player.seek(Duration.millis(targetMillis));
+    }
+
+    /**
+     * @return 该格当前是否可见（窗口未最小化且没有被放大的其他格挡住）
+     */
+    private boolean isVisible(MultiViewTile tile) {
+        return !stage.isIconified() && (solo == null || solo == tile);
+    }
+
+    /**
+     * 共享节拍：只刷新可见格的进度线
+     */
+    private void refreshVisible() {
+        if (stage.isIconified()) return;
+        for (MultiViewTile tile : tiles) {
+            if (isVisible(tile)) tile.refresh();
+        }
+    }
+}
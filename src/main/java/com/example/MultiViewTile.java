@@ -0,0 +1,162 @@
+package com.example;
+
+// 导入JavaFX和相关库
+import javafx.geometry.Pos;
+import javafx.scene.control.Label;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.StackPane;
+import javafx.scene.media.MediaPlayer;
+import javafx.scene.media.MediaView;
+import javafx.util.Duration;
+import java.io.File;
+
+/**
+ * 多画面中的一格：画面、文件名和一条细进度线
+ * 不监听播放器的时间属性，也没有自己的计时器，进度由 MultiViewScheduler 的共享节拍统一刷新；
+ * 点击进度线跳转，所有方法都在 JavaFX 应用线程调用
+ */
+public class MultiViewTile extends StackPane {
+    private static final double PROGRESS_HEIGHT = 3;  // 进度线高度
+
+    private final File file;                          // 本格的文件
+    private final MediaView mediaView = new MediaView();
+    private final Label nameLabel;                    // 文件名（左下角）
+    private final Label statusLabel = new Label("等待加载"); // 加载状态（居中，播放后隐藏）
+    private final Region progressTrack = new Region(); // 进度线底色
+    private final Region progressFill = new Region();  // 进度线已播放部分
+    private MediaPlayer player;                        // 本格的播放器，未就绪时为 null
+    private double shownProgress = -1;                 // 进度线上显示的进度
+
+    /**
+     * 构造函数
+     * @param file 本格播放的文件
+     */
+    public MultiViewTile(File file) {
+        this.file = file;
+        getStyleClass().add("multi-view-tile");
+        setMinSize(0, 0);
+
+        mediaView.setPreserveRatio(true);
+        mediaView.fitWidthProperty().bind(widthProperty());
+        mediaView.fitHeightProperty().bind(heightProperty());
+
+        nameLabel = new Label(file.getName());
+        nameLabel.getStyleClass().add("multi-view-name");
+        StackPane.setAlignment(nameLabel, Pos.BOTTOM_LEFT);
+
+        statusLabel.getStyleClass().add("multi-view-status");
+
+        progressTrack.getStyleClass().add("multi-view-track");
+        progressTrack.setMaxHeight(PROGRESS_HEIGHT);
+        progressTrack.setMinHeight(PROGRESS_HEIGHT);
+        StackPane.setAlignment(progressTrack, Pos.BOTTOM_CENTER);
+        progressFill.getStyleClass().add("multi-view-progress");
+        progressFill.setManaged(false);
+        progressFill.setMouseTransparent(true);
+        progressFill.setVisible(false);
+        progressTrack.setOnMouseClicked(e -> {
+            if (player != null && progressTrack.getWidth() > 0) {
+                e.consume();
+                seekToFraction(e.getX() / progressTrack.getWidth());
+            }
+        });
+
+        getChildren().addAll(mediaView, statusLabel, nameLabel, progressTrack, progressFill);
+    }
+
+    /**
+     * @return 本格的文件
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * @return 本格的播放器，未就绪时为 null
+     */
+    public MediaPlayer getPlayer() {
+        return player;
+    }
+
+    /**
+     * 接管已就绪的播放器
+     * @param player 媒体播放器
+     */
+    void attach(MediaPlayer player) {
+        this.player = player;
+        mediaView.setMediaPlayer(player);
+        statusLabel.setVisible(false);
+        shownProgress = -1;
+        progressFill.setVisible(true);
+        refresh();
+    }
+
+    /**
+     * 显示加载状态或错误信息
+     * @param message 状态文字
+     */
+    void showStatus(String message) {
+        statusLabel.setText(message);
+        statusLabel.setVisible(true);
+    }
+
+    /**
+     * 设置是否为焦点格（焦点格带边框，并负责输出声音）
+     * @param focused 是否为焦点格
+     */
+    void setFocusedTile(boolean focused) {
+        if (focused) {
+            if (!getStyleClass().contains("focused-tile")) getStyleClass().add("focused-tile");
+        } else {
+            getStyleClass().remove("focused-tile");
+        }
+    }
+
+    /**
+     * 按播放器的当前位置刷新进度线，进度变化不足一个像素时不写入控件
+     */
+    void refresh() {
+        if (player == null) return;
+        Duration total = player.getTotalDuration();
+        if (total == null || total.isUnknown() || total.isIndefinite() || total.toMillis() <= 0) return;
+        double progress = Math.min(1, player.getCurrentTime().toMillis() / total.toMillis());
+        double width = progressTrack.getWidth();
+        if (Math.abs(progress - shownProgress) * width < 1) return;
+        shownProgress = progress;
+        progressFill.resizeRelocate(progressTrack.getLayoutX(), progressTrack.getLayoutY(),
+                progress * width, PROGRESS_HEIGHT);
+    }
+
+    /**
+     * 跳转到时长的某个比例
+     * @param fraction 0 到 1 之间的比例
+     */
+    private void seekToFraction(double fraction) {
+        Duration total = player.getTotalDuration();
+        if (total == null || total.isUnknown() || total.isIndefinite()) return;
+        player.seek(total.multiply(Math.max(0, Math.min(1, fraction))));
+        shownProgress = -1;
+    }
+
+    /**
+     * 尺寸变化后进度线需要按新宽度重画
+     */
+    @Override
+    protected void layoutChildren() {
+        super.layoutChildren();
+        shownProgress = -1;
+        refresh();
+    }
+
+    /**
+     * 解除播放器绑定并交出播放器
+     * @return 原来的播放器，可为 null
+     */
+    MediaPlayer detach() {
+        MediaPlayer detached = player;
+        player = null;
+        mediaView.setMediaPlayer(null);
+        progressFill.setVisible(false);
+        return detached;
+    }
+}
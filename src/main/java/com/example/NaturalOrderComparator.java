@@ -0,0 +1,54 @@
+package com.example;
+
+import java.util.Comparator;
+
+/**
+ * 自然排序比较器：连续数字按数值比较，其余字符忽略大小写比较
+ * 例如 "第2集" 排在 "第10集" 之前
+ */
+public class NaturalOrderComparator implements Comparator<String> {
+    /** 共享实例（无状态，线程安全） */
+    public static final NaturalOrderComparator INSTANCE = new NaturalOrderComparator();
+
+    @Override
+    public int compare(String a, String b) {
+        int i = 0, j = 0;
+        int lengthA = a.length(), lengthB = b.length();
+        while (i < lengthA && j < lengthB) {
+            char ca = a.charAt(i);
+            char cb = b.charAt(j);
+            if (isDigit(ca) && isDigit(cb)) {
+                // 跳过前导零后比较数字段
+                int startA = i, startB = j;
+                while (startA < lengthA && a.charAt(startA) == '0') startA++;
+                while (startB < lengthB && b.charAt(startB) == '0') startB++;
+                int endA = startA, endB = startB;
+                while (endA < lengthA && isDigit(a.charAt(endA))) endA++;
+                while (endB < lengthB && isDigit(b.charAt(endB))) endB++;
+                int digitsA = endA - startA, digitsB = endB - startB;
+                if (digitsA != digitsB) return digitsA - digitsB; // 位数多的数值更大
+                for (int k = 0; k < digitsA; k++) {
+                    int diff = a.charAt(startA + k) - b.charAt(startB + k);
+                    if (diff != 0) return diff;
+                }
+                i = endA;
+                j = endB;
+            } else {
+                if (ca != cb) {
+                    char la = Character.toLowerCase(ca);
+                    char lb = Character.toLowerCase(cb);
+                    if (la != lb) return la - lb;
+                }
+                i++;
+                j++;
+            }
+        }
+        int rest = (lengthA - i) - (lengthB - j);
+        // 自然顺序相同（如仅前导零或大小写不同）时退回字典序，保证排序稳定
+        return rest != 0 ? rest : a.compareTo(b);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,151 @@
+package com.example;
+
+// 导入JavaFX和相关库
+import javafx.application.Platform;
+import javafx.beans.value.ChangeListener;
+import javafx.scene.media.MediaPlayer;
+import javafx.util.Duration;
+import java.io.File;
+import java.util.function.BiConsumer;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+/**
+ * 下一集预加载器：当前文件接近结尾时在后台查找并预加载下一集，
+ * 播放结束时直接切换到已就绪的播放器，实现无缝连播
+ * 所有方法都在 JavaFX 应用线程调用
+ */
+public class NextEpisodePreloader {
+    private static final long PRELOAD_LEAD_MILLIS = 30_000; // 距结尾多久开始预加载
+
+    private final MediaLoader mediaLoader;          // 加载管线
+    private final BooleanSupplier enabled;          // 是否启用自动连播
+    private final Function<File, File> nextResolver; // 下一集查找（在后台线程调用）
+    private final BiConsumer<File, MediaPlayer> onSwap; // 切换到下一集的回调
+    private final Runnable onNoNext;                // 没有下一集时的回调
+    private MediaPlayer boundPlayer;                // 当前绑定的播放器
+    private File boundFile;                         // 当前绑定的文件
+    private boolean started = false;                // 本集是否已开始预加载
+    private boolean searching = false;              // 是否正在查找下一集
+    private boolean endReached = false;             // 本集是否已播放结束
+    private MediaLoader.Preload preload;            // 预加载句柄
+
+    private final ChangeListener<Duration> progressListener; // 播放进度监听
+
+    /**
+     * 构造函数
+     * @param mediaLoader 加载管线
+     * @param enabled 是否启用自动连播（每次判断时读取）
+     * @param nextResolver 根据当前文件查找下一集，在后台线程调用，没有时返回 null
+     * @param onSwap 切换到已就绪的下一集播放器
+     * @param onNoNext 播放结束且没有可用的下一集
+     */
+    public NextEpisodePreloader(MediaLoader mediaLoader, BooleanSupplier enabled,
+                                Function<File, File> nextResolver,
+                                BiConsumer<File, MediaPlayer> onSwap, Runnable onNoNext) {
+        this.mediaLoader = mediaLoader;
+        this.enabled = enabled;
+        this.nextResolver = nextResolver;
+        this.onSwap = onSwap;
+        this.onNoNext = onNoNext;
+
+        // 播放进度监听：进入结尾区间时开始预加载
+        progressListener = (obs, oldVal, newVal) -> {
+            if (started || boundPlayer == null) return;
+            Duration total = boundPlayer.getTotalDuration();
+            if (PlaybackClock.isValidDuration(total)
+                    && total.toMillis() - newVal.toMillis() <= PRELOAD_LEAD_MILLIS && enabled.getAsBoolean()) {
+                start();
+            }
+        };
+    }
+
+    /**
+     * 绑定当前播放的文件，取消上一集遗留的预加载
+     * @param file 当前文件
+     * @param player 当前播放器
+     */
+    public void bind(File file, MediaPlayer player) {
+        reset();
+        boundFile = file;
+        boundPlayer = player;
+        player.currentTimeProperty().addListener(progressListener);
+    }
+
+    /**
+     * 解除绑定并取消预加载
+     */
+    public void reset() {
+        if (boundPlayer != null) {
+            boundPlayer.currentTimeProperty().removeListener(progressListener);
+        }
+        if (preload != null) {
+            preload.cancel();
+            preload = null;
+        }
+        boundPlayer = null;
+        boundFile = null;
+        started = false;
+        searching = false;
+        endReached = false;
+    }
+
+    /**
+     * 当前集播放结束
+     * @return 是否由预加载器接管（接管后会回调 onSwap 或 onNoNext）
+     */
+    public boolean onEndOfMedia() {
+        if (boundPlayer == null || !enabled.getAsBoolean()) return false;
+        endReached = true;
+        if (!started) {
+            start();
+        } else if (!searching && (preload == null || preload.isSettled())) {
+            finish();
+        }
+        return true;
+    }
+
+    /**
+     * 在后台查找下一集，找到后开始预加载
+     */
+    private void start() {
+        started = true;
+        searching = true;
+        MediaPlayer player = boundPlayer;
+        File current = boundFile;
+        mediaLoader.execute(() -> {
+            File next = nextResolver.apply(current);
+            Platform.runLater(() -> {
+                if (boundPlayer != player) return; // 期间已切换文件
+                searching = false;
+                if (next == null) {
+                    if (endReached) finish();
+                    return;
+                }
+                preload = mediaLoader.preload(next, () -> {
+                    if (boundPlayer == player && endReached) finish();
+                });
+            });
+        });
+    }
+
+    /**
+     * 播放结束后收尾：有就绪的下一集则切换，否则回调 onNoNext
+     */
+    private void finish() {
+        MediaLoader.Preload done = preload;
+        preload = null;
+        if (done != null && done.isReady()) {
+            File next = done.getFile();
+            MediaPlayer nextPlayer = done.take();
+            reset();
+            onSwap.accept(next, nextPlayer);
+        } else {
+            if (done != null && done.getError() != null) {
+                System.err.println("下一集预加载失败: " + done.getFile() + " - " + done.getError());
+            }
+            reset();
+            onNoNext.run();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 播放队列：保存一批待播放的文件，按当前文件查找下一项
+ * 批量探测线程会在后台查询，所以方法都做了同步
+ */
+public class PlayQueue {
+    private final List<File> files = new ArrayList<>(); // 队列中的文件
+
+    /**
+     * 清空队列
+     */
+    public synchronized void clear() {
+        files.clear();
+    }
+
+    /**
+     * 追加文件到队列末尾
+     * @param file 文件
+     */
+    public synchronized void add(File file) {
+        files.add(file);
+    }
+
+    /**
+     * @return 队列长度
+     */
+    public synchronized int size() {
+        return files.size();
+    }
+
+    /**
+     * 查找队列中位于指定文件之后的下一项
+     * @param current 当前文件
+     * @return 下一项，当前文件不在队列中或已是最后一项时返回 null
+     */
+    public synchronized File nextAfter(File current) {
+        int index = files.indexOf(current);
+        return index >= 0 && index + 1 < files.size() ? files.get(index + 1) : null;
+    }
+
+    /**
+     * @param current 当前文件
+     * @return 队列中是否还有位于当前文件之后的项
+     */
+    public synchronized boolean hasNextAfter(File current) {
+        return nextAfter(current) != null;
+    }
+
+    /**
+     * @param file 文件
+     * @return 文件在队列中的位置（从 1 开始），不在队列中时返回 0
+     */
+    public synchronized int positionOf(File file) {
+        return files.indexOf(file) + 1;
+    }
+}
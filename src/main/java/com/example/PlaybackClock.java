@@ -0,0 +1,184 @@
+package com.example;
+
+// 导入JavaFX和相关库
+import javafx.animation.AnimationTimer;
+import javafx.beans.value.ChangeListener;
+import javafx.scene.control.Label;
+import javafx.scene.control.Slider;
+import javafx.scene.media.MediaPlayer;
+import javafx.util.Duration;
+
+/**
+ * 播放时钟，监听媒体播放器的时间、时长和状态属性来驱动进度条和时间标签
+ * 同一个脉冲内的多次变化只合并刷新一次，且只在可见值发生变化时才写入控件
+ */
+public class PlaybackClock {
+    private final Slider progressSlider;  // 进度条
+    private final Label timeLabel;        // 时间标签
+    private final TimeFormatter formatter = new TimeFormatter(); // 复用的时间格式化器
+    private MediaPlayer mediaPlayer;      // 当前绑定的媒体播放器
+    private boolean suspended = false;    // 是否暂停写入进度条（拖动时）
+    private boolean refreshPending = false; // 是否已经预约了下一个脉冲的刷新
+    private long currentMillis = 0;       // 最近一次收到的播放位置
+    private long totalMillis = -1;        // 总时长，未知时为 -1
+    private long shownSecond = -1;        // 标签上显示的当前秒数
+    private long shownTotalSecond = -1;   // 标签上显示的总秒数
+    private double shownProgress = -1;    // 进度条上显示的进度
+
+    // 属性监听器，只记录最新值并预约刷新
+    private final ChangeListener<Duration> currentTimeListener = (obs, oldVal, newVal) -> {
+        currentMillis = newVal == null ? 0 : (long) newVal.toMillis();
+        requestRefresh();
+    };
+    private final ChangeListener<Duration> totalDurationListener = (obs, oldVal, newVal) -> {
+        totalMillis = isValidDuration(newVal) ? (long) newVal.toMillis() : -1;
+        requestRefresh();
+    };
+    private final ChangeListener<MediaPlayer.Status> statusListener = (obs, oldVal, newVal) -> {
+        if (mediaPlayer != null) currentMillis = (long) mediaPlayer.getCurrentTime().toMillis();
+        requestRefresh();
+    };
+
+    // 单次脉冲计时器：有变化时启动，刷新后立即停止，空闲时不占用脉冲
+    private final AnimationTimer pulse = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            stop();
+            refreshPending = false;
+            refresh();
+        }
+    };
+
+    /**
+     * 构造函数
+     * @param progressSlider 进度条
+     * @param timeLabel 时间标签
+     */
+    public PlaybackClock(Slider progressSlider, Label timeLabel) {
+        this.progressSlider = progressSlider;
+        this.timeLabel = timeLabel;
+    }
+
+    /**
+     * 绑定媒体播放器，替换之前绑定的播放器
+     * @param player 媒体播放器
+     */
+    public void bind(MediaPlayer player) {
+        unbind();
+        if (player == null) return;
+        mediaPlayer = player;
+        currentMillis = (long) player.getCurrentTime().toMillis();
+        Duration total = player.getTotalDuration();
+        totalMillis = isValidDuration(total) ? (long) total.toMillis() : -1;
+        player.currentTimeProperty().addListener(currentTimeListener);
+        player.totalDurationProperty().addListener(totalDurationListener);
+        player.statusProperty().addListener(statusListener);
+        requestRefresh();
+    }
+
+    /**
+     * 解除与当前播放器的绑定并重置显示状态
+     */
+    public void unbind() {
+        if (mediaPlayer != null) {
+            mediaPlayer.currentTimeProperty().removeListener(currentTimeListener);
+            mediaPlayer.totalDurationProperty().removeListener(totalDurationListener);
+            mediaPlayer.statusProperty().removeListener(statusListener);
+            mediaPlayer = null;
+        }
+        pulse.stop();
+        refreshPending = false;
+        currentMillis = 0;
+        totalMillis = -1;
+        shownSecond = -1;
+        shownTotalSecond = -1;
+        shownProgress = -1;
+    }
+
+    /**
+     * 设置是否暂停写入进度条，拖动进度条期间由控制条接管显示
+     * @param suspended 是否暂停
+     */
+    public void setSuspended(boolean suspended) {
+        this.suspended = suspended;
+        if (!suspended) {
+            shownProgress = -1; // 恢复后强制同步一次进度条
+            requestRefresh();
+        }
+    }
+
+    /**
+     * 在时间标签上显示指定位置（拖动预览用）
+     * @param positionMillis 位置（毫秒）
+     */
+    public void showPosition(long positionMillis) {
+        if (totalMillis > 0) showTime(positionMillis, totalMillis);
+    }
+
+    /**
+     * @return 总时长（毫秒），未知时返回 -1
+     */
+    public long getTotalMillis() {
+        return totalMillis;
+    }
+
+    /**
+     * 预约在下一个脉冲刷新，同一脉冲内的重复请求被合并
+     */
+    private void requestRefresh() {
+        if (!refreshPending) {
+            refreshPending = true;
+            pulse.start();
+        }
+    }
+
+    /**
+     * 刷新进度条和时间标签，仅在可见值变化时写入控件
+     */
+    private void refresh() {
+        if (mediaPlayer == null || totalMillis <= 0) return;
+        if (!suspended) {
+            double progress = progressOf(currentMillis, totalMillis);
+            // 变化不足一个像素时不更新进度条
+            double step = 1.0 / Math.max(1.0, progressSlider.getWidth());
+            if (Math.abs(progress - shownProgress) >= step) {
+                shownProgress = progress;
+                progressSlider.setValue(progress);
+            }
+            showTime(currentMillis, totalMillis);
+        }
+    }
+
+    /**
+     * 显示时间文本，只有秒数变化时才重新生成字符串
+     */
+    private void showTime(long current, long total) {
+        long second = current / 1000;
+        long totalSecond = total / 1000;
+        if (second == shownSecond && totalSecond == shownTotalSecond) return;
+        shownSecond = second;
+        shownTotalSecond = totalSecond;
+        timeLabel.setText(formatter.format(current, total));
+    }
+
+    /**
+     * 计算进度值
+     * @param currentMillis 当前位置
+     * @param totalMillis 总时长
+     * @return 0~1 之间的进度
+     */
+    public static double progressOf(long currentMillis, long totalMillis) {
+        if (totalMillis <= 0) return 0;
+        double progress = (double) currentMillis / totalMillis;
+        return progress < 0 ? 0 : (progress > 1 ? 1 : progress);
+    }
+
+    /**
+     * 检查时间是否有效
+     * @param d 时间对象
+     * @return 是否有效
+     */
+    public static boolean isValidDuration(Duration d) {
+        return d != null && d.greaterThan(Duration.ZERO) && !d.isUnknown();
+    }
+}
@@ -0,0 +1,111 @@
+package com.example;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * 自定义 JFR 事件，只在开启录制时才真正写入（例如 -XX:StartFlightRecording 或 jcmd JFR.start）
+ */
+public final class PlayerEvents {
+    private PlayerEvents() {
+    }
+
+    @Name("com.example.MediaOpen")
+    @Label("Media Open")
+    @Description("从请求打开文件到播放器就绪的耗时")
+    @Category({ "DogPlayer", "Playback" })
+    @StackTrace(false)
+    public static class MediaOpenEvent extends Event {
+        @Label("File")
+        public String file;
+
+        @Label("Latency")
+        @Timespan(Timespan.MILLISECONDS)
+        public long latency;
+    }
+
+    @Name("com.example.Seek")
+    @Label("Seek")
+    @Description("从发出 seek 到播放管线输出新位置的耗时")
+    @Category({ "DogPlayer", "Playback" })
+    @StackTrace(false)
+    public static class SeekEvent extends Event {
+        @Label("Target")
+        @Timespan(Timespan.MILLISECONDS)
+        public long target;
+
+        @Label("Latency")
+        @Timespan(Timespan.MILLISECONDS)
+        public long latency;
+    }
+
+    @Name("com.example.SlowPulse")
+    @Label("Slow Pulse")
+    @Description("超过一帧时间预算的 JavaFX 脉冲（CSS 与布局阶段）")
+    @Category({ "DogPlayer", "UI" })
+    @StackTrace(false)
+    public static class SlowPulseEvent extends Event {
+        @Label("Duration")
+        @Timespan(Timespan.MICROSECONDS)
+        public long duration;
+    }
+
+    @Name("com.example.Stall")
+    @Label("Stall")
+    @Description("播放器缓冲停顿的时长")
+    @Category({ "DogPlayer", "Playback" })
+    @StackTrace(false)
+    public static class StallEvent extends Event {
+        @Label("Duration")
+        @Timespan(Timespan.MILLISECONDS)
+        public long duration;
+    }
+
+    @Name("com.example.PlayerLifecycle")
+    @Label("Player Lifecycle")
+    @Description("原生播放器的创建与释放")
+    @Category({ "DogPlayer", "Playback" })
+    @StackTrace(false)
+    public static class PlayerLifecycleEvent extends Event {
+        @Label("Created")
+        public boolean created;
+
+        @Label("Live Players")
+        public long live;
+    }
+
+    @Name("com.example.Memory")
+    @Label("Player Memory")
+    @Description("堆内存与直接/映射缓冲区占用")
+    @Category({ "DogPlayer", "Memory" })
+    @Period("1 s")
+    @StackTrace(false)
+    public static class MemoryEvent extends Event {
+        @Label("Heap Used")
+        @DataAmount
+        public long heapUsed;
+
+        @Label("Heap Committed")
+        @DataAmount
+        public long heapCommitted;
+
+        @Label("Non-Heap Used")
+        @DataAmount
+        public long nonHeapUsed;
+
+        @Label("Direct Buffers")
+        @DataAmount
+        public long directBuffers;
+
+        @Label("Mapped Buffers")
+        @DataAmount
+        public long mappedBuffers;
+    }
+}
@@ -0,0 +1,428 @@
+package com.example;
+
+import javafx.beans.value.ChangeListener;
+import javafx.scene.Scene;
+import javafx.scene.media.MediaPlayer;
+import java.io.File;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import jdk.jfr.FlightRecorder;
+
+/**
+ * 播放器性能指标：启动耗时、打开耗时、seek 耗时、JavaFX 脉冲耗时与丢帧、缓冲停顿、播放器创建/释放次数和内存占用
+ * 同一份数据同时以 JFR 事件、JMX MXBean 和界面统计浮层三种方式提供
+ */
+public class PlayerMetrics implements PlayerMetricsMXBean {
+    private static final long FRAME_NANOS = 16_666_667;      // 60Hz 下一帧的时间预算
+    private static final int MAX_COUNTED_GAP_FRAMES = 10;    // 超过此间隔视为空闲而不是丢帧
+
+    private static final PlayerMetrics INSTANCE = new PlayerMetrics(); // 全局实例
+
+    // 打开耗时
+    private final AtomicLong openCount = new AtomicLong();
+    private final AtomicLong totalOpenMillis = new AtomicLong();
+    private volatile long lastOpenMillis = -1;
+    private volatile long maxOpenMillis = 0;
+    // seek 耗时
+    private final AtomicLong seekCount = new AtomicLong();
+    private final AtomicLong totalSeekMillis = new AtomicLong();
+    private volatile long lastSeekMillis = -1;
+    private volatile long maxSeekMillis = 0;
+    // 脉冲（只在 JavaFX 应用线程写入）
+    private volatile long pulseCount = 0;
+    private volatile long lastPulseMicros = 0;
+    private volatile long maxPulseMicros = 0;
+    private volatile long slowPulseCount = 0;
+    private volatile long droppedPulseCount = 0;
+    private long pulseStartNanos = 0;
+    private long lastPulseStartNanos = 0;
+    // 缓冲停顿（只在 JavaFX 应用线程写入）
+    private volatile long stallCount = 0;
+    private volatile long totalStallMillis = 0;
+    private volatile long stallStartNanos = 0;      // 0 表示当前没有停顿
+    private volatile boolean playing = false;
+    // 播放器生命周期
+    private final AtomicLong playersCreated = new AtomicLong();
+    private final AtomicLong playersDisposed = new AtomicLong();
+    // 本地媒体代理的数据来源
+    private final AtomicLong proxyCacheBytes = new AtomicLong();
+    private final AtomicLong proxyFetchedBytes = new AtomicLong();
+    // 启动耗时（从进程启动算起）
+    private volatile long startupWindowMillis = -1;
+    private volatile long startupVideoMillis = -1;
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final List<BufferPoolMXBean> bufferPools =
+            ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class);
+
+    // 播放状态监听：停顿结束于重新进入 PLAYING
+    private final ChangeListener<MediaPlayer.Status> statusListener = (obs, oldVal, newVal) -> {
+        playing = newVal == MediaPlayer.Status.PLAYING;
+        if (playing) endStall();
+    };
+    private MediaPlayer watched;                    // 当前监视的播放器
+
+    private PlayerMetrics() {
+    }
+
+    /**
+     * @return 全局指标实例
+     */
+    public static PlayerMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 注册 MXBean 和周期性的内存 JFR 事件，应用启动时调用一次
+     */
+    public void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("com.example:type=PlayerMetrics");
+            if (!server.isRegistered(name)) server.registerMBean(this, name);
+        } catch (Exception ex) {
+            System.err.println("性能指标注册失败: " + ex.getMessage());
+        }
+        FlightRecorder.addPeriodicEvent(PlayerEvents.MemoryEvent.class, () -> {
+            PlayerEvents.MemoryEvent event = new PlayerEvents.MemoryEvent();
+            event.heapUsed = getHeapUsedBytes();
+            event.heapCommitted = getHeapCommittedBytes();
+            event.nonHeapUsed = getNonHeapUsedBytes();
+            event.directBuffers = getDirectBufferBytes();
+            event.mappedBuffers = getMappedBufferBytes();
+            event.commit();
+        });
+    }
+
+    /**
+     * 监听场景的脉冲：布局前后各记录一次时间，统计脉冲耗时，
+     * 播放中相邻脉冲间隔超过两帧时记为丢帧
+     * @param scene 主场景
+     */
+    public void watchPulses(Scene scene) {
+        scene.addPreLayoutPulseListener(() -> {
+            long now = System.nanoTime();
+            if (playing && lastPulseStartNanos != 0) {
+                long gapFrames = (now - lastPulseStartNanos) / FRAME_NANOS;
+                if (gapFrames >= 2 && gapFrames <= MAX_COUNTED_GAP_FRAMES) {
+                    droppedPulseCount += gapFrames - 1;
+                }
+            }
+            lastPulseStartNanos = now;
+            pulseStartNanos = now;
+        });
+        scene.addPostLayoutPulseListener(() -> {
+            long elapsed = System.nanoTime() - pulseStartNanos;
+            long micros = elapsed / 1000;
+            pulseCount++;
+            lastPulseMicros = micros;
+            if (micros > maxPulseMicros) maxPulseMicros = micros;
+            if (elapsed > FRAME_NANOS) {
+                slowPulseCount++;
+                PlayerEvents.SlowPulseEvent event = new PlayerEvents.SlowPulseEvent();
+                event.duration = micros;
+                event.commit();
+            }
+        });
+    }
+
+    /**
+     * 监视播放器的停顿和播放状态，传入 null 时停止监视
+     * @param player 当前播放器
+     */
+    public void watch(MediaPlayer player) {
+        if (watched != null) {
+            watched.statusProperty().removeListener(statusListener);
+            watched.setOnStalled(null);
+        }
+        endStall();
+        watched = player;
+        playing = player != null && player.getStatus() == MediaPlayer.Status.PLAYING;
+        if (player != null) {
+            player.statusProperty().addListener(statusListener);
+            player.setOnStalled(() -> {
+                if (stallStartNanos == 0) stallStartNanos = System.nanoTime();
+            });
+        }
+    }
+
+    /**
+     * 记录一次打开耗时
+     * @param file 文件
+     * @param millis 从请求到就绪的毫秒数
+     */
+    public void mediaOpened(File file, long millis) {
+        openCount.incrementAndGet();
+        totalOpenMillis.addAndGet(millis);
+        lastOpenMillis = millis;
+        if (millis > maxOpenMillis) maxOpenMillis = millis;
+        PlayerEvents.MediaOpenEvent event = new PlayerEvents.MediaOpenEvent();
+        if (event.shouldCommit()) {
+            event.file = file.getPath();
+            event.latency = millis;
+            event.commit();
+        }
+    }
+
+    /**
+     * 记录一次 seek 耗时
+     * @param targetMillis 目标位置
+     * @param millis 从发出到管线响应的毫秒数
+     */
+    public void seekSettled(long targetMillis, long millis) {
+        seekCount.incrementAndGet();
+        totalSeekMillis.addAndGet(millis);
+        lastSeekMillis = millis;
+        if (millis > maxSeekMillis) maxSeekMillis = millis;
+        PlayerEvents.SeekEvent event = new PlayerEvents.SeekEvent();
+        event.target = targetMillis;
+        event.latency = millis;
+        event.commit();
+    }
+
+    /**
+     * 记录创建了一个原生播放器（任意线程）
+     */
+    public void playerCreated() {
+        playersCreated.incrementAndGet();
+        lifecycleEvent(true);
+    }
+
+    /**
+     * 记录释放了一个原生播放器（任意线程）
+     */
+    public void playerDisposed() {
+        playersDisposed.incrementAndGet();
+        lifecycleEvent(false);
+    }
+
+    /**
+     * 记录媒体代理从磁盘缓存提供的字节数（任意线程）
+     * @param bytes 字节数
+     */
+    public void proxyBytesFromCache(long bytes) {
+        proxyCacheBytes.addAndGet(bytes);
+    }
+
+    /**
+     * 记录媒体代理从源文件（网络）读取的字节数（任意线程）
+     * @param bytes 字节数
+     */
+    public void proxyBytesFetched(long bytes) {
+        proxyFetchedBytes.addAndGet(bytes);
+    }
+
+    /**
+     * 记录主窗口首帧的启动耗时
+     * @param millis 从进程启动到首帧的毫秒数
+     */
+    public void startupWindowShown(long millis) {
+        startupWindowMillis = millis;
+    }
+
+    /**
+     * 记录命令行文件首个画面的启动耗时
+     * @param millis 从进程启动到画面上屏的毫秒数
+     */
+    public void startupVideoShown(long millis) {
+        startupVideoMillis = millis;
+    }
+
+    private void lifecycleEvent(boolean created) {
+        PlayerEvents.PlayerLifecycleEvent event = new PlayerEvents.PlayerLifecycleEvent();
+        event.created = created;
+        event.live = getLivePlayers();
+        event.commit();
+    }
+
+    private void endStall() {
+        long start = stallStartNanos;
+        if (start == 0) return;
+        stallStartNanos = 0;
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        stallCount++;
+        totalStallMillis += millis;
+        PlayerEvents.StallEvent event = new PlayerEvents.StallEvent();
+        event.duration = millis;
+        event.commit();
+    }
+
+    @Override
+    public long getOpenCount() {
+        return openCount.get();
+    }
+
+    @Override
+    public long getLastOpenMillis() {
+        return lastOpenMillis;
+    }
+
+    @Override
+    public long getMaxOpenMillis() {
+        return maxOpenMillis;
+    }
+
+    @Override
+    public long getAverageOpenMillis() {
+        long count = openCount.get();
+        return count > 0 ? totalOpenMillis.get() / count : 0;
+    }
+
+    @Override
+    public long getSeekCount() {
+        return seekCount.get();
+    }
+
+    @Override
+    public long getLastSeekMillis() {
+        return lastSeekMillis;
+    }
+
+    @Override
+    public long getMaxSeekMillis() {
+        return maxSeekMillis;
+    }
+
+    @Override
+    public long getAverageSeekMillis() {
+        long count = seekCount.get();
+        return count > 0 ? totalSeekMillis.get() / count : 0;
+    }
+
+    @Override
+    public long getPulseCount() {
+        return pulseCount;
+    }
+
+    @Override
+    public long getLastPulseMicros() {
+        return lastPulseMicros;
+    }
+
+    @Override
+    public long getMaxPulseMicros() {
+        return maxPulseMicros;
+    }
+
+    @Override
+    public long getSlowPulseCount() {
+        return slowPulseCount;
+    }
+
+    @Override
+    public long getDroppedPulseCount() {
+        return droppedPulseCount;
+    }
+
+    @Override
+    public long getStallCount() {
+        return stallCount;
+    }
+
+    @Override
+    public long getTotalStallMillis() {
+        long start = stallStartNanos;
+        long current = start != 0 ? (System.nanoTime() - start) / 1_000_000 : 0;
+        return totalStallMillis + current;
+    }
+
+    @Override
+    public boolean isStalled() {
+        return stallStartNanos != 0;
+    }
+
+    @Override
+    public long getPlayersCreated() {
+        return playersCreated.get();
+    }
+
+    @Override
+    public long getPlayersDisposed() {
+        return playersDisposed.get();
+    }
+
+    @Override
+    public long getLivePlayers() {
+        return playersCreated.get() - playersDisposed.get();
+    }
+
+    @Override
+    public long getProxyCacheBytes() {
+        return proxyCacheBytes.get();
+    }
+
+    @Override
+    public long getProxyFetchedBytes() {
+        return proxyFetchedBytes.get();
+    }
+
+    @Override
+    public long getStartupWindowMillis() {
+        return startupWindowMillis;
+    }
+
+    @Override
+    public long getStartupVideoMillis() {
+        return startupVideoMillis;
+    }
+
+    @Override
+    public long getHeapUsedBytes() {
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    @Override
+    public long getHeapCommittedBytes() {
+        return memory.getHeapMemoryUsage().getCommitted();
+    }
+
+    @Override
+    public long getNonHeapUsedBytes() {
+        MemoryUsage usage = memory.getNonHeapMemoryUsage();
+        return usage.getUsed();
+    }
+
+    @Override
+    public long getDirectBufferBytes() {
+        return bufferPoolBytes("direct");
+    }
+
+    @Override
+    public long getMappedBufferBytes() {
+        return bufferPoolBytes("mapped");
+    }
+
+    private long bufferPoolBytes(String name) {
+        for (BufferPoolMXBean pool : bufferPools) {
+            if (pool.getName().equals(name)) return pool.getMemoryUsed();
+        }
+        return 0;
+    }
+
+    @Override
+    public void reset() {
+        openCount.set(0);
+        totalOpenMillis.set(0);
+        lastOpenMillis = -1;
+        maxOpenMillis = 0;
+        seekCount.set(0);
+        totalSeekMillis.set(0);
+        lastSeekMillis = -1;
+        maxSeekMillis = 0;
+        pulseCount = 0;
+        lastPulseMicros = 0;
+        maxPulseMicros = 0;
+        slowPulseCount = 0;
+        droppedPulseCount = 0;
+        stallCount = 0;
+        totalStallMillis = 0;
+        proxyCacheBytes.set(0);
+        proxyFetchedBytes.set(0);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example;
+
+/**
+ * 播放器性能指标的 JMX 接口，注册名为 com.example:type=PlayerMetrics
+ */
+public interface PlayerMetricsMXBean {
+    long getOpenCount();
+
+    long getLastOpenMillis();
+
+    long getMaxOpenMillis();
+
+    long getAverageOpenMillis();
+
+    long getSeekCount();
+
+    long getLastSeekMillis();
+
+    long getMaxSeekMillis();
+
+    long getAverageSeekMillis();
+
+    long getPulseCount();
+
+    long getLastPulseMicros();
+
+    long getMaxPulseMicros();
+
+    long getSlowPulseCount();
+
+    long getDroppedPulseCount();
+
+    long getStallCount();
+
+    long getTotalStallMillis();
+
+    boolean isStalled();
+
+    long getPlayersCreated();
+
+    long getPlayersDisposed();
+
+    long getLivePlayers();
+
+    long getProxyCacheBytes();
+
+    long getProxyFetchedBytes();
+
+    long getStartupWindowMillis();
+
+    long getStartupVideoMillis();
+
+    long getHeapUsedBytes();
+
+    long getHeapCommittedBytes();
+
+    long getNonHeapUsedBytes();
+
+    long getDirectBufferBytes();
+
+    long getMappedBufferBytes();
+
+    /**
+     * 清零所有累计指标（内存数据和启动耗时除外）
+     */
+    void reset();
+}
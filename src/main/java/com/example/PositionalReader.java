@@ -0,0 +1,192 @@
+package com.example;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 基于 FileChannel 定位读取的大端序读取器
+ * 内部缓存一个小窗口，连续的小字段读取只触发一次系统调用；跳过的数据从不读入内存
+ */
+public class PositionalReader implements Closeable {
+    public static final int WINDOW_SIZE = 16 * 1024; // 读取窗口大小
+
+    private final FileChannel channel;   // 文件通道
+    private final long size;             // 文件大小
+    private final ByteBuffer window = ByteBuffer.allocate(WINDOW_SIZE); // 当前窗口
+    private long windowStart = -1;       // 窗口对应的文件位置
+    private int windowLength;            // 窗口中的有效字节数
+    private int reads;                   // 实际读取次数（用于统计）
+
+    private PositionalReader(FileChannel channel) throws IOException {
+        this.channel = channel;
+        this.size = channel.size();
+    }
+
+    /**
+     * 打开文件
+     * @param file 文件路径
+     * @return 读取器，使用完毕后需要关闭
+     * @throws IOException 打开失败
+     */
+    public static PositionalReader open(Path file) throws IOException {
+        return new PositionalReader(FileChannel.open(file, StandardOpenOption.READ));
+    }
+
+    /**
+     * @return 文件大小
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @return 实际发生的读取次数
+     */
+    public int getReadCount() {
+        return reads;
+    }
+
+    /**
+     * 返回从指定位置开始的一段只读视图（索引从 0 开始），长度不超过窗口大小
+     * @param pos 文件位置
+     * @param length 期望长度，文件末尾不足时返回更短的视图
+     * @return 数据视图
+     * @throws IOException 读取失败
+     */
+    public ByteBuffer view(long pos, int length) throws IOException {
+        int wanted = Math.min(length, WINDOW_SIZE);
+        fill(pos, wanted);
+        int offset = (int) (pos - windowStart);
+        int available = Math.max(0, Math.min(wanted, windowLength - offset));
+        ByteBuffer view = window.duplicate();
+        view.limit(offset + available).position(offset);
+        return view.slice().asReadOnlyBuffer();
+    }
+
+    public int u8(long pos) throws IOException {
+        require(pos, 1);
+        return window.get((int) (pos - windowStart)) & 0xFF;
+    }
+
+    public int u16(long pos) throws IOException {
+        require(pos, 2);
+        return window.getShort((int) (pos - windowStart)) & 0xFFFF;
+    }
+
+    public int u24(long pos) throws IOException {
+        require(pos, 3);
+        int offset = (int) (pos - windowStart);
+        return ((window.get(offset) & 0xFF) << 16) | ((window.get(offset + 1) & 0xFF) << 8)
+                | (window.get(offset + 2) & 0xFF);
+    }
+
+    public int s32(long pos) throws IOException {
+        require(pos, 4);
+        return window.getInt((int) (pos - windowStart));
+    }
+
+    public long u32(long pos) throws IOException {
+        return s32(pos) & 0xFFFFFFFFL;
+    }
+
+    public long u64(long pos) throws IOException {
+        require(pos, 8);
+        return window.getLong((int) (pos - windowStart));
+    }
+
+    /**
+     * 读取 1~8 字节的大端无符号整数
+     * @param pos 文件位置
+     * @param length 字节数
+     * @return 整数值
+     * @throws IOException 读取失败
+     */
+    public long uint(long pos, int length) throws IOException {
+        require(pos, length);
+        int offset = (int) (pos - windowStart);
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            value = (value << 8) | (window.get(offset + i) & 0xFF);
+        }
+        return value;
+    }
+
+    /**
+     * 读取一段字节（不超过窗口大小）
+     * @param pos 文件位置
+     * @param length 字节数
+     * @return 字节数组
+     * @throws IOException 读取失败
+     */
+    public byte[] bytes(long pos, int length) throws IOException {
+        require(pos, length);
+        byte[] data = new byte[length];
+        ByteBuffer view = window.duplicate();
+        view.position((int) (pos - windowStart));
+        view.get(data);
+        return data;
+    }
+
+    /**
+     * 读取 ASCII/UTF-8 字符串，去掉末尾的 0 填充
+     * @param pos 文件位置
+     * @param length 字节数
+     * @return 字符串
+     * @throws IOException 读取失败
+     */
+    public String string(long pos, int length) throws IOException {
+        byte[] data = bytes(pos, length);
+        int end = data.length;
+        while (end > 0 && data[end - 1] == 0) end--;
+        return new String(data, 0, end, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 绕过窗口直接读取任意长度的数据（用于读取整个音视频帧）
+     * @param pos 文件位置
+     * @param dst 目标缓冲区，读满其剩余空间
+     * @throws IOException 读取失败或文件提前结束
+     */
+    public void readFully(long pos, ByteBuffer dst) throws IOException {
+        long position = pos;
+        while (dst.hasRemaining()) {
+            reads++;
+            int n = channel.read(dst, position);
+            if (n < 0) throw new EOFException("文件已结束: " + position);
+            position += n;
+        }
+    }
+
+    private void require(long pos, int length) throws IOException {
+        if (length > WINDOW_SIZE) throw new IOException("读取长度超出窗口: " + length);
+        fill(pos, length);
+        if (pos - windowStart + length > windowLength) throw new EOFException("文件已结束: " + pos);
+    }
+
+    /**
+     * 保证 [pos, pos + length) 位于窗口中，不在时从 pos 开始重新读取一个窗口
+     */
+    private void fill(long pos, int length) throws IOException {
+        if (pos < 0) throw new EOFException("无效位置: " + pos);
+        if (windowStart >= 0 && pos >= windowStart && pos + length <= windowStart + windowLength) return;
+        window.clear();
+        reads++;
+        while (window.hasRemaining()) {
+            int n = channel.read(window, pos + window.position());
+            if (n < 0) break;
+        }
+        windowStart = pos;
+        windowLength = window.position();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,398 @@
+package com.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 续播位置存储：按文件内容指纹记录上次播放位置
+ * 内存中是 long→long 的开放寻址哈希表，磁盘上是只追加的二进制日志（每条 16 字节），
+ * 写入在后台线程批量完成，日志中的过期记录过多时在后台压缩重写
+ */
+public class ResumeStore {
+    private static final int MAGIC = 0x44505253;                // "DPRS"
+    private static final int VERSION = 1;                       // 日志格式版本
+    private static final int HEADER_BYTES = 8;                  // 文件头字节数
+    private static final int RECORD_BYTES = 16;                 // 每条记录：指纹 8 字节 + 位置 8 字节
+    private static final long REMOVED = -1;                     // 删除标记
+    private static final long FLUSH_DELAY_MILLIS = 1000;        // 写入合并延迟
+    private static final int COMPACT_MIN_RECORDS = 4096;        // 日志至少这么多条才考虑压缩
+    private static final int FINGERPRINT_BLOCK = 64 * 1024;     // 指纹读取的头尾块大小
+
+    // 指纹计算时每个线程复用的读取缓冲区
+    private static final ThreadLocal<ByteBuffer> BLOCK = ThreadLocal.withInitial(
+            () -> ByteBuffer.allocateDirect(FINGERPRINT_BLOCK).order(ByteOrder.LITTLE_ENDIAN));
+
+    private final Path path;                                    // 日志文件路径
+    private final LongLongMap index = new LongLongMap(256);     // 指纹 → 位置（受 this 保护）
+    private long[] pending = new long[64];                      // 待写入的记录（指纹、位置交替存放）
+    private long[] writing = new long[64];                      // 写入线程正在使用的缓冲
+    private int pendingCount = 0;                               // 待写入的 long 个数
+    private boolean flushScheduled = false;                     // 是否已安排写入
+    private final CountDownLatch loaded = new CountDownLatch(1); // 日志加载完成
+    private final ScheduledExecutorService writer =
+            Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("resume-writer")); // 写入线程
+    private final Runnable flushTask = this::flush;             // 复用的写入任务
+
+    // 以下字段只在写入线程访问
+    private FileChannel channel;                                // 日志文件通道
+    private long logRecords = 0;                                // 日志中的记录数
+    private final ByteBuffer writeBuffer =
+            ByteBuffer.allocateDirect(RECORD_BYTES * 256).order(ByteOrder.LITTLE_ENDIAN); // 写入缓冲
+
+    /**
+     * 构造函数，日志在后台线程加载
+     * @param path 日志文件路径
+     */
+    public ResumeStore(Path path) {
+        this.path = path;
+        writer.execute(this::load);
+    }
+
+    /**
+     * 查询续播位置，日志尚未加载完成时会等待，应在后台线程调用
+     * @param fingerprint 文件指纹
+     * @return 位置（毫秒），没有记录时返回 -1
+     */
+    public long get(long fingerprint) {
+        awaitLoaded();
+        synchronized (this) {
+            return index.get(fingerprint, REMOVED);
+        }
+    }
+
+    /**
+     * 记录续播位置：只更新内存表并把记录放入待写队列，磁盘写入在后台批量完成
+     * @param fingerprint 文件指纹
+     * @param positionMillis 位置（毫秒）
+     */
+    public void put(long fingerprint, long positionMillis) {
+        awaitLoaded();
+        synchronized (this) {
+            if (index.get(fingerprint, REMOVED) == positionMillis) return;
+            index.put(fingerprint, positionMillis);
+            append(fingerprint, positionMillis);
+        }
+    }
+
+    /**
+     * 删除续播位置（例如已经看完）
+     * @param fingerprint 文件指纹
+     */
+    public void remove(long fingerprint) {
+        awaitLoaded();
+        synchronized (this) {
+            if (index.remove(fingerprint)) append(fingerprint, REMOVED);
+        }
+    }
+
+    /**
+     * 写出剩余记录并关闭日志
+     */
+    public void close() {
+        writer.execute(this::flush);
+        writer.shutdown();
+        try {
+            writer.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 计算文件的内容指纹：文件大小与头、尾各 64 KB 数据的哈希
+     * 重命名或移动文件后指纹不变，只需两次小的定位读取
+     * @param file 文件路径
+     * @return 非零指纹
+     * @throws IOException 读取失败
+     */
+    public static long fingerprint(Path file) throws IOException {
+        ByteBuffer block = BLOCK.get();
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = in.size();
+            long hash = mix(0x9E3779B97F4A7C15L ^ size);
+            hash = mix(hash ^ hashBlock(in, 0, block));
+            if (size > FINGERPRINT_BLOCK) {
+                hash = mix(hash ^ hashBlock(in, size - FINGERPRINT_BLOCK, block));
+            }
+            return hash == 0 ? 1 : hash;
+        }
+    }
+
+    private static long hashBlock(FileChannel in, long pos, ByteBuffer block) throws IOException {
+        block.clear();
+        while (block.hasRemaining()) {
+            if (in.read(block, pos + block.position()) < 0) break;
+        }
+        block.flip();
+        long hash = 0xcbf29ce484222325L;
+        while (block.remaining() >= 8) {
+            hash = (hash ^ block.getLong()) * 0x100000001b3L;
+            hash ^= hash >>> 29;
+        }
+        while (block.hasRemaining()) {
+            hash = (hash ^ block.get()) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        return h ^ (h >>> 33);
+    }
+
+    /**
+     * 放入待写队列并安排一次合并写入（调用方持有锁）
+     */
+    private void append(long fingerprint, long positionMillis) {
+        if (pendingCount + 2 > pending.length) {
+            long[] grown = new long[pending.length * 2];
+            System.arraycopy(pending, 0, grown, 0, pendingCount);
+            pending = grown;
+        }
+        pending[pendingCount++] = fingerprint;
+        pending[pendingCount++] = positionMillis;
+        if (!flushScheduled && !writer.isShutdown()) {
+            flushScheduled = true;
+            writer.schedule(flushTask, FLUSH_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void awaitLoaded() {
+        try {
+            loaded.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 加载日志并重放到内存表，截掉末尾写了一半的记录（写入线程）
+     */
+    private void load() {
+        try {
+            Files.createDirectories(path.getParent());
+            channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(header, 0);
+            header.flip();
+            boolean valid = header.remaining() == HEADER_BYTES
+                    && header.getInt() == MAGIC && header.getInt() == VERSION;
+            if (!valid) {
+                channel.truncate(0);
+                writeHeader(channel);
+            } else {
+                long records = (channel.size() - HEADER_BYTES) / RECORD_BYTES;
+                replay(records);
+                long end = HEADER_BYTES + records * RECORD_BYTES;
+                if (channel.size() != end) channel.truncate(end);
+                logRecords = records;
+            }
+            channel.position(channel.size());
+        } catch (IOException ex) {
+            System.err.println("续播记录加载失败: " + ex.getMessage());
+            channel = null;
+        } finally {
+            loaded.countDown();
+        }
+    }
+
+    private void replay(long records) throws IOException {
+        ByteBuffer chunk = ByteBuffer.allocate(RECORD_BYTES * 4096).order(ByteOrder.LITTLE_ENDIAN);
+        long pos = HEADER_BYTES;
+        long end = HEADER_BYTES + records * RECORD_BYTES;
+        synchronized (this) {
+            while (pos < end) {
+                chunk.clear();
+                chunk.limit((int) Math.min(chunk.capacity(), end - pos));
+                while (chunk.hasRemaining()) {
+                    if (channel.read(chunk, pos + chunk.position()) < 0) break;
+                }
+                chunk.flip();
+                pos += chunk.remaining();
+                while (chunk.remaining() >= RECORD_BYTES) {
+                    long fingerprint = chunk.getLong();
+                    long position = chunk.getLong();
+                    if (position == REMOVED) index.remove(fingerprint);
+                    else index.put(fingerprint, position);
+                }
+            }
+        }
+    }
+
+    /**
+     * 把待写队列追加到日志，必要时压缩（写入线程）
+     */
+    private void flush() {
+        int count;
+        long[] batch;
+        int live;
+        synchronized (this) {
+            batch = pending;
+            count = pendingCount;
+            pending = writing;
+            writing = batch;
+            pendingCount = 0;
+            flushScheduled = false;
+            live = index.size();
+        }
+        if (channel == null || count == 0) return;
+        try {
+            writeRecords(channel, batch, count);
+            logRecords += count / 2;
+            if (logRecords > COMPACT_MIN_RECORDS && logRecords > live * 4L) compact();
+        } catch (IOException ex) {
+            System.err.println("续播记录写入失败: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * 把内存表的快照写入临时文件，再原子替换日志（写入线程）
+     */
+    private void compact() throws IOException {
+        long[] snapshot;
+        synchronized (this) {
+            snapshot = index.toArray();
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeHeader(out);
+            out.position(HEADER_BYTES);
+            writeRecords(out, snapshot, snapshot.length);
+            out.force(false);
+        }
+        channel.close();
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        logRecords = snapshot.length / 2;
+    }
+
+    private void writeHeader(FileChannel out) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).flip();
+        out.write(header, 0);
+    }
+
+    private void writeRecords(FileChannel out, long[] values, int count) throws IOException {
+        writeBuffer.clear();
+        for (int i = 0; i + 1 < count; i += 2) {
+            if (writeBuffer.remaining() < RECORD_BYTES) {
+                drain(out);
+            }
+            writeBuffer.putLong(values[i]).putLong(values[i + 1]);
+        }
+        drain(out);
+    }
+
+    private void drain(FileChannel out) throws IOException {
+        writeBuffer.flip();
+        while (writeBuffer.hasRemaining()) out.write(writeBuffer);
+        writeBuffer.clear();
+    }
+
+    /**
+     * long → long 开放寻址哈希表（线性探测，删除时回移），键 0 保留为空槽
+     */
+    private static final class LongLongMap {
+        private long[] keys;
+        private long[] values;
+        private int size;
+
+        LongLongMap(int capacity) {
+            keys = new long[capacity];
+            values = new long[capacity];
+        }
+
+        int size() {
+            return size;
+        }
+
+        long get(long key, long defaultValue) {
+            int mask = keys.length - 1;
+            for (int i = slot(key, mask); ; i = (i + 1) & mask) {
+                if (keys[i] == key) return values[i];
+                if (keys[i] == 0) return defaultValue;
+            }
+        }
+
+        void put(long key, long value) {
+            if ((size + 1) * 4 > keys.length * 3) resize();
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            while (keys[i] != 0 && keys[i] != key) i = (i + 1) & mask;
+            if (keys[i] == 0) {
+                keys[i] = key;
+                size++;
+            }
+            values[i] = value;
+        }
+
+        boolean remove(long key) {
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            while (keys[i] != key) {
+                if (keys[i] == 0) return false;
+                i = (i + 1) & mask;
+            }
+            // 把后续同一探测链上的元素回移，保持查找不中断
+            int gap = i;
+            for (int j = (gap + 1) & mask; keys[j] != 0; j = (j + 1) & mask) {
+                int home = slot(keys[j], mask);
+                if (((j - home) & mask) >= ((j - gap) & mask)) {
+                    keys[gap] = keys[j];
+                    values[gap] = values[j];
+                    gap = j;
+                }
+            }
+            keys[gap] = 0;
+            values[gap] = 0;
+            size--;
+            return true;
+        }
+
+        /**
+         * @return 指纹、位置交替存放的数组
+         */
+        long[] toArray() {
+            long[] result = new long[size * 2];
+            int n = 0;
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != 0) {
+                    result[n++] = keys[i];
+                    result[n++] = values[i];
+                }
+            }
+            return result;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            long[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new long[oldValues.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) put(oldKeys[i], oldValues[i]);
+            }
+        }
+
+        private static int slot(long key, int mask) {
+            return (int) (mix(key) & mask);
+        }
+    }
+}
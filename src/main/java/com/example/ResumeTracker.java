@@ -0,0 +1,119 @@
+package com.example;
+
+// 导入JavaFX和相关库
+import javafx.application.Platform;
+import javafx.beans.value.ChangeListener;
+import javafx.scene.media.MediaPlayer;
+import javafx.util.Duration;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.Executor;
+
+/**
+ * 续播跟踪：打开文件时跳转到上次的位置，播放过程中每隔几秒记录一次位置，
+ * 暂停、切换文件时立即记录，播放到结尾时清除记录
+ * 除指纹计算外都在 JavaFX 应用线程运行
+ */
+public class ResumeTracker {
+    private static final long SAVE_INTERVAL_MILLIS = 5000;  // 播放中的记录间隔
+    private static final long MIN_RESUME_MILLIS = 5000;     // 开头几秒内不记录
+    private static final long END_MARGIN_MILLIS = 10000;    // 距离结尾不足此时长视为看完
+
+    private final ResumeStore store;         // 续播位置存储
+    private final Executor executor;         // 指纹计算线程
+    private MediaPlayer player;              // 当前播放器
+    private long fingerprint = 0;            // 当前文件指纹，0 表示尚未计算完成
+    private long lastSavedMillis = 0;        // 上次记录时的播放位置
+    private long session = 0;                // 绑定代数，用于丢弃过期的指纹结果
+
+    // 播放进度监听：只比较一次差值，达到间隔才写入
+    private final ChangeListener<Duration> timeListener = (obs, oldVal, newVal) -> {
+        long now = (long) newVal.toMillis();
+        if (fingerprint != 0 && Math.abs(now - lastSavedMillis) >= SAVE_INTERVAL_MILLIS) save(now);
+    };
+    // 暂停或停止时立即记录
+    private final ChangeListener<MediaPlayer.Status> statusListener = (obs, oldVal, newVal) -> {
+        if (newVal == MediaPlayer.Status.PAUSED || newVal == MediaPlayer.Status.STOPPED) saveCurrent();
+    };
+
+    /**
+     * 构造函数
+     * @param store 续播位置存储
+     * @param executor 用于计算文件指纹的后台执行器
+     */
+    public ResumeTracker(ResumeStore store, Executor executor) {
+        this.store = store;
+        this.executor = executor;
+    }
+
+    /**
+     * 绑定新的播放器，后台计算指纹后跳转到记录的位置
+     * @param file 播放器对应的文件
+     * @param mediaPlayer 已就绪的播放器
+     */
+    public void bind(File file, MediaPlayer mediaPlayer) {
+        unbind();
+        player = mediaPlayer;
+        long current = ++session;
+        player.currentTimeProperty().addListener(timeListener);
+        player.statusProperty().addListener(statusListener);
+        executor.execute(() -> {
+            long fp;
+            try {
+                fp = ResumeStore.fingerprint(file.toPath());
+            } catch (IOException ex) {
+                System.err.println("指纹计算失败: " + ex.getMessage());
+                return;
+            }
+            long saved = store.get(fp);
+            Platform.runLater(() -> {
+                if (session != current) return;
+                fingerprint = fp;
+                lastSavedMillis = (long) player.getCurrentTime().toMillis();
+                if (saved > 0 && !nearEnd(saved)) {
+                    lastSavedMillis = saved;
+                    player.seek(Duration.millis(saved));
+                }
+            });
+        });
+    }
+
+    /**
+     * 记录当前位置并解除绑定
+     */
+    public void unbind() {
+        session++;
+        if (player == null) return;
+        saveCurrent();
+        player.currentTimeProperty().removeListener(timeListener);
+        player.statusProperty().removeListener(statusListener);
+        player = null;
+        fingerprint = 0;
+    }
+
+    /**
+     * 播放到结尾，清除续播记录
+     */
+    public void markFinished() {
+        if (fingerprint != 0) store.remove(fingerprint);
+        lastSavedMillis = 0;
+    }
+
+    private void saveCurrent() {
+        if (player != null && fingerprint != 0) save((long) player.getCurrentTime().toMillis());
+    }
+
+    private void save(long positionMillis) {
+        lastSavedMillis = positionMillis;
+        if (positionMillis < MIN_RESUME_MILLIS || nearEnd(positionMillis)) {
+            store.remove(fingerprint);
+        } else {
+            store.put(fingerprint, positionMillis);
+        }
+    }
+
+    private boolean nearEnd(long positionMillis) {
+        Duration total = player.getTotalDuration();
+        return PlaybackClock.isValidDuration(total) && positionMillis > total.toMillis() - END_MARGIN_MILLIS;
+    }
+}
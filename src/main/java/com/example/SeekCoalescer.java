@@ -0,0 +1,137 @@
+package com.example;
+
+// 导入JavaFX和相关库
+import javafx.animation.PauseTransition;
+import javafx.beans.InvalidationListener;
+import javafx.scene.media.MediaPlayer;
+import javafx.util.Duration;
+import java.util.function.IntSupplier;
+
+/**
+ * 拖动进度条时的 seek 合并器：只保留最新的目标位置，按灵敏度限制 seek 频率，
+ * 并等播放管线输出上一次 seek 的画面后再发出下一次，避免大量 seek 堆积在原生播放器中
+ * 只在 JavaFX 应用线程使用
+ */
+public class SeekCoalescer {
+    private static final long[] MIN_INTERVAL_MILLIS = { 250, 180, 120, 80, 50 }; // 灵敏度 1~5 对应的最小间隔
+    private static final long MAX_IN_FLIGHT_MILLIS = 400;  // 等待管线响应的最长时间
+    private static final int STEPS_PER_LEVEL = 200;        // 每级灵敏度对应的进度条分段数
+    private static final long SETTLE_TOLERANCE_MILLIS = 500; // 报告位置与目标相差不超过这么多才算 seek 完成
+    private static final long SETTLE_TIMEOUT_MILLIS = 2000;  // 超过这么久仍未到达目标时放弃这次测量
+
+    private final IntSupplier sensitivity;                 // 灵敏度（1~5）
+    private final PauseTransition timer = new PauseTransition(); // 下一次允许 seek 的定时器
+    private MediaPlayer player;                            // 当前播放器
+    private long pendingMillis = -1;                       // 最新的待执行目标，-1 表示没有
+    private long lastIssuedMillis = -1;                    // 上一次发出的目标
+    private long lastIssuedNanos = 0;                      // 上一次发出的时间
+    private boolean inFlight = false;                      // 上一次 seek 是否还未被管线响应
+
+    // 管线报告的位置到达目标附近才算 seek 完成（播放中的下一次时间更新可能仍是旧位置）；
+    // 超时未到达的 seek 不记录耗时，被新 seek 覆盖的 seek 也不记录（issue 会重新开始计时）
+    private final InvalidationListener timeListener = obs -> {
+        if (!inFlight) return;
+        long elapsed = (System.nanoTime() - lastIssuedNanos) / 1_000_000;
+        if (Math.abs(player.getCurrentTime().toMillis() - lastIssuedMillis) <= SETTLE_TOLERANCE_MILLIS) {
+            inFlight = false;
+            PlayerMetrics.getInstance().seekSettled(lastIssuedMillis, elapsed);
+        } else if (elapsed >= SETTLE_TIMEOUT_MILLIS) {
+            inFlight = false;
+        } else {
+            return;
+        }
+        if (pendingMillis >= 0) pump();
+    };
+
+    /**
+     * 构造函数
+     * @param sensitivity 灵敏度提供者，数值越大 seek 越频繁、粒度越细
+     */
+    public SeekCoalescer(IntSupplier sensitivity) {
+        this.sensitivity = sensitivity;
+        timer.setOnFinished(e -> pump());
+    }
+
+    /**
+     * 绑定播放器，传入 null 时解除绑定
+     * @param mediaPlayer 媒体播放器
+     */
+    public void bind(MediaPlayer mediaPlayer) {
+        cancel();
+        if (player != null) player.currentTimeProperty().removeListener(timeListener);
+        player = mediaPlayer;
+        lastIssuedMillis = -1;
+        if (player != null) player.currentTimeProperty().addListener(timeListener);
+    }
+
+    /**
+     * 请求跳转到指定位置（拖动过程中），旧的未执行请求会被覆盖
+     * @param millis 目标位置（毫秒）
+     */
+    public void request(long millis) {
+        pendingMillis = millis;
+        pump();
+    }
+
+    /**
+     * 拖动结束，立即跳转到最终位置
+     * @param millis 最终位置（毫秒）
+     */
+    public void commit(long millis) {
+        cancel();
+        if (player != null && millis != lastIssuedMillis) issue(millis);
+    }
+
+    /**
+     * 丢弃未执行的请求
+     */
+    public void cancel() {
+        timer.stop();
+        pendingMillis = -1;
+        inFlight = false;
+    }
+
+    /**
+     * 条件允许时发出最新的请求，否则安排定时器稍后再试
+     */
+    private void pump() {
+        if (pendingMillis < 0 || player == null) return;
+        long elapsed = (System.nanoTime() - lastIssuedNanos) / 1_000_000;
+        long readyAfter = inFlight ? Math.max(interval(), MAX_IN_FLIGHT_MILLIS) : interval();
+        if (elapsed >= readyAfter) {
+            timer.stop();
+            long target = pendingMillis;
+            pendingMillis = -1;
+            if (lastIssuedMillis < 0 || Math.abs(target - lastIssuedMillis) >= granularity()) issue(target);
+        } else {
+            // 截止时间可能因上一次 seek 完成而提前，每次都按最新状态重新安排
+            timer.stop();
+            timer.setDuration(Duration.millis(readyAfter - elapsed));
+            timer.playFromStart();
+        }
+    }
+
+    private void issue(long millis) {
+        lastIssuedMillis = millis;
+        lastIssuedNanos = System.nanoTime();
+        inFlight = true;
+        player.seek(Duration.millis(millis));
+    }
+
+    private int level() {
+        return Math.max(1, Math.min(MIN_INTERVAL_MILLIS.length, sensitivity.getAsInt()));
+    }
+
+    private long interval() {
+        return MIN_INTERVAL_MILLIS[level() - 1];
+    }
+
+    /**
+     * @return 两次 seek 之间的最小位置差，灵敏度越高越细
+     */
+    private long granularity() {
+        Duration total = player.getTotalDuration();
+        if (!PlaybackClock.isValidDuration(total)) return 0;
+        return Math.max(50, (long) total.toMillis() / ((long) STEPS_PER_LEVEL * level()));
+    }
+}
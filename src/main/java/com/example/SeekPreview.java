@@ -0,0 +1,171 @@
+package com.example;
+
+// 导入JavaFX和相关库
+import javafx.application.Platform;
+import javafx.geometry.Bounds;
+import javafx.geometry.Point2D;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.control.Label;
+import javafx.scene.control.Slider;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.VBox;
+import javafx.scene.media.MediaPlayer;
+import javafx.stage.Popup;
+import java.io.File;
+
+/**
+ * 进度条悬停预览：鼠标在进度条上移动或拖动时，在上方显示对应时间的缩略图
+ * 缩略图由 ThumbnailGenerator 在后台生成，未生成的位置只显示时间
+ */
+public class SeekPreview {
+    private static final long CACHE_BYTES = 32L * 1024 * 1024; // 内存缓存上限
+
+    private final Slider slider;                                // 进度条
+    private final ThumbnailCache cache = new ThumbnailCache(CACHE_BYTES);
+    private final ThumbnailGenerator generator = new ThumbnailGenerator(cache);
+    private final Popup popup = new Popup();                    // 预览弹窗
+    private final ImageView imageView = new ImageView();        // 缩略图显示
+    private final Label timeLabel = new Label();                // 时间显示
+    private final char[] timeChars = new char[24];              // 复用的时间字符缓冲
+    private ThumbnailCache.Store store;                         // 当前视频的缩略图存储
+    private WritableImage image;                                // 复用的显示图像
+    private int[] argb;                                         // 复用的像素缓冲
+    private long totalMillis = -1;                              // 总时长
+    private int shownIndex = -1;                                // 当前显示的缩略图序号
+    private int wantedIndex = -1;                               // 鼠标所在位置的缩略图序号
+    private long shownSecond = -1;                              // 当前显示的秒数
+
+    /**
+     * 构造函数
+     * @param slider 进度条
+     */
+    public SeekPreview(Slider slider) {
+        this.slider = slider;
+        timeLabel.getStyleClass().add("seek-preview-time");
+        VBox box = new VBox(4, imageView, timeLabel);
+        box.setAlignment(Pos.CENTER);
+        box.getStyleClass().add("seek-preview");
+        popup.getContent().add(box);
+        popup.setAutoFix(true);
+        ThemeManager.getInstance().apply(popup.getScene()); // 弹窗有独立的场景，需要单独应用主题
+    }
+
+    /**
+     * 绑定新的视频，开始在后台生成缩略图
+     * @param file 视频文件，为 null 时只显示时间
+     * @param player 已就绪的媒体播放器
+     */
+    public void attach(File file, MediaPlayer player) {
+        detach();
+        if (player == null || !PlaybackClock.isValidDuration(player.getTotalDuration())) return;
+        totalMillis = (long) player.getTotalDuration().toMillis();
+        if (file == null) return;
+        int width = player.getMedia().getWidth();
+        int height = player.getMedia().getHeight();
+        generator.start(file, totalMillis, width, height, opened -> {
+            store = opened;
+            // 磁盘上的缩略图异步读入内存，读完时鼠标仍停在该位置则立即显示
+            opened.setOnLoaded(index -> Platform.runLater(() -> {
+                if (store == opened && index == wantedIndex) showThumbnail(index);
+            }));
+            image = new WritableImage(opened.getWidth(), opened.getHeight());
+            argb = new int[opened.getWidth() * opened.getHeight()];
+            imageView.setImage(image);
+        });
+    }
+
+    /**
+     * 解除绑定，停止生成并隐藏预览
+     */
+    public void detach() {
+        generator.stop();
+        store = null;
+        image = null;
+        imageView.setImage(null);
+        totalMillis = -1;
+        shownIndex = -1;
+        wantedIndex = -1;
+        shownSecond = -1;
+        hide();
+    }
+
+    /**
+     * 根据鼠标位置显示预览
+     * @param e 进度条上的鼠标事件
+     */
+    public void show(MouseEvent e) {
+        if (totalMillis <= 0) return;
+        long millis = (long) (positionAt(e.getX()) * totalMillis);
+        updateThumbnail(millis);
+        long second = millis / 1000;
+        if (second != shownSecond) {
+            shownSecond = second;
+            timeLabel.setText(new String(timeChars, 0, TimeFormatter.append(timeChars, 0, millis)));
+        }
+        double popupWidth = popup.getContent().get(0).getLayoutBounds().getWidth();
+        double popupHeight = popup.getContent().get(0).getLayoutBounds().getHeight();
+        Point2D anchor = slider.localToScreen(e.getX(), 0);
+        if (anchor == null) return;
+        double x = anchor.getX() - popupWidth / 2;
+        double y = anchor.getY() - popupHeight - 8;
+        if (popup.isShowing()) {
+            popup.setX(x);
+            popup.setY(y);
+        } else if (slider.getScene() != null) {
+            popup.show(slider.getScene().getWindow(), x, y);
+        }
+    }
+
+    /**
+     * 隐藏预览
+     */
+    public void hide() {
+        popup.hide();
+    }
+
+    /**
+     * 仅在序号变化时把缩略图写入显示图像
+     */
+    private void updateThumbnail(long millis) {
+        if (store == null) return;
+        wantedIndex = store.indexOf(millis);
+        if (wantedIndex != shownIndex) showThumbnail(wantedIndex);
+    }
+
+    /**
+     * 把缩略图写入显示图像，不在内存中时隐藏图像（磁盘上有时读入后由 onLoaded 再次调用）
+     */
+    private void showThumbnail(int index) {
+        short[] pixels = store.get(index);
+        imageView.setVisible(pixels != null);
+        imageView.setManaged(pixels != null);
+        if (pixels == null) return; // 尚未生成或正在读取
+        shownIndex = index;
+        for (int i = 0; i < pixels.length; i++) {
+            argb[i] = ThumbnailCache.toArgb(pixels[i]);
+        }
+        image.getPixelWriter().setPixels(0, 0, store.getWidth(), store.getHeight(),
+                PixelFormat.getIntArgbInstance(), argb, 0, store.getWidth());
+    }
+
+    /**
+     * 将进度条上的横坐标换算为 0~1 的位置
+     */
+    private double positionAt(double x) {
+        Node track = slider.lookup(".track");
+        double start = 0;
+        double length = slider.getWidth();
+        if (track != null) {
+            Bounds bounds = track.getBoundsInParent();
+            start = bounds.getMinX();
+            length = bounds.getWidth();
+        }
+        if (length <= 0) return 0;
+        double position = (x - start) / length;
+        return position < 0 ? 0 : (position > 1 ? 1 : position);
+    }
+}
@@ -0,0 +1,109 @@
+package com.example;
+
+import java.util.Objects;
+
+/**
+ * 用户设置快照（不可变），修改时通过 withXxx 方法生成新快照，值没有变化时返回原快照
+ */
+public final class Settings {
+    private final boolean autoPlay;          // 自动播放下一集
+    private final double defaultVolume;      // 默认音量（0~1）
+    private final int seekSensitivity;       // 进度条灵敏度（1~5）
+    private final int hideDelaySeconds;      // 控制栏隐藏延迟（秒）
+    private final String libraryRoots;       // 媒体库根目录，以 File.pathSeparator 分隔
+    private final boolean fastSeek;          // 快速定位：跳转对齐到关键帧
+    private final String theme;              // 界面主题 ID（见 ThemeManager）
+
+    public Settings(boolean autoPlay, double defaultVolume, int seekSensitivity,
+                    int hideDelaySeconds, String libraryRoots, boolean fastSeek, String theme) {
+        this.autoPlay = autoPlay;
+        this.defaultVolume = defaultVolume;
+        this.seekSensitivity = seekSensitivity;
+        this.hideDelaySeconds = hideDelaySeconds;
+        this.libraryRoots = libraryRoots;
+        this.fastSeek = fastSeek;
+        this.theme = theme;
+    }
+
+    public boolean isAutoPlay() {
+        return autoPlay;
+    }
+
+    public double getDefaultVolume() {
+        return defaultVolume;
+    }
+
+    public int getSeekSensitivity() {
+        return seekSensitivity;
+    }
+
+    public int getHideDelaySeconds() {
+        return hideDelaySeconds;
+    }
+
+    public String getLibraryRoots() {
+        return libraryRoots;
+    }
+
+    public boolean isFastSeek() {
+        return fastSeek;
+    }
+
+    public String getTheme() {
+        return theme;
+    }
+
+    public Settings withAutoPlay(boolean value) {
+        if (value == autoPlay) return this;
+        return new Settings(value, defaultVolume, seekSensitivity, hideDelaySeconds, libraryRoots, fastSeek, theme);
+    }
+
+    public Settings withDefaultVolume(double value) {
+        if (Double.compare(value, defaultVolume) == 0) return this;
+        return new Settings(autoPlay, value, seekSensitivity, hideDelaySeconds, libraryRoots, fastSeek, theme);
+    }
+
+    public Settings withSeekSensitivity(int value) {
+        if (value == seekSensitivity) return this;
+        return new Settings(autoPlay, defaultVolume, value, hideDelaySeconds, libraryRoots, fastSeek, theme);
+    }
+
+    public Settings withHideDelaySeconds(int value) {
+        if (value == hideDelaySeconds) return this;
+        return new Settings(autoPlay, defaultVolume, seekSensitivity, value, libraryRoots, fastSeek, theme);
+    }
+
+    public Settings withLibraryRoots(String value) {
+        if (Objects.equals(value, libraryRoots)) return this;
+        return new Settings(autoPlay, defaultVolume, seekSensitivity, hideDelaySeconds, value, fastSeek, theme);
+    }
+
+    public Settings withFastSeek(boolean value) {
+        if (value == fastSeek) return this;
+        return new Settings(autoPlay, defaultVolume, seekSensitivity, hideDelaySeconds, libraryRoots, value, theme);
+    }
+
+    public Settings withTheme(String value) {
+        if (Objects.equals(value, theme)) return this;
+        return new Settings(autoPlay, defaultVolume, seekSensitivity, hideDelaySeconds, libraryRoots, fastSeek, value);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Settings)) return false;
+        Settings other = (Settings) o;
+        return autoPlay == other.autoPlay
+                && Double.compare(defaultVolume, other.defaultVolume) == 0
+                && seekSensitivity == other.seekSensitivity
+                && hideDelaySeconds == other.hideDelaySeconds
+                && Objects.equals(libraryRoots, other.libraryRoots)
+                && fastSeek == other.fastSeek
+                && Objects.equals(theme, other.theme);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(autoPlay, defaultVolume, seekSensitivity, hideDelaySeconds, libraryRoots, fastSeek, theme);
+    }
+}
@@ -6,15 +6,14 @@ import javafx.geometry.Pos;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.stage.Stage;
-import java.util.prefs.Preferences;
 import javafx.scene.text.Text;
 
 /**
  * 设置面板类，用于管理应用程序的通用设置、播放器设置和关于信息
  */
 public class SettingsPanel extends BorderPane {
-    // 偏好设置对象，用于保存和加载用户设置
-    private final Preferences prefs = Preferences.userNodeForPackage(this.getClass());
+    // 设置服务，修改在后台合并保存
+    private final SettingsStore settings = SettingsStore.getInstance();
     // 内容面板，用于显示不同的设置选项
     private StackPane contentPane;
 
@@ -29,29 +28,14 @@ public class SettingsPanel extends BorderPane {
      * 初始化UI组件
      */
     private void initUI() {
-        // 设置面板样式
-        setStyle("-fx-background-color: #2B2B2B; -fx-border-color: #404040; -fx-border-radius: 5;");
+        // 设置面板样式（颜色随主题变化，见 themes/*.css）
+        getStyleClass().add("panel");
 
         // 初始化左侧选项列表
         ListView<String> optionList = new ListView<>();
         optionList.getItems().addAll("通用设置", "播放器设置", "关于");
-        optionList.setStyle("-fx-background-color: #2B2B2B; -fx-text-fill: white;");
         optionList.setPrefWidth(150);
 
-        // 设置列表项样式
-        optionList.setCellFactory(lv -> new ListCell<String>() {
-            @Override
-            protected void updateItem(String item, boolean empty) {
-                super.updateItem(item, empty);
-                setStyle("-fx-background-color: #2B2B2B; -fx-text-fill: white;");
-                if (empty || item == null) {
-                    setText(null);
-                } else {
-                    setText(item);
-                }
-            }
-        });
-
         // 初始化内容面板
         contentPane = new StackPane();
         contentPane.setPadding(new Insets(15));
@@ -62,24 +46,17 @@ public class SettingsPanel extends BorderPane {
         buttonBox.setPadding(new Insets(15));
         buttonBox.setAlignment(Pos.CENTER_RIGHT);
 
-        // 按钮样式
-        String buttonStyle = "-fx-background-color: #3C3C3C; -fx-text-fill: white; -fx-padding: 8 20;";
-
         // 保存按钮
         Button saveBtn = new Button("保存");
-        saveBtn.setStyle(buttonStyle);
+        saveBtn.getStyleClass().add("panel-button");
         saveBtn.setOnAction(e -> {
-            try {
-                prefs.flush(); // 保存设置
-            } catch (Exception ex) {
-                System.err.println("设置保存失败: " + ex.getMessage());
-            }
+            settings.flush(); // 在后台立即保存设置
             ((Stage) getScene().getWindow()).close(); // 关闭窗口
         });
 
         // 返回按钮
         Button cancelBtn = new Button("返回");
-        cancelBtn.setStyle(buttonStyle);
+        cancelBtn.getStyleClass().add("panel-button");
         cancelBtn.setOnAction(e -> ((Stage) getScene().getWindow()).close());
 
         buttonBox.getChildren().addAll(saveBtn, cancelBtn);
@@ -113,31 +90,40 @@ public class SettingsPanel extends BorderPane {
     private VBox createGeneralSettings() {
         VBox panel = new VBox(15);
         panel.setPadding(new Insets(20));
-        panel.setStyle("-fx-background-color: #2B2B2B;");
+        panel.getStyleClass().add("panel-page");
 
         // 标题
         Label title = new Label("通用设置");
-        title.setStyle("-fx-text-fill: white; -fx-font-size: 16;");
+        title.getStyleClass().add("panel-title");
 
         // 自动播放下一集复选框
         CheckBox autoPlay = new CheckBox("自动播放下一集");
-        autoPlay.setStyle("-fx-text-fill: white;");
-        autoPlay.setSelected(prefs.getBoolean("AUTO_PLAY", false)); // 从偏好设置加载
+        autoPlay.setSelected(settings.current().isAutoPlay()); // 从设置加载
         autoPlay.selectedProperty().addListener((obs, oldVal, newVal) -> 
-            prefs.putBoolean("AUTO_PLAY", newVal)); // 保存到偏好设置
+            settings.update(s -> s.withAutoPlay(newVal))); // 更新设置
 
         // 默认音量标签
         Label volumeLabel = new Label("默认音量:");
-        volumeLabel.setStyle("-fx-text-fill: white;");
 
         // 默认音量滑块
-        Slider volumeSlider = new Slider(0, 1, prefs.getDouble("DEFAULT_VOLUME", 0.5));
-        volumeSlider.setStyle("-fx-control-inner-background: #3C3C3C;");
+        Slider volumeSlider = new Slider(0, 1, settings.current().getDefaultVolume());
         volumeSlider.valueProperty().addListener((obs, oldVal, newVal) -> 
-            prefs.putDouble("DEFAULT_VOLUME", newVal.doubleValue())); // 保存到偏好设置
+            settings.update(s -> s.withDefaultVolume(newVal.doubleValue()))); // 更新设置（拖动时合并保存）
+
+        // 主题选择（切换后立即应用到所有窗口）
+        Label themeLabel = new Label("主题:");
+        ComboBox<String> themeBox = new ComboBox<>();
+        themeBox.getItems().addAll(ThemeManager.themes().values());
+        themeBox.setValue(ThemeManager.themes().getOrDefault(settings.current().getTheme(),
+                ThemeManager.themes().get(ThemeManager.DEFAULT_THEME)));
+        themeBox.valueProperty().addListener((obs, oldVal, newVal) ->
+            ThemeManager.themes().forEach((id, name) -> {
+                if (name.equals(newVal)) settings.update(s -> s.withTheme(id)); // 更新设置
+            }));
 
         // 添加组件到面板
-        panel.getChildren().addAll(title, new Separator(), autoPlay, volumeLabel, volumeSlider);
+        panel.getChildren().addAll(title, new Separator(), autoPlay, volumeLabel, volumeSlider,
+            themeLabel, themeBox);
         return panel;
     }
 
@@ -148,36 +134,40 @@ public class SettingsPanel extends BorderPane {
     private VBox createPlayerSettings() {
         VBox panel = new VBox(15);
         panel.setPadding(new Insets(20));
-        panel.setStyle("-fx-background-color: #2B2B2B;");
+        panel.getStyleClass().add("panel-page");
 
         // 标题
         Label title = new Label("播放器设置");
-        title.setStyle("-fx-text-fill: white; -fx-font-size: 16;");
+        title.getStyleClass().add("panel-title");
 
         // 进度条灵敏度标签
         Label sensitivityLabel = new Label("进度条灵敏度:");
-        sensitivityLabel.setStyle("-fx-text-fill: white;");
 
         // 进度条灵敏度滑块
-        Slider sensitivitySlider = new Slider(1, 5, prefs.getInt("SEEK_SENSITIVITY", 3));
+        Slider sensitivitySlider = new Slider(1, 5, settings.current().getSeekSensitivity());
         sensitivitySlider.setBlockIncrement(1);
         sensitivitySlider.setMajorTickUnit(1);
         sensitivitySlider.setSnapToTicks(true);
         sensitivitySlider.valueProperty().addListener((obs, oldVal, newVal) -> 
-            prefs.putInt("SEEK_SENSITIVITY", newVal.intValue())); // 保存到偏好设置
+            settings.update(s -> s.withSeekSensitivity(newVal.intValue()))); // 更新设置
+
+        // 快速定位复选框
+        CheckBox fastSeek = new CheckBox("快速定位（跳转对齐到关键帧）");
+        fastSeek.setSelected(settings.current().isFastSeek()); // 从设置加载
+        fastSeek.selectedProperty().addListener((obs, oldVal, newVal) -> 
+            settings.update(s -> s.withFastSeek(newVal))); // 更新设置
 
         // 控制栏隐藏延迟标签
         Label hideDelayLabel = new Label("控制栏隐藏延迟(秒):");
-        hideDelayLabel.setStyle("-fx-text-fill: white;");
 
         // 控制栏隐藏延迟微调器
-        Spinner<Integer> hideSpinner = new Spinner<>(1, 10, prefs.getInt("HIDE_DELAY", 3));
+        Spinner<Integer> hideSpinner = new Spinner<>(1, 10, settings.current().getHideDelaySeconds());
         hideSpinner.getValueFactory().valueProperty().addListener((obs, oldVal, newVal) -> 
-            prefs.putInt("HIDE_DELAY", newVal)); // 保存到偏好设置
+            settings.update(s -> s.withHideDelaySeconds(newVal))); // 更新设置
 
         // 添加组件到面板
         panel.getChildren().addAll(title, new Separator(), sensitivityLabel, 
-            sensitivitySlider, hideDelayLabel, hideSpinner);
+            sensitivitySlider, fastSeek, hideDelayLabel, hideSpinner);
         return panel;
     }
 
@@ -188,19 +178,19 @@ public class SettingsPanel extends BorderPane {
     private VBox createAboutPanel() {
         VBox panel = new VBox(15);
         panel.setPadding(new Insets(20));
-        panel.setStyle("-fx-background-color: #2B2B2B;");
+        panel.getStyleClass().add("panel-page");
 
         // 标题
         Text title = new Text("DogPlayer - 极简视频播放器");
-        title.setStyle("-fx-fill: white; -fx-font-size: 18;");
+        title.getStyleClass().add("about-title");
 
         // 版本信息
         Text version = new Text("版本: v0.1.1");
-        version.setStyle("-fx-fill: #CCCCCC;");
+        version.getStyleClass().add("about-version");
 
         // GitHub链接
         Hyperlink githubLink = new Hyperlink("https://github.com/ooooyasumi/Dogplayer");
-        githubLink.setStyle("-fx-text-fill: #00B4FF; -fx-border-color: transparent;");
+        githubLink.getStyleClass().add("about-link");
 
         // 添加组件到面板
         panel.getChildren().addAll(title, new Separator(), version, githubLink);
@@ -0,0 +1,184 @@
+package com.example;
+
+import javafx.application.Platform;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import java.util.prefs.BackingStoreException;
+import java.util.prefs.Preferences;
+
+/**
+ * 设置服务：内存中保存不可变的设置快照，任意线程都可以无锁读取
+ * 修改后立即通知界面，持久化在后台线程延迟合并完成，连续修改（如拖动滑块）只写一次
+ */
+public class SettingsStore {
+    private static final long PERSIST_DELAY_MILLIS = 500;     // 持久化合并延迟
+
+    // 偏好设置键名（与旧版本保持一致）
+    private static final String KEY_AUTO_PLAY = "AUTO_PLAY";
+    private static final String KEY_DEFAULT_VOLUME = "DEFAULT_VOLUME";
+    private static final String KEY_SEEK_SENSITIVITY = "SEEK_SENSITIVITY";
+    private static final String KEY_HIDE_DELAY = "HIDE_DELAY";
+    private static final String KEY_LIBRARY_ROOTS = "LIBRARY_ROOTS";
+    private static final String KEY_FAST_SEEK = "FAST_SEEK";
+    private static final String KEY_THEME = "THEME";
+
+    private static volatile SettingsStore instance;            // 全局实例
+
+    private final Preferences prefs = Preferences.userNodeForPackage(SettingsStore.class); // 偏好设置
+    private final AtomicReference<Settings> current = new AtomicReference<>(); // 当前快照
+    private final List<Consumer<Settings>> listeners = new CopyOnWriteArrayList<>(); // 变更监听器
+    private final AtomicBoolean persistScheduled = new AtomicBoolean(); // 是否已安排持久化
+    private final ScheduledExecutorService persister =
+            Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("settings-persist")); // 持久化线程
+    private Settings persisted;                                 // 最近一次写入的快照（由 persist 的锁保护）
+
+    private SettingsStore() {
+        Settings loaded = new Settings(
+                prefs.getBoolean(KEY_AUTO_PLAY, false),
+                prefs.getDouble(KEY_DEFAULT_VOLUME, 0.5),
+                prefs.getInt(KEY_SEEK_SENSITIVITY, 3),
+                prefs.getInt(KEY_HIDE_DELAY, 3),
+                prefs.get(KEY_LIBRARY_ROOTS, ""),
+                prefs.getBoolean(KEY_FAST_SEEK, true),
+                prefs.get(KEY_THEME, ThemeManager.DEFAULT_THEME));
+        current.set(loaded);
+        persisted = loaded;
+    }
+
+    /**
+     * @return 全局设置服务（首次调用时从偏好设置加载）
+     */
+    public static SettingsStore getInstance() {
+        SettingsStore store = instance;
+        if (store == null) {
+            synchronized (SettingsStore.class) {
+                store = instance;
+                if (store == null) {
+                    store = new SettingsStore();
+                    instance = store;
+                }
+            }
+        }
+        return store;
+    }
+
+    /**
+     * @return 当前设置快照（无锁，任意线程可调用）
+     */
+    public Settings current() {
+        return current.get();
+    }
+
+    /**
+     * 修改设置：原子地替换快照，通知监听器，并安排后台持久化
+     * @param change 根据旧快照生成新快照的函数
+     */
+    public void update(UnaryOperator<Settings> change) {
+        Settings oldValue;
+        Settings newValue;
+        do {
+            oldValue = current.get();
+            newValue = change.apply(oldValue);
+            if (newValue.equals(oldValue)) return;  // 值没有变化：不替换快照、不通知、不写盘
+        } while (!current.compareAndSet(oldValue, newValue));
+
+        Settings published = newValue;
+        if (Platform.isFxApplicationThread()) {
+            notifyListeners(published);
+        } else {
+            Platform.runLater(() -> notifyListeners(published));
+        }
+        if (!persistScheduled.compareAndSet(false, true)) return;
+        if (persister.isShutdown()) {
+            persist();  // 已关闭（退出过程中的修改）：直接在当前线程写入
+        } else {
+            persister.schedule(this::persist, PERSIST_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 添加变更监听器，在 JavaFX 应用线程回调
+     * @param listener 监听器，参数为新快照
+     */
+    public void addListener(Consumer<Settings> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * 移除变更监听器
+     * @param listener 监听器
+     */
+    public void removeListener(Consumer<Settings> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * 立即在后台写入未保存的修改（不等待完成）
+     */
+    public void flush() {
+        if (!persister.isShutdown()) persister.execute(this::persist);
+    }
+
+    /**
+     * 写入未保存的修改并停止持久化线程，最多等待 2 秒
+     */
+    public void close() {
+        flush();
+        persister.shutdown();
+        try {
+            persister.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void notifyListeners(Settings settings) {
+        for (Consumer<Settings> listener : listeners) {
+            listener.accept(settings);
+        }
+    }
+
+    /**
+     * 只写入与上次持久化相比变化的键，然后统一刷新一次（通常在持久化线程，关闭后在调用线程）
+     */
+    private synchronized void persist() {
+        persistScheduled.set(false);
+        Settings snapshot = current.get();
+        if (snapshot == persisted) return;
+        if (snapshot.isAutoPlay() != persisted.isAutoPlay()) {
+            prefs.putBoolean(KEY_AUTO_PLAY, snapshot.isAutoPlay());
+        }
+        if (snapshot.getDefaultVolume() != persisted.getDefaultVolume()) {
+            prefs.putDouble(KEY_DEFAULT_VOLUME, snapshot.getDefaultVolume());
+        }
+        if (snapshot.getSeekSensitivity() != persisted.getSeekSensitivity()) {
+            prefs.putInt(KEY_SEEK_SENSITIVITY, snapshot.getSeekSensitivity());
+        }
+        if (snapshot.getHideDelaySeconds() != persisted.getHideDelaySeconds()) {
+            prefs.putInt(KEY_HIDE_DELAY, snapshot.getHideDelaySeconds());
+        }
+        if (!Objects.equals(snapshot.getLibraryRoots(), persisted.getLibraryRoots())) {
+            prefs.put(KEY_LIBRARY_ROOTS, snapshot.getLibraryRoots());
+        }
+        if (snapshot.isFastSeek() != persisted.isFastSeek()) {
+            prefs.putBoolean(KEY_FAST_SEEK, snapshot.isFastSeek());
+        }
+        if (!Objects.equals(snapshot.getTheme(), persisted.getTheme())) {
+            prefs.put(KEY_THEME, snapshot.getTheme());
+        }
+        try {
+            prefs.flush();
+            persisted = snapshot;
+        } catch (BackingStoreException ex) {
+            System.err.println("设置保存失败: " + ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.example;
+
+// 导入JavaFX和相关库
+import javafx.application.Platform;
+import java.io.File;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 单实例模式：取得数据目录下锁文件的进程成为主实例，在同一目录下监听 Unix 域套接字，
+ * 之后的启动在创建 JavaFX 工具包之前连接它，把命令行文件交给已运行的实例后立即退出
+ * 锁随进程结束由操作系统释放，因此同时启动的两个进程只有一个能成为主实例，
+ * 套接字文件也只在持有锁时删除或重建
+ * 消息格式为 UTF-8 文本，每行一个绝对路径，空消息表示只需激活窗口
+ * 可通过系统属性 dogplayer.single.instance=false 关闭
+ */
+public class SingleInstance {
+    private static final String SOCKET_NAME = "player.sock";   // 套接字文件名
+    private static final String LOCK_NAME = "player.lock";     // 锁文件名
+    private static final int MAX_MESSAGE_BYTES = 1 << 20;      // 单条消息上限，防止异常客户端占满内存
+    private static final long READ_TIMEOUT_MILLIS = 5000;      // 单个连接的读取时限
+    private static final long FORWARD_WAIT_MILLIS = 3000;      // 主实例已持有锁但尚未开始监听时的最长等待
+    private static final long FORWARD_RETRY_MILLIS = 50;       // 等待期间的重试间隔
+
+    private final ServerSocketChannel server;                  // 监听通道
+    private final Path socketFile;                             // 套接字文件
+    private final FileChannel lockChannel;                     // 锁文件通道（持有期间锁一直有效）
+    private final ExecutorService connections =
+            Executors.newCachedThreadPool(new DaemonThreadFactory("single-instance-client")); // 连接处理线程
+    private final ScheduledExecutorService timeouts =
+            Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("single-instance-timeout")); // 读取超时
+    private final List<File> pending = new ArrayList<>();      // 处理器就绪前收到的文件（由 this 保护）
+    private boolean pendingActivate;                           // 处理器就绪前是否收到过激活请求
+    private Consumer<List<File>> handler;                      // 文件处理器（在 JavaFX 应用线程调用）
+
+    private SingleInstance(ServerSocketChannel server, Path socketFile, FileChannel lockChannel) {
+        this.server = server;
+        this.socketFile = socketFile;
+        this.lockChannel = lockChannel;
+    }
+
+    /**
+     * @return 是否启用单实例模式
+     */
+    public static boolean isEnabled() {
+        return !"false".equalsIgnoreCase(System.getProperty("dogplayer.single.instance"));
+    }
+
+    /**
+     * 尝试把文件交给已运行的实例（在 main() 中、listen() 返回 null 之后、启动 JavaFX 之前调用）
+     * 主实例刚取得锁、还没开始监听时会短暂等待
+     * @param args 命令行参数
+     * @return 已交给其他实例时返回 true，调用方应直接退出
+     */
+    public static boolean forward(String[] args) {
+        Path socketFile;
+        Path lockFile;
+        try {
+            socketFile = AppPaths.file(SOCKET_NAME);
+            lockFile = AppPaths.file(LOCK_NAME);
+        } catch (IOException ex) {
+            System.err.println("单实例检查失败: " + ex.getMessage());
+            return false;
+        }
+
+        StringBuilder message = new StringBuilder();
+        for (String arg : args) {
+            File file = new File(arg).getAbsoluteFile();
+            if (file.exists()) message.append(file.getPath()).append('\n');
+        }
+        byte[] bytes = message.toString().getBytes(StandardCharsets.UTF_8);
+        long deadline = System.currentTimeMillis() + FORWARD_WAIT_MILLIS;
+        while (true) {
+            if (send(socketFile, bytes)) return true;
+            // 没有进程持有锁说明没有主实例（套接字文件是异常退出留下的），由本进程独立运行
+            if (!isLockedByOther(lockFile) || System.currentTimeMillis() >= deadline) return false;
+            try {
+                Thread.sleep(FORWARD_RETRY_MILLIS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+    /**
+     * 连接主实例并发送消息
+     * @return 对方读完并关闭连接时返回 true
+     */
+    private static boolean send(Path socketFile, byte[] bytes) {
+        if (!Files.exists(socketFile)) return false;
+        try (SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(socketFile))) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) channel.write(buffer);
+            channel.shutdownOutput();
+            // 等待对方读完并关闭连接，确保退出前消息已送达
+            channel.read(ByteBuffer.allocate(1));
+            return true;
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * @return 锁文件是否被其他进程持有
+     */
+    private static boolean isLockedByOther(Path lockFile) {
+        try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            FileLock lock = channel.tryLock();
+            if (lock == null) return true;
+            lock.release();
+            return false;
+        } catch (IOException | OverlappingFileLockException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * 争取成为主实例并开始监听其他启动转交的文件（在 main() 中、启动 JavaFX 之前最先调用）
+     * 处理器设置之前收到的文件会暂存，因此可以在 JavaFX 启动之前调用
+     * @return 单实例服务；锁已被其他进程持有（应调用 forward()）或监听失败时返回 null
+     */
+    public static SingleInstance listen() {
+        FileChannel lockChannel = null;
+        try {
+            lockChannel = FileChannel.open(AppPaths.file(LOCK_NAME), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            if (lockChannel.tryLock() == null) {
+                lockChannel.close();
+                return null;  // 其他进程是主实例
+            }
+            Path socketFile = AppPaths.file(SOCKET_NAME);
+            Files.deleteIfExists(socketFile);  // 持有锁时存在的套接字文件一定是异常退出留下的
+            ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+            server.bind(UnixDomainSocketAddress.of(socketFile));
+            SingleInstance instance = new SingleInstance(server, socketFile, lockChannel);
+            Thread thread = new DaemonThreadFactory("single-instance").newThread(instance::acceptLoop);
+            thread.start();
+            return instance;
+        } catch (IOException | UnsupportedOperationException | OverlappingFileLockException ex) {
+            System.err.println("单实例监听失败: " + ex.getMessage());
+            closeQuietly(lockChannel);  // 释放锁，之后的启动可以接管
+            return null;
+        }
+    }
+
+    /**
+     * 设置文件处理器，之前收到的文件会立即交给它，必须在 JavaFX 应用线程调用
+     * @param handler 处理器，参数为转交的文件列表（为空时表示只需激活窗口）
+     */
+    public void setHandler(Consumer<List<File>> handler) {
+        List<File> files;
+        synchronized (this) {
+            this.handler = handler;
+            if (!pendingActivate) return;
+            files = new ArrayList<>(pending);
+            pending.clear();
+            pendingActivate = false;
+        }
+        handler.accept(files);
+    }
+
+    /**
+     * 停止监听，删除套接字文件后释放锁（仍持有锁，删除的一定是本实例的套接字文件）
+     */
+    public void close() {
+        try {
+            server.close();
+            Files.deleteIfExists(socketFile);
+        } catch (IOException ex) {
+            System.err.println("单实例关闭失败: " + ex.getMessage());
+        } finally {
+            closeQuietly(lockChannel);
+            connections.shutdownNow();
+            timeouts.shutdownNow();
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel == null) return;
+        try {
+            channel.close();  // 关闭通道同时释放锁
+        } catch (IOException ex) {
+            System.err.println("单实例锁释放失败: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * 监听线程：每个连接交给单独的线程读取，一个不发送数据的客户端不会挡住其他启动
+     */
+    private void acceptLoop() {
+        while (server.isOpen()) {
+            try {
+                SocketChannel channel = server.accept();
+                connections.execute(() -> receive(channel));
+            } catch (IOException ex) {
+                if (server.isOpen()) System.err.println("单实例接收失败: " + ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 读取一个连接中的路径列表并交回 UI 线程，超过读取时限的连接被关闭
+     */
+    private void receive(SocketChannel channel) {
+        ScheduledFuture<?> timeout = timeouts.schedule(() -> {
+            try {
+                channel.close();  // 阻塞中的读取随之抛出异常
+            } catch (IOException ignored) {
+                // 连接已关闭
+            }
+        }, READ_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        try (channel) {
+            byte[] bytes = Channels.newInputStream(channel).readNBytes(MAX_MESSAGE_BYTES);
+            timeout.cancel(false);
+            List<File> files = new ArrayList<>();
+            for (String line : new String(bytes, StandardCharsets.UTF_8).split("\n")) {
+                if (!line.isEmpty()) files.add(new File(line));
+            }
+            deliver(files);
+        } catch (IOException ex) {
+            if (server.isOpen()) System.err.println("单实例接收失败: " + ex.getMessage());
+        } finally {
+            timeout.cancel(false);
+        }
+    }
+
+    /**
+     * 交回 UI 线程给处理器，处理器尚未设置时暂存
+     */
+    private void deliver(List<File> files) {
+        Consumer<List<File>> target;
+        synchronized (this) {
+            target = handler;
+            if (target == null) {
+                pending.addAll(files);
+                pendingActivate = true;
+                return;
+            }
+        }
+        Platform.runLater(() -> target.accept(files));
+    }
+}
@@ -0,0 +1,218 @@
+package com.example;
+
+// 导入JavaFX和相关库
+import javafx.animation.AnimationTimer;
+import javafx.beans.value.ChangeListener;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.layout.Pane;
+import javafx.scene.media.AudioSpectrumListener;
+import javafx.scene.media.MediaPlayer;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.CycleMethod;
+import javafx.scene.paint.LinearGradient;
+import javafx.scene.paint.Stop;
+
+/**
+ * 音频频谱与音量表：播放纯音频文件时代替空白画面
+ * 频谱回调只把幅度复制进预先分配的环形缓冲，绘制由动画计时器在两次回调之间插值完成；
+ * 平滑、峰值保持和音量计算都在原始类型数组上进行，回调和绘制过程中不分配对象
+ * 频段数和回调间隔随窗口宽度调整，所有方法都在 JavaFX 应用线程调用
+ */
+public class SpectrumVisualizer extends Pane {
+    private static final int MAX_BANDS = 128;          // 频段数上限
+    private static final int HISTORY = 4;              // 环形缓冲保存的频谱帧数
+    private static final float THRESHOLD_DB = -60f;    // 频谱下限（与 MediaPlayer 默认值一致）
+    private static final double DECAY_PER_SECOND = 45; // 柱高每秒回落的分贝数
+    private static final double PEAK_HOLD_SECONDS = 0.6; // 峰值保持时间
+    private static final double PEAK_FALL_PER_SECOND = 25; // 峰值保持结束后每秒回落的分贝数
+    private static final double VU_WIDTH = 14;         // 右侧音量表宽度
+
+    private static final Color BACKGROUND = Color.BLACK;
+    private static final Color PEAK_COLOR = Color.rgb(255, 255, 255, 0.85);
+    private static final Color VU_TRACK = Color.rgb(255, 255, 255, 0.12);
+
+    private final Canvas canvas = new Canvas();
+    private final float[][] frames = new float[HISTORY][MAX_BANDS]; // 最近的频谱帧（分贝）
+    private final long[] frameNanos = new long[HISTORY];            // 各帧到达时间
+    private int latest = -1;                                         // 最新帧在环形缓冲中的位置
+    private int bands = 64;                                          // 当前频段数
+    private final double[] levels = new double[MAX_BANDS];          // 平滑后的柱高（分贝）
+    private final double[] peaks = new double[MAX_BANDS];           // 峰值（分贝）
+    private final double[] peakAges = new double[MAX_BANDS];        // 峰值已保持的秒数
+    private double vuLevel = THRESHOLD_DB;                           // 平滑后的整体音量（分贝）
+    private long lastDrawNanos;                                      // 上一次绘制时间
+    private LinearGradient barFill;                                  // 柱状图填充（尺寸变化时重建）
+    private MediaPlayer player;                                      // 当前绑定的播放器
+
+    private final AnimationTimer renderer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            draw(now);
+        }
+    };
+
+    // 只在播放时绘制，暂停后画面保持不变
+    private final ChangeListener<MediaPlayer.Status> statusListener = (obs, oldVal, newVal) -> {
+        if (newVal == MediaPlayer.Status.PLAYING) {
+            lastDrawNanos = 0;
+            renderer.start();
+        } else {
+            renderer.stop();
+        }
+    };
+
+    // 频谱回调：只做数组复制
+    private final AudioSpectrumListener listener = (timestamp, duration, magnitudes, phases) -> {
+        int next = (latest + 1) % HISTORY;
+        System.arraycopy(magnitudes, 0, frames[next], 0, Math.min(magnitudes.length, MAX_BANDS));
+        frameNanos[next] = System.nanoTime();
+        latest = next;
+    };
+
+    /**
+     * 构造函数，默认隐藏
+     */
+    public SpectrumVisualizer() {
+        getChildren().add(canvas);
+        setMouseTransparent(true);
+        setVisible(false);
+        widthProperty().addListener((obs, oldVal, newVal) -> adaptToSize());
+        heightProperty().addListener((obs, oldVal, newVal) -> adaptToSize());
+    }
+
+    /**
+     * 绑定播放器并开始绘制
+     * @param player 媒体播放器
+     */
+    public void attach(MediaPlayer player) {
+        detach();
+        this.player = player;
+        latest = -1;
+        for (int i = 0; i < MAX_BANDS; i++) {
+            levels[i] = THRESHOLD_DB;
+            peaks[i] = THRESHOLD_DB;
+            peakAges[i] = 0;
+        }
+        vuLevel = THRESHOLD_DB;
+        lastDrawNanos = 0;
+        applySpectrumSettings();
+        player.setAudioSpectrumListener(listener);
+        player.statusProperty().addListener(statusListener);
+        setVisible(true);
+        if (player.getStatus() == MediaPlayer.Status.PLAYING) renderer.start();
+    }
+
+    /**
+     * 解除绑定并停止绘制（播放器不再计算频谱）
+     */
+    public void detach() {
+        renderer.stop();
+        setVisible(false);
+        if (player != null) {
+            player.statusProperty().removeListener(statusListener);
+            if (player.getAudioSpectrumListener() == listener) player.setAudioSpectrumListener(null);
+        }
+        player = null;
+    }
+
+    @Override
+    protected void layoutChildren() {
+        canvas.setWidth(getWidth());
+        canvas.setHeight(getHeight());
+    }
+
+    /**
+     * 按窗口宽度选择频段数（每根柱子约 10 像素）和回调间隔，并重建填充渐变
+     */
+    private void adaptToSize() {
+        double width = getWidth() - VU_WIDTH * 2;
+        int wanted = 16;
+        while (wanted < MAX_BANDS && width / (wanted * 2) >= 10) wanted *= 2;
+        if (wanted != bands) {
+            bands = wanted;
+            latest = -1;  // 缓冲中的旧帧按旧的频段数排列
+        }
+        applySpectrumSettings();
+        double base = getHeight() * 0.9;
+        barFill = new LinearGradient(0, base, 0, base - getHeight() * 0.8, false, CycleMethod.NO_CYCLE,
+                new Stop(0, Color.web("#00C896")), new Stop(0.7, Color.web("#00B4FF")),
+                new Stop(1, Color.web("#FF4757")));
+    }
+
+    private void applySpectrumSettings() {
+        if (player == null) return;
+        if (player.getAudioSpectrumNumBands() != bands) player.setAudioSpectrumNumBands(bands);
+        // 柱子多时回调更频繁，小窗口降低频率减少原生 FFT 开销；两次回调之间由插值补齐
+        double interval = bands >= 64 ? 0.05 : 0.1;
+        if (player.getAudioSpectrumInterval() != interval) player.setAudioSpectrumInterval(interval);
+        if (player.getAudioSpectrumThreshold() != (int) THRESHOLD_DB) {
+            player.setAudioSpectrumThreshold((int) THRESHOLD_DB);
+        }
+    }
+
+    /**
+     * 绘制一帧：在最近两帧频谱之间按时间插值，再做回落平滑和峰值保持
+     */
+    private void draw(long now) {
+        double width = canvas.getWidth();
+        double height = canvas.getHeight();
+        if (width <= 0 || height <= 0 || barFill == null) return;
+        double elapsed = lastDrawNanos == 0 ? 0 : (now - lastDrawNanos) / 1e9;
+        lastDrawNanos = now;
+
+        GraphicsContext g = canvas.getGraphicsContext2D();
+        g.setFill(BACKGROUND);
+        g.fillRect(0, 0, width, height);
+        if (latest < 0) return;
+
+        int previous = (latest + HISTORY - 1) % HISTORY;
+        long span = frameNanos[latest] - frameNanos[previous];
+        double t = frameNanos[previous] == 0 || span <= 0 ? 1
+                : Math.min(1, (double) (now - frameNanos[latest]) / span);
+        float[] from = frames[previous];
+        float[] to = frames[latest];
+
+        double spectrumWidth = width - VU_WIDTH * 3;
+        double slot = spectrumWidth / bands;
+        double gap = Math.max(1, slot * 0.2);
+        double usable = height * 0.8;
+        double base = height * 0.9;
+        double energy = 0;
+        g.setFill(barFill);
+        for (int i = 0; i < bands; i++) {
+            double target = from[i] + (to[i] - from[i]) * t;
+            energy += Math.pow(10, target / 10);
+            // 上升立即跟随，下降按固定速度回落
+            levels[i] = Math.max(target, levels[i] - DECAY_PER_SECOND * elapsed);
+            if (levels[i] >= peaks[i]) {
+                peaks[i] = levels[i];
+                peakAges[i] = 0;
+            } else {
+                peakAges[i] += elapsed;
+                if (peakAges[i] > PEAK_HOLD_SECONDS) peaks[i] -= PEAK_FALL_PER_SECOND * elapsed;
+            }
+            double barHeight = usable * normalize(levels[i]);
+            g.fillRect(i * slot + gap / 2, base - barHeight, slot - gap, barHeight);
+        }
+        g.setFill(PEAK_COLOR);
+        for (int i = 0; i < bands; i++) {
+            double peakY = base - usable * normalize(peaks[i]);
+            g.fillRect(i * slot + gap / 2, peakY - 2, slot - gap, 2);
+        }
+
+        // 右侧音量表：各频段能量之和换算回分贝
+        double vu = energy > 0 ? 10 * Math.log10(energy / bands) : THRESHOLD_DB;
+        vuLevel = Math.max(vu, vuLevel - DECAY_PER_SECOND * elapsed);
+        double x = width - VU_WIDTH * 2;
+        g.setFill(VU_TRACK);
+        g.fillRect(x, base - usable, VU_WIDTH, usable);
+        g.setFill(barFill);
+        double vuHeight = usable * normalize(vuLevel);
+        g.fillRect(x, base - vuHeight, VU_WIDTH, vuHeight);
+    }
+
+    private static double normalize(double db) {
+        return Math.max(0, Math.min(1, (db - THRESHOLD_DB) / -THRESHOLD_DB));
+    }
+}
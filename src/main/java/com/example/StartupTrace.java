@@ -0,0 +1,105 @@
+package com.example;
+
+// 导入JavaFX和相关库
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * 启动耗时跟踪：从进程启动到主窗口首帧、到命令行文件的首个视频画面
+ * 系统属性 dogplayer.startup.report=true 时把耗时打印到标准输出（供启动基准测试解析），
+ * dogplayer.startup.exit=true 时记录完成后立即退出（AppCDS 训练运行和基准测试使用），
+ * 命令行文件加载失败时以退出码 1 结束，让训练运行的失败能被构建发现
+ * 所有方法都在 JavaFX 应用线程调用
+ */
+public final class StartupTrace {
+    private static final boolean REPORT = Boolean.getBoolean("dogplayer.startup.report"); // 打印耗时
+    private static final boolean EXIT = Boolean.getBoolean("dogplayer.startup.exit");     // 记录完成后退出
+
+    private static boolean expectVideo = false;   // 是否等待命令行文件的首个画面
+    private static boolean windowDone = false;    // 窗口首帧是否已记录
+    private static boolean videoDone = false;     // 视频首帧是否已记录（或已失败）
+    private static boolean videoFailed = false;   // 命令行文件是否加载失败
+
+    private StartupTrace() {
+    }
+
+    /**
+     * 命令行传入了文件：启动记录要等到它的首个画面（或加载失败）才算完成
+     */
+    public static void expectVideo() {
+        expectVideo = true;
+    }
+
+    /**
+     * 主窗口显示后调用，在首帧上屏后记录耗时
+     */
+    public static void windowShown() {
+        afterNextFrame(() -> {
+            long millis = sinceProcessStart();
+            windowDone = true;
+            PlayerMetrics.getInstance().startupWindowShown(millis);
+            report("window", millis);
+        });
+    }
+
+    /**
+     * 命令行文件的播放器交给界面后调用，在画面上屏后记录耗时
+     */
+    public static void videoShown() {
+        afterNextFrame(() -> {
+            long millis = sinceProcessStart();
+            videoDone = true;
+            PlayerMetrics.getInstance().startupVideoShown(millis);
+            report("video", millis);
+        });
+    }
+
+    /**
+     * 命令行文件加载失败
+     */
+    public static void videoFailed() {
+        videoDone = true;
+        videoFailed = true;
+        report("video", -1);
+    }
+
+    /**
+     * @return 进程启动至今的毫秒数，无法获取进程启动时间时返回 -1
+     */
+    public static long sinceProcessStart() {
+        return ProcessHandle.current().info().startInstant()
+                .map(start -> Duration.between(start, Instant.now()).toMillis())
+                .orElse(-1L);
+    }
+
+    private static void report(String stage, long millis) {
+        if (REPORT) System.out.println("dogplayer-startup " + stage + "=" + millis);
+        if (!EXIT || !windowDone || (expectVideo && !videoDone)) return;
+        if (videoFailed) {
+            System.exit(1);
+        } else {
+            Platform.exit();
+        }
+    }
+
+    /**
+     * 动画计时器在脉冲开始时回调，第二次回调时上一个脉冲的画面已经上屏
+     */
+    private static void afterNextFrame(Runnable action) {
+        new AnimationTimer() {
+            private boolean first = true;
+
+            @Override
+            public void handle(long now) {
+                if (first) {
+                    first = false;
+                    return;
+                }
+                stop();
+                action.run();
+            }
+        }.start();
+    }
+}
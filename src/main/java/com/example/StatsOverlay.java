@@ -0,0 +1,85 @@
+package com.example;
+
+// 导入JavaFX和相关库
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Label;
+import javafx.scene.layout.StackPane;
+import javafx.util.Duration;
+
+/**
+ * 性能统计浮层：显示在视频左上角，可见时每 500 毫秒刷新一次 PlayerMetrics 中的数据
+ */
+public class StatsOverlay extends Label {
+    private static final double MB = 1024.0 * 1024.0;
+
+    private final PlayerMetrics metrics = PlayerMetrics.getInstance(); // 性能指标
+    private final Timeline refresher;                                   // 刷新定时器
+    private final StringBuilder text = new StringBuilder(512);          // 复用的文本缓冲
+
+    /**
+     * 构造函数，默认隐藏
+     */
+    public StatsOverlay() {
+        getStyleClass().add("stats-overlay");
+        setMouseTransparent(true);
+        setVisible(false);
+        setManaged(false);
+        StackPane.setAlignment(this, Pos.TOP_LEFT);
+        StackPane.setMargin(this, new Insets(10));
+
+        refresher = new Timeline(new KeyFrame(Duration.millis(500), e -> refresh()));
+        refresher.setCycleCount(Animation.INDEFINITE);
+    }
+
+    /**
+     * 切换显示状态，隐藏时停止刷新
+     */
+    public void toggle() {
+        boolean show = !isVisible();
+        setVisible(show);
+        setManaged(show);
+        if (show) {
+            refresh();
+            refresher.play();
+        } else {
+            refresher.stop();
+        }
+    }
+
+    private void refresh() {
+        text.setLength(0);
+        text.append("启动  窗口 ").append(metrics.getStartupWindowMillis()).append(" ms  画面 ")
+                .append(metrics.getStartupVideoMillis()).append(" ms\n");
+        text.append("打开  最近 ").append(metrics.getLastOpenMillis()).append(" ms  平均 ")
+                .append(metrics.getAverageOpenMillis()).append(" ms  最大 ")
+                .append(metrics.getMaxOpenMillis()).append(" ms  (").append(metrics.getOpenCount()).append(")\n");
+        text.append("Seek  最近 ").append(metrics.getLastSeekMillis()).append(" ms  平均 ")
+                .append(metrics.getAverageSeekMillis()).append(" ms  最大 ")
+                .append(metrics.getMaxSeekMillis()).append(" ms  (").append(metrics.getSeekCount()).append(")\n");
+        text.append("脉冲  最近 ").append(metrics.getLastPulseMicros()).append(" µs  最大 ")
+                .append(metrics.getMaxPulseMicros()).append(" µs  超时 ")
+                .append(metrics.getSlowPulseCount()).append("  丢帧 ")
+                .append(metrics.getDroppedPulseCount()).append('\n');
+        text.append("停顿  ").append(metrics.getStallCount()).append(" 次  共 ")
+                .append(metrics.getTotalStallMillis()).append(" ms")
+                .append(metrics.isStalled() ? "  [缓冲中]" : "").append('\n');
+        text.append("播放器  创建 ").append(metrics.getPlayersCreated()).append("  释放 ")
+                .append(metrics.getPlayersDisposed()).append("  存活 ")
+                .append(metrics.getLivePlayers()).append('\n');
+        appendMegabytes(text.append("堆  "), metrics.getHeapUsedBytes()).append(" / ");
+        appendMegabytes(text, metrics.getHeapCommittedBytes()).append("  非堆 ");
+        appendMegabytes(text, metrics.getNonHeapUsedBytes()).append('\n');
+        appendMegabytes(text.append("直接缓冲 "), metrics.getDirectBufferBytes()).append("  映射缓冲 ");
+        appendMegabytes(text, metrics.getMappedBufferBytes());
+        setText(text.toString());
+    }
+
+    private static StringBuilder appendMegabytes(StringBuilder out, long bytes) {
+        long tenths = Math.round(bytes / MB * 10);
+        return out.append(tenths / 10).append('.').append(tenths % 10).append(" MB");
+    }
+}
@@ -0,0 +1,163 @@
+package com.example;
+
+// 导入JavaFX和相关库
+import javafx.application.Platform;
+import javafx.beans.value.ChangeListener;
+import javafx.scene.media.MediaPlayer;
+import javafx.util.Duration;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 字幕控制：打开视频时在后台查找同名字幕（外挂字幕），也可以拖入字幕文件手动加载
+ * 解析在后台流式进行，先发布前几百条让字幕尽快出现，之后每当条数翻倍再重建一次索引，总开销为 O(n log n)
+ * 播放位置变化时由 SubtitleOverlay 查询索引
+ */
+public class SubtitleController {
+    private static final int FIRST_BATCH = 256;   // 第一次发布索引前解析的条数
+
+    private final SubtitleOverlay overlay;        // 字幕浮层
+    private final Consumer<String> notifier;      // 提示信息回调（JavaFX 应用线程）
+    private final ExecutorService executor =
+            Executors.newSingleThreadExecutor(new DaemonThreadFactory("subtitle-load")); // 查找与解析线程
+    private final AtomicLong generation = new AtomicLong(); // 加载代数，切换视频或字幕后旧的加载结果作废
+    private final ChangeListener<Duration> timeListener; // 播放位置监听器
+    private MediaPlayer player;                   // 当前绑定的播放器
+
+    /**
+     * 构造函数
+     * @param overlay 字幕浮层
+     * @param notifier 提示信息回调，在 JavaFX 应用线程调用
+     */
+    public SubtitleController(SubtitleOverlay overlay, Consumer<String> notifier) {
+        this.overlay = overlay;
+        this.notifier = notifier;
+        // 位置仍在当前字幕的有效区间内时 update 直接返回，不查询索引
+        this.timeListener = (obs, oldVal, newVal) -> {
+            if (newVal != null) overlay.update((long) newVal.toMillis());
+        };
+    }
+
+    /**
+     * 绑定新的播放器：清空旧字幕，并在后台查找视频旁边的字幕文件
+     * @param player 媒体播放器
+     * @param videoFile 视频文件
+     */
+    public void bind(MediaPlayer player, File videoFile) {
+        unbind();
+        this.player = player;
+        player.currentTimeProperty().addListener(timeListener);
+        long gen = generation.get();
+        executor.execute(() -> {
+            File sidecar = findSidecar(videoFile);
+            if (sidecar != null) load(sidecar, gen, false);
+        });
+    }
+
+    /**
+     * 解除与当前播放器的绑定并清空字幕
+     */
+    public void unbind() {
+        generation.incrementAndGet();
+        if (player != null) player.currentTimeProperty().removeListener(timeListener);
+        player = null;
+        overlay.clear();
+        overlay.update(0);
+    }
+
+    /**
+     * 手动加载字幕文件（拖放），替换当前字幕
+     * @param subtitleFile 字幕文件
+     */
+    public void load(File subtitleFile) {
+        if (player == null) return;
+        long gen = generation.incrementAndGet();
+        overlay.clear();
+        executor.execute(() -> load(subtitleFile, gen, true));
+    }
+
+    /**
+     * 后台线程：流式解析，按条数翻倍发布索引
+     */
+    private void load(File file, long gen, boolean announceErrors) {
+        List<SubtitleCue> cues = new ArrayList<>();
+        int[] nextPublish = {FIRST_BATCH};
+        try {
+            SubtitleParser.parse(file.toPath(), cue -> {
+                if (generation.get() != gen) throw new CancellationSignal();
+                cues.add(cue);
+                if (cues.size() >= nextPublish[0]) {
+                    nextPublish[0] *= 2;
+                    publish(new SubtitleIndex(cues), gen);
+                }
+            });
+        } catch (CancellationSignal ex) {
+            return;
+        } catch (IOException | RuntimeException ex) {
+            System.err.println("字幕加载失败: " + file + " - " + ex.getMessage());
+            if (announceErrors) Platform.runLater(() -> notifier.accept("字幕加载失败：" + file.getName()));
+            return;
+        }
+        publish(new SubtitleIndex(cues), gen);
+        int count = cues.size();
+        Platform.runLater(() -> {
+            if (generation.get() == gen) notifier.accept("已加载字幕 " + file.getName() + "（" + count + " 条）");
+        });
+    }
+
+    /**
+     * 把新索引交给浮层并按当前位置刷新
+     */
+    private void publish(SubtitleIndex index, long gen) {
+        Platform.runLater(() -> {
+            if (generation.get() != gen || player == null) return;
+            overlay.setIndex(index);
+            overlay.update((long) player.getCurrentTime().toMillis());
+        });
+    }
+
+    /**
+     * 在视频所在目录查找字幕：文件名为“视频名.扩展名”或“视频名.语言.扩展名”，
+     * 优先完全同名，其次按自然顺序取第一个（会列出目录，应在后台线程调用）
+     * @param videoFile 视频文件
+     * @return 字幕文件，没有时返回 null
+     */
+    public static File findSidecar(File videoFile) {
+        File dir = videoFile.getAbsoluteFile().getParentFile();
+        if (dir == null) return null;
+        String name = videoFile.getName();
+        int dot = name.lastIndexOf('.');
+        String base = (dot > 0 ? name.substring(0, dot) : name).toLowerCase(Locale.ROOT);
+        File[] candidates = dir.listFiles(f -> {
+            String lower = f.getName().toLowerCase(Locale.ROOT);
+            return lower.startsWith(base + ".") && SubtitleParser.isSubtitleFile(f);
+        });
+        if (candidates == null || candidates.length == 0) return null;
+        Arrays.sort(candidates, (a, b) -> {
+            boolean exactA = a.getName().lastIndexOf('.') == base.length();
+            boolean exactB = b.getName().lastIndexOf('.') == base.length();
+            if (exactA != exactB) return exactA ? -1 : 1;
+            return NaturalOrderComparator.INSTANCE.compare(a.getName(), b.getName());
+        });
+        return candidates[0];
+    }
+
+    /**
+     * 解析过程中发现加载已作废时用于提前结束解析
+     */
+    private static final class CancellationSignal extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        CancellationSignal() {
+            super(null, null, false, false);
+        }
+    }
+}
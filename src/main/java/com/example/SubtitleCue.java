@@ -0,0 +1,41 @@
+package com.example;
+
+/**
+ * 一条字幕：显示区间 [start, end) 和已去掉样式标签的文本（多行以 \n 分隔）
+ */
+public final class SubtitleCue {
+    private final long startMillis;   // 开始时间（毫秒）
+    private final long endMillis;     // 结束时间（毫秒，不含）
+    private final String text;        // 显示文本
+    private final boolean top;        // 是否显示在画面顶部（ASS 对齐方式 7-9）
+
+    /**
+     * 构造函数
+     * @param startMillis 开始时间（毫秒）
+     * @param endMillis 结束时间（毫秒，不含）
+     * @param text 显示文本
+     * @param top 是否显示在画面顶部
+     */
+    public SubtitleCue(long startMillis, long endMillis, String text, boolean top) {
+        this.startMillis = startMillis;
+        this.endMillis = endMillis;
+        this.text = text;
+        this.top = top;
+    }
+
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    public long getEndMillis() {
+        return endMillis;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public boolean isTop() {
+        return top;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 字幕区间索引（不可变）：字幕按开始时间排序后作为隐式平衡二叉树，
+ * 每个子树记录其中最大的结束时间，查询某一时刻的全部字幕为 O(log n + k)，查询过程不分配对象
+ */
+public final class SubtitleIndex {
+    public static final SubtitleIndex EMPTY = new SubtitleIndex(List.of());
+
+    private final SubtitleCue[] cues;   // 按开始时间排序的字幕
+    private final long[] starts;        // 开始时间（与 cues 对应，查询时避免访问对象）
+    private final long[] ends;          // 结束时间
+    private final long[] maxEnds;       // 以该下标为根的子树中最大的结束时间
+
+    /**
+     * 构建索引（O(n log n)，应在后台线程调用）
+     * @param source 字幕列表，可以无序
+     */
+    public SubtitleIndex(List<SubtitleCue> source) {
+        cues = source.toArray(new SubtitleCue[0]);
+        Arrays.sort(cues, Comparator.comparingLong(SubtitleCue::getStartMillis)
+                .thenComparingLong(SubtitleCue::getEndMillis));
+        starts = new long[cues.length];
+        ends = new long[cues.length];
+        maxEnds = new long[cues.length];
+        for (int i = 0; i < cues.length; i++) {
+            starts[i] = cues[i].getStartMillis();
+            ends[i] = cues[i].getEndMillis();
+        }
+        buildMaxEnds(0, cues.length - 1);
+    }
+
+    /**
+     * @return 字幕条数
+     */
+    public int size() {
+        return cues.length;
+    }
+
+    /**
+     * 查找在指定时刻显示的字幕，结果按开始时间排序
+     * @param timeMillis 播放位置（毫秒）
+     * @param out 结果数组，超出容量的部分被忽略
+     * @return 写入 out 的字幕数
+     */
+    public int query(long timeMillis, SubtitleCue[] out) {
+        return query(0, cues.length - 1, timeMillis, out, 0);
+    }
+
+    /**
+     * 查找指定时刻之后第一条字幕的开始时间
+     * @param timeMillis 播放位置（毫秒）
+     * @return 开始时间，之后没有字幕时返回 Long.MAX_VALUE
+     */
+    public long nextStartAfter(long timeMillis) {
+        int lo = 0;
+        int hi = starts.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (starts[mid] <= timeMillis) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo < starts.length ? starts[lo] : Long.MAX_VALUE;
+    }
+
+    /**
+     * 中序遍历子树 [lo, hi]：子树最大结束时间不超过当前时刻时整棵跳过，
+     * 根的开始时间晚于当前时刻时右子树也整棵跳过
+     */
+    private int query(int lo, int hi, long time, SubtitleCue[] out, int count) {
+        while (lo <= hi && count < out.length) {
+            int mid = (lo + hi) >>> 1;
+            if (maxEnds[mid] <= time) return count;
+            count = query(lo, mid - 1, time, out, count);
+            if (starts[mid] > time || count >= out.length) return count;
+            if (ends[mid] > time) out[count++] = cues[mid];
+            lo = mid + 1;  // 右子树改为循环，递归深度只有左侧的 log n
+        }
+        return count;
+    }
+
+    private long buildMaxEnds(int lo, int hi) {
+        if (lo > hi) return Long.MIN_VALUE;
+        int mid = (lo + hi) >>> 1;
+        long max = Math.max(ends[mid], Math.max(buildMaxEnds(lo, mid - 1), buildMaxEnds(mid + 1, hi)));
+        maxEnds[mid] = max;
+        return max;
+    }
+}
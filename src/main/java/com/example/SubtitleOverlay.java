@@ -0,0 +1,171 @@
+package com.example;
+
+// 导入JavaFX和相关库
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.Text;
+import javafx.scene.text.TextAlignment;
+
+/**
+ * 字幕浮层：画面底部和顶部各有一组预先创建的文本节点，字幕变化时只改写文本和可见性，不增删节点
+ * 记录当前字幕的有效区间，播放位置仍在区间内时不查询索引
+ * 所有方法都在 JavaFX 应用线程调用
+ */
+public class SubtitleOverlay extends StackPane {
+    private static final int MAX_LINES = 4;          // 每个位置最多同时显示的字幕条数
+    private static final int QUERY_CAPACITY = 16;    // 单次查询的结果上限（密集的卡拉 OK 字幕会有大量重叠）
+
+    private final VBox bottomBox = new VBox(4);      // 底部字幕
+    private final VBox topBox = new VBox(4);         // 顶部字幕
+    private final Text[] bottomLines = new Text[MAX_LINES];
+    private final Text[] topLines = new Text[MAX_LINES];
+    private final SubtitleCue[] active = new SubtitleCue[QUERY_CAPACITY];   // 查询结果（复用）
+    private final SubtitleCue[] shown = new SubtitleCue[QUERY_CAPACITY];    // 正在显示的字幕
+    private int shownCount;                           // 正在显示的字幕数
+    private SubtitleIndex index = SubtitleIndex.EMPTY; // 字幕索引
+    private long validFrom = Long.MAX_VALUE;          // 当前显示内容的有效区间 [validFrom, validUntil)
+    private long validUntil = Long.MIN_VALUE;
+
+    /**
+     * 构造函数
+     */
+    public SubtitleOverlay() {
+        setMouseTransparent(true);
+        setPickOnBounds(false);
+        initBox(bottomBox, bottomLines, Pos.BOTTOM_CENTER);
+        initBox(topBox, topLines, Pos.TOP_CENTER);
+        getChildren().addAll(topBox, bottomBox);
+        // 字号随画面高度变化，只在尺寸变化时重设字体
+        heightProperty().addListener((obs, oldVal, newVal) -> resizeFont(newVal.doubleValue()));
+        widthProperty().addListener((obs, oldVal, newVal) -> resizeFont(getHeight()));
+    }
+
+    private void initBox(VBox box, Text[] lines, Pos alignment) {
+        box.setAlignment(alignment);
+        box.setPickOnBounds(false);
+        StackPane.setAlignment(box, alignment);
+        for (int i = 0; i < lines.length; i++) {
+            Text line = new Text();
+            line.getStyleClass().add("subtitle-text");
+            line.setTextAlignment(TextAlignment.CENTER);
+            line.setVisible(false);
+            line.setManaged(false);
+            lines[i] = line;
+            box.getChildren().add(line);
+        }
+    }
+
+    /**
+     * 替换字幕索引（加载过程中会随着解析进度多次调用）
+     * @param index 新索引
+     */
+    public void setIndex(SubtitleIndex index) {
+        this.index = index;
+        invalidate();
+    }
+
+    /**
+     * 清空字幕
+     */
+    public void clear() {
+        setIndex(SubtitleIndex.EMPTY);
+    }
+
+    /**
+     * 按播放位置刷新显示
+     * @param timeMillis 播放位置（毫秒）
+     */
+    public void update(long timeMillis) {
+        if (timeMillis >= validFrom && timeMillis < validUntil) return;
+
+        int count = index.query(timeMillis, active);
+        long until = index.nextStartAfter(timeMillis);
+        for (int i = 0; i < count; i++) until = Math.min(until, active[i].getEndMillis());
+        validFrom = timeMillis;
+        // 结果被截断时无法确定下一次变化的时间，下次继续查询
+        validUntil = count == active.length ? timeMillis + 1 : until;
+
+        if (!sameAsShown(count)) {
+            System.arraycopy(active, 0, shown, 0, count);
+            for (int i = count; i < shownCount; i++) shown[i] = null;
+            shownCount = count;
+            render();
+        }
+        for (int i = 0; i < count; i++) active[i] = null;
+    }
+
+    /**
+     * 使缓存的有效区间失效（跳转或更换索引后调用）
+     */
+    public void invalidate() {
+        validFrom = Long.MAX_VALUE;
+        validUntil = Long.MIN_VALUE;
+    }
+
+    private boolean sameAsShown(int count) {
+        if (count != shownCount) return false;
+        for (int i = 0; i < count; i++) {
+            if (active[i] != shown[i]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * 把正在显示的字幕写入文本节点，文本相同的重叠字幕（卡拉 OK 特效常见）只显示一次
+     */
+    private void render() {
+        int bottom = 0;
+        int top = 0;
+        for (int i = 0; i < shownCount; i++) {
+            SubtitleCue cue = shown[i];
+            if (cue.isTop()) {
+                if (top < MAX_LINES && !contains(topLines, top, cue.getText())) setLine(topLines[top++], cue.getText());
+            } else {
+                if (bottom < MAX_LINES && !contains(bottomLines, bottom, cue.getText())) {
+                    setLine(bottomLines[bottom++], cue.getText());
+                }
+            }
+        }
+        hideFrom(bottomLines, bottom);
+        hideFrom(topLines, top);
+    }
+
+    private static boolean contains(Text[] lines, int count, String text) {
+        for (int i = 0; i < count; i++) {
+            if (lines[i].getText().equals(text)) return true;
+        }
+        return false;
+    }
+
+    private static void setLine(Text line, String text) {
+        line.setText(text);
+        line.setVisible(true);
+        line.setManaged(true);
+    }
+
+    private static void hideFrom(Text[] lines, int from) {
+        for (int i = from; i < lines.length; i++) {
+            if (lines[i].isVisible()) {
+                lines[i].setVisible(false);
+                lines[i].setManaged(false);
+                lines[i].setText("");
+            }
+        }
+    }
+
+    private void resizeFont(double height) {
+        double size = Math.max(16, Math.min(48, height * 0.05));
+        Font font = Font.font(Font.getDefault().getFamily(), FontWeight.BOLD, size);
+        for (Text line : bottomLines) line.setFont(font);
+        for (Text line : topLines) line.setFont(font);
+        double wrap = Math.max(200, getWidth() * 0.9);
+        for (Text line : bottomLines) line.setWrappingWidth(wrap);
+        for (Text line : topLines) line.setWrappingWidth(wrap);
+        bottomBox.setPadding(new Insets(0, 0, height * 0.06, 0));
+        topBox.setPadding(new Insets(height * 0.04, 0, 0, 0));
+    }
+}
@@ -0,0 +1,330 @@
+package com.example;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 流式字幕解析：逐行读取 SRT、WebVTT 和 ASS/SSA，每解析出一条字幕就交给回调，
+ * 不把整个文件读入内存，大文件也能边读边显示
+ * 编码按 BOM 判断，没有 BOM 时先按 UTF-8 校验文件开头，不合法则按 GB18030 读取
+ */
+public class SubtitleParser {
+    public static final List<String> EXTENSIONS = List.of("srt", "vtt", "ass", "ssa"); // 支持的扩展名
+    private static final int SNIFF_BYTES = 64 * 1024;   // 编码检测读取的字节数
+
+    private SubtitleParser() {
+    }
+
+    /**
+     * @param file 文件
+     * @return 是否为支持的字幕文件（按扩展名）
+     */
+    public static boolean isSubtitleFile(File file) {
+        return file.isFile() && EXTENSIONS.contains(extensionOf(file.getName()));
+    }
+
+    /**
+     * 解析字幕文件（阻塞，调用方应在后台线程调用）
+     * @param file 字幕文件
+     * @param sink 每条字幕的回调（在调用线程上调用）
+     * @throws IOException 读取失败
+     */
+    public static void parse(Path file, Consumer<SubtitleCue> sink) throws IOException {
+        Charset charset = detectCharset(file);
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(Files.newInputStream(file), charset), 64 * 1024)) {
+            reader.mark(1);
+            if (reader.read() != '\uFEFF') reader.reset();  // 跳过 BOM
+
+            String extension = extensionOf(file.getFileName().toString());
+            if (extension.equals("ass") || extension.equals("ssa")) {
+                parseAss(reader, sink);
+            } else if (extension.equals("vtt")) {
+                parseTimedBlocks(reader, sink, true);
+            } else {
+                parseTimedBlocks(reader, sink, false);
+            }
+        }
+    }
+
+    /**
+     * SRT 与 WebVTT：以空行分隔的块，块中含 "-->" 的行是时间行，其后直到空行都是文本
+     * 序号行和 WebVTT 的 NOTE/STYLE/REGION 块都会被跳过
+     */
+    private static void parseTimedBlocks(BufferedReader reader, Consumer<SubtitleCue> sink, boolean vtt)
+            throws IOException {
+        StringBuilder text = new StringBuilder();
+        long start = -1;
+        long end = -1;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                emit(sink, start, end, text, false);
+                start = -1;
+                continue;
+            }
+            int arrow = line.indexOf("-->");
+            if (start < 0 && arrow >= 0) {
+                start = parseTime(line.substring(0, arrow));
+                end = parseTime(firstToken(line.substring(arrow + 3)));
+                text.setLength(0);
+                if (start < 0 || end < 0) start = -1;
+            } else if (start >= 0) {
+                if (text.length() > 0) text.append('\n');
+                appendWithoutTags(text, line, vtt);
+            }
+        }
+        emit(sink, start, end, text, false);
+    }
+
+    /**
+     * ASS/SSA：读取 [V4+ Styles] 中各样式的对齐方式，按 [Events] 的 Format 行解析 Dialogue 行
+     */
+    private static void parseAss(BufferedReader reader, Consumer<SubtitleCue> sink) throws IOException {
+        String section = "";
+        boolean legacyAlignment = false;          // SSA（V4 Styles）使用旧的对齐编号
+        Map<String, Boolean> topStyles = new HashMap<>();
+        String[] styleFormat = null;
+        String[] eventFormat = null;
+        StringBuilder text = new StringBuilder();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith(";")) continue;
+            if (line.startsWith("[")) {
+                section = line.toLowerCase(Locale.ROOT);
+                legacyAlignment |= section.equals("[v4 styles]");
+                continue;
+            }
+            int colon = line.indexOf(':');
+            if (colon < 0) continue;
+            String key = line.substring(0, colon).trim();
+            String value = line.substring(colon + 1).trim();
+
+            if (section.endsWith("styles]")) {
+                if (key.equals("Format")) {
+                    styleFormat = splitFields(value, Integer.MAX_VALUE);
+                } else if (key.equals("Style") && styleFormat != null) {
+                    String[] fields = splitFields(value, styleFormat.length);
+                    String name = field(fields, styleFormat, "Name");
+                    int alignment = parseInt(field(fields, styleFormat, "Alignment"));
+                    if (name != null) {
+                        topStyles.put(name, legacyAlignment ? alignment >= 5 && alignment <= 7 : alignment >= 7);
+                    }
+                }
+            } else if (section.equals("[events]")) {
+                if (key.equals("Format")) {
+                    eventFormat = splitFields(value, Integer.MAX_VALUE);
+                } else if (key.equals("Dialogue") && eventFormat != null) {
+                    // 最后一个字段是文本，可能包含逗号
+                    String[] fields = splitFields(value, eventFormat.length);
+                    long start = parseTime(field(fields, eventFormat, "Start"));
+                    long end = parseTime(field(fields, eventFormat, "End"));
+                    String raw = field(fields, eventFormat, "Text");
+                    if (start < 0 || end < 0 || raw == null) continue;
+                    String style = field(fields, eventFormat, "Style");
+                    boolean top = style != null && topStyles.getOrDefault(style.replace("*", ""), false);
+                    text.setLength(0);
+                    int override = appendAssText(text, raw);
+                    if (override != 0) top = override > 0;
+                    emit(sink, start, end, text, top);
+                }
+            }
+        }
+    }
+
+    /**
+     * 去掉 ASS 覆盖标签 {...} 并转换 \N、\n、\h，跳过 \p 绘图指令
+     * @return 标签中的对齐方式：1 顶部，-1 底部或居中，0 未指定
+     */
+    private static int appendAssText(StringBuilder out, String raw) {
+        int alignment = 0;
+        boolean drawing = false;
+        int length = raw.length();
+        for (int i = 0; i < length; i++) {
+            char c = raw.charAt(i);
+            if (c == '{') {
+                int close = raw.indexOf('}', i);
+                if (close < 0) break;
+                for (int j = raw.indexOf('\\', i); j >= 0 && j < close; j = raw.indexOf('\\', j + 1)) {
+                    if (raw.startsWith("\\an", j) && j + 3 < close) {
+                        alignment = raw.charAt(j + 3) >= '7' ? 1 : -1;
+                    } else if (raw.startsWith("\\a", j) && j + 2 < close && Character.isDigit(raw.charAt(j + 2))) {
+                        int legacy = 0;
+                        for (int k = j + 2; k < close && k < j + 4 && Character.isDigit(raw.charAt(k)); k++) {
+                            legacy = legacy * 10 + (raw.charAt(k) - '0');
+                        }
+                        alignment = legacy >= 5 && legacy <= 7 ? 1 : -1;
+                    } else if (raw.startsWith("\\p", j) && j + 2 < close && Character.isDigit(raw.charAt(j + 2))) {
+                        drawing = raw.charAt(j + 2) != '0';
+                    }
+                }
+                i = close;
+            } else if (c == '\\' && i + 1 < length && !drawing) {
+                char next = raw.charAt(i + 1);
+                if (next == 'N' || next == 'n') {
+                    out.append('\n');
+                    i++;
+                } else if (next == 'h') {
+                    out.append(' ');
+                    i++;
+                } else {
+                    out.append(c);
+                }
+            } else if (!drawing) {
+                out.append(c);
+            }
+        }
+        return alignment;
+    }
+
+    /**
+     * 去掉 HTML/WebVTT 标签（以及部分 SRT 中混用的 ASS 标签），WebVTT 还需解码实体
+     */
+    private static void appendWithoutTags(StringBuilder out, String line, boolean vtt) {
+        int length = line.length();
+        for (int i = 0; i < length; i++) {
+            char c = line.charAt(i);
+            int close;
+            if (c == '<' && (close = line.indexOf('>', i)) > 0) {
+                i = close;
+            } else if (c == '{' && i + 1 < length && line.charAt(i + 1) == '\\'
+                    && (close = line.indexOf('}', i)) > 0) {
+                i = close;
+            } else if (vtt && c == '&') {
+                int semicolon = line.indexOf(';', i);
+                String entity = semicolon > i ? line.substring(i, semicolon + 1) : "";
+                switch (entity) {
+                    case "&amp;": out.append('&'); break;
+                    case "&lt;": out.append('<'); break;
+                    case "&gt;": out.append('>'); break;
+                    case "&nbsp;": out.append(' '); break;
+                    default: out.append(c); continue;
+                }
+                i = semicolon;
+            } else {
+                out.append(c);
+            }
+        }
+    }
+
+    private static void emit(Consumer<SubtitleCue> sink, long start, long end, StringBuilder text, boolean top) {
+        if (start < 0 || end <= start) return;
+        String value = text.toString().strip();
+        if (!value.isEmpty()) sink.accept(new SubtitleCue(start, end, value, top));
+    }
+
+    /**
+     * 解析时间：支持 hh:mm:ss,mmm（SRT）、[hh:]mm:ss.mmm（WebVTT）和 h:mm:ss.cc（ASS）
+     * @param value 时间文本
+     * @return 毫秒数，格式错误时返回 -1
+     */
+    static long parseTime(String value) {
+        if (value == null) return -1;
+        String s = value.trim();
+        long total = 0;
+        long current = 0;
+        long millis = 0;
+        int fractionDigits = -1;
+        boolean digits = false;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits = true;
+                if (fractionDigits < 0) {
+                    current = current * 10 + (c - '0');
+                } else if (fractionDigits++ < 3) {
+                    millis = millis * 10 + (c - '0');
+                }
+            } else if (c == ':' && fractionDigits < 0) {
+                total = (total + current) * 60;
+                current = 0;
+            } else if ((c == ',' || c == '.') && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else {
+                return -1;
+            }
+        }
+        if (!digits) return -1;
+        if (fractionDigits == 1) millis *= 100;
+        if (fractionDigits == 2) millis *= 10;
+        return (total + current) * 1000 + millis;
+    }
+
+    /**
+     * 按逗号切分，最多切成 limit 段（最后一段保留其余内容）
+     */
+    private static String[] splitFields(String value, int limit) {
+        String[] fields = value.split(",", limit);
+        for (int i = 0; i < fields.length; i++) {
+            if (i < fields.length - 1 || limit == Integer.MAX_VALUE) fields[i] = fields[i].trim();
+        }
+        return fields;
+    }
+
+    private static String field(String[] fields, String[] format, String name) {
+        for (int i = 0; i < format.length && i < fields.length; i++) {
+            if (format[i].equalsIgnoreCase(name)) return fields[i];
+        }
+        return null;
+    }
+
+    private static int parseInt(String value) {
+        try {
+            return value == null ? 0 : Integer.parseInt(value.trim());
+        } catch (NumberFormatException ex) {
+            return 0;
+        }
+    }
+
+    private static String firstToken(String value) {
+        String trimmed = value.trim();
+        int space = 0;
+        while (space < trimmed.length() && !Character.isWhitespace(trimmed.charAt(space))) space++;
+        return trimmed.substring(0, space);
+    }
+
+    private static String extensionOf(String name) {
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? "" : name.substring(dot + 1).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 检测文本编码：BOM 优先，否则校验开头是否为合法 UTF-8，不合法时视为 GB18030（兼容 GBK）
+     */
+    private static Charset detectCharset(Path file) throws IOException {
+        byte[] head;
+        try (InputStream in = Files.newInputStream(file)) {
+            head = in.readNBytes(SNIFF_BYTES);
+        }
+        if (head.length >= 3 && (head[0] & 0xFF) == 0xEF && (head[1] & 0xFF) == 0xBB && (head[2] & 0xFF) == 0xBF) {
+            return StandardCharsets.UTF_8;
+        }
+        if (head.length >= 2 && (head[0] & 0xFF) == 0xFF && (head[1] & 0xFF) == 0xFE) return StandardCharsets.UTF_16LE;
+        if (head.length >= 2 && (head[0] & 0xFF) == 0xFE && (head[1] & 0xFF) == 0xFF) return StandardCharsets.UTF_16BE;
+
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        CoderResult result = decoder.decode(ByteBuffer.wrap(head), CharBuffer.allocate(head.length), false);
+        // 读取上限可能截断在多字节字符中间，这种情况 decode 返回 UNDERFLOW 而不是错误
+        return result.isError() ? Charset.forName("GB18030") : StandardCharsets.UTF_8;
+    }
+}
@@ -0,0 +1,105 @@
+package com.example;
+
+// 导入JavaFX和相关库
+import javafx.collections.ObservableList;
+import javafx.scene.Scene;
+import java.net.URL;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * 主题管理：每个场景加载基础样式表 base.css 和一个主题样式表，
+ * 基础样式表负责布局与 :hover/:pressed 等状态，主题样式表只定义颜色变量
+ * 切换主题时只替换各场景中的主题样式表 URL，JavaFX 按 URL 缓存解析结果，切换回已用过的主题不会重新解析
+ * 所有方法都在 JavaFX 应用线程调用
+ */
+public class ThemeManager {
+    public static final String DEFAULT_THEME = "dark";          // 默认主题
+    private static final String BASE_STYLESHEET = "/themes/base.css";
+
+    // 主题 ID -> 显示名称（保持菜单顺序）
+    private static final Map<String, String> THEMES = new LinkedHashMap<>();
+
+    static {
+        THEMES.put("dark", "暗黑主题");
+        THEMES.put("light", "浅色主题");
+        THEMES.put("green", "护眼模式");
+    }
+
+    private static ThemeManager instance;                        // 全局实例
+
+    private final Map<String, String> urls = new HashMap<>();   // 主题 ID -> 样式表 URL（解析一次后缓存）
+    private final Set<Scene> scenes = Collections.newSetFromMap(new WeakHashMap<>()); // 已应用主题的场景
+    private final String baseUrl = resolve(BASE_STYLESHEET);    // 基础样式表 URL
+    private String currentUrl;                                   // 当前主题样式表 URL
+
+    private ThemeManager() {
+        SettingsStore settings = SettingsStore.getInstance();
+        currentUrl = urlOf(settings.current().getTheme());
+        settings.addListener(s -> setTheme(s.getTheme()));
+    }
+
+    /**
+     * @return 全局主题管理器（首次调用时读取设置中的主题）
+     */
+    public static ThemeManager getInstance() {
+        if (instance == null) instance = new ThemeManager();
+        return instance;
+    }
+
+    /**
+     * @return 主题 ID 到显示名称的映射（按显示顺序）
+     */
+    public static Map<String, String> themes() {
+        return Collections.unmodifiableMap(THEMES);
+    }
+
+    /**
+     * 为场景加载基础样式表和当前主题，之后切换主题时自动更新
+     * @param scene 场景
+     */
+    public void apply(Scene scene) {
+        ObservableList<String> sheets = scene.getStylesheets();
+        if (baseUrl != null && !sheets.contains(baseUrl)) sheets.add(baseUrl);
+        if (currentUrl != null && !sheets.contains(currentUrl)) sheets.add(currentUrl);
+        scenes.add(scene);
+    }
+
+    /**
+     * 切换主题：每个场景只替换一条主题样式表
+     * @param themeId 主题 ID，未知时使用默认主题
+     */
+    public void setTheme(String themeId) {
+        String url = urlOf(themeId);
+        if (url == null || url.equals(currentUrl)) return;
+        String oldUrl = currentUrl;
+        currentUrl = url;
+        for (Scene scene : scenes) {
+            ObservableList<String> sheets = scene.getStylesheets();
+            int index = sheets.indexOf(oldUrl);
+            if (index >= 0) {
+                sheets.set(index, url);
+            } else {
+                sheets.add(url);
+            }
+        }
+    }
+
+    private String urlOf(String themeId) {
+        String id = THEMES.containsKey(themeId) ? themeId : DEFAULT_THEME;
+        return urls.computeIfAbsent(id, key -> resolve("/themes/" + key + ".css"));
+    }
+
+    private static String resolve(String path) {
+        URL url = ThemeManager.class.getResource(path);
+        if (url == null) {
+            System.err.println("主题样式表加载失败: " + path);
+            return null;
+        }
+        return url.toExternalForm();
+    }
+}
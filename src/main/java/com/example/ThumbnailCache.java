@@ -0,0 +1,311 @@
+package com.example;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntConsumer;
+
+/**
+ * 预览缩略图缓存：内存中是按字节数限制大小的 LRU，缩略图以 RGB565 格式保存，
+ * 同时按文件落盘到 ~/.dogplayer/thumbs，再次打开同一视频时直接从磁盘读取
+ * 内存未命中时在磁盘线程中读取，读完后通知调用方，界面线程从不等待磁盘；
+ * 磁盘缓存目录按最近使用时间限制总大小（系统属性 dogplayer.thumbs.cache.mb，默认 256）
+ */
+public class ThumbnailCache {
+    public static final int THUMB_WIDTH = 160;                 // 缩略图宽度
+    private static final int MAGIC = 0x44505448;                // "DPTH"
+    private static final int VERSION = 1;                       // 磁盘格式版本
+    private static final int HEADER_BYTES = 20;                 // 文件头字节数
+    private static final int ABSENT = 0;                        // 磁盘上没有该缩略图
+    private static final int ON_DISK = 1;                       // 磁盘上已有该缩略图
+    private static final int LOADING = 2;                       // 正在从磁盘读入内存
+    private static final long DISK_MAX_BYTES =
+            Long.getLong("dogplayer.thumbs.cache.mb", 256) * 1024 * 1024; // 磁盘缓存目录上限
+
+    private final long maxBytes;                                // 内存缓存上限（字节）
+    private long usedBytes = 0;                                 // 已使用字节数
+    private final LinkedHashMap<Long, short[]> entries = new LinkedHashMap<>(256, 0.75f, true); // LRU 表
+    private final AtomicInteger nextSlot = new AtomicInteger(); // 文件槽位编号
+    private final ExecutorService diskExecutor =
+            Executors.newSingleThreadExecutor(new DaemonThreadFactory("thumb-disk")); // 磁盘读写线程
+    private final Set<Path> openPaths = ConcurrentHashMap.newKeySet(); // 正在使用的缓存文件（清理时跳过）
+
+    /**
+     * 构造函数
+     * @param maxBytes 内存缓存上限（字节）
+     */
+    public ThumbnailCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * 打开某个视频的缩略图存储，磁盘上已有且参数一致的缓存会被复用
+     * 会访问磁盘，调用方应在后台线程调用
+     * @param videoFile 视频文件
+     * @param intervalMillis 缩略图间隔（毫秒）
+     * @param count 缩略图数量
+     * @param height 缩略图高度（宽度固定为 THUMB_WIDTH）
+     * @return 存储句柄
+     * @throws IOException 磁盘缓存无法打开
+     */
+    public Store open(File videoFile, int intervalMillis, int count, int height) throws IOException {
+        Path dir = AppPaths.dir("thumbs");
+        Path path = dir.resolve(AppPaths.cacheKey(videoFile) + ".thm");
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        channel.read(header, 0);
+        header.flip();
+        boolean reusable = header.remaining() == HEADER_BYTES
+                && header.getInt() == MAGIC && header.getInt() == VERSION
+                && header.getInt() == intervalMillis && header.getInt() == count
+                && header.getShort() == THUMB_WIDTH && header.getShort() == height;
+        if (!reusable) {
+            // 参数不一致，重新初始化文件
+            channel.truncate(0);
+            header.clear();
+            header.putInt(MAGIC).putInt(VERSION).putInt(intervalMillis).putInt(count)
+                    .putShort((short) THUMB_WIDTH).putShort((short) height).flip();
+            channel.write(header, 0);
+            channel.write(ByteBuffer.allocate(count), HEADER_BYTES); // 存在标记全部清零
+        }
+        byte[] flags = new byte[count];
+        channel.read(ByteBuffer.wrap(flags), HEADER_BYTES);
+        AtomicIntegerArray present = new AtomicIntegerArray(count);
+        for (int i = 0; i < count; i++) {
+            if (flags[i] != 0) present.set(i, ON_DISK);
+        }
+
+        // 修改时间记录最近使用时间，之后在后台清理最久未使用的缓存文件
+        Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+        openPaths.add(path);
+        diskExecutor.execute(() -> AppPaths.trimCache(dir, DISK_MAX_BYTES, openPaths));
+        return new Store(nextSlot.incrementAndGet(), path, channel, intervalMillis, count, height, present);
+    }
+
+    /**
+     * 放入内存缓存，超出上限时淘汰最久未使用的条目
+     */
+    private synchronized void putMemory(long key, short[] pixels) {
+        short[] previous = entries.put(key, pixels);
+        if (previous != null) usedBytes -= previous.length * 2L;
+        usedBytes += pixels.length * 2L;
+        Iterator<Map.Entry<Long, short[]>> it = entries.entrySet().iterator();
+        while (usedBytes > maxBytes && it.hasNext()) {
+            usedBytes -= it.next().getValue().length * 2L;
+            it.remove();
+        }
+    }
+
+    private synchronized short[] getMemory(long key) {
+        return entries.get(key);
+    }
+
+    private synchronized void removeSlot(int slot) {
+        Iterator<Map.Entry<Long, short[]>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, short[]> entry = it.next();
+            if ((int) (entry.getKey() >>> 32) == slot) {
+                usedBytes -= entry.getValue().length * 2L;
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * 单个视频的缩略图存储
+     */
+    public final class Store {
+        private final int slot;            // 在内存缓存中的槽位
+        private final Path path;           // 磁盘缓存文件路径
+        private final FileChannel channel; // 磁盘缓存文件
+        private final int intervalMillis;  // 缩略图间隔
+        private final int count;           // 缩略图数量
+        private final int height;          // 缩略图高度
+        private final AtomicIntegerArray present; // 各缩略图的磁盘状态（ABSENT/ON_DISK/LOADING，由磁盘线程更新）
+        private volatile IntConsumer onLoaded;    // 从磁盘读入内存后的回调（磁盘线程）
+        private volatile boolean closed = false;
+
+        private Store(int slot, Path path, FileChannel channel, int intervalMillis, int count, int height,
+                      AtomicIntegerArray present) {
+            this.slot = slot;
+            this.path = path;
+            this.channel = channel;
+            this.intervalMillis = intervalMillis;
+            this.count = count;
+            this.height = height;
+            this.present = present;
+        }
+
+        public int getIntervalMillis() {
+            return intervalMillis;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public int getWidth() {
+            return THUMB_WIDTH;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+
+        /**
+         * @param index 缩略图序号
+         * @return 磁盘或内存中是否已有该缩略图
+         */
+        public boolean contains(int index) {
+            return present.get(index) != ABSENT;
+        }
+
+        /**
+         * 设置从磁盘读入缩略图后的回调，在磁盘线程调用
+         * @param onLoaded 回调，参数为缩略图序号
+         */
+        public void setOnLoaded(IntConsumer onLoaded) {
+            this.onLoaded = onLoaded;
+        }
+
+        /**
+         * 根据时间定位缩略图序号
+         * @param millis 时间（毫秒）
+         * @return 序号
+         */
+        public int indexOf(long millis) {
+            int index = (int) (millis / intervalMillis);
+            return index < 0 ? 0 : Math.min(index, count - 1);
+        }
+
+        /**
+         * 读取缩略图：只查内存，不阻塞；内存未命中而磁盘上有时在磁盘线程读入，完成后调用 onLoaded
+         * @param index 序号
+         * @return RGB565 像素，不在内存中时返回 null
+         */
+        public short[] get(int index) {
+            if (closed) return null;
+            short[] pixels = getMemory(key(index));
+            if (pixels == null && present.compareAndSet(index, ON_DISK, LOADING)) {
+                diskExecutor.execute(() -> loadRecord(index));
+            }
+            return pixels;
+        }
+
+        /**
+         * 保存缩略图：立即放入内存，并在后台写入磁盘
+         * @param index 序号
+         * @param pixels RGB565 像素（THUMB_WIDTH * height）
+         */
+        public void put(int index, short[] pixels) {
+            if (closed) return;
+            putMemory(key(index), pixels);
+            diskExecutor.execute(() -> writeRecord(index, pixels));
+        }
+
+        /**
+         * 关闭存储，释放内存中的条目和文件句柄
+         */
+        public void close() {
+            closed = true;
+            onLoaded = null;
+            removeSlot(slot);
+            diskExecutor.execute(() -> {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                    // 关闭失败不影响使用
+                }
+                openPaths.remove(path);
+            });
+        }
+
+        private long key(int index) {
+            return ((long) slot << 32) | index;
+        }
+
+        /**
+         * 从磁盘读入一条记录放入内存并通知调用方（磁盘线程）
+         */
+        private void loadRecord(int index) {
+            if (closed) return;
+            int recordBytes = THUMB_WIDTH * height * 2;
+            ByteBuffer buffer = ByteBuffer.allocate(recordBytes).order(ByteOrder.LITTLE_ENDIAN);
+            try {
+                long position = (long) HEADER_BYTES + count + (long) index * recordBytes;
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, position + buffer.position()) < 0) {
+                        present.set(index, ABSENT);  // 记录不完整，之后重新生成
+                        return;
+                    }
+                }
+            } catch (IOException ex) {
+                present.set(index, ON_DISK);
+                return;
+            }
+            buffer.flip();
+            short[] pixels = new short[THUMB_WIDTH * height];
+            buffer.asShortBuffer().get(pixels);
+            putMemory(key(index), pixels);
+            present.set(index, ON_DISK);
+            IntConsumer callback = onLoaded;
+            if (callback != null && !closed) callback.accept(index);
+        }
+
+        /**
+         * 写入一条记录并设置存在标记（磁盘线程）
+         */
+        private void writeRecord(int index, short[] pixels) {
+            if (closed) return;
+            int recordBytes = THUMB_WIDTH * height * 2;
+            ByteBuffer buffer = ByteBuffer.allocate(recordBytes).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.asShortBuffer().put(pixels);
+            try {
+                long position = (long) HEADER_BYTES + count + (long) index * recordBytes;
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer, position + buffer.position());
+                }
+                channel.write(ByteBuffer.wrap(new byte[] { 1 }), HEADER_BYTES + index);
+                present.set(index, ON_DISK);
+            } catch (IOException ex) {
+                System.err.println("缩略图缓存写入失败: " + ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * ARGB 转 RGB565
+     * @param argb ARGB 像素
+     * @return RGB565 像素
+     */
+    public static short toRgb565(int argb) {
+        return (short) (((argb >> 8) & 0xF800) | ((argb >> 5) & 0x07E0) | ((argb >> 3) & 0x001F));
+    }
+
+    /**
+     * RGB565 转不透明 ARGB
+     * @param rgb565 RGB565 像素
+     * @return ARGB 像素
+     */
+    public static int toArgb(short rgb565) {
+        int v = rgb565 & 0xFFFF;
+        int r = (v >> 11) & 0x1F, g = (v >> 5) & 0x3F, b = v & 0x1F;
+        return 0xFF000000 | ((r << 3 | r >> 2) << 16) | ((g << 2 | g >> 4) << 8) | (b << 3 | b >> 2);
+    }
+}
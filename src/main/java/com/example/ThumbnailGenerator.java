@@ -0,0 +1,222 @@
+package com.example;
+
+// 导入JavaFX和相关库
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelReader;
+import javafx.scene.image.WritableImage;
+import javafx.scene.media.Media;
+import javafx.scene.media.MediaException;
+import javafx.scene.media.MediaPlayer;
+import javafx.scene.media.MediaView;
+import javafx.scene.paint.Color;
+import javafx.util.Duration;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * 预览缩略图生成器：用一个静音的离屏播放器按固定间隔定位并对 MediaView 截图，
+ * 缩小后以 RGB565 存入 ThumbnailCache。磁盘上已有的缩略图会被跳过
+ * 公共方法都在 JavaFX 应用线程调用
+ */
+public class ThumbnailGenerator {
+    private static final int MIN_INTERVAL_MILLIS = 5_000;  // 最小间隔
+    private static final int MAX_COUNT = 400;              // 单个视频最多生成的缩略图数
+    private static final Duration SETTLE_DELAY = Duration.millis(120); // 定位后等待画面刷新的时间
+
+    private final ThumbnailCache cache;                    // 缩略图缓存
+    private final ExecutorService executor =
+            Executors.newSingleThreadExecutor(new DaemonThreadFactory("thumb-gen")); // 后台线程
+    private final PauseTransition settle = new PauseTransition(SETTLE_DELAY); // 复用的等待计时器
+    private final SnapshotParameters snapshotParams = new SnapshotParameters(); // 截图参数
+    private long session = 0;                  // 当前生成会话编号
+    private ThumbnailCache.Store store;        // 当前视频的缩略图存储
+    private MediaPlayer player;                // 离屏播放器
+    private HlsRemuxer remuxer;                // 离屏播放器借用的转封装会话，没有时为 null
+    private MediaView view;                    // 离屏媒体视图
+    private WritableImage snapshot;            // 复用的截图缓冲
+    private int[] argb;                        // 复用的像素缓冲
+    private int index;                         // 下一张缩略图序号
+
+    /**
+     * 构造函数
+     * @param cache 缩略图缓存
+     */
+    public ThumbnailGenerator(ThumbnailCache cache) {
+        this.cache = cache;
+        snapshotParams.setFill(Color.BLACK);
+        settle.setOnFinished(e -> capture());
+    }
+
+    /**
+     * 开始为视频生成缩略图，会先停止之前的任务
+     * @param file 视频文件
+     * @param durationMillis 视频时长
+     * @param videoWidth 视频宽度
+     * @param videoHeight 视频高度
+     * @param onStore 存储打开后的回调（JavaFX 应用线程），可立即用于显示已缓存的缩略图
+     */
+    public void start(File file, long durationMillis, int videoWidth, int videoHeight,
+                      Consumer<ThumbnailCache.Store> onStore) {
+        stop();
+        if (durationMillis <= 0 || videoWidth <= 0 || videoHeight <= 0) return;
+        long mySession = session;
+        int interval = (int) Math.max(MIN_INTERVAL_MILLIS, durationMillis / MAX_COUNT);
+        int count = (int) Math.max(1, (durationMillis + interval - 1) / interval);
+        int height = Math.max(1, Math.round((float) ThumbnailCache.THUMB_WIDTH * videoHeight / videoWidth));
+
+        executor.execute(() -> {
+            ThumbnailCache.Store opened;
+            try {
+                opened = cache.open(file, interval, count, height);
+            } catch (IOException ex) {
+                System.err.println("缩略图缓存打开失败: " + ex.getMessage());
+                return;
+            }
+            // 磁盘缓存已完整时无需再创建离屏播放器
+            MediaPlayer offscreen = null;
+            HlsRemuxer shared = null;
+            if (firstMissing(opened, 0) < count) {
+                // 与主播放器取同样的地址：转封装的文件借用它的会话，网络文件经代理的分块缓存读取
+                shared = MediaProxyServer.retainRemux(file);
+                String uri = shared != null ? MediaProxyServer.remuxUri(shared) : MediaProxyServer.mediaUri(file);
+                try {
+                    if (uri == null) throw new IllegalArgumentException("代理不可用");
+                    offscreen = new MediaPlayer(new Media(uri));
+                    offscreen.setMute(true);
+                    PlayerMetrics.getInstance().playerCreated();
+                } catch (MediaException | IllegalArgumentException | UnsupportedOperationException ex) {
+                    System.err.println("缩略图播放器创建失败: " + ex.getMessage());
+                    MediaProxyServer.releaseRemux(shared);
+                    shared = null;
+                }
+            }
+            MediaPlayer created = offscreen;
+            HlsRemuxer createdRemuxer = shared;
+            Platform.runLater(() -> {
+                if (session != mySession) {
+                    opened.close();
+                    if (created != null) disposeAsync(created, createdRemuxer);
+                    return;
+                }
+                store = opened;
+                onStore.accept(opened);
+                if (created != null) begin(created, createdRemuxer);
+            });
+        });
+    }
+
+    /**
+     * 停止当前任务并释放离屏播放器（已生成的缩略图保留在磁盘上）
+     */
+    public void stop() {
+        session++;
+        settle.stop();
+        if (player != null) {
+            disposeAsync(player, remuxer);
+            player = null;
+            remuxer = null;
+        }
+        view = null;
+        if (store != null) {
+            store.close();
+            store = null;
+        }
+    }
+
+    /**
+     * 在后台释放离屏播放器，并归还借用的转封装会话
+     */
+    private void disposeAsync(MediaPlayer offscreen, HlsRemuxer borrowed) {
+        executor.execute(() -> {
+            offscreen.dispose();
+            PlayerMetrics.getInstance().playerDisposed();
+            MediaProxyServer.releaseRemux(borrowed);
+        });
+    }
+
+    /**
+     * 离屏播放器就绪后开始逐张生成
+     */
+    private void begin(MediaPlayer offscreen, HlsRemuxer borrowed) {
+        player = offscreen;
+        remuxer = borrowed;
+        view = new MediaView(offscreen);
+        view.setPreserveRatio(false);
+        view.setFitWidth(store.getWidth());
+        view.setFitHeight(store.getHeight());
+        snapshot = new WritableImage(store.getWidth(), store.getHeight());
+        argb = new int[store.getWidth() * store.getHeight()];
+        index = 0;
+        long mySession = session;
+        AtomicBoolean begun = new AtomicBoolean(false);
+        Runnable onReady = () -> {
+            if (session != mySession || !begun.compareAndSet(false, true)) return;
+            offscreen.pause();
+            next();
+        };
+        offscreen.setOnReady(onReady);
+        offscreen.setOnError(() -> {
+            if (session == mySession) stop();
+        });
+        if (offscreen.getStatus() == MediaPlayer.Status.READY) onReady.run();
+    }
+
+    /**
+     * 定位到下一张缺失的缩略图
+     */
+    private void next() {
+        index = firstMissing(store, index);
+        if (index >= store.getCount()) {
+            // 全部生成完毕，释放离屏播放器但保留存储供预览使用
+            disposeAsync(player, remuxer);
+            player = null;
+            remuxer = null;
+            view = null;
+            return;
+        }
+        // 取每个区间的中点作为代表画面
+        long target = (long) index * store.getIntervalMillis() + store.getIntervalMillis() / 2;
+        player.seek(Duration.millis(target));
+        settle.playFromStart();
+    }
+
+    /**
+     * 截取当前画面，缩小为 RGB565 后存入缓存
+     */
+    private void capture() {
+        if (player == null || store == null) return;
+        int width = store.getWidth();
+        int height = store.getHeight();
+        WritableImage image = view.snapshot(snapshotParams, snapshot);
+        PixelReader reader = image.getPixelReader();
+        int w = Math.min(width, (int) image.getWidth());
+        int h = Math.min(height, (int) image.getHeight());
+        reader.getPixels(0, 0, w, h, PixelFormat.getIntArgbInstance(), argb, 0, width);
+        short[] pixels = new short[width * height];
+        for (int y = 0; y < h; y++) {
+            int row = y * width;
+            for (int x = 0; x < w; x++) {
+                pixels[row + x] = ThumbnailCache.toRgb565(argb[row + x]);
+            }
+        }
+        store.put(index, pixels);
+        index++;
+        next();
+    }
+
+    /**
+     * 从指定位置开始查找第一张缺失的缩略图
+     */
+    private static int firstMissing(ThumbnailCache.Store store, int from) {
+        int i = from;
+        while (i < store.getCount() && store.contains(i)) i++;
+        return i;
+    }
+}
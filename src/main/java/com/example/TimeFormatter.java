@@ -0,0 +1,81 @@
+package com.example;
+
+/**
+ * 时间格式化工具，将毫秒数写入复用的字符缓冲区，避免每次格式化都走 String.format
+ * 非线程安全，每个使用者持有自己的实例
+ */
+public class TimeFormatter {
+    // 复用的字符缓冲区，足够容纳 "HHHHH:MM:SS/HHHHH:MM:SS"
+    private final char[] buffer = new char[48];
+
+    /**
+     * 格式化 "当前/总时长" 文本
+     * @param currentMillis 当前时间（毫秒）
+     * @param totalMillis 总时长（毫秒）
+     * @return 格式化后的字符串
+     */
+    public String format(long currentMillis, long totalMillis) {
+        int pos = append(buffer, 0, currentMillis);
+        buffer[pos++] = '/';
+        pos = append(buffer, pos, totalMillis);
+        return new String(buffer, 0, pos);
+    }
+
+    /**
+     * 格式化单个时间，小时为 0 时输出 MM:SS，否则输出 HH:MM:SS
+     * @param millis 毫秒数
+     * @return 格式化后的时间字符串
+     */
+    public static String formatTime(long millis) {
+        char[] chars = new char[24];
+        return new String(chars, 0, append(chars, 0, millis));
+    }
+
+    /**
+     * 将时间写入字符数组
+     * @param dst 目标数组
+     * @param pos 起始位置
+     * @param millis 毫秒数（负数按 0 处理）
+     * @return 写入后的下一个位置
+     */
+    public static int append(char[] dst, int pos, long millis) {
+        if (millis < 0) millis = 0;
+        long hours = millis / 3600000;
+        int minutes = (int) (millis % 3600000) / 60000;
+        int seconds = (int) ((millis % 60000) / 1000);
+        if (hours > 0) {
+            if (hours < 10) {
+                dst[pos++] = '0';
+                dst[pos++] = (char) ('0' + hours);
+            } else {
+                pos = appendLong(dst, pos, hours);
+            }
+            dst[pos++] = ':';
+        }
+        pos = appendTwoDigits(dst, pos, minutes);
+        dst[pos++] = ':';
+        return appendTwoDigits(dst, pos, seconds);
+    }
+
+    /**
+     * 写入两位数字（不足补零）
+     */
+    private static int appendTwoDigits(char[] dst, int pos, int value) {
+        dst[pos++] = (char) ('0' + value / 10);
+        dst[pos++] = (char) ('0' + value % 10);
+        return pos;
+    }
+
+    /**
+     * 写入任意位数的非负整数
+     */
+    private static int appendLong(char[] dst, int pos, long value) {
+        int digits = 1;
+        for (long v = value; v >= 10; v /= 10) digits++;
+        for (int i = pos + digits - 1; i >= pos; i--) {
+            dst[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return pos + digits;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example;
+
+/**
+ * 单条轨道的元数据（不可变），由 ContainerProbe 从容器头部解析得到
+ */
+public final class TrackInfo {
+    /**
+     * 轨道类型
+     */
+    public enum Type { VIDEO, AUDIO, SUBTITLE, OTHER }
+
+    private final int id;           // 轨道编号
+    private final Type type;        // 轨道类型
+    private final String codec;     // 编码标识（如 avc1、V_MPEG4/ISO/AVC），未知时为空字符串
+    private final int width;        // 视频宽度，非视频轨道为 0
+    private final int height;       // 视频高度，非视频轨道为 0
+    private final int sampleRate;   // 音频采样率，非音频轨道为 0
+    private final int channels;     // 音频声道数，非音频轨道为 0
+
+    public TrackInfo(int id, Type type, String codec, int width, int height, int sampleRate, int channels) {
+        this.id = id;
+        this.type = type;
+        this.codec = codec == null ? "" : codec;
+        this.width = width;
+        this.height = height;
+        this.sampleRate = sampleRate;
+        this.channels = channels;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getCodec() {
+        return codec;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public int getChannels() {
+        return channels;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        text.append('#').append(id).append(' ').append(type).append(' ').append(codec);
+        if (width > 0) text.append(' ').append(width).append('x').append(height);
+        if (sampleRate > 0) text.append(' ').append(sampleRate).append("Hz");
+        if (channels > 0) text.append(' ').append(channels).append("ch");
+        return text.toString();
+    }
+}
@@ -0,0 +1,344 @@
+package com.example;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * MPEG-TS 复用器，每个实例生成一个 HLS 分段：开头写入 PAT/PMT，H.264 转为带 AUD 的 Annex B（关键帧前插入 SPS/PPS），
+ * AAC 加上 ADTS 头；时间戳为 90kHz，PCR 随视频 PES 发送
+ * 各分段独立生成但可以首尾相接地播放：PAT/PMT 的连续计数器取分段序号，
+ * 音视频 PID 在每段末尾把最后一个 PES 多拆几个包，使包数为 16 的倍数，下一段从 0 开始计数时保持连续
+ */
+class TsMuxer {
+    private static final int PACKET_SIZE = 188;
+    private static final int PID_PAT = 0x0000;
+    private static final int PID_PMT = 0x1000;
+    private static final int PID_VIDEO = 0x0100;
+    private static final int PID_AUDIO = 0x0101;
+    private static final long TIMESTAMP_OFFSET = 126_000;   // 1.4 秒，避免解码时间戳为负
+    private static final long PCR_LEAD = 63_000;            // PCR 比解码时间提前 0.7 秒，给解码缓冲留出余量
+    private static final byte[] START_CODE = { 0, 0, 0, 1 };
+    private static final byte[] ACCESS_UNIT_DELIMITER = { 0, 0, 0, 1, 0x09, (byte) 0xF0 };
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(4 << 20); // 分段数据
+    private final byte[] packet = new byte[PACKET_SIZE];   // 当前 TS 包
+    private final boolean hasVideo;
+    private final boolean hasAudio;
+    private final int lengthSize;                          // NAL 长度前缀字节数
+    private final byte[] parameterSets;                    // Annex B 格式的 SPS/PPS
+    private final byte[] adtsTemplate;                     // ADTS 头模板（帧长度在写入时填充）
+    private final int[] continuity = new int[2];           // 视频、音频 PID 的连续计数器
+    private final Pes[] pending = new Pes[2];              // 每个 PID 尚未写出的最后一个 PES（分段结束时补齐包数）
+
+    /**
+     * 构造函数，立即写入 PAT/PMT
+     * @param segment 分段序号（决定 PAT/PMT 的连续计数器）
+     * @param avcConfig AVCDecoderConfigurationRecord，没有视频时为 null
+     * @param aacConfig AudioSpecificConfig，没有音频时为 null
+     */
+    TsMuxer(int segment, byte[] avcConfig, byte[] aacConfig) {
+        hasVideo = avcConfig != null;
+        hasAudio = aacConfig != null;
+        lengthSize = hasVideo ? (avcConfig[4] & 0x03) + 1 : 4;
+        parameterSets = hasVideo ? parameterSets(avcConfig) : null;
+        adtsTemplate = hasAudio ? adtsTemplate(aacConfig) : null;
+        writePsi(PID_PAT, segment & 0x0F, patSection());
+        writePsi(PID_PMT, segment & 0x0F, pmtSection());
+    }
+
+    /**
+     * 写入一个视频帧
+     * @param dtsMillis 解码时间
+     * @param ptsMillis 显示时间
+     * @param keyframe 是否为关键帧（IDR）
+     * @param avcc AVCC 长度前缀格式的帧数据
+     */
+    void writeVideo(long dtsMillis, long ptsMillis, boolean keyframe, ByteBuffer avcc) {
+        byte[] frame = new byte[avcc.remaining()];
+        avcc.duplicate().get(frame);  // 数据可能是只读的窗口视图
+        ByteArrayOutputStream es = new ByteArrayOutputStream(frame.length + parameterSets.length + 64);
+        es.write(ACCESS_UNIT_DELIMITER, 0, ACCESS_UNIT_DELIMITER.length);
+        if (keyframe) es.write(parameterSets, 0, parameterSets.length);
+        int pos = 0;
+        while (pos + lengthSize < frame.length) {
+            int length = 0;
+            for (int i = 0; i < lengthSize; i++) length = (length << 8) | (frame[pos++] & 0xFF);
+            if (length <= 0 || length > frame.length - pos) break;
+            if ((frame[pos] & 0x1F) != 9) {  // 原有的 AUD 已由上面统一写入
+                es.write(START_CODE, 0, START_CODE.length);
+                es.write(frame, pos, length);
+            }
+            pos += length;
+        }
+        long dts = dtsMillis * 90 + TIMESTAMP_OFFSET;
+        long pts = ptsMillis * 90 + TIMESTAMP_OFFSET;
+        byte[] pes = pes(0xE0, pts, dts, es.toByteArray(), true);
+        queue(0, new Pes(PID_VIDEO, pes, Math.max(0, dts - PCR_LEAD), keyframe));
+    }
+
+    /**
+     * 写入一个 AAC 帧
+     * @param ptsMillis 显示时间
+     * @param raw 不带 ADTS 头的 AAC 帧
+     */
+    void writeAudio(long ptsMillis, ByteBuffer raw) {
+        int length = raw.remaining();
+        byte[] es = new byte[7 + length];
+        System.arraycopy(adtsTemplate, 0, es, 0, 7);
+        int frameLength = es.length;
+        es[3] |= (byte) ((frameLength >> 11) & 0x03);
+        es[4] = (byte) (frameLength >> 3);
+        es[5] |= (byte) ((frameLength & 0x07) << 5);
+        raw.duplicate().get(es, 7, length);
+        long pts = ptsMillis * 90 + TIMESTAMP_OFFSET;
+        // 没有视频时 PCR 随音频发送
+        queue(1, new Pes(PID_AUDIO, pes(0xC0, pts, -1, es, false), hasVideo ? -1 : pts, false));
+    }
+
+    /**
+     * 结束分段：写出各 PID 最后一个 PES 并补齐包数
+     * @return 分段数据
+     */
+    byte[] finish() {
+        for (int i = 0; i < pending.length; i++) {
+            if (pending[i] == null) continue;
+            Pes last = pending[i];
+            pending[i] = null;
+            // 单独成包的字节每多一个，总包数增加 0 或 1，最多几十次即可凑成 16 的倍数
+            int extra = 0;
+            while ((continuity[i] + packetCount(last, last.data.length - extra) + extra) % 16 != 0) extra++;
+            writePes(i, last, extra);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 先写出同一 PID 上一个排队的 PES，再把新的 PES 排队
+     */
+    private void queue(int stream, Pes pes) {
+        if (pending[stream] != null) writePes(stream, pending[stream], 0);
+        pending[stream] = pes;
+    }
+
+    /**
+     * @return PES 的前 length 个字节按常规方式拆分时的包数
+     */
+    private static int packetCount(Pes pes, int length) {
+        int firstCapacity = 184 - adaptationBytes(pes);
+        if (length <= firstCapacity) return 1;
+        return 1 + (length - firstCapacity + 183) / 184;
+    }
+
+    private static int adaptationBytes(Pes pes) {
+        if (pes.pcr < 0 && !pes.randomAccess) return 0;
+        return 2 + (pes.pcr >= 0 ? 6 : 0);
+    }
+
+    /**
+     * 把 PES 拆成 TS 包；extra 大于 0 时最后 extra 个字节各占一个包，用于补齐连续计数器
+     */
+    private void writePes(int stream, Pes pes, int extra) {
+        byte[] data = pes.data;
+        int tail = data.length - extra;
+        int offset = 0;
+        boolean first = true;
+        while (offset < tail) {
+            int capacity = 184 - (first ? adaptationBytes(pes) : 0);
+            int length = Math.min(capacity, tail - offset);
+            writePacket(pes.pid, stream, first, first ? pes.pcr : -1, first && pes.randomAccess, data, offset, length);
+            offset += length;
+            first = false;
+        }
+        for (; offset < data.length; offset++) {
+            writePacket(pes.pid, stream, false, -1, false, data, offset, 1);
+        }
+    }
+
+    /**
+     * 写一个 TS 包，负载不足 184 字节时用适配域填充
+     */
+    private void writePacket(int pid, int stream, boolean unitStart, long pcr, boolean randomAccess,
+                             byte[] data, int offset, int length) {
+        int cc = continuity[stream];
+        continuity[stream] = (cc + 1) & 0x0F;
+        int adaptation = 184 - length;
+        packet[0] = 0x47;
+        packet[1] = (byte) ((unitStart ? 0x40 : 0) | (pid >> 8));
+        packet[2] = (byte) pid;
+        packet[3] = (byte) ((adaptation > 0 ? 0x30 : 0x10) | cc);
+        int pos = 4;
+        if (adaptation > 0) {
+            packet[pos++] = (byte) (adaptation - 1);
+            if (adaptation > 1) {
+                int flags = (randomAccess ? 0x40 : 0) | (pcr >= 0 ? 0x10 : 0);
+                packet[pos++] = (byte) flags;
+                if (pcr >= 0) {
+                    packet[pos++] = (byte) (pcr >> 25);
+                    packet[pos++] = (byte) (pcr >> 17);
+                    packet[pos++] = (byte) (pcr >> 9);
+                    packet[pos++] = (byte) (pcr >> 1);
+                    packet[pos++] = (byte) (((pcr & 1) << 7) | 0x7E);
+                    packet[pos++] = 0;
+                }
+                while (pos < 4 + adaptation) packet[pos++] = (byte) 0xFF;
+            }
+        }
+        System.arraycopy(data, offset, packet, pos, length);
+        out.write(packet, 0, PACKET_SIZE);
+    }
+
+    /**
+     * 写一个只占一个包的 PSI 表
+     */
+    private void writePsi(int pid, int cc, byte[] section) {
+        packet[0] = 0x47;
+        packet[1] = (byte) (0x40 | (pid >> 8));
+        packet[2] = (byte) pid;
+        packet[3] = (byte) (0x10 | cc);
+        packet[4] = 0;  // pointer_field
+        System.arraycopy(section, 0, packet, 5, section.length);
+        for (int i = 5 + section.length; i < PACKET_SIZE; i++) packet[i] = (byte) 0xFF;
+        out.write(packet, 0, PACKET_SIZE);
+    }
+
+    private static byte[] patSection() {
+        byte[] section = {
+                0x00, (byte) 0xB0, 0x0D, 0x00, 0x01, (byte) 0xC1, 0x00, 0x00,
+                0x00, 0x01, (byte) (0xE0 | (PID_PMT >> 8)), (byte) PID_PMT, 0, 0, 0, 0 };
+        return withCrc(section);
+    }
+
+    private byte[] pmtSection() {
+        int streams = (hasVideo ? 1 : 0) + (hasAudio ? 1 : 0);
+        int pcrPid = hasVideo ? PID_VIDEO : PID_AUDIO;
+        int length = 13 + streams * 5;  // section_length：表头 9 字节 + 每个流 5 字节 + CRC 4 字节
+        byte[] section = new byte[3 + length];
+        int pos = 0;
+        section[pos++] = 0x02;
+        section[pos++] = (byte) (0xB0 | (length >> 8));
+        section[pos++] = (byte) length;
+        section[pos++] = 0x00;
+        section[pos++] = 0x01;
+        section[pos++] = (byte) 0xC1;
+        section[pos++] = 0x00;
+        section[pos++] = 0x00;
+        section[pos++] = (byte) (0xE0 | (pcrPid >> 8));
+        section[pos++] = (byte) pcrPid;
+        section[pos++] = (byte) 0xF0;
+        section[pos++] = 0x00;
+        if (hasVideo) pos = streamEntry(section, pos, 0x1B, PID_VIDEO);
+        if (hasAudio) pos = streamEntry(section, pos, 0x0F, PID_AUDIO);
+        return withCrc(section);
+    }
+
+    private static int streamEntry(byte[] section, int pos, int type, int pid) {
+        section[pos++] = (byte) type;
+        section[pos++] = (byte) (0xE0 | (pid >> 8));
+        section[pos++] = (byte) pid;
+        section[pos++] = (byte) 0xF0;
+        section[pos++] = 0x00;
+        return pos;
+    }
+
+    /**
+     * 在表的最后 4 个字节填入 CRC32/MPEG-2
+     */
+    private static byte[] withCrc(byte[] section) {
+        int crc = 0xFFFFFFFF;
+        for (int i = 0; i < section.length - 4; i++) {
+            crc ^= (section[i] & 0xFF) << 24;
+            for (int bit = 0; bit < 8; bit++) crc = (crc << 1) ^ (crc < 0 ? 0x04C11DB7 : 0);
+        }
+        int end = section.length;
+        section[end - 4] = (byte) (crc >>> 24);
+        section[end - 3] = (byte) (crc >>> 16);
+        section[end - 2] = (byte) (crc >>> 8);
+        section[end - 1] = (byte) crc;
+        return section;
+    }
+
+    /**
+     * 组装 PES 包；视频 PES 长度写 0（不限长度）
+     */
+    private static byte[] pes(int streamId, long pts, long dts, byte[] payload, boolean video) {
+        boolean withDts = dts >= 0 && dts != pts;
+        int headerData = withDts ? 10 : 5;
+        byte[] pes = new byte[9 + headerData + payload.length];
+        int packetLength = 3 + headerData + payload.length;
+        pes[2] = 1;
+        pes[3] = (byte) streamId;
+        if (!video && packetLength <= 0xFFFF) {
+            pes[4] = (byte) (packetLength >> 8);
+            pes[5] = (byte) packetLength;
+        }
+        pes[6] = (byte) (video ? 0x84 : 0x80);  // 视频 PES 与访问单元对齐
+        pes[7] = (byte) (withDts ? 0xC0 : 0x80);
+        pes[8] = (byte) headerData;
+        writeTimestamp(pes, 9, withDts ? 0x3 : 0x2, pts);
+        if (withDts) writeTimestamp(pes, 14, 0x1, dts);
+        System.arraycopy(payload, 0, pes, 9 + headerData, payload.length);
+        return pes;
+    }
+
+    private static void writeTimestamp(byte[] out, int pos, int prefix, long ts) {
+        out[pos] = (byte) ((prefix << 4) | (((ts >> 30) & 0x07) << 1) | 1);
+        out[pos + 1] = (byte) (ts >> 22);
+        out[pos + 2] = (byte) ((((ts >> 15) & 0x7F) << 1) | 1);
+        out[pos + 3] = (byte) (ts >> 7);
+        out[pos + 4] = (byte) (((ts & 0x7F) << 1) | 1);
+    }
+
+    /**
+     * 把 avcC 中的 SPS/PPS 转为 Annex B
+     */
+    private static byte[] parameterSets(byte[] avcConfig) {
+        ByteArrayOutputStream sets = new ByteArrayOutputStream();
+        int pos = 5;
+        for (int group = 0; group < 2 && pos < avcConfig.length; group++) {
+            int count = group == 0 ? avcConfig[pos++] & 0x1F : avcConfig[pos++] & 0xFF;
+            for (int i = 0; i < count && pos + 2 <= avcConfig.length; i++) {
+                int length = ((avcConfig[pos] & 0xFF) << 8) | (avcConfig[pos + 1] & 0xFF);
+                pos += 2;
+                if (pos + length > avcConfig.length) break;
+                sets.write(START_CODE, 0, START_CODE.length);
+                sets.write(avcConfig, pos, length);
+                pos += length;
+            }
+        }
+        return sets.toByteArray();
+    }
+
+    /**
+     * 根据 AudioSpecificConfig 生成 ADTS 头模板（HE-AAC 按核心的 LC 参数写入）
+     */
+    private static byte[] adtsTemplate(byte[] config) {
+        int objectType = (config[0] & 0xFF) >>> 3;
+        int rateIndex = ((config[0] & 0x07) << 1) | ((config[1] & 0xFF) >>> 7);
+        int channels = (config[1] >>> 3) & 0x0F;
+        int profile = (objectType == 5 || objectType == 29 || objectType == 0 || objectType > 4) ? 1 : objectType - 1;
+        return new byte[] {
+                (byte) 0xFF, (byte) 0xF1,
+                (byte) ((profile << 6) | ((rateIndex & 0x0F) << 2) | ((channels >> 2) & 0x01)),
+                (byte) ((channels & 0x03) << 6),
+                0,
+                (byte) 0x1F,
+                (byte) 0xFC };
+    }
+
+    /**
+     * 等待拆包的 PES
+     */
+    private static final class Pes {
+        final int pid;
+        final byte[] data;
+        final long pcr;            // 首包携带的 PCR（90kHz），不携带时为 -1
+        final boolean randomAccess;
+
+        Pes(int pid, byte[] data, long pcr, boolean randomAccess) {
+            this.pid = pid;
+            this.data = data;
+            this.pcr = pcr;
+            this.randomAccess = randomAccess;
+        }
+    }
+}
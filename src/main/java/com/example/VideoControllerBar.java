@@ -2,7 +2,6 @@ package com.example;
 
 // 导入JavaFX和相关库
 import javafx.application.Platform;
-import javafx.animation.AnimationTimer;
 import javafx.animation.FadeTransition;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -18,6 +17,7 @@ import javafx.scene.media.MediaView;
 import javafx.stage.Stage;
 import javafx.util.Duration;
 import javafx.scene.Cursor;
+import java.io.File;
 
 /**
  * 视频控制条组件，用于控制视频播放、进度、音量等
@@ -32,9 +32,14 @@ public class VideoControllerBar extends HBox {
     private MediaPlayer mediaPlayer;      // 媒体播放器
     private boolean isDragging = false;  // 进度条拖动状态
     private MediaPlayer.Status statusBeforeDrag; // 拖动前的播放状态
-    private AnimationTimer timer;         // 动画计时器，用于更新进度
-    private FadeTransition fadeTransition; // 淡出动画
-    private long lastMouseMoveTime = System.currentTimeMillis(); // 最后鼠标移动时间
+    private PlaybackClock playbackClock;  // 播放时钟，负责刷新进度和时间
+    private IdleDetector idleDetector;    // 空闲检测器，用于自动隐藏控制条
+    private SeekPreview seekPreview;      // 进度条悬停预览
+    private SeekCoalescer seekCoalescer;  // 拖动时的 seek 合并器
+    private KeyframeIndex keyframeIndex;  // 当前文件的关键帧索引（快速定位用），没有时为 null
+    private File mediaFile;               // 当前播放的文件
+    private FadeTransition fadeTransition; // 淡出动画（复用）
+    private final SettingsStore settings = SettingsStore.getInstance(); // 设置服务
     private Stage stage;                  // 主舞台
     private MediaView mediaView;          // 媒体视图
 
@@ -65,12 +70,25 @@ public class VideoControllerBar extends HBox {
         progressSlider = new Slider(0, 1, 0);
         volumeSlider = new Slider(0, 1, 0.5);
         timeLabel = new Label("00:00/00:00");
+        playbackClock = new PlaybackClock(progressSlider, timeLabel);
+        seekPreview = new SeekPreview(progressSlider);
+        seekCoalescer = new SeekCoalescer(() -> settings.current().getSeekSensitivity());
 
-        // 布局样式设置
+        // 自动隐藏：复用同一个淡出动画，延迟取自 HIDE_DELAY 偏好设置（秒）
+        fadeTransition = new FadeTransition(Duration.millis(1000), this);
+        fadeTransition.setFromValue(1.0);
+        fadeTransition.setToValue(0.0);
+        fadeTransition.setOnFinished(e -> {
+            if (idleDetector.isIdle()) setVisible(false);
+        });
+        idleDetector = new IdleDetector(() -> settings.current().getHideDelaySeconds() * 1000L,
+                this::hideControlBar, this::showControlBar);
+
+        // 布局设置（颜色与悬停状态见 themes/base.css）
         setAlignment(Pos.CENTER);
         setSpacing(15);
         setPadding(new Insets(8));
-        setStyle("-fx-background-color: rgba(0, 0, 0, 0.6); -fx-background-radius: 8;");
+        getStyleClass().add("controller-bar");
 
         // 禁用焦点显示
         playPauseButton.setFocusTraversable(false);
@@ -78,39 +96,27 @@ public class VideoControllerBar extends HBox {
         progressSlider.setFocusTraversable(false);
         volumeSlider.setFocusTraversable(false);
 
-        // 进度条样式
+        // 进度条（悬停时加粗由 :hover 样式完成）
         progressSlider.setMinWidth(200);
-        progressSlider.setMinHeight(4);
-        progressSlider.setStyle("-track-color: rgba(255,255,255,0.3); -thumb-color: #ff4757;"
-                + "-fx-control-inner-background: rgba(255,255,255,0.1);");
+        progressSlider.getStyleClass().add("progress-slider");
         HBox.setHgrow(progressSlider, Priority.ALWAYS);
 
-        // 音量条样式
+        // 音量条
         volumeSlider.setMinWidth(80);
         volumeSlider.setMaxWidth(100);
-        volumeSlider.setStyle("-track-color: rgba(255,255,255,0.3); -thumb-color: #ffffff;");
+        volumeSlider.getStyleClass().add("volume-slider");
 
-        // 时间标签样式
-        timeLabel.setStyle("-fx-text-fill: #dfe4ea; -fx-font-size: 12px;");
+        timeLabel.getStyleClass().add("time-label");
+        playPauseButton.getStyleClass().add("control-button");
+        fullscreenButton.getStyleClass().add("control-button");
 
-        // 按钮通用样式
-        String buttonStyle = "-fx-background-radius: 4; -fx-min-width: 32px; -fx-min-height: 32px;"
-                + "-fx-background-color: transparent; -fx-text-fill: #ffffff; -fx-font-size: 16px;"
-                + "-fx-cursor: hand;";
-        String hoverStyle = "-fx-background-color: rgba(255,255,255,0.1);";
-
-        playPauseButton.setStyle(buttonStyle);
-        fullscreenButton.setStyle(buttonStyle);
-
-        // 添加悬停动画
-        playPauseButton.setOnMouseEntered(e -> playPauseButton.setStyle(buttonStyle + hoverStyle));
-        playPauseButton.setOnMouseExited(e -> playPauseButton.setStyle(buttonStyle));
-        fullscreenButton.setOnMouseEntered(e -> fullscreenButton.setStyle(buttonStyle + hoverStyle));
-        fullscreenButton.setOnMouseExited(e -> fullscreenButton.setStyle(buttonStyle));
+        // 离开进度条时隐藏预览
+        progressSlider.setOnMouseExited(e -> {
+            if (!isDragging) seekPreview.hide();
+        });
 
-        // 进度条悬停互动
-        progressSlider.setOnMouseEntered(e -> progressSlider.setStyle(progressSlider.getStyle() + "-fx-min-height: 6px;"));
-        progressSlider.setOnMouseExited(e -> progressSlider.setStyle(progressSlider.getStyle().replace("-fx-min-height: 6px;", "")));
+        // 进度条悬停预览
+        progressSlider.setOnMouseMoved(e -> seekPreview.show(e));
 
         // 添加控件到布局
         getChildren().addAll(playPauseButton, progressSlider, timeLabel, volumeSlider, fullscreenButton);
@@ -151,123 +157,110 @@ public class VideoControllerBar extends HBox {
                 statusBeforeDrag = mediaPlayer.getStatus();
                 mediaPlayer.pause();
                 isDragging = true;
+                playbackClock.setSuspended(true);
+                scrubTo();
             }
         });
 
+        // 拖动时画面实时跟随：请求交给合并器，只执行最新的位置
         progressSlider.setOnMouseDragged(e -> {
-            if (isDragging) updateTimeDisplay();
+            if (isDragging) {
+                scrubTo();
+                seekPreview.show(e);
+            }
         });
 
         progressSlider.setOnMouseReleased(e -> {
             if (isDragging && mediaPlayer != null) {
-                Duration total = mediaPlayer.getTotalDuration();
-                if (isValidDuration(total)) {
-                    mediaPlayer.seek(Duration.millis((long)(total.toMillis() * progressSlider.getValue())));
+                long totalMillis = playbackClock.getTotalMillis();
+                if (totalMillis > 0) {
+                    seekCoalescer.commit(snapToKeyframe((long) (totalMillis * progressSlider.getValue())));
                 }
                 isDragging = false;
+                playbackClock.setSuspended(false);
+                if (!progressSlider.isHover()) seekPreview.hide();
                 if (statusBeforeDrag == MediaPlayer.Status.PLAYING) mediaPlayer.play();
             }
         });
     }
 
     /**
-     * 绑定媒体播放器，启动计时器更新进度
+     * 绑定媒体播放器，由播放时钟监听进度，并启用空闲检测
      */
     private void bindMediaPlayer() {
-        timer = new AnimationTimer() {
-            @Override
-            public void handle(long now) {
-                if (!isDragging && mediaPlayer.getStatus() == MediaPlayer.Status.PLAYING) {
-                    updateProgress();
-                }
-                if (System.currentTimeMillis() - lastMouseMoveTime > 3000) {
-                    fadeOutControlBar();
-                    // 隐藏鼠标光标
-                    if (stage.getScene() != null) {
-                        stage.getScene().setCursor(Cursor.NONE);
-                    }
-                }
-            }
-        };
-        timer.start();
+        playbackClock.bind(mediaPlayer);
+        seekCoalescer.bind(mediaPlayer);
+        idleDetector.setEnabled(true);
     }
 
     /**
-     * 处理鼠标移动事件
+     * 处理鼠标移动事件，只记录活动并在需要时重新布置空闲计时器
      */
     public void handleMouseMove() {
-        lastMouseMoveTime = System.currentTimeMillis();
-        if (!isVisible()) {
-            setVisible(true);
-            setOpacity(1.0);
-            if (fadeTransition != null) fadeTransition.stop();
-        }
-        // 显示鼠标光标
-        if (stage.getScene() != null) {
-            stage.getScene().setCursor(Cursor.DEFAULT);
-        }
+        idleDetector.activity();
     }
 
     /**
-     * 淡出控制条
+     * 进入空闲：淡出控制条并隐藏鼠标光标（每个空闲周期只触发一次）
      */
-    private void fadeOutControlBar() {
-        if (!isVisible()) return;
-
-        fadeTransition = new FadeTransition(Duration.millis(1000), this);
-        fadeTransition.setFromValue(1.0);
-        fadeTransition.setToValue(0.0);
-        fadeTransition.setOnFinished(e -> setVisible(false));
-        fadeTransition.play();
+    private void hideControlBar() {
+        fadeTransition.playFromStart();
+        if (stage.getScene() != null) {
+            stage.getScene().setCursor(Cursor.NONE);
+        }
     }
 
     /**
-     * 更新进度条和时间标签
+     * 退出空闲：立即显示控制条并恢复鼠标光标
      */
-    private void updateProgress() {
-        Duration current = mediaPlayer.getCurrentTime();
-        Duration total = mediaPlayer.getTotalDuration();
-        if (isValidDuration(total)) {
-            long currentMillis = (long) current.toMillis();
-            long totalMillis = (long) total.toMillis();
-            progressSlider.setValue((double) currentMillis / totalMillis);
-            timeLabel.setText(formatTime(currentMillis) + "/" + formatTime(totalMillis));
+    private void showControlBar() {
+        fadeTransition.stop();
+        setVisible(true);
+        setOpacity(1.0);
+        if (stage.getScene() != null) {
+            stage.getScene().setCursor(Cursor.DEFAULT);
         }
     }
 
     /**
-     * 更新时间显示
+     * 拖动进度条时更新时间显示，并请求跳转到滑块位置
      */
-    private void updateTimeDisplay() {
-        Duration total = mediaPlayer.getTotalDuration();
-        if (isValidDuration(total)) {
-            long totalMillis = (long) total.toMillis();
-            long currentMillis = (long) (totalMillis * progressSlider.getValue());
-            timeLabel.setText(formatTime(currentMillis) + "/" + formatTime(totalMillis));
+    private void scrubTo() {
+        long totalMillis = playbackClock.getTotalMillis();
+        if (totalMillis > 0) {
+            long target = snapToKeyframe((long) (totalMillis * progressSlider.getValue()));
+            playbackClock.showPosition(target);
+            seekCoalescer.request(target);
         }
     }
 
     /**
-     * 检查时间是否有效
-     * @param d 时间对象
-     * @return 是否有效
+     * 相对跳转（方向键），快速定位模式下对齐到跳转方向上最近的关键帧
+     * @param deltaMillis 跳转的时长，负数为后退
      */
-    private boolean isValidDuration(Duration d) {
-        return d != null && d.greaterThan(Duration.ZERO) && !d.isUnknown();
+    public void seekBy(long deltaMillis) {
+        long totalMillis = playbackClock.getTotalMillis();
+        if (mediaPlayer == null || totalMillis <= 0) return;
+        long current = (long) mediaPlayer.getCurrentTime().toMillis();
+        long target = snapToKeyframe(Math.max(0, Math.min(totalMillis, current + deltaMillis)));
+        if (keyframeIndex != null && settings.current().isFastSeek()) {
+            // 对齐后没有朝目标方向移动时，取该方向上的下一个关键帧
+            if (deltaMillis > 0 && target <= current) target = keyframeIndex.next(current);
+            else if (deltaMillis < 0 && target >= current) target = keyframeIndex.previous(current);
+            if (target < 0) return;
+        }
+        seekCoalescer.commit(target);
+        playbackClock.showPosition(target);
     }
 
     /**
-     * 格式化时间
-     * @param millis 毫秒数
-     * @return 格式化后的时间字符串
+     * 快速定位模式下把目标位置对齐到最近的关键帧，解码器无需从前一个关键帧向后解码
+     * @param millis 目标位置（毫秒）
+     * @return 对齐后的位置
      */
-    private String formatTime(long millis) {
-        int hours = (int)(millis / 3600000);
-        int minutes = (int)(millis % 3600000) / 60000;
-        int seconds = (int)((millis % 60000) / 1000);
-        return hours > 0 ?
-                String.format("%02d:%02d:%02d", hours, minutes, seconds) :
-                String.format("%02d:%02d", minutes, seconds);
+    private long snapToKeyframe(long millis) {
+        if (keyframeIndex == null || !settings.current().isFastSeek()) return millis;
+        return keyframeIndex.nearest(millis);
     }
 
     /**
@@ -287,17 +280,48 @@ public class VideoControllerBar extends HBox {
         }
     }
 
+    /**
+     * 开始播放并同步播放按钮状态
+     */
+    public void play() {
+        if (mediaPlayer != null) {
+            mediaPlayer.play();
+            playPauseButton.setSelected(false);
+            playPauseButton.setText("⏸");
+        }
+    }
+
     /**
      * 更新媒体播放器
      * @param mediaPlayer 新的媒体播放器
      */
     public void updateMediaPlayer(MediaPlayer mediaPlayer) {
+        updateMediaPlayer(mediaPlayer, null);
+    }
+
+    /**
+     * 更新媒体播放器，并为对应文件生成进度条预览缩略图
+     * @param mediaPlayer 新的媒体播放器（已就绪）
+     * @param mediaFile 播放器对应的文件，为 null 时不生成缩略图
+     */
+    public void updateMediaPlayer(MediaPlayer mediaPlayer, File mediaFile) {
         this.mediaPlayer = mediaPlayer;
+        this.mediaFile = mediaFile;
+        keyframeIndex = null;
+        seekPreview.attach(mediaFile, mediaPlayer);
+        if (mediaPlayer != null && mediaFile != null) {
+            KeyframeIndex.loadAsync(mediaFile, index -> {
+                if (this.mediaFile == mediaFile) keyframeIndex = index;
+            });
+        }
         if (mediaPlayer != null) {
             volumeSlider.setValue(mediaPlayer.getVolume());
             playPauseButton.setDisable(false);
             bindMediaPlayer();
         } else {
+            seekCoalescer.bind(null);
+            playbackClock.unbind();
+            idleDetector.setEnabled(false);
             playPauseButton.setDisable(true);
             progressSlider.setValue(0);
             timeLabel.setText("00:00/00:00");
@@ -305,9 +329,12 @@ public class VideoControllerBar extends HBox {
     }
 
     /**
-     * 释放资源，停止计时器
+     * 释放资源，停用空闲检测并解除播放时钟绑定
      */
     public void dispose() {
-        if (timer != null) timer.stop();
+        idleDetector.setEnabled(false);
+        seekPreview.detach();
+        seekCoalescer.bind(null);
+        playbackClock.unbind();
     }
 }
\ No newline at end of file
@@ -18,11 +18,14 @@ import javafx.scene.text.Text;
 import javafx.stage.Stage;
 import javafx.util.Duration;
 import javafx.animation.FadeTransition;
-import javafx.scene.media.Media;
+import javafx.animation.PauseTransition;
 import javafx.scene.media.MediaPlayer;
 import javafx.scene.media.MediaView;
 import javafx.scene.paint.Color;
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import javafx.stage.Modality;
 
 /**
@@ -41,6 +44,76 @@ public class VideoPlayerApp extends Application {
     private boolean hasVideoPlaying = false;  // 视频播放状态标志
     private FadeTransition fadeOutTransition; // 菜单栏淡出动画
     private HostServices hostServices;        // 主机服务（用于打开链接等）
+    private MediaLoader mediaLoader;          // 异步媒体加载管线
+    private File currentFile;                 // 当前播放的文件
+    private NextEpisodePreloader nextEpisodePreloader; // 下一集预加载器
+    private MediaLibrary mediaLibrary;        // 媒体库索引
+    private final PlayQueue playQueue = new PlayQueue(); // 播放队列（拖入的批量文件）
+    private final FileBatchProber batchProber = new FileBatchProber(); // 批量文件探测
+    private Stage libraryStage;               // 媒体库窗口（首次打开时创建）
+    private ResumeStore resumeStore;          // 续播位置存储
+    private ResumeTracker resumeTracker;      // 续播位置跟踪
+    private StatsOverlay statsOverlay;        // 性能统计浮层（首次打开时创建）
+    private ContextMenu contextMenu;          // 菜单按钮的弹出菜单（首次点击时创建）
+    private Stage settingsStage;              // 设置窗口（首次打开时创建）
+    private FrameExporter frameExporter;      // 截图与片段导出（首次使用时创建）
+    private Label toastLabel;                 // 画面右上角的短暂提示（首次使用时创建）
+    private PauseTransition toastTimer;       // 提示自动隐藏计时器
+    private SubtitleController subtitles;     // 字幕（首次打开视频时创建）
+    private SpectrumVisualizer visualizer;    // 音频频谱（首次播放纯音频文件时创建）
+    private MultiViewGrid multiView;          // 多画面网格（只在多画面模式下存在）
+    private MediaLoader.Preload startupPreload; // 命令行文件的预加载（与窗口构建并行）
+    private List<File> startupFiles = List.of(); // 命令行传入的其他文件和目录
+    private final PlayerMetrics metrics = PlayerMetrics.getInstance(); // 性能指标
+    private final SettingsStore settings = SettingsStore.getInstance(); // 设置服务
+    private static SingleInstance singleInstance;  // 单实例服务（在 main() 中启动，未启用时为 null）
+
+    /**
+     * 在启动线程上准备加载管线：命令行传入单个文件时（例如在文件管理器中双击视频）
+     * 立即在后台开始解码，与 start() 中的窗口构建并行
+     */
+    @Override
+    public void init() {
+        mediaLoader = new MediaLoader(new MediaLoader.Callback() {
+            @Override
+            public void onLoading(File file) {
+                showLoadingState(file);
+            }
+
+            @Override
+            public void onReady(File file, MediaPlayer player) {
+                attachMediaPlayer(file, player);
+            }
+
+            @Override
+            public void onError(File file, String message) {
+                showLoadError(file, message);
+            }
+        });
+        mediaLoader.execute(metrics::register);  // 注册 JMX 和 JFR 性能指标（启动时不必等待）
+
+        List<File> files = commandLineFiles();
+        if (files.size() == 1 && files.get(0).isFile()) {
+            StartupTrace.expectVideo();
+            startupPreload = mediaLoader.preload(files.get(0), this::adoptStartupPreload);
+        } else {
+            startupFiles = files;
+        }
+    }
+
+    /**
+     * @return 命令行参数中的文件和目录（在 init() 中调用）
+     */
+    private List<File> commandLineFiles() {
+        Parameters parameters = getParameters();
+        if (parameters == null) return List.of();
+        List<File> files = new ArrayList<>();
+        for (String arg : parameters.getUnnamed()) {
+            File file = new File(arg);
+            if (file.exists()) files.add(file);
+        }
+        return files;
+    }
 
     /**
      * JavaFX应用程序入口方法
@@ -50,10 +123,41 @@ public class VideoPlayerApp extends Application {
     public void start(Stage primaryStage) {
         this.primaryStage = primaryStage;
         this.hostServices = getHostServices();
-        
+
         // 创建主布局容器
         BorderPane root = new BorderPane();
-        root.setStyle("-fx-background-color: black;");
+        root.getStyleClass().add("player-root");
+
+        // 自动连播：优先播放队列中的下一项，其次在 AUTO_PLAY 开启时查找同目录的下一集
+        nextEpisodePreloader = new NextEpisodePreloader(mediaLoader,
+                () -> settings.current().isAutoPlay()
+                        || (currentFile != null && playQueue.hasNextAfter(currentFile)),
+                file -> {
+                    File queued = playQueue.nextAfter(file);
+                    if (queued != null) return queued;
+                    return settings.current().isAutoPlay() ? FileUtils.findNextEpisode(file) : null;
+                },
+                (file, player) -> {
+                    attachMediaPlayer(file, player);
+                    controllerBar.play();
+                },
+                () -> rewind(mediaPlayer));
+
+        // 媒体库在后台加载索引并监听目录变化
+        try {
+            mediaLibrary = new MediaLibrary(AppPaths.file("library.idx"));
+            mediaLibrary.start(LibraryPanel.loadRoots());
+        } catch (IOException ex) {
+            System.err.println("媒体库初始化失败: " + ex.getMessage());
+        }
+
+        // 续播位置日志在后台加载
+        try {
+            resumeStore = new ResumeStore(AppPaths.file("resume.log"));
+            resumeTracker = new ResumeTracker(resumeStore, mediaLoader::execute);
+        } catch (IOException ex) {
+            System.err.println("续播记录初始化失败: " + ex.getMessage());
+        }
 
         initMenuBar();  // 初始化菜单栏
         root.setTop(menuBar);
@@ -62,14 +166,14 @@ public class VideoPlayerApp extends Application {
         mediaContainer = new StackPane();
         mediaContainer.setMinWidth(0);
         standbyLabel = new Label("DogPlayer");
-        standbyLabel.setStyle("-fx-font-size: 48px; -fx-text-fill: rgba(255,255,255,0.3);");
+        standbyLabel.getStyleClass().add("standby-label");
         StackPane.setAlignment(standbyLabel, Pos.CENTER);
 
         // 设置媒体视图
         mediaView = new MediaView();
         mediaView.setPreserveRatio(true);  // 保持视频比例
         mediaContainer.getChildren().addAll(mediaView, standbyLabel);
-        mediaContainer.setStyle("-fx-background-color: black;");
+        mediaContainer.getStyleClass().add("media-container");
 
         // 初始化控制条
         controllerBar = new VideoControllerBar(null, primaryStage, mediaView);
@@ -90,17 +194,42 @@ public class VideoPlayerApp extends Application {
         // 创建场景并配置事件处理
         Scene scene = new Scene(root, 800, 600);
         scene.setFill(javafx.scene.paint.Color.BLACK);
+        ThemeManager.getInstance().apply(scene);
 
-        // 空格键播放/暂停控制
+        // 空格键播放/暂停控制，左右方向键后退/前进 5 秒
         scene.addEventFilter(KeyEvent.KEY_PRESSED, e -> {
+            if (multiView != null) {
+                // 多画面模式：Esc 返回单画面，其余按键交给网格
+                if (e.getCode() == KeyCode.ESCAPE) {
+                    e.consume();
+                    closeMultiView();
+                } else if (multiView.handleKey(e)) {
+                    e.consume();
+                }
+                return;
+            }
             if (e.getCode() == KeyCode.SPACE) {
                 e.consume();
                 if (mediaPlayer != null) {
                     controllerBar.togglePlayPause();
                 }
+            } else if (e.getCode() == KeyCode.F3) {
+                e.consume();
+                toggleStatsOverlay();  // F3 显示/隐藏性能统计
+            } else if (e.getCode() == KeyCode.S && mediaPlayer != null) {
+                e.consume();
+                takeScreenshot();      // S 截图
+            } else if (e.getCode() == KeyCode.G && mediaPlayer != null) {
+                e.consume();
+                toggleClipRecording(); // G 开始/结束录制 GIF 片段
+            } else if ((e.getCode() == KeyCode.LEFT || e.getCode() == KeyCode.RIGHT) && mediaPlayer != null) {
+                e.consume();
+                controllerBar.seekBy(e.getCode() == KeyCode.RIGHT ? 5000 : -5000);
             }
         });
 
+        metrics.watchPulses(scene);  // 统计脉冲耗时和丢帧
+
         // 鼠标移动显示控制条
         scene.addEventFilter(MouseEvent.MOUSE_MOVED, e -> controllerBar.handleMouseMove());
 
@@ -126,14 +255,13 @@ public class VideoPlayerApp extends Application {
         scene.setOnDragDropped(event -> {
             Dragboard dragboard = event.getDragboard();
             if (dragboard.hasFiles()) {
-                File file = dragboard.getFiles().get(0);
-                if (isVideoFile(file)) {
-                    loadVideoFile(file);
-                    event.setDropCompleted(true);
+                List<File> dropped = dragboard.getFiles();
+                if (mediaPlayer != null && dropped.stream().allMatch(SubtitleParser::isSubtitleFile)) {
+                    subtitles().load(dropped.get(0));  // 拖入字幕文件时为当前视频加载字幕
                 } else {
-                    showUnsupportedFileAlert();
-                    event.setDropCompleted(false);
+                    openFiles(dropped);  // 文件和目录都交给后台批量探测
                 }
+                event.setDropCompleted(true);
             } else {
                 event.setDropCompleted(false);
             }
@@ -144,6 +272,30 @@ public class VideoPlayerApp extends Application {
         primaryStage.setScene(scene);
         primaryStage.setTitle("DogPlayer");
         primaryStage.show();
+        StartupTrace.windowShown();
+
+        // 命令行文件：单个文件在 init() 中已开始预加载，其余交给批量探测
+        adoptStartupPreload();
+        if (!startupFiles.isEmpty()) openFiles(startupFiles);
+
+        // 接收之后启动的进程转交过来的文件
+        if (singleInstance != null) singleInstance.setHandler(this::receiveForwardedFiles);
+    }
+
+    /**
+     * 接管命令行文件的预加载结果（预加载结束和窗口构建完成时各调用一次，两者都满足后才生效）
+     */
+    private void adoptStartupPreload() {
+        MediaLoader.Preload preload = startupPreload;
+        if (preload == null || !preload.isSettled() || controllerBar == null) return;
+        startupPreload = null;
+        if (preload.isReady()) {
+            attachMediaPlayer(preload.getFile(), preload.take());
+            StartupTrace.videoShown();
+        } else {
+            StartupTrace.videoFailed();
+            showLoadError(preload.getFile(), preload.getError());
+        }
     }
 
     /**
@@ -151,115 +303,97 @@ public class VideoPlayerApp extends Application {
      */
     private void initMenuBar() {
         Button menuButton = new Button("DogPlayer");
-        menuButton.setStyle(
-                "-fx-background-color: transparent; -fx-text-fill: white; -fx-font-size: 14px; -fx-cursor: hand;");
+        menuButton.getStyleClass().add("title-button");
 
         fileNameLabel = new Label("未打开文件");
-        fileNameLabel.setStyle("-fx-text-fill: rgba(255,255,255,0.8); -fx-font-size: 12px;");
+        fileNameLabel.getStyleClass().add("file-name-label");
 
         menuBar = new HBox(10);
         menuBar.setPadding(new Insets(5));
         menuBar.setAlignment(Pos.CENTER_LEFT);
         menuBar.getChildren().addAll(menuButton, fileNameLabel);
-        menuBar.setStyle("-fx-background-color: rgba(0,0,0,0.7);");
+        menuBar.getStyleClass().add("title-bar");
 
-        initContextMenu(menuButton);  // 初始化右键菜单
+        menuButton.setOnMouseClicked(e -> toggleContextMenu(menuButton));  // 菜单在首次点击时创建
         setupMenuBarHoverEffect();    // 设置悬停效果
     }
 
     /**
-     * 初始化上下文菜单
-     * @param menuButton 关联的菜单按钮
+     * 创建上下文菜单
+     * @return 创建好的菜单
      */
-    private void initContextMenu(Button menuButton) {
-        ContextMenu contextMenu = new ContextMenu();
-        contextMenu.setStyle(
-                "-fx-background-color: #2B2B2B;" +
-                "-fx-background-radius: 5;" +
-                "-fx-border-radius: 5;" +
-                "-fx-border-color: #404040;" +
-                "-fx-border-width: 1;" +
-                "-fx-effect: dropshadow(gaussian, rgba(0,0,0,0.3), 10, 0, 0, 3);" +
-                "-fx-padding: 8 0 8 0;");
-    
+    private ContextMenu createContextMenu() {
+        ContextMenu contextMenu = new ContextMenu();  // 外观见 themes/base.css 的 .context-menu
+
         // 文件菜单
-        Menu menuFile = createModernMenu("文件", "\uE8A5");
-        MenuItem openItem = createModernMenuItem("打开", "#00C896");
+        Menu menuFile = createModernMenu("文件");
+        MenuItem openItem = createModernMenuItem("打开", "accent-green");
         openItem.setOnAction(e -> loadNewVideo());
-        menuFile.getItems().add(openItem);
+        MenuItem libraryItem = createModernMenuItem("媒体库", "accent-blue");
+        libraryItem.setOnAction(e -> showLibraryWindow());
+        libraryItem.setDisable(mediaLibrary == null);
+        MenuItem multiViewItem = createModernMenuItem("多画面播放", "accent-green");
+        multiViewItem.setOnAction(e -> openMultiView());
+        menuFile.getItems().addAll(openItem, multiViewItem, libraryItem);
     
         // 其他菜单项
-        MenuItem settingsItem = createModernMenuItem("设置", "#FFA500");
+        MenuItem settingsItem = createModernMenuItem("设置", "accent-orange");
         settingsItem.setOnAction(e -> showSettingsWindow());
+        MenuItem statsItem = createModernMenuItem("性能统计 (F3)", "accent-lime");
+        statsItem.setOnAction(e -> toggleStatsOverlay());
+        MenuItem screenshotItem = createModernMenuItem("截图 (S)", "accent-blue");
+        screenshotItem.setOnAction(e -> takeScreenshot());
+        MenuItem clipItem = createModernMenuItem("录制 GIF 片段 (G)", "accent-blue");
+        clipItem.setOnAction(e -> toggleClipRecording());
         
         // 分隔符
         SeparatorMenuItem separator = new SeparatorMenuItem();
-        separator.setStyle("-fx-padding: 5 0 5 0;");
         
         // 退出项
-        MenuItem exitItem = createModernMenuItem("退出", "#FF4757");
+        MenuItem exitItem = createModernMenuItem("退出", "accent-red");
         exitItem.setOnAction(e -> Platform.exit());
     
         // 构建菜单结构
         contextMenu.getItems().addAll(
             menuFile,
             separator,
+            screenshotItem,
+            clipItem,
             settingsItem,
+            statsItem,
             exitItem
         );
-    
-        menuButton.setOnMouseClicked(e -> toggleContextMenu(contextMenu, menuButton));
+        return contextMenu;
     }
 
     /**
      * 创建现代风格菜单
      * @param title 菜单标题
-     * @param iconCode 图标Unicode
      * @return 创建好的Menu对象
      */
-    private Menu createModernMenu(String title, String iconCode) {
-        Menu menu = new Menu(title);
-        menu.setStyle(
-                "-fx-text-fill: #FFFFFF;" +
-                        "-fx-font-family: 'Segoe UI', 'Hiragino Sans GB';" +
-                        "-fx-font-size: 14px;" +
-                        "-fx-padding: 8 20 8 15;" +
-                        "-fx-background-color: transparent;" +
-                        "-fx-graphic: '" + iconCode + "';" +
-                        "-fx-graphic-text-gap: 10;");
-        return menu;
+    private Menu createModernMenu(String title) {
+        return new Menu(title);
     }
 
     /**
      * 创建现代风格菜单项
      * @param text 显示文本
-     * @param accentColor 强调色
+     * @param accentClass 强调色样式类（悬停时左侧色条的颜色，见 themes/base.css）
      * @return 创建好的MenuItem对象
      */
-    private MenuItem createModernMenuItem(String text, String accentColor) {
+    private MenuItem createModernMenuItem(String text, String accentClass) {
         MenuItem item = new MenuItem(text);
-        item.setStyle(
-                "-fx-text-fill: #FFFFFF;" +
-                        "-fx-font-family: 'Segoe UI', 'Hiragino Sans GB';" +
-                        "-fx-font-size: 14px;" +
-                        "-fx-padding: 10 20 10 40;" +
-                        "-fx-background-color: transparent;" +
-                        "-fx-cursor: hand;" +
-                        "-fx-background-radius: 4;" +
-                        "-fx-border-width: 0 0 0 3;" +
-                        "-fx-border-color: transparent;" +
-                        "hover:-fx-background-color: #3C3C3C;" +
-                        "hover:-fx-border-color: " + accentColor + ";" +
-                        "pressed:-fx-background-color: #4D4D4D;");
+        item.getStyleClass().add(accentClass);
         return item;
     }
 
     /**
-     * 切换上下文菜单显示状态
-     * @param menu 上下文菜单
+     * 切换上下文菜单显示状态（菜单只创建一次，之后复用）
      * @param button 关联按钮
      */
-    private void toggleContextMenu(ContextMenu menu, Button button) {
+    private void toggleContextMenu(Button button) {
+        if (contextMenu == null) contextMenu = createContextMenu();
+        ContextMenu menu = contextMenu;
         if (menu.isShowing()) {
             menu.hide();
         } else {
@@ -272,6 +406,105 @@ public class VideoPlayerApp extends Application {
         }
     }
 
+    /**
+     * 显示/隐藏性能统计浮层（浮层在首次打开时创建）
+     */
+    private void toggleStatsOverlay() {
+        if (statsOverlay == null) {
+            statsOverlay = new StatsOverlay();
+            mediaContainer.getChildren().add(statsOverlay);
+        }
+        statsOverlay.toggle();
+    }
+
+    /**
+     * @return 画面导出器（首次使用时创建）
+     */
+    private FrameExporter frameExporter() {
+        if (frameExporter == null) {
+            frameExporter = new FrameExporter(new FrameExporter.Callback() {
+                @Override
+                public void onSaved(File file) {
+                    showToast("已保存 " + file.getName());
+                }
+
+                @Override
+                public void onError(File file, String message) {
+                    showToast("导出失败：" + message);
+                }
+            });
+        }
+        return frameExporter;
+    }
+
+    /**
+     * @return 字幕控制（首次使用时创建浮层，叠放在视频画面之上）
+     */
+    private SubtitleController subtitles() {
+        if (subtitles == null) {
+            SubtitleOverlay overlay = new SubtitleOverlay();
+            mediaContainer.getChildren().add(mediaContainer.getChildren().indexOf(mediaView) + 1, overlay);
+            subtitles = new SubtitleController(overlay, this::showToast);
+        }
+        return subtitles;
+    }
+
+    /**
+     * @return 音频频谱（首次使用时创建，叠放在视频画面之上、字幕之下）
+     */
+    private SpectrumVisualizer visualizer() {
+        if (visualizer == null) {
+            visualizer = new SpectrumVisualizer();
+            mediaContainer.getChildren().add(mediaContainer.getChildren().indexOf(mediaView) + 1, visualizer);
+        }
+        return visualizer;
+    }
+
+    /**
+     * 截取当前画面保存为 PNG
+     */
+    private void takeScreenshot() {
+        if (mediaPlayer == null) return;
+        if (!frameExporter().saveScreenshot(mediaView, FrameExporter.outputFile(currentFile, "png"))) {
+            showToast("当前没有可截取的画面");
+        }
+    }
+
+    /**
+     * 开始或结束录制 GIF 片段
+     */
+    private void toggleClipRecording() {
+        if (mediaPlayer == null) return;
+        FrameExporter exporter = frameExporter();
+        if (exporter.isRecording()) {
+            exporter.stopClip();
+        } else if (exporter.startClip(mediaView, FrameExporter.outputFile(currentFile, "gif"))) {
+            showToast("正在录制 GIF 片段，再按 G 结束");
+        } else {
+            showToast("当前没有可录制的画面");
+        }
+    }
+
+    /**
+     * 在画面右上角显示几秒钟的提示
+     * @param message 提示文本
+     */
+    private void showToast(String message) {
+        if (toastLabel == null) {
+            toastLabel = new Label();
+            toastLabel.getStyleClass().add("toast-label");
+            toastLabel.setMouseTransparent(true);
+            StackPane.setAlignment(toastLabel, Pos.TOP_RIGHT);
+            StackPane.setMargin(toastLabel, new Insets(12));
+            mediaContainer.getChildren().add(toastLabel);
+            toastTimer = new PauseTransition(Duration.seconds(3));
+            toastTimer.setOnFinished(e -> toastLabel.setVisible(false));
+        }
+        toastLabel.setText(message);
+        toastLabel.setVisible(true);
+        toastTimer.playFromStart();
+    }
+
     /**
      * 设置菜单栏悬停效果
      */
@@ -298,49 +531,165 @@ public class VideoPlayerApp extends Application {
     }
 
     /**
-     * 检查文件是否为支持的视频格式
-     * @param file 待检查文件
-     * @return 是否支持
+     * 打开单个文件（文件选择器、媒体库），会清空拖入的播放队列
+     * @param videoFile 视频文件对象
      */
-    private boolean isVideoFile(File file) {
-        String[] supportedExtensions = { ".mp4", ".flv", ".mkv", ".avi" };
-        String fileName = file.getName().toLowerCase();
-        for (String ext : supportedExtensions) {
-            if (fileName.endsWith(ext)) {
-                return true;
-            }
+    private void openFile(File videoFile) {
+        batchProber.cancel();
+        playQueue.clear();
+        loadVideoFile(videoFile);
+    }
+
+    /**
+     * 批量打开文件和目录：后台展开并并行探测，确认的文件依次进入播放队列，
+     * 第一个确认的文件立即开始加载（包内可见，无界面测试脚本通过它模拟拖放）
+     * @param files 文件和目录列表
+     */
+    void openFiles(List<File> files) {
+        playQueue.clear();
+        batchProber.process(files, file -> {
+            playQueue.add(file);
+            if (playQueue.size() == 1) loadVideoFile(file);
+        }, confirmed -> {
+            if (confirmed == 0) showUnsupportedFileAlert();
+        });
+    }
+
+    /**
+     * 追加文件和目录到播放队列末尾，不打断当前播放
+     * @param files 文件和目录列表
+     */
+    private void enqueueFiles(List<File> files) {
+        if (currentFile == null) {
+            openFiles(files);
+            return;
+        }
+        // 当前文件是单独打开的，先让它成为队列的第一项，播完后才能接上新文件
+        if (playQueue.positionOf(currentFile) == 0) {
+            playQueue.clear();
+            playQueue.add(currentFile);
+        }
+        batchProber.process(files, playQueue::add, confirmed -> {
+            if (confirmed == 0) showUnsupportedFileAlert();
+        });
+    }
+
+    /**
+     * 处理其他启动转交的文件：激活窗口，正在播放时追加到队列，否则直接打开
+     * @param files 转交的文件和目录，为空时只激活窗口
+     */
+    private void receiveForwardedFiles(List<File> files) {
+        primaryStage.setIconified(false);
+        primaryStage.toFront();
+        primaryStage.requestFocus();
+        if (files.isEmpty()) return;
+        if (mediaPlayer != null && mediaPlayer.getStatus() == MediaPlayer.Status.PLAYING) {
+            enqueueFiles(files);
+        } else {
+            openFiles(files);
         }
-        return false;
     }
 
     /**
-     * 加载视频文件
+     * 加载视频文件（异步，不阻塞UI线程）
      * @param videoFile 视频文件对象
      */
     private void loadVideoFile(File videoFile) {
         if (videoFile != null) {
-            fileNameLabel.setText(videoFile.getName());
-            hasVideoPlaying = true;
-            fadeOutTransition.play();  // 触发菜单栏淡出
-
-            // 清理现有媒体资源
-            if (mediaPlayer != null) {
-                mediaPlayer.dispose();
-                controllerBar.dispose();
+            mediaLoader.load(videoFile);
+        }
+    }
+
+    /**
+     * 显示加载中状态
+     * @param videoFile 正在加载的文件
+     */
+    private void showLoadingState(File videoFile) {
+        fileNameLabel.setText(videoFile.getName());
+        if (mediaPlayer == null) {
+            standbyLabel.setText("加载中...");
+            standbyLabel.setVisible(true);
+        }
+    }
+
+    /**
+     * 接管已就绪的播放器，替换当前播放器
+     * @param videoFile 播放器对应的文件
+     * @param player 已就绪的媒体播放器
+     */
+    private void attachMediaPlayer(File videoFile, MediaPlayer player) {
+        if (multiView != null) closeMultiView();  // 打开单个文件时退出多画面
+        hasVideoPlaying = true;
+        fadeOutTransition.play();  // 触发菜单栏淡出
+
+        // 清理现有媒体资源（释放操作放到后台）
+        MediaPlayer oldPlayer = mediaPlayer;
+        if (oldPlayer != null) {
+            controllerBar.dispose();
+            oldPlayer.setOnEndOfMedia(null);
+        }
+
+        currentFile = videoFile;
+        int position = playQueue.positionOf(videoFile);
+        fileNameLabel.setText(position > 0
+                ? videoFile.getName() + "  (" + position + "/" + playQueue.size() + ")"
+                : videoFile.getName());
+        // 第一个视频使用默认音量，之后沿用上一个播放器的音量
+        player.setVolume(oldPlayer != null ? oldPlayer.getVolume() : settings.current().getDefaultVolume());
+        mediaPlayer = player;
+        mediaPlayer.setOnEndOfMedia(() -> {  // 视频结束回调
+            if (resumeTracker != null) resumeTracker.markFinished();
+            if (!nextEpisodePreloader.onEndOfMedia()) {
+                rewind(player);
             }
+        });
+        nextEpisodePreloader.bind(videoFile, player);
+        if (resumeTracker != null) resumeTracker.bind(videoFile, player);  // 跳转到上次播放的位置
+        subtitles().bind(player, videoFile);  // 在后台查找同名字幕
+
+        metrics.watch(player);  // 统计缓冲停顿
+        mediaView.setMediaPlayer(mediaPlayer);
+        standbyLabel.setVisible(false);  // 隐藏待机文字
+        // 纯音频文件没有画面，显示频谱代替黑屏
+        if (player.getMedia().getWidth() == 0 && player.getMedia().getHeight() == 0) {
+            visualizer().attach(player);
+        } else if (visualizer != null) {
+            visualizer.detach();
+        }
+        controllerBar.updateMediaPlayer(mediaPlayer, videoFile);  // 更新控制条
+        mediaLoader.disposeAsync(oldPlayer);
+    }
 
-            // 创建新媒体播放器
-            Media media = new Media(videoFile.toURI().toString());
-            mediaPlayer = new MediaPlayer(media);
-            mediaPlayer.setOnEndOfMedia(() -> {  // 视频结束回调
-                mediaPlayer.seek(Duration.ZERO);
-                mediaPlayer.pause();
-            });
+    /**
+     * 回到开头并暂停
+     * @param player 媒体播放器
+     */
+    private void rewind(MediaPlayer player) {
+        if (player != null) {
+            player.seek(Duration.ZERO);
+            player.pause();
+        }
+    }
 
-            mediaView.setMediaPlayer(mediaPlayer);
-            standbyLabel.setVisible(false);  // 隐藏待机文字
-            controllerBar.updateMediaPlayer(mediaPlayer);  // 更新控制条
+    /**
+     * 显示加载失败信息
+     * @param videoFile 加载失败的文件
+     * @param message 错误信息
+     */
+    private void showLoadError(File videoFile, String message) {
+        System.err.println("加载失败: " + videoFile + " - " + message);
+        if (mediaPlayer == null) {
+            fileNameLabel.setText("未打开文件");
+            standbyLabel.setText("DogPlayer");
+            standbyLabel.setVisible(true);
+        } else {
+            fileNameLabel.setText(currentFile.getName());
         }
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+        alert.setTitle("错误");
+        alert.setHeaderText(null);
+        alert.setContentText("无法播放 " + videoFile.getName() + "：" + message);
+        alert.show();
     }
 
     /**
@@ -350,7 +699,7 @@ public class VideoPlayerApp extends Application {
         Alert alert = new Alert(Alert.AlertType.ERROR);
         alert.setTitle("错误");
         alert.setHeaderText(null);
-        alert.setContentText("仅支持导入的视频文件格式（如 .mp4, .flv, .mkv, .avi）。");
+        alert.setContentText("拖入的文件中没有可以播放的视频。");
         alert.showAndWait();
     }
 
@@ -360,39 +709,116 @@ public class VideoPlayerApp extends Application {
     private void loadNewVideo() {
         File videoFile = FileUtils.chooseVideoFile(primaryStage);
         if (videoFile != null) {
-            loadVideoFile(videoFile);
+            openFile(videoFile);
+        }
+    }
+
+    /**
+     * 选择多个文件进入多画面模式（只选了一个文件时按普通方式打开）
+     */
+    private void openMultiView() {
+        List<File> files = FileUtils.chooseVideoFiles(primaryStage);
+        if (files.size() == 1) {
+            openFile(files.get(0));
+        } else if (files.size() > 1) {
+            showMultiView(files);
         }
     }
 
     /**
-     * 显示设置窗口
+     * 进入多画面模式：暂停当前播放器，用网格代替画面和控制条
+     * @param files 要同时播放的文件
+     */
+    private void showMultiView(List<File> files) {
+        if (multiView != null) closeMultiView();
+        double volume = settings.current().getDefaultVolume();
+        if (mediaPlayer != null) {
+            mediaPlayer.pause();
+            volume = mediaPlayer.getVolume();
+        }
+        multiView = new MultiViewGrid(files, mediaLoader, primaryStage, volume);
+        BorderPane root = (BorderPane) primaryStage.getScene().getRoot();
+        root.setCenter(multiView);
+        root.setBottom(null);
+        fileNameLabel.setText(files.size() > multiView.getTileCount()
+                ? "多画面 (" + multiView.getTileCount() + "/" + files.size() + ")"
+                : "多画面 (" + multiView.getTileCount() + ")");
+    }
+
+    /**
+     * 退出多画面模式：在后台释放所有格的播放器，恢复单画面
+     */
+    private void closeMultiView() {
+        MultiViewGrid grid = multiView;
+        multiView = null;
+        for (MediaPlayer player : grid.close()) mediaLoader.disposeAsync(player);
+        if (mediaPlayer != null) mediaPlayer.setVolume(grid.getVolume());  // 沿用多画面中的音量
+        BorderPane root = (BorderPane) primaryStage.getScene().getRoot();
+        root.setCenter(mediaContainer);
+        root.setBottom(controllerBar);
+        fileNameLabel.setText(currentFile != null ? currentFile.getName() : "未打开文件");
+    }
+
+    /**
+     * 显示设置窗口（窗口只创建一次，之后复用）
      */
     private void showSettingsWindow() {
-        Stage settingsStage = new Stage();
-        SettingsPanel settingsPanel = new SettingsPanel();  // 假设存在设置面板类
-        
-        Scene scene = new Scene(settingsPanel, 600, 400);
-        scene.setFill(Color.TRANSPARENT);
-        
-        // 窗口属性设置
-        settingsStage.initOwner(primaryStage);
-        settingsStage.initModality(Modality.WINDOW_MODAL);
-        settingsStage.setScene(scene);
-        settingsStage.setTitle("设置");
-        
-        // 窗口样式设置
-        settingsStage.getScene().getRoot().setStyle(
-            "-fx-background-color: #2B2B2B;" +
-            "-fx-background-radius: 5;" +
-            "-fx-border-color: #404040;" +
-            "-fx-border-radius: 5;" +
-            "-fx-border-width: 1;"
-        );
-        
+        if (settingsStage == null) {
+            settingsStage = new Stage();
+            SettingsPanel settingsPanel = new SettingsPanel();
+
+            Scene scene = new Scene(settingsPanel, 600, 400);
+            scene.setFill(Color.TRANSPARENT);
+            ThemeManager.getInstance().apply(scene);
+
+            // 窗口属性设置
+            settingsStage.initOwner(primaryStage);
+            settingsStage.initModality(Modality.WINDOW_MODAL);
+            settingsStage.setScene(scene);
+            settingsStage.setTitle("设置");
+        }
         settingsStage.show();
+        settingsStage.toFront();
+    }
+
+    /**
+     * 显示媒体库窗口（窗口只创建一次，之后复用）
+     */
+    private void showLibraryWindow() {
+        if (libraryStage == null) {
+            libraryStage = new Stage();
+            LibraryPanel libraryPanel = new LibraryPanel(mediaLibrary, this::openFile);
+            libraryStage.initOwner(primaryStage);
+            Scene scene = new Scene(libraryPanel, 700, 500);
+            ThemeManager.getInstance().apply(scene);
+            libraryStage.setScene(scene);
+            libraryStage.setTitle("媒体库");
+        }
+        libraryStage.show();
+        libraryStage.toFront();
+    }
+
+    /**
+     * 应用退出时保存媒体库索引
+     */
+    @Override
+    public void stop() {
+        if (mediaLibrary != null) mediaLibrary.shutdown();
+        if (resumeTracker != null) resumeTracker.unbind();
+        if (resumeStore != null) resumeStore.close();
+        settings.close();  // 写入尚未保存的设置
+        if (singleInstance != null) singleInstance.close();
     }
 
+    /**
+     * 程序入口：已有实例在运行时把文件交给它并退出，不再启动新的 JVM 界面和媒体管线
+     * @param args 命令行参数（要打开的文件和目录）
+     */
     public static void main(String[] args) {
+        if (SingleInstance.isEnabled()) {
+            singleInstance = SingleInstance.listen();  // 取得锁的进程成为主实例
+            if (singleInstance == null && SingleInstance.forward(args)) return;
+        }
         launch(args);
     }
 }
\ No newline at end of file
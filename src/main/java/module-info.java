@@ -0,0 +1,12 @@
+/**
+ * DogPlayer 模块：jlink 运行时镜像和 AppCDS 归档都基于此模块描述构建
+ */
+module com.example {
+    requires javafx.controls;
+    requires javafx.media;
+    requires java.management;
+    requires java.prefs;
+    requires jdk.jfr;
+
+    exports com.example;
+}
@@ -0,0 +1,142 @@
+package com.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ContainerProbeTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void probesMp4() throws IOException {
+        MediaInfo info = probe(MediaFixtures.mp4());
+        assertEquals(ContainerFormat.MP4, info.getFormat());
+        assertEquals(MediaFixtures.DURATION_MILLIS, info.getDurationMillis());
+        assertEquals(MediaFixtures.WIDTH, info.getWidth());
+        assertEquals(MediaFixtures.HEIGHT, info.getHeight());
+        TrackInfo video = info.firstTrack(TrackInfo.Type.VIDEO);
+        assertEquals("avc1", video.getCodec());
+        TrackInfo audio = info.firstTrack(TrackInfo.Type.AUDIO);
+        assertEquals("mp4a", audio.getCodec());
+        assertEquals(2, audio.getChannels());
+        assertEquals(44100, audio.getSampleRate());
+    }
+
+    @Test
+    void probesMatroska() throws IOException {
+        MediaInfo info = probe(MediaFixtures.matroska());
+        assertEquals(ContainerFormat.MATROSKA, info.getFormat());
+        assertEquals(MediaFixtures.DURATION_MILLIS, info.getDurationMillis());
+        assertEquals(MediaFixtures.WIDTH, info.getWidth());
+        assertEquals(MediaFixtures.HEIGHT, info.getHeight());
+        assertEquals("V_MPEG4/ISO/AVC", info.firstTrack(TrackInfo.Type.VIDEO).getCodec());
+        TrackInfo audio = info.firstTrack(TrackInfo.Type.AUDIO);
+        assertEquals("A_AAC", audio.getCodec());
+        assertEquals(48000, audio.getSampleRate());
+        assertEquals(2, audio.getChannels());
+    }
+
+    @Test
+    void probesFlv() throws IOException {
+        MediaInfo info = probe(MediaFixtures.flv());
+        assertEquals(ContainerFormat.FLV, info.getFormat());
+        assertEquals(MediaFixtures.DURATION_MILLIS, info.getDurationMillis());
+        assertEquals(MediaFixtures.WIDTH, info.getWidth());
+        assertEquals(MediaFixtures.HEIGHT, info.getHeight());
+        assertEquals("AVC", info.firstTrack(TrackInfo.Type.VIDEO).getCodec());
+        TrackInfo audio = info.firstTrack(TrackInfo.Type.AUDIO);
+        assertEquals("AAC", audio.getCodec());
+        assertEquals(2, audio.getChannels());
+    }
+
+    @Test
+    void truncatedFilesNeverThrowRuntimeExceptions() throws IOException {
+        for (byte[] fixture : Arrays.asList(MediaFixtures.mp4(), MediaFixtures.matroska(), MediaFixtures.flv())) {
+            for (int length = 0; length < fixture.length; length++) {
+                assertNotNull(probe(Arrays.copyOf(fixture, length)), "截断到 " + length + " 字节");
+            }
+        }
+    }
+
+    @Test
+    void corruptedBytesNeverThrowRuntimeExceptions() throws IOException {
+        Random random = new Random(42);
+        for (byte[] fixture : Arrays.asList(MediaFixtures.mp4(), MediaFixtures.matroska(), MediaFixtures.flv())) {
+            for (int round = 0; round < 500; round++) {
+                byte[] corrupt = fixture.clone();
+                for (int i = 0; i < 4; i++) {
+                    int position = 8 + random.nextInt(corrupt.length - 8);  // 保留文件头，让嗅探仍然识别出格式
+                    corrupt[position] = (byte) random.nextInt(256);
+                }
+                assertNotNull(probe(corrupt), "第 " + round + " 轮");
+            }
+        }
+    }
+
+    @Test
+    void invalidAmfLongStringLengthKeepsEarlierMetadata() throws IOException {
+        for (int length : new int[] { -1, Integer.MAX_VALUE }) {
+            byte[] longString = MediaFixtures.concat(new byte[] { 12 }, MediaFixtures.u32(length), new byte[8]);
+            byte[] flv = MediaFixtures.flv(MediaFixtures.amfString("onMetaData"), MediaFixtures.amfEcmaArray(
+                    MediaFixtures.amfProperty("duration", MediaFixtures.amfNumber(5)),
+                    MediaFixtures.amfProperty("comment", longString),
+                    MediaFixtures.amfProperty("width", MediaFixtures.amfNumber(MediaFixtures.WIDTH))));
+            MediaInfo info = probe(flv);
+            assertEquals(ContainerFormat.FLV, info.getFormat());
+            assertEquals(5000, info.getDurationMillis());
+            assertEquals(0, info.getWidth());  // 损坏字段之后的键不再解析
+        }
+    }
+
+    @Test
+    void deeplyNestedAmfContainersAreRejected() throws Exception {
+        // 三种会递归的 AMF 容器：严格数组、对象、ECMA 数组，每种都嵌套到填满一个 script 标签
+        byte[][] levels = {
+                MediaFixtures.concat(new byte[] { 10 }, MediaFixtures.u32(1)),
+                MediaFixtures.concat(new byte[] { 3 }, MediaFixtures.u16(1), MediaFixtures.ascii("a")),
+                MediaFixtures.concat(new byte[] { 8 }, MediaFixtures.u32(1), MediaFixtures.u16(1), MediaFixtures.ascii("a")) };
+        for (byte[] level : levels) {
+            byte[] nested = new byte[level.length * 3000];
+            for (int i = 0; i < 3000; i++) System.arraycopy(level, 0, nested, i * level.length, level.length);
+            Path file = dir.resolve("nested.flv");
+            Files.write(file, MediaFixtures.flv(MediaFixtures.amfString("onMetaData"), MediaFixtures.amfEcmaArray(
+                    MediaFixtures.amfProperty("duration", MediaFixtures.amfNumber(5)),
+                    MediaFixtures.amfProperty("nested", nested))));
+
+            // 用很小的线程栈运行：没有层数限制时这里会 StackOverflowError
+            Throwable[] thrown = new Throwable[1];
+            Thread thread = new Thread(null, () -> {
+                try {
+                    ContainerProbe.probe(file);
+                } catch (Throwable ex) {
+                    thrown[0] = ex;
+                }
+            }, "probe", 64 * 1024);
+            thread.start();
+            thread.join();
+            assertInstanceOf(IOException.class, thrown[0]);
+        }
+    }
+
+    /**
+     * 写入临时文件并探测，只允许 IOException 以外的结果正常返回
+     */
+    private MediaInfo probe(byte[] content) throws IOException {
+        Path file = dir.resolve("fixture");
+        Files.write(file, content);
+        try {
+            return ContainerProbe.probe(file);
+        } catch (IOException ex) {
+            return MediaInfo.unknown(ContainerFormat.UNKNOWN);  // 读取失败是允许的结果，运行时异常不是
+        }
+    }
+}
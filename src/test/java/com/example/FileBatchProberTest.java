@@ -0,0 +1,39 @@
+package com.example;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FileBatchProberTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void acceptsMatroskaThatTheLoaderRemuxes() throws IOException {
+        assertTrue(FileBatchProber.canOpen(write("episode.mkv", MediaFixtures.matroska())));
+    }
+
+    @Test
+    void acceptsDirectlyPlayableContainers() throws IOException {
+        assertTrue(FileBatchProber.canOpen(write("clip.mp4", MediaFixtures.mp4())));
+        assertTrue(FileBatchProber.canOpen(write("stream.flv", MediaFixtures.flvStream(1))));
+    }
+
+    @Test
+    void rejectsUnknownAndMissingFiles() throws IOException {
+        assertFalse(FileBatchProber.canOpen(write("notes.txt", MediaFixtures.ascii("not a video"))));
+        assertFalse(FileBatchProber.canOpen(dir.resolve("missing.mkv").toFile()));
+    }
+
+    private File write(String name, byte[] content) throws IOException {
+        Path file = dir.resolve(name);
+        Files.write(file, content);
+        return file.toFile();
+    }
+}
@@ -0,0 +1,125 @@
+package com.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class HlsRemuxerTest {
+    private static final int PID_VIDEO = 0x0100;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void adjacentFlvSegmentsPlayBackToBack() throws IOException {
+        Path file = dir.resolve("stream.flv");
+        Files.write(file, MediaFixtures.flvStream(10));
+        HlsRemuxer remuxer = HlsRemuxer.open(file.toFile());
+        assertNotNull(remuxer);
+        assertEquals(3, remuxer.segmentCount());  // 关键帧每秒一个，分段至少 4 秒
+
+        byte[] stream = MediaFixtures.concat(remuxer.segment(0), remuxer.segment(1), remuxer.segment(2));
+        assertContinuous(stream);
+        assertDecodeOrder(stream, 250);
+    }
+
+    @Test
+    void synthesizedDecodeTimestampsStayOrderedAcrossSegments() {
+        // 按解码顺序排列的显示时间：第一段每个 P 帧后跟一个 B 帧，第二段用更深的 B 帧金字塔，
+        // 第三段有一帧比 REORDER_MILLIS 重排得更深，前移量与前两段不同
+        long[] first = { 0, 80, 40, 160, 120, 240, 200, 320, 280 };
+        long[] second = { 360, 520, 440, 400, 480, 680, 600, 560, 640 };
+        long[] third = { 720, 1000, 960, 920, 880, 840, 800, 760, 1040 };
+        List<long[]> segments = List.of(first, second, third);
+        long previous = Long.MIN_VALUE;
+        for (long[] pts : segments) {
+            long[] dts = HlsRemuxer.decodeTimestamps(pts);
+            assertTrue(dts[0] > previous, "跨段解码时间倒退: " + pts[0]);
+            for (int i = 0; i < pts.length; i++) {
+                assertTrue(dts[i] <= pts[i], "解码时间晚于显示时间: " + pts[i]);
+                if (i > 0) assertTrue(dts[i] > dts[i - 1], "解码时间没有递增: " + pts[i]);
+            }
+            previous = dts[dts.length - 1];
+        }
+
+        // 各段分别复用，首尾相接后计数器连续、时间戳有序；帧大小各不相同，覆盖补齐包数的各种余数
+        byte[] stream = MediaFixtures.concat(mux(0, first), mux(1, second), mux(2, third));
+        assertContinuous(stream);
+        assertDecodeOrder(stream, first.length + second.length + third.length);
+    }
+
+    /**
+     * 用合成的解码时间复用一段，每个视频帧后面跟一个音频帧
+     */
+    private static byte[] mux(int segment, long[] pts) {
+        TsMuxer muxer = new TsMuxer(segment, MediaFixtures.avcConfig(), new byte[] { 0x12, 0x10 });
+        long[] dts = HlsRemuxer.decodeTimestamps(pts);
+        for (int i = 0; i < pts.length; i++) {
+            byte[] nal = new byte[100 + 173 * i + 31 * segment];
+            nal[0] = (byte) (i == 0 ? 0x65 : 0x41);
+            muxer.writeVideo(dts[i], pts[i], i == 0, ByteBuffer.wrap(MediaFixtures.concat(MediaFixtures.u32(nal.length), nal)));
+            muxer.writeAudio(pts[0] + 40L * i, ByteBuffer.wrap(new byte[20 + 57 * i]));
+        }
+        return muxer.finish();
+    }
+
+    /**
+     * 每个 PID 的连续计数器逐包加一（跨分段也一样）
+     */
+    private static void assertContinuous(byte[] stream) {
+        assertEquals(0, stream.length % 188);
+        Map<Integer, Integer> last = new HashMap<>();
+        for (int pos = 0; pos < stream.length; pos += 188) {
+            assertEquals(0x47, stream[pos] & 0xFF, "同步字节: " + pos);
+            int pid = ((stream[pos + 1] & 0x1F) << 8) | (stream[pos + 2] & 0xFF);
+            int cc = stream[pos + 3] & 0x0F;
+            Integer previous = last.put(pid, cc);
+            if (previous != null) assertEquals((previous + 1) & 0x0F, cc, "PID " + pid + " 在 " + pos / 188 + " 包处不连续");
+        }
+    }
+
+    /**
+     * 视频 PES 的解码时间严格递增且不晚于显示时间
+     * @param expectedFrames 预期的视频帧数
+     */
+    private static void assertDecodeOrder(byte[] stream, int expectedFrames) {
+        List<long[]> timestamps = new ArrayList<>();  // {PTS, DTS}
+        for (int pos = 0; pos < stream.length; pos += 188) {
+            int pid = ((stream[pos + 1] & 0x1F) << 8) | (stream[pos + 2] & 0xFF);
+            boolean unitStart = (stream[pos + 1] & 0x40) != 0;
+            if (pid != PID_VIDEO || !unitStart) continue;
+            int payload = pos + 4;
+            if ((stream[pos + 3] & 0x20) != 0) payload += 1 + (stream[payload] & 0xFF);
+            assertEquals(0xE0, stream[payload + 3] & 0xFF, "PES 流 ID");
+            int flags = (stream[payload + 7] & 0xFF) >>> 6;
+            long pts = timestamp(stream, payload + 9);
+            long dts = flags == 3 ? timestamp(stream, payload + 14) : pts;
+            timestamps.add(new long[] { pts, dts });
+        }
+        assertEquals(expectedFrames, timestamps.size());
+        for (int i = 0; i < timestamps.size(); i++) {
+            long[] frame = timestamps.get(i);
+            assertTrue(frame[1] <= frame[0], "第 " + i + " 帧解码时间晚于显示时间");
+            if (i > 0) assertTrue(frame[1] > timestamps.get(i - 1)[1], "第 " + i + " 帧解码时间没有递增");
+        }
+    }
+
+    private static long timestamp(byte[] data, int pos) {
+        return ((long) ((data[pos] >> 1) & 0x07) << 30)
+                | ((long) (data[pos + 1] & 0xFF) << 22)
+                | ((long) ((data[pos + 2] & 0xFF) >> 1) << 15)
+                | ((long) (data[pos + 3] & 0xFF) << 7)
+                | ((data[pos + 4] & 0xFF) >> 1);
+    }
+}
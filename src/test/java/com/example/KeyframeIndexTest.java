@@ -0,0 +1,50 @@
+package com.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class KeyframeIndexTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void computesPresentationTimesOfSyncSamples() throws IOException {
+        KeyframeIndex index = load(MediaFixtures.mp4WithSampleTables(3));
+        assertEquals(3, index.size());
+        // 解码时间 0、300、600，ctts +200，elst -200
+        assertEquals(0, index.nearest(0));
+        assertEquals(300, index.next(0));
+        assertEquals(600, index.next(300));
+        assertEquals(300, index.previous(600));
+    }
+
+    @Test
+    void syncCountIsBoundedByBoxSize() throws IOException {
+        KeyframeIndex index = load(MediaFixtures.mp4WithSampleTables(Integer.MAX_VALUE));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void cachedIndexMatchesParsedIndex() throws IOException {
+        Path file = write(MediaFixtures.mp4WithSampleTables(3));
+        KeyframeIndex parsed = KeyframeIndex.load(file.toFile());
+        KeyframeIndex cached = KeyframeIndex.load(file.toFile());
+        assertEquals(parsed.size(), cached.size());
+        assertEquals(parsed.next(0), cached.next(0));
+    }
+
+    private KeyframeIndex load(byte[] content) throws IOException {
+        return KeyframeIndex.load(write(content).toFile());
+    }
+
+    private Path write(byte[] content) throws IOException {
+        Path file = Files.createTempFile(dir, "kf", ".mp4");
+        Files.write(file, content);
+        return file;
+    }
+}
@@ -0,0 +1,290 @@
+package com.example;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 测试用的最小容器文件：按各格式的规范逐字节拼出 MP4、Matroska 和 FLV，
+ * 只包含解析器会读取的结构，数据部分用占位字节填充
+ */
+final class MediaFixtures {
+    static final int WIDTH = 640;
+    static final int HEIGHT = 360;
+    static final long DURATION_MILLIS = 5000;
+
+    private MediaFixtures() {
+    }
+
+    // ---------------------------------------------------------------- MP4
+
+    /**
+     * @return ftyp + moov（一条 avc1 视频轨、一条 mp4a 音频轨）+ mdat
+     */
+    static byte[] mp4() {
+        byte[] videoTrak = box("trak",
+                tkhd(1, WIDTH, HEIGHT),
+                box("mdia",
+                        mdhd(90000, 90000L * DURATION_MILLIS / 1000),
+                        hdlr("vide"),
+                        box("minf", box("stbl", stsd("avc1", visualEntry(WIDTH, HEIGHT))))));
+        byte[] audioTrak = box("trak",
+                tkhd(2, 0, 0),
+                box("mdia",
+                        mdhd(44100, 44100L * DURATION_MILLIS / 1000),
+                        hdlr("soun"),
+                        box("minf", box("stbl", stsd("mp4a", audioEntry(2, 44100))))));
+        return concat(
+                box("ftyp", ascii("isom"), u32(512), ascii("isomavc1")),
+                box("moov", mvhd(1000, DURATION_MILLIS), videoTrak, audioTrak),
+                box("mdat", new byte[64]));
+    }
+
+    /**
+     * 带样本表的视频文件：timescale 为 1000，前 6 个样本每个 100、其后每个 200；
+     * 关键帧为第 1、4、7 个样本，ctts 让所有样本显示时间推后 200，elst 再减去 200
+     * @param syncCount stss 中声明的条目数（用于构造损坏的计数）
+     * @return ftyp + moov（一条带 elst/stts/stss/ctts 的 avc1 视频轨）+ mdat
+     */
+    static byte[] mp4WithSampleTables(int syncCount) {
+        byte[] stbl = box("stbl",
+                stsd("avc1", visualEntry(WIDTH, HEIGHT)),
+                fullBox("stts", u32(2), u32(6), u32(100), u32(6), u32(200)),
+                fullBox("stss", u32(syncCount), u32(1), u32(4), u32(7)),
+                fullBox("ctts", u32(1), u32(12), u32(200)));
+        byte[] videoTrak = box("trak",
+                tkhd(1, WIDTH, HEIGHT),
+                box("edts", fullBox("elst", u32(1), u32((int) DURATION_MILLIS), u32(200), u32(0x10000))),
+                box("mdia", mdhd(1000, 1800), hdlr("vide"), box("minf", stbl)));
+        return concat(
+                box("ftyp", ascii("isom"), u32(512), ascii("isomavc1")),
+                box("moov", mvhd(1000, 1800), videoTrak),
+                box("mdat", new byte[64]));
+    }
+
+    static byte[] box(String type, byte[]... children) {
+        byte[] body = concat(children);
+        return concat(u32(8 + body.length), ascii(type), body);
+    }
+
+    /** 完整原子（version 0） */
+    private static byte[] fullBox(String type, byte[]... children) {
+        return box(type, concat(u32(0), concat(children)));
+    }
+
+    private static byte[] mvhd(int timescale, long duration) {
+        return fullBox("mvhd", u32(0), u32(0), u32(timescale), u32((int) duration), new byte[80]);
+    }
+
+    private static byte[] tkhd(int trackId, int width, int height) {
+        // 创建时间、修改时间、轨道 ID、保留、时长、保留 8、层、分组、音量、保留、矩阵 36、宽、高（16.16 定点）
+        return fullBox("tkhd", u32(0), u32(0), u32(trackId), u32(0), u32(0), new byte[8],
+                new byte[8], new byte[36], u32(width << 16), u32(height << 16));
+    }
+
+    private static byte[] mdhd(int timescale, long duration) {
+        return fullBox("mdhd", u32(0), u32(0), u32(timescale), u32((int) duration), new byte[4]);
+    }
+
+    private static byte[] hdlr(String handler) {
+        return fullBox("hdlr", u32(0), ascii(handler), new byte[12], new byte[] { 0 });
+    }
+
+    private static byte[] stsd(String codec, byte[] entryBody) {
+        return fullBox("stsd", u32(1), box(codec, entryBody));
+    }
+
+    /** VisualSampleEntry：保留 6、数据引用索引 2、预定义与保留 16、宽、高、其余字段 */
+    private static byte[] visualEntry(int width, int height) {
+        return concat(new byte[6], u16(1), new byte[16], u16(width), u16(height), new byte[50]);
+    }
+
+    /** AudioSampleEntry：保留 6、数据引用索引 2、保留 8、声道数、采样位数、预定义与保留 4、采样率（16.16） */
+    private static byte[] audioEntry(int channels, int sampleRate) {
+        return concat(new byte[6], u16(1), new byte[8], u16(channels), u16(16), new byte[4], u32(sampleRate << 16));
+    }
+
+    // ---------------------------------------------------------------- Matroska
+
+    /**
+     * @return EBML 头 + Segment（Info、Tracks、一个空 Cluster）
+     */
+    static byte[] matroska() {
+        byte[] info = ebml(0x1549A966,
+                ebml(0x2AD7B1, uint(1_000_000)),
+                ebml(0x4489, float64(DURATION_MILLIS)));
+        byte[] video = ebml(0xAE,
+                ebml(0xD7, uint(1)),
+                ebml(0x83, uint(1)),
+                ebml(0x86, ascii("V_MPEG4/ISO/AVC")),
+                ebml(0xE0, ebml(0xB0, uint(WIDTH)), ebml(0xBA, uint(HEIGHT))));
+        byte[] audio = ebml(0xAE,
+                ebml(0xD7, uint(2)),
+                ebml(0x83, uint(2)),
+                ebml(0x86, ascii("A_AAC")),
+                ebml(0xE1, ebml(0xB5, float64(48000)), ebml(0x9F, uint(2))));
+        return concat(
+                ebml(0x1A45DFA3, ebml(0x4282, ascii("matroska"))),
+                ebml(0x18538067, info, ebml(0x1654AE6B, video, audio), ebml(0x1F43B675, ebml(0xE7, uint(0)))));
+    }
+
+    static byte[] ebml(int id, byte[]... children) {
+        byte[] body = concat(children);
+        return concat(ebmlId(id), vint(body.length), body);
+    }
+
+    private static byte[] ebmlId(int id) {
+        int length = id > 0xFFFFFF ? 4 : id > 0xFFFF ? 3 : id > 0xFF ? 2 : 1;
+        byte[] out = new byte[length];
+        for (int i = 0; i < length; i++) out[i] = (byte) (id >>> (8 * (length - 1 - i)));
+        return out;
+    }
+
+    /** 8 字节长度编码（足够容纳所有测试数据） */
+    private static byte[] vint(long size) {
+        ByteBuffer out = ByteBuffer.allocate(8).putLong(size);
+        byte[] bytes = out.array();
+        bytes[0] = 0x01;
+        return bytes;
+    }
+
+    private static byte[] uint(long value) {
+        return ByteBuffer.allocate(8).putLong(value).array();
+    }
+
+    private static byte[] float64(double value) {
+        return ByteBuffer.allocate(8).putDouble(value).array();
+    }
+
+    // ---------------------------------------------------------------- FLV
+
+    /**
+     * @return FLV 头 + onMetaData + AVC 序列头 + AAC 序列头（没有音视频帧）
+     */
+    static byte[] flv() {
+        return flv(amfString("onMetaData"), amfEcmaArray(
+                amfProperty("duration", amfNumber(DURATION_MILLIS / 1000.0)),
+                amfProperty("width", amfNumber(WIDTH)),
+                amfProperty("height", amfNumber(HEIGHT)),
+                amfProperty("videocodecid", amfNumber(7)),
+                amfProperty("audiocodecid", amfNumber(10)),
+                amfProperty("audiosamplerate", amfNumber(44100)),
+                amfProperty("stereo", new byte[] { 1, 1 })));
+    }
+
+    /**
+     * @param script script 标签的数据（AMF0）
+     * @return FLV 头 + 指定的 script 标签 + AVC 序列头 + AAC 序列头
+     */
+    static byte[] flv(byte[]... script) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write(out, new byte[] { 'F', 'L', 'V', 1, 0x05 }, u32(9), u32(0));
+        flvTag(out, 18, 0, concat(script));
+        flvTag(out, 9, 0, concat(new byte[] { 0x17, 0, 0, 0, 0 }, avcConfig()));
+        flvTag(out, 8, 0, new byte[] { (byte) 0xAF, 0, 0x12, 0x10 });
+        return out.toByteArray();
+    }
+
+    /**
+     * 可转封装的 H.264/AAC 流：25 帧/秒的视频每秒一个关键帧，非关键帧带 80 毫秒的显示偏移，
+     * 音频按 44.1kHz、每帧 1024 个采样交错写入；没有元数据中的关键帧索引，打开时需要扫描
+     * @param seconds 时长（秒）
+     * @return FLV 文件内容
+     */
+    static byte[] flvStream(int seconds) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write(out, new byte[] { 'F', 'L', 'V', 1, 0x05 }, u32(9), u32(0));
+        flvTag(out, 18, 0, concat(amfString("onMetaData"),
+                amfEcmaArray(amfProperty("duration", amfNumber(seconds)))));
+        flvTag(out, 9, 0, concat(new byte[] { 0x17, 0, 0, 0, 0 }, avcConfig()));
+        flvTag(out, 8, 0, new byte[] { (byte) 0xAF, 0, 0x12, 0x10 });
+        int videoFrames = seconds * 25;
+        int audioFrames = (int) (seconds * 44100L / 1024);
+        int v = 0;
+        int a = 0;
+        while (v < videoFrames || a < audioFrames) {
+            int videoTime = v * 40;
+            int audioTime = (int) (a * 1024L * 1000 / 44100);
+            if (a >= audioFrames || (v < videoFrames && videoTime <= audioTime)) {
+                boolean keyframe = v % 25 == 0;
+                byte[] nal = new byte[24];
+                nal[0] = (byte) (keyframe ? 0x65 : 0x41);
+                nal[1] = (byte) v;
+                int compositionTime = keyframe ? 0 : 80;
+                flvTag(out, 9, videoTime, concat(new byte[] { (byte) (keyframe ? 0x17 : 0x27), 1 },
+                        u24(compositionTime), u32(nal.length), nal));
+                v++;
+            } else {
+                byte[] frame = new byte[16];
+                frame[0] = (byte) a;
+                flvTag(out, 8, audioTime, concat(new byte[] { (byte) 0xAF, 1 }, frame));
+                a++;
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 写入一个 FLV 标签（含后面的 PreviousTagSize）
+     */
+    static void flvTag(ByteArrayOutputStream out, int type, int timestamp, byte[] data) {
+        write(out, new byte[] { (byte) type }, u24(data.length), u24(timestamp & 0xFFFFFF),
+                new byte[] { (byte) (timestamp >>> 24) }, u24(0), data, u32(11 + data.length));
+    }
+
+    /**
+     * @return 只含一组 SPS/PPS 的 AVCDecoderConfigurationRecord（NALU 长度 4 字节）
+     */
+    static byte[] avcConfig() {
+        byte[] sps = { 0x67, 0x42, 0x00, 0x1E, 0x01, 0x02, 0x03 };
+        byte[] pps = { 0x68, (byte) 0xCE, 0x38, (byte) 0x80 };
+        return concat(new byte[] { 1, 0x42, 0x00, 0x1E, (byte) 0xFF, (byte) 0xE1 }, u16(sps.length), sps,
+                new byte[] { 1 }, u16(pps.length), pps);
+    }
+
+    static byte[] amfString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        return concat(new byte[] { 2 }, u16(bytes.length), bytes);
+    }
+
+    static byte[] amfNumber(double value) {
+        return concat(new byte[] { 0 }, ByteBuffer.allocate(8).putDouble(value).array());
+    }
+
+    static byte[] amfProperty(String key, byte[] value) {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        return concat(u16(bytes.length), bytes, value);
+    }
+
+    static byte[] amfEcmaArray(byte[]... properties) {
+        return concat(new byte[] { 8 }, u32(properties.length), concat(properties), new byte[] { 0, 0, 9 });
+    }
+
+    // ---------------------------------------------------------------- 工具
+
+    static byte[] u16(int value) {
+        return new byte[] { (byte) (value >>> 8), (byte) value };
+    }
+
+    static byte[] u24(int value) {
+        return new byte[] { (byte) (value >>> 16), (byte) (value >>> 8), (byte) value };
+    }
+
+    static byte[] u32(int value) {
+        return ByteBuffer.allocate(4).putInt(value).array();
+    }
+
+    static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write(out, parts);
+        return out.toByteArray();
+    }
+
+    private static void write(ByteArrayOutputStream out, byte[]... parts) {
+        for (byte[] part : parts) out.write(part, 0, part.length);
+    }
+}